@@ -0,0 +1,284 @@
+package com.xiangrecord.analytics;
+
+import com.xiangrecord.datasource.ShardRouter;
+import com.xiangrecord.entity.PoopRecord;
+import com.xiangrecord.mapper.PoopRecordMapper;
+import com.xiangrecord.service.RecordArchiveService;
+import com.xiangrecord.util.RedisUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内记录分析引擎
+ * 按用户将记录时间和分类属性加载为列式快照，首次访问时懒加载，
+ * 常驻快照总大小超过内存预算时按最近最少使用淘汰；记录变更提交后使对应用户的快照失效，
+ * 并通过 Redis 频道通知所有实例。通知是尽力而为的，快照另有驻留时长上限，漏收通知时最多读到这么久的旧数据。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class RecordAnalyticsEngine implements MessageListener {
+
+    private static final String CHANNEL = "analytics:invalidations";
+
+    private final PoopRecordMapper poopRecordMapper;
+    private final RecordArchiveService archiveService;
+    private final ShardRouter shardRouter;
+    private final RedisUtil redisUtil;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    /**
+     * 常驻快照，按访问顺序排列，队首为最久未使用
+     */
+    private final LinkedHashMap<Long, Resident> resident = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+
+    /**
+     * 正在加载的快照，同一用户的并发未命中共享同一次加载
+     */
+    private final ConcurrentHashMap<Long, CompletableFuture<UserColumns>> inFlightLoads = new ConcurrentHashMap<>();
+
+    /**
+     * 失效计数，加载期间发生过失效则不驻留，避免驻留旧数据
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Getter
+    @Value("${app.analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.analytics.memory-budget-mb:64}")
+    private long memoryBudgetMb;
+
+    @Value("${app.analytics.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    public RecordAnalyticsEngine(PoopRecordMapper poopRecordMapper,
+                                 RecordArchiveService archiveService,
+                                 ShardRouter shardRouter,
+                                 RedisUtil redisUtil,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.poopRecordMapper = poopRecordMapper;
+        this.archiveService = archiveService;
+        this.shardRouter = shardRouter;
+        this.redisUtil = redisUtil;
+        this.listenerContainer = listenerContainer;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.hitCounter = Counter.builder("cache.gets")
+                .tag("cache", "analytics")
+                .tag("result", "hit")
+                .description("列式分析快照命中次数")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("cache.gets")
+                .tag("cache", "analytics")
+                .tag("result", "miss")
+                .description("列式分析快照未命中次数")
+                .register(meterRegistry);
+        Gauge.builder("analytics.resident.bytes", this, RecordAnalyticsEngine::getResidentBytes)
+                .description("常驻列式快照估算字节数")
+                .register(meterRegistry);
+        Gauge.builder("analytics.resident.users", this, RecordAnalyticsEngine::getResidentUsers)
+                .description("常驻列式快照的用户数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 订阅失效通知
+     */
+    @PostConstruct
+    public void initialize() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 获取用户的列式快照，未驻留时从数据库加载
+     * 单个用户的快照超过内存预算时只用于本次查询，不驻留
+     *
+     * @param userId 用户ID
+     * @return 列式快照
+     */
+    public UserColumns getColumns(Long userId) {
+        UserColumns columns = getResident(userId);
+        if (columns != null) {
+            hitCounter.increment();
+            return columns;
+        }
+        missCounter.increment();
+
+        CompletableFuture<UserColumns> load = new CompletableFuture<>();
+        CompletableFuture<UserColumns> existing = inFlightLoads.putIfAbsent(userId, load);
+        if (existing != null) {
+            return awaitLoad(existing);
+        }
+
+        try {
+            long invalidationsBefore = invalidations.get();
+            UserColumns loaded = load(userId);
+            if (invalidationsBefore == invalidations.get()) {
+                admit(userId, loaded);
+            }
+            load.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(userId, load);
+        }
+    }
+
+    /**
+     * 使用户的快照失效，并通知其他实例
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        invalidateLocal(userId);
+        redisUtil.publish(CHANNEL, String.valueOf(userId));
+    }
+
+    /**
+     * 收到其他实例（或本实例）发布的失效通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = redisUtil.deserialize(message.getBody(), String.class);
+        try {
+            invalidateLocal(Long.parseLong(payload));
+        } catch (NumberFormatException e) {
+            log.warn("无法识别的列式分析快照失效通知: {}", payload);
+        }
+    }
+
+    private void invalidateLocal(Long userId) {
+        invalidations.incrementAndGet();
+        synchronized (this) {
+            Resident removed = resident.remove(userId);
+            if (removed != null) {
+                residentBytes -= removed.columns.estimatedBytes();
+            }
+        }
+    }
+
+    private UserColumns load(Long userId) {
+        long startNanos = System.nanoTime();
+        UserColumns columns = shardRouter.onUser(userId, () -> readOnlyTransaction.execute(status -> {
+            UserColumns.Builder builder = new UserColumns.Builder();
+            try (Cursor<PoopRecord> cursor = archiveService.readFrom(null,
+                    () -> poopRecordMapper.streamAttributes(userId))) {
+                for (PoopRecord record : cursor) {
+                    builder.add(record);
+                }
+            } catch (IOException e) {
+                log.warn("关闭列式分析加载游标失败，用户ID: {}", userId, e);
+            }
+            return builder.build();
+        }));
+        log.debug("加载列式分析快照，用户ID: {}, 记录数: {}, 估算字节数: {}, 耗时: {}ms",
+                userId, columns.size(), columns.estimatedBytes(), (System.nanoTime() - startNanos) / 1_000_000);
+        return columns;
+    }
+
+    private synchronized UserColumns getResident(Long userId) {
+        Resident entry = resident.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos >= 0) {
+            resident.remove(userId);
+            residentBytes -= entry.columns.estimatedBytes();
+            return null;
+        }
+        return entry.columns;
+    }
+
+    private synchronized void admit(Long userId, UserColumns columns) {
+        long budgetBytes = memoryBudgetMb * 1024 * 1024;
+        long bytes = columns.estimatedBytes();
+        if (bytes > budgetBytes) {
+            log.debug("列式分析快照超过内存预算，不驻留，用户ID: {}, 估算字节数: {}", userId, bytes);
+            return;
+        }
+        Resident replaced = resident.put(userId,
+                new Resident(columns, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        residentBytes += bytes - (replaced != null ? replaced.columns.estimatedBytes() : 0);
+
+        Iterator<Map.Entry<Long, Resident>> eldest = resident.entrySet().iterator();
+        while (residentBytes > budgetBytes && eldest.hasNext()) {
+            Map.Entry<Long, Resident> entry = eldest.next();
+            if (entry.getKey().equals(userId)) {
+                continue;
+            }
+            residentBytes -= entry.getValue().columns.estimatedBytes();
+            eldest.remove();
+            log.debug("淘汰列式分析快照，用户ID: {}", entry.getKey());
+        }
+    }
+
+    private synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    private synchronized int getResidentUsers() {
+        return resident.size();
+    }
+
+    private UserColumns awaitLoad(CompletableFuture<UserColumns> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 常驻快照及其驻留截止时间（System.nanoTime）
+     */
+    private static final class Resident {
+
+        private final UserColumns columns;
+        private final long expiresAtNanos;
+
+        private Resident(UserColumns columns, long expiresAtNanos) {
+            this.columns = columns;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.xiangrecord.analytics;
+
+import com.xiangrecord.entity.PoopRecord;
+import com.xiangrecord.entity.enums.CodedEnum;
+import com.xiangrecord.entity.enums.Color;
+import com.xiangrecord.entity.enums.Moisture;
+import com.xiangrecord.entity.enums.Mood;
+import com.xiangrecord.entity.enums.Shape;
+import com.xiangrecord.entity.enums.Size;
+import com.xiangrecord.entity.enums.Smell;
+import com.xiangrecord.entity.enums.Texture;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.function.Function;
+
+/**
+ * 参与分析的记录分类属性
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+public enum RecordAttribute {
+
+    COLOR("color", PoopRecord::getColor, Color.values()),
+    SMELL("smell", PoopRecord::getSmell, Smell.values()),
+    MOISTURE("moisture", PoopRecord::getMoisture, Moisture.values()),
+    SHAPE("shape", PoopRecord::getShape, Shape.values()),
+    SIZE("size", PoopRecord::getSize, Size.values()),
+    TEXTURE("texture", PoopRecord::getTexture, Texture.values()),
+    MOOD("mood", PoopRecord::getMood, Mood.values());
+
+    /**
+     * 空值编码（枚举的数据库编码从1开始）
+     */
+    public static final int NULL_CODE = 0;
+
+    /**
+     * 属性名（与DTO字段名一致）
+     */
+    private final String fieldName;
+
+    private final Function<PoopRecord, CodedEnum> getter;
+
+    /**
+     * 以数据库编码为下标的取值，下标0为空值
+     */
+    @Getter(AccessLevel.NONE)
+    private final String[] valuesByCode;
+
+    RecordAttribute(String fieldName, Function<PoopRecord, CodedEnum> getter, CodedEnum[] constants) {
+        this.fieldName = fieldName;
+        this.getter = getter;
+        int maxCode = NULL_CODE;
+        for (CodedEnum constant : constants) {
+            maxCode = Math.max(maxCode, constant.getCode());
+        }
+        this.valuesByCode = new String[maxCode + 1];
+        for (CodedEnum constant : constants) {
+            valuesByCode[constant.getCode()] = constant.getValue();
+        }
+    }
+
+    /**
+     * 记录在该属性上的编码，直接使用枚举的数据库编码
+     *
+     * @param record 记录
+     * @return 编码，属性为空时返回 {@link #NULL_CODE}
+     */
+    public int encode(PoopRecord record) {
+        CodedEnum value = getter.apply(record);
+        return value != null ? value.getCode() : NULL_CODE;
+    }
+
+    /**
+     * 解码
+     *
+     * @param code 编码（无符号）
+     * @return 取值，空值编码返回null
+     */
+    public String decode(int code) {
+        return valuesByCode[code];
+    }
+
+    /**
+     * 编码数量（含空值编码），用作计数数组长度
+     *
+     * @return 编码数量
+     */
+    public int codeCount() {
+        return valuesByCode.length;
+    }
+
+    /**
+     * 根据属性名解析（不区分大小写）
+     *
+     * @param fieldName 属性名
+     * @return 属性
+     * @throws IllegalArgumentException 不支持的属性
+     */
+    public static RecordAttribute of(String fieldName) {
+        for (RecordAttribute attribute : values()) {
+            if (attribute.fieldName.equalsIgnoreCase(fieldName)) {
+                return attribute;
+            }
+        }
+        throw new IllegalArgumentException("不支持的统计属性: " + fieldName);
+    }
+}
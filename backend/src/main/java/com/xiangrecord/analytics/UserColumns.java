@@ -0,0 +1,201 @@
+package com.xiangrecord.analytics;
+
+import com.xiangrecord.entity.PoopRecord;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 单个用户记录的列式快照（只读）
+ * times 为按升序排列的记录时间（UTC毫秒），codes[属性序号][行] 为对应属性的枚举编码。
+ * 查询先用二分查找定位时间范围，再顺序扫描连续的基本类型数组，扫描过程中不分配对象。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public final class UserColumns {
+
+    private static final long ARRAY_HEADER_BYTES = 16;
+
+    final long[] times;
+    final byte[][] codes;
+    final int size;
+
+    private UserColumns(long[] times, byte[][] codes, int size) {
+        this.times = times;
+        this.codes = codes;
+        this.size = size;
+    }
+
+    /**
+     * 时间范围内的记录数
+     *
+     * @param fromMillis 开始时间（UTC毫秒，含）
+     * @param toMillis 结束时间（UTC毫秒，含）
+     * @return 记录数
+     */
+    public int count(long fromMillis, long toMillis) {
+        return Math.max(0, upperBound(toMillis) - lowerBound(fromMillis));
+    }
+
+    /**
+     * 单个属性的取值分布
+     *
+     * @param attribute 属性
+     * @param fromMillis 开始时间（UTC毫秒，含）
+     * @param toMillis 结束时间（UTC毫秒，含）
+     * @return 以枚举编码为下标的记录数
+     */
+    public long[] histogram(RecordAttribute attribute, long fromMillis, long toMillis) {
+        long[] counts = new long[attribute.codeCount()];
+        byte[] column = codes[attribute.ordinal()];
+        int end = upperBound(toMillis);
+        for (int row = lowerBound(fromMillis); row < end; row++) {
+            counts[column[row] & 0xFF]++;
+        }
+        return counts;
+    }
+
+    /**
+     * 两个属性的共现表
+     *
+     * @param rowAttribute 行属性
+     * @param columnAttribute 列属性
+     * @param fromMillis 开始时间（UTC毫秒，含）
+     * @param toMillis 结束时间（UTC毫秒，含）
+     * @return counts[行属性编码][列属性编码]
+     */
+    public long[][] cooccurrence(RecordAttribute rowAttribute, RecordAttribute columnAttribute,
+                                 long fromMillis, long toMillis) {
+        long[][] counts = new long[rowAttribute.codeCount()][columnAttribute.codeCount()];
+        byte[] rowColumn = codes[rowAttribute.ordinal()];
+        byte[] columnColumn = codes[columnAttribute.ordinal()];
+        int end = upperBound(toMillis);
+        for (int row = lowerBound(fromMillis); row < end; row++) {
+            counts[rowColumn[row] & 0xFF][columnColumn[row] & 0xFF]++;
+        }
+        return counts;
+    }
+
+    /**
+     * 按时间桶统计属性取值分布
+     * 记录按时间升序排列，扫描时桶指针单调前移，复杂度为 O(行数 + 桶数)
+     *
+     * @param attribute 属性
+     * @param boundaries 桶边界（UTC毫秒，升序），第 i 个桶为 [boundaries[i], boundaries[i + 1])
+     * @param fromMillis 开始时间（UTC毫秒，含）
+     * @param toMillis 结束时间（UTC毫秒，含）
+     * @return counts[桶序号][枚举编码]，每行之和即该桶记录数
+     */
+    public long[][] bucketHistogram(RecordAttribute attribute, long[] boundaries, long fromMillis, long toMillis) {
+        int buckets = boundaries.length - 1;
+        long[][] counts = new long[buckets][attribute.codeCount()];
+        if (buckets <= 0) {
+            return counts;
+        }
+        byte[] column = codes[attribute.ordinal()];
+        int row = lowerBound(Math.max(fromMillis, boundaries[0]));
+        int end = upperBound(Math.min(toMillis, boundaries[buckets] - 1));
+        int bucket = 0;
+        for (; row < end; row++) {
+            long time = times[row];
+            while (time >= boundaries[bucket + 1]) {
+                bucket++;
+            }
+            counts[bucket][column[row] & 0xFF]++;
+        }
+        return counts;
+    }
+
+    /**
+     * 记录总数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 估算占用的堆内存字节数
+     */
+    long estimatedBytes() {
+        long bytes = 64 + ARRAY_HEADER_BYTES + 8L * times.length;
+        for (byte[] column : codes) {
+            bytes += ARRAY_HEADER_BYTES + column.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * 第一个时间不小于 epochMilli 的行号
+     */
+    int lowerBound(long epochMilli) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < epochMilli) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 第一个时间大于 epochMilli 的行号
+     */
+    int upperBound(long epochMilli) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= epochMilli) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 列式快照构建器，须按记录时间升序追加
+     */
+    static final class Builder {
+
+        private static final RecordAttribute[] ATTRIBUTES = RecordAttribute.values();
+        private static final int INITIAL_CAPACITY = 256;
+
+        private long[] times = new long[INITIAL_CAPACITY];
+        private final byte[][] codes = new byte[ATTRIBUTES.length][INITIAL_CAPACITY];
+        private int size;
+
+        Builder add(PoopRecord record) {
+            if (record.getRecordTime() == null) {
+                return this;
+            }
+            if (size == times.length) {
+                int capacity = size + (size >> 1);
+                times = Arrays.copyOf(times, capacity);
+                for (int a = 0; a < codes.length; a++) {
+                    codes[a] = Arrays.copyOf(codes[a], capacity);
+                }
+            }
+            times[size] = record.getRecordTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+            for (int a = 0; a < ATTRIBUTES.length; a++) {
+                codes[a][size] = (byte) ATTRIBUTES[a].encode(record);
+            }
+            size++;
+            return this;
+        }
+
+        UserColumns build() {
+            byte[][] trimmed = new byte[codes.length][];
+            for (int a = 0; a < codes.length; a++) {
+                trimmed[a] = Arrays.copyOf(codes[a], size);
+            }
+            return new UserColumns(Arrays.copyOf(times, size), trimmed, size);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.xiangrecord.cache;
+
+import com.xiangrecord.dto.PoopRecordDTO;
+import com.xiangrecord.util.RedisUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 单条记录缓存（Read-Through）
+ * 以记录ID为键缓存在Redis中；不存在的记录缓存空标记，防止穿透；
+ * 同一实例内相同ID的并发未命中只回源一次，防止击穿；过期时间加随机抖动，防止雪崩。
+ * 失效时递增Redis中的记录版本号，回填时比对回源前读到的版本号，期间任一实例失效过该记录则不回填，
+ * 避免把失效前读到的旧值写回缓存。Redis不可用时直接回源数据库。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class RecordCache {
+
+    private static final String KEY_PREFIX = "record:";
+    private static final String VERSION_KEY_PREFIX = "record:ver:";
+    private static final String NULL_MARKER = "__NULL__";
+    private static final int EVICT_BATCH_SIZE = 1000;
+
+    /**
+     * 版本号未变化时回填，返回 1 已回填，0 回源期间已失效
+     * KEYS: 数据键, 版本键；ARGV: 缓存值, 回源前的版本号, 有效期（毫秒）
+     */
+    private static final RedisScript<Long> PUT_IF_UNCHANGED_SCRIPT = new DefaultRedisScript<>(
+            "if tonumber(redis.call('GET', KEYS[2]) or '0') ~= tonumber(ARGV[2]) then " +
+            "  return 0 " +
+            "end " +
+            "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 失效记录：递增版本号并删除数据键
+     * KEYS: 数据键1, 版本键1, 数据键2, 版本键2, ...；ARGV: 版本号有效期（毫秒）
+     */
+    private static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #KEYS, 2 do " +
+            "  redis.call('INCR', KEYS[i + 1]) " +
+            "  redis.call('PEXPIRE', KEYS[i + 1], ARGV[1]) " +
+            "  redis.call('DEL', KEYS[i]) " +
+            "end " +
+            "return #KEYS / 2",
+            Long.class);
+
+    private final RedisUtil redisUtil;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    /**
+     * 正在回源的请求，同一ID的并发未命中共享同一次加载
+     */
+    private final ConcurrentHashMap<Long, CompletableFuture<Optional<PoopRecordDTO>>> inFlightLoads =
+            new ConcurrentHashMap<>();
+
+    @Value("${app.records.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${app.records.cache.null-ttl-seconds:60}")
+    private long nullTtlSeconds;
+
+    @Value("${app.records.cache.version-ttl-seconds:3600}")
+    private long versionTtlSeconds;
+
+    public RecordCache(RedisUtil redisUtil, MeterRegistry meterRegistry) {
+        this.redisUtil = redisUtil;
+        this.hitCounter = Counter.builder("cache.gets")
+                .tag("cache", "record")
+                .tag("result", "hit")
+                .description("单条记录缓存命中次数")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("cache.gets")
+                .tag("cache", "record")
+                .tag("result", "miss")
+                .description("单条记录缓存未命中次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 读取记录，未命中时通过loader回源并回填缓存
+     *
+     * @param id 记录ID
+     * @param loader 回源方法
+     * @return 记录DTO
+     */
+    public Optional<PoopRecordDTO> get(Long id, Supplier<Optional<PoopRecordDTO>> loader) {
+        Object cached = redisUtil.getObject(key(id), Object.class);
+        if (cached instanceof PoopRecordDTO) {
+            hitCounter.increment();
+            return Optional.of((PoopRecordDTO) cached);
+        }
+        if (NULL_MARKER.equals(cached)) {
+            hitCounter.increment();
+            return Optional.empty();
+        }
+        missCounter.increment();
+
+        CompletableFuture<Optional<PoopRecordDTO>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<PoopRecordDTO>> existing = inFlightLoads.putIfAbsent(id, load);
+        if (existing != null) {
+            return awaitLoad(existing);
+        }
+
+        try {
+            long versionBefore = parseVersion(redisUtil.get(versionKey(id)));
+            Optional<PoopRecordDTO> loaded = loader.get();
+            put(id, loaded, versionBefore);
+            load.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(id, load);
+        }
+    }
+
+    /**
+     * 使记录缓存失效
+     *
+     * @param ids 记录ID
+     */
+    public void evict(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        long versionTtlMillis = TimeUnit.SECONDS.toMillis(versionTtlSeconds);
+        List<String> keys = new ArrayList<>(Math.min(ids.size(), EVICT_BATCH_SIZE) * 2);
+        for (Long id : ids) {
+            keys.add(key(id));
+            keys.add(versionKey(id));
+            if (keys.size() == EVICT_BATCH_SIZE * 2) {
+                redisUtil.execute(EVICT_SCRIPT, keys, versionTtlMillis);
+                keys = new ArrayList<>(EVICT_BATCH_SIZE * 2);
+            }
+        }
+        if (!keys.isEmpty()) {
+            redisUtil.execute(EVICT_SCRIPT, keys, versionTtlMillis);
+        }
+        log.debug("记录缓存失效，数量: {}", ids.size());
+    }
+
+    /**
+     * 回填缓存，回源期间版本号有变化时放弃
+     */
+    private void put(Long id, Optional<PoopRecordDTO> value, long versionBefore) {
+        Object cached = value.isPresent() ? value.get() : NULL_MARKER;
+        long ttl = value.isPresent() ? withJitter(ttlSeconds) : withJitter(nullTtlSeconds);
+        Long stored = redisUtil.execute(PUT_IF_UNCHANGED_SCRIPT, List.of(key(id), versionKey(id)),
+                cached, versionBefore, TimeUnit.SECONDS.toMillis(ttl));
+        if (stored != null && stored == 0L) {
+            log.debug("回源期间记录已失效，不回填缓存，记录ID: {}", id);
+        }
+    }
+
+    private static long parseVersion(String version) {
+        if (version == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private Optional<PoopRecordDTO> awaitLoad(CompletableFuture<Optional<PoopRecordDTO>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 在过期时间上增加至多10%的随机抖动
+     */
+    private static long withJitter(long seconds) {
+        return seconds + ThreadLocalRandom.current().nextLong(seconds / 10 + 1);
+    }
+
+    private static String key(Long id) {
+        return KEY_PREFIX + id;
+    }
+
+    private static String versionKey(Long id) {
+        return VERSION_KEY_PREFIX + id;
+    }
+}
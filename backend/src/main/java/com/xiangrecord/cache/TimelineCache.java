@@ -0,0 +1,82 @@
+package com.xiangrecord.cache;
+
+import com.xiangrecord.dto.PoopRecordDTO;
+import com.xiangrecord.util.RedisUtil;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 用户时间线缓存
+ * 缓存每个用户最新的N条记录（按记录时间、ID倒序），数据键带版本号：
+ * 任何写操作只需递增用户的版本号，旧版本的数据自然不再被读取并随过期时间淘汰。
+ * 回源期间发生写入时，结果写在旧版本键下，不会污染新版本。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TimelineCache {
+
+    private static final String VERSION_KEY_PREFIX = "timeline:ver:";
+    private static final String DATA_KEY_PREFIX = "timeline:";
+
+    private final RedisUtil redisUtil;
+
+    @Getter
+    @Value("${app.records.timeline.window:50}")
+    private int window;
+
+    @Value("${app.records.timeline.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${app.records.timeline.version-ttl-days:7}")
+    private long versionTtlDays;
+
+    /**
+     * 获取用户最新的记录窗口
+     *
+     * @param userId 用户ID
+     * @param loader 回源方法，返回最新的 {@link #getWindow()} 条记录
+     * @return 最新记录（倒序，最多window条）
+     */
+    @SuppressWarnings("unchecked")
+    public List<PoopRecordDTO> getLatest(Long userId, Supplier<List<PoopRecordDTO>> loader) {
+        String version = redisUtil.get(VERSION_KEY_PREFIX + userId);
+        String dataKey = DATA_KEY_PREFIX + userId + ":" + (version != null ? version : "0");
+
+        List<PoopRecordDTO> cached = redisUtil.getObject(dataKey, List.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<PoopRecordDTO> loaded = new ArrayList<>(loader.get());
+        redisUtil.setEx(dataKey, loaded, ttlSeconds, TimeUnit.SECONDS);
+        log.debug("时间线缓存回源，用户ID: {}, 版本: {}, 数量: {}", userId, version, loaded.size());
+        return loaded;
+    }
+
+    /**
+     * 递增用户时间线版本，使已缓存的窗口失效
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        String versionKey = VERSION_KEY_PREFIX + userId;
+        redisUtil.increment(versionKey, 1);
+        // 版本键的有效期远长于数据键，过期重置为0时旧数据早已淘汰
+        redisUtil.expire(versionKey, versionTtlDays, TimeUnit.DAYS);
+    }
+}
@@ -0,0 +1,91 @@
+package com.xiangrecord.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.xiangrecord.util.JwtUtil;
+import com.xiangrecord.util.ParsedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌声明缓存
+ * 以令牌的SHA-256摘要为键，在本地缓存验签通过的声明，条目在令牌过期时失效，
+ * 同一令牌在缓存有效期内只解析、验签一次。容量有上限，超出后按访问频率淘汰。
+ * 无效令牌不缓存；吊销状态由调用方通过 TokenRevocationCache 单独检查。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Component
+public class TokenClaimsCache {
+
+    private final JwtUtil jwtUtil;
+    private final boolean enabled;
+    private final Cache<String, ParsedToken> cache;
+
+    public TokenClaimsCache(JwtUtil jwtUtil,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.security.token-cache.enabled:true}") boolean enabled,
+                            @Value("${app.security.token-cache.max-size:10000}") long maxSize) {
+        this.jwtUtil = jwtUtil;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}、cache.size、cache.evictions 等指标
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "token");
+    }
+
+    /**
+     * 获取验签通过的令牌，未命中时解析令牌并回填
+     *
+     * @param token JWT token
+     * @return 解析结果，令牌无效或已过期时返回null
+     */
+    public ParsedToken get(String token) {
+        if (!enabled) {
+            return jwtUtil.parse(token);
+        }
+        ParsedToken verified = cache.get(JwtUtil.digest(token), key -> jwtUtil.parse(token));
+        // 过期清理有时间粒度，命中时再确认一次
+        if (verified != null && verified.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return verified;
+    }
+
+    /**
+     * 当前缓存的令牌数（近似值）
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * 条目存活到令牌过期为止，读取不延长有效期
+     */
+    private static final class UntilTokenExpires implements Expiry<String, ParsedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, ParsedToken value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(value.remainingMillis(System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, ParsedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, ParsedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
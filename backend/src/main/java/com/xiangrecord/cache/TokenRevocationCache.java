@@ -0,0 +1,186 @@
+package com.xiangrecord.cache;
+
+import com.xiangrecord.util.BloomFilter;
+import com.xiangrecord.util.ParsedToken;
+import com.xiangrecord.util.RedisUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 令牌吊销缓存
+ * 以令牌ID（jti）记录已吊销且未过期的令牌。Redis有序集合 token:revoked（成员为jti，分值为令牌过期时间）是权威数据；
+ * 每个实例在本地保存布隆过滤器与精确集合，吊销时通过 Redis 频道通知所有实例。
+ * 布隆过滤器未命中的令牌一定未被吊销，直接放行，绝大多数请求无需访问Redis；
+ * 命中但不在本地集合中时（误判或漏收通知）才查询Redis。
+ * 订阅是尽力而为的，定期从Redis全量同步一次，并借此清理已过期的条目、重建布隆过滤器。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class TokenRevocationCache implements MessageListener {
+
+    private static final String REVOKED_KEY = "token:revoked";
+    private static final String CHANNEL = "token:revocations";
+
+    private final RedisUtil redisUtil;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    /**
+     * 已吊销且未过期的令牌：jti -> 令牌过期时间戳（毫秒）
+     */
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter bloomFilter;
+
+    private final Counter skippedCounter;
+    private final Counter localCounter;
+    private final Counter remoteCounter;
+
+    public TokenRevocationCache(RedisUtil redisUtil,
+                                RedisMessageListenerContainer listenerContainer,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.security.revocation.expected-insertions:100000}") long expectedInsertions,
+                                @Value("${app.security.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.redisUtil = redisUtil;
+        this.listenerContainer = listenerContainer;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.skippedCounter = checkCounter(meterRegistry, "skipped", "布隆过滤器未命中，未访问Redis");
+        this.localCounter = checkCounter(meterRegistry, "local", "本地集合确认已吊销");
+        this.remoteCounter = checkCounter(meterRegistry, "remote", "布隆过滤器命中后查询Redis");
+        Gauge.builder("token.revocation.size", revoked, Map::size)
+                .description("本地已吊销令牌数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 订阅吊销通知并加载已有的吊销记录
+     */
+    @PostConstruct
+    public void initialize() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        resync();
+    }
+
+    /**
+     * 吊销令牌：写入Redis并通知所有实例，保留到令牌过期为止
+     *
+     * @param token 已解析的令牌
+     */
+    public void revoke(ParsedToken token) {
+        long now = System.currentTimeMillis();
+        if (token.isExpired(now)) {
+            return;
+        }
+        addLocal(token.getId(), token.getExpiresAt());
+        redisUtil.zAdd(REVOKED_KEY, token.getId(), token.getExpiresAt());
+        redisUtil.publish(CHANNEL, token.getId() + "|" + token.getExpiresAt());
+        log.debug("令牌已吊销，jti: {}, 用户ID: {}", token.getId(), token.getUserId());
+    }
+
+    /**
+     * 令牌是否已吊销
+     *
+     * @param token 已解析的令牌
+     * @return 是否已吊销
+     */
+    public boolean isRevoked(ParsedToken token) {
+        String id = token.getId();
+        if (!bloomFilter.mightContain(id)) {
+            skippedCounter.increment();
+            return false;
+        }
+        if (revoked.containsKey(id)) {
+            localCounter.increment();
+            return true;
+        }
+        remoteCounter.increment();
+        Double expiresAt = redisUtil.zScore(REVOKED_KEY, id);
+        if (expiresAt != null && expiresAt > System.currentTimeMillis()) {
+            addLocal(id, expiresAt.longValue());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 收到其他实例（或本实例）发布的吊销通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = redisUtil.deserialize(message.getBody(), String.class);
+        int separator = payload != null ? payload.lastIndexOf('|') : -1;
+        if (separator <= 0) {
+            log.warn("无法识别的令牌吊销通知: {}", payload);
+            return;
+        }
+        try {
+            addLocal(payload.substring(0, separator), Long.parseLong(payload.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("无法识别的令牌吊销通知: {}", payload);
+        }
+    }
+
+    /**
+     * 定期从Redis全量同步，补上漏收的通知，清理过期条目并重建布隆过滤器
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.resync-ms:60000}")
+    public void resync() {
+        long now = System.currentTimeMillis();
+        redisUtil.zRemoveRangeByScore(REVOKED_KEY, Double.NEGATIVE_INFINITY, now);
+        Set<ZSetOperations.TypedTuple<Object>> entries =
+                redisUtil.zRangeByScoreWithScores(REVOKED_KEY, now, Double.POSITIVE_INFINITY);
+        if (entries != null) {
+            for (ZSetOperations.TypedTuple<Object> entry : entries) {
+                if (entry.getValue() != null && entry.getScore() != null) {
+                    revoked.put(entry.getValue().toString(), entry.getScore().longValue());
+                }
+            }
+        } else {
+            log.warn("从Redis同步令牌吊销记录失败，保留本地记录");
+        }
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, revoked.size() * 2L), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        // 重建期间新吊销的令牌可能只写入了旧过滤器，切换后再补一遍
+        revoked.keySet().forEach(rebuilt::put);
+        log.debug("令牌吊销记录已同步，数量: {}", revoked.size());
+    }
+
+    private void addLocal(String id, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        revoked.put(id, expiresAt);
+        bloomFilter.put(id);
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("token.revocation.checks")
+                .tag("result", result)
+                .description(description)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,385 @@
+package com.xiangrecord.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xiangrecord.dto.UserDTO;
+import com.xiangrecord.entity.User;
+import com.xiangrecord.mapper.UserMapper;
+import com.xiangrecord.util.RedisUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 用户资料两级缓存（Read-Through）
+ * 第一级是进程内的近端缓存，有效期很短；第二级是Redis，以用户ID为键保存用户资料（UserDTO，不含密码哈希），
+ * 手机号、邮箱、华为ID、微信ID只缓存到用户ID的映射，资料只保存一份。
+ * 不存在的用户缓存空标记，防止穿透；近端缓存按键加载，同一实例内相同键的并发未命中只回源一次；
+ * Redis过期时间加随机抖动，防止雪崩。Redis不可用时直接回源数据库。
+ * 用户资料变更时删除Redis中的条目，并通过 Redis 频道通知所有实例清除近端缓存；
+ * 通知是尽力而为的，漏收时近端缓存最多在有效期内读到旧值。
+ * 标识改绑后旧标识的映射不主动删除，读取时发现映射与资料不一致则重新回源。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class UserCache implements MessageListener {
+
+    private static final String KEY_PREFIX = "user:";
+    private static final String PROFILE_PREFIX = "profile:";
+    private static final String CHANNEL = "user:invalidations";
+    private static final String NULL_MARKER = "__NULL__";
+    private static final String SEPARATOR = "\n";
+
+    /**
+     * 可查询用户的唯一标识
+     */
+    enum Identifier {
+        PHONE("phone:", UserDTO::getPhone),
+        EMAIL("email:", UserDTO::getEmail),
+        HUAWEI("huawei:", UserDTO::getHuaweiId),
+        WECHAT("wechat:", UserDTO::getWechatId);
+
+        private final String prefix;
+        private final Function<UserDTO, String> accessor;
+
+        Identifier(String prefix, Function<UserDTO, String> accessor) {
+            this.prefix = prefix;
+            this.accessor = accessor;
+        }
+
+        String key(String value) {
+            return prefix + value;
+        }
+    }
+
+    private final RedisUtil redisUtil;
+    private final UserMapper userMapper;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long ttlSeconds;
+    private final long nullTtlSeconds;
+
+    /**
+     * 近端缓存：用户ID -> 用户资料（空值表示用户不存在）
+     */
+    private final Cache<Long, Optional<UserDTO>> profiles;
+
+    /**
+     * 近端缓存：标识（如 phone:138...）-> 用户ID（空值表示标识未被使用）
+     */
+    private final Cache<String, Optional<Long>> ids;
+
+    /**
+     * 失效计数，回源期间发生过失效则不回填Redis，避免把旧值写回缓存
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public UserCache(RedisUtil redisUtil,
+                     UserMapper userMapper,
+                     RedisMessageListenerContainer listenerContainer,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.users.cache.ttl-seconds:600}") long ttlSeconds,
+                     @Value("${app.users.cache.null-ttl-seconds:60}") long nullTtlSeconds,
+                     @Value("${app.users.cache.near-ttl-seconds:30}") long nearTtlSeconds,
+                     @Value("${app.users.cache.near-max-size:10000}") long nearMaxSize) {
+        this.redisUtil = redisUtil;
+        this.userMapper = userMapper;
+        this.listenerContainer = listenerContainer;
+        this.ttlSeconds = ttlSeconds;
+        this.nullTtlSeconds = nullTtlSeconds;
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(nearMaxSize)
+                .expireAfterWrite(nearTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.ids = Caffeine.newBuilder()
+                .maximumSize(nearMaxSize)
+                .expireAfterWrite(nearTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        // 近端缓存的 cache.gets{result=hit|miss}、cache.size、cache.evictions 等指标
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "user-near");
+        CaffeineCacheMetrics.monitor(meterRegistry, ids, "user-id-near");
+        this.hitCounter = Counter.builder("cache.gets")
+                .tag("cache", "user")
+                .tag("result", "hit")
+                .description("用户资料Redis缓存命中次数")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("cache.gets")
+                .tag("cache", "user")
+                .tag("result", "miss")
+                .description("用户资料Redis缓存未命中次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 订阅失效通知
+     */
+    @PostConstruct
+    public void initialize() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 根据ID读取用户资料
+     * 返回的对象在缓存中共享，调用方不应修改
+     *
+     * @param id 用户ID
+     * @return 用户资料，用户不存在或已删除时为空
+     */
+    public Optional<UserDTO> getById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return profiles.get(id, this::loadProfile);
+    }
+
+    /**
+     * 根据手机号读取用户资料
+     *
+     * @param phone 手机号
+     * @return 用户资料
+     */
+    public Optional<UserDTO> getByPhone(String phone) {
+        return getBy(Identifier.PHONE, phone);
+    }
+
+    /**
+     * 根据邮箱读取用户资料
+     *
+     * @param email 邮箱
+     * @return 用户资料
+     */
+    public Optional<UserDTO> getByEmail(String email) {
+        return getBy(Identifier.EMAIL, email);
+    }
+
+    /**
+     * 根据华为ID读取用户资料
+     *
+     * @param huaweiId 华为ID
+     * @return 用户资料
+     */
+    public Optional<UserDTO> getByHuaweiId(String huaweiId) {
+        return getBy(Identifier.HUAWEI, huaweiId);
+    }
+
+    /**
+     * 根据微信ID读取用户资料
+     *
+     * @param wechatId 微信ID
+     * @return 用户资料
+     */
+    public Optional<UserDTO> getByWechatId(String wechatId) {
+        return getBy(Identifier.WECHAT, wechatId);
+    }
+
+    /**
+     * 使用户资料及其当前标识的缓存失效（包括新标识上的空标记）
+     * 在事务中调用时推迟到事务提交之后执行，避免其他请求在提交前把旧值重新加载进缓存
+     *
+     * @param user 变更后的用户
+     */
+    public void evict(User user) {
+        List<String> keys = new ArrayList<>(4);
+        addKey(keys, Identifier.PHONE, user.getPhone());
+        addKey(keys, Identifier.EMAIL, user.getEmail());
+        addKey(keys, Identifier.HUAWEI, user.getHuaweiId());
+        addKey(keys, Identifier.WECHAT, user.getWechatId());
+        afterCommit(() -> evict(user.getId(), keys));
+    }
+
+    /**
+     * 只使用户资料的缓存失效（标识未变化时使用）
+     *
+     * @param id 用户ID
+     */
+    public void evict(Long id) {
+        afterCommit(() -> evict(id, List.of()));
+    }
+
+    /**
+     * 收到其他实例（或本实例）发布的失效通知，清除近端缓存
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = redisUtil.deserialize(message.getBody(), String.class);
+        if (payload == null) {
+            return;
+        }
+        String[] parts = payload.split(SEPARATOR);
+        try {
+            invalidateLocal(Long.parseLong(parts[0]), Arrays.asList(parts).subList(1, parts.length));
+        } catch (NumberFormatException e) {
+            log.warn("无法识别的用户缓存失效通知: {}", payload);
+        }
+    }
+
+    private Optional<UserDTO> getBy(Identifier identifier, String value) {
+        if (!StringUtils.hasText(value)) {
+            return Optional.empty();
+        }
+        String key = identifier.key(value);
+        Optional<Long> id = ids.get(key, k -> loadId(identifier, value));
+        if (id.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<UserDTO> user = getById(id.get());
+        if (user.isPresent() && value.equals(identifier.accessor.apply(user.get()))) {
+            return user;
+        }
+
+        // 映射已过期（标识已改绑或用户已删除），删除后从数据库重新查询一次
+        invalidations.incrementAndGet();
+        ids.invalidate(key);
+        redisUtil.delete(KEY_PREFIX + key);
+        return ids.get(key, k -> loadId(identifier, value)).flatMap(this::getById);
+    }
+
+    private Optional<UserDTO> loadProfile(Long id) {
+        String key = KEY_PREFIX + PROFILE_PREFIX + id;
+        Object cached = redisUtil.getObject(key, Object.class);
+        if (cached instanceof UserDTO) {
+            hitCounter.increment();
+            return Optional.of((UserDTO) cached);
+        }
+        if (NULL_MARKER.equals(cached)) {
+            hitCounter.increment();
+            return Optional.empty();
+        }
+        missCounter.increment();
+
+        long invalidationsBefore = invalidations.get();
+        Optional<UserDTO> loaded = userMapper.selectProfileById(id).map(UserCache::toProfile);
+        if (invalidationsBefore == invalidations.get()) {
+            put(key, loaded.isPresent() ? loaded.get() : null);
+        }
+        return loaded;
+    }
+
+    private Optional<Long> loadId(Identifier identifier, String value) {
+        String key = KEY_PREFIX + identifier.key(value);
+        Object cached = redisUtil.getObject(key, Object.class);
+        if (NULL_MARKER.equals(cached)) {
+            hitCounter.increment();
+            return Optional.empty();
+        }
+        if (cached instanceof String) {
+            try {
+                Long id = Long.valueOf((String) cached);
+                hitCounter.increment();
+                return Optional.of(id);
+            } catch (NumberFormatException e) {
+                log.warn("用户标识缓存值无效，重新回源: {}", key);
+            }
+        }
+        missCounter.increment();
+
+        long invalidationsBefore = invalidations.get();
+        Long id = switch (identifier) {
+            case PHONE -> userMapper.findIdByPhone(value);
+            case EMAIL -> userMapper.findIdByEmail(value);
+            case HUAWEI -> userMapper.findIdByHuaweiId(value);
+            case WECHAT -> userMapper.findIdByWechatId(value);
+        };
+        if (invalidationsBefore == invalidations.get()) {
+            // 用户ID以字符串保存，避免反序列化为Integer
+            put(key, id != null ? String.valueOf(id) : null);
+        }
+        return Optional.ofNullable(id);
+    }
+
+    private void put(String key, Object value) {
+        if (value != null) {
+            redisUtil.setEx(key, value, withJitter(ttlSeconds), TimeUnit.SECONDS);
+        } else {
+            redisUtil.setEx(key, NULL_MARKER, withJitter(nullTtlSeconds), TimeUnit.SECONDS);
+        }
+    }
+
+    private void evict(Long id, List<String> identifierKeys) {
+        if (id == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        List<String> keys = new ArrayList<>(identifierKeys.size() + 1);
+        keys.add(KEY_PREFIX + PROFILE_PREFIX + id);
+        identifierKeys.forEach(key -> keys.add(KEY_PREFIX + key));
+        redisUtil.delete(keys);
+        invalidateLocal(id, identifierKeys);
+
+        List<String> payload = new ArrayList<>(identifierKeys.size() + 1);
+        payload.add(String.valueOf(id));
+        payload.addAll(identifierKeys);
+        redisUtil.publish(CHANNEL, String.join(SEPARATOR, payload));
+        log.debug("用户缓存失效，用户ID: {}", id);
+    }
+
+    private void invalidateLocal(Long id, List<String> identifierKeys) {
+        profiles.invalidate(id);
+        ids.invalidateAll(identifierKeys);
+        // 旧标识仍指向该用户的映射一并清除
+        ids.asMap().values().removeIf(cached -> cached.isPresent() && cached.get().equals(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static void addKey(List<String> keys, Identifier identifier, String value) {
+        if (StringUtils.hasText(value)) {
+            keys.add(identifier.key(value));
+        }
+    }
+
+    /**
+     * 只复制资料字段，UserDTO 不含密码哈希
+     */
+    private static UserDTO toProfile(User user) {
+        UserDTO profile = new UserDTO();
+        BeanUtils.copyProperties(user, profile);
+        return profile;
+    }
+
+    /**
+     * 在过期时间上增加至多10%的随机抖动
+     */
+    private static long withJitter(long seconds) {
+        return seconds + ThreadLocalRandom.current().nextLong(seconds / 10 + 1);
+    }
+}
@@ -0,0 +1,212 @@
+package com.xiangrecord.cache;
+
+import com.xiangrecord.exception.BusinessException;
+import com.xiangrecord.exception.RateLimitExceededException;
+import com.xiangrecord.util.RedisUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 验证码存储
+ * 每个手机号与用途对应一个Redis哈希（code、sent_at、attempts），签发与校验各由一个Lua脚本完成，每次操作只访问Redis一次：
+ * 签发时在冷却期内拒绝重发；校验成功即删除，校验失败累计次数，达到上限后作废验证码（保留冷却期）。
+ * 验证码由一组 DRBG 实例生成，避免高并发下争用同一个 SecureRandom。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class VerificationCodeStore {
+
+    private static final String KEY_PREFIX = "verification:code:";
+
+    /**
+     * 签发验证码，返回0表示已签发，大于0表示冷却期剩余毫秒数
+     * ARGV: 验证码, 有效期（毫秒）, 冷却期（毫秒）
+     */
+    private static final RedisScript<Long> ISSUE_SCRIPT = new DefaultRedisScript<>(
+            "local now = redis.call('TIME') " +
+            "local nowMs = tonumber(now[1]) * 1000 + math.floor(tonumber(now[2]) / 1000) " +
+            "local cooldown = tonumber(ARGV[3]) " +
+            "local sentAt = tonumber(redis.call('HGET', KEYS[1], 'sent_at')) " +
+            "if sentAt and nowMs - sentAt < cooldown then " +
+            "  return cooldown - (nowMs - sentAt) " +
+            "end " +
+            "redis.call('HSET', KEYS[1], 'code', ARGV[1], 'sent_at', tostring(nowMs), 'attempts', 0) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return 0",
+            Long.class);
+
+    /**
+     * 校验并消费验证码，返回 1 成功，0 不匹配，-1 不存在或已过期，-2 失败次数达到上限
+     * ARGV: 验证码, 最大失败次数
+     */
+    private static final RedisScript<Long> VERIFY_SCRIPT = new DefaultRedisScript<>(
+            "local code = redis.call('HGET', KEYS[1], 'code') " +
+            "if not code then return -1 end " +
+            "if code == ARGV[1] then " +
+            "  redis.call('DEL', KEYS[1]) " +
+            "  return 1 " +
+            "end " +
+            "if redis.call('HINCRBY', KEYS[1], 'attempts', 1) >= tonumber(ARGV[2]) then " +
+            "  redis.call('HDEL', KEYS[1], 'code') " +
+            "  return -2 " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    /**
+     * 校验结果
+     */
+    public enum Result {
+        VERIFIED, MISMATCH, MISSING, EXHAUSTED, ERROR
+    }
+
+    private final RedisUtil redisUtil;
+
+    /**
+     * 验证码有效期（秒）
+     */
+    @Getter
+    private final int expirationSeconds;
+
+    private final int length;
+    private final int bound;
+    private final long cooldownMillis;
+    private final int maxAttempts;
+    private final SecureRandom[] randoms;
+
+    private final Counter issuedCounter;
+    private final Counter cooldownCounter;
+    private final Map<Result, Counter> verifyCounters = new EnumMap<>(Result.class);
+
+    public VerificationCodeStore(RedisUtil redisUtil,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${verification.code.expiration:300}") int expirationSeconds,
+                                 @Value("${verification.code.length:6}") int length,
+                                 @Value("${verification.code.cooldown:60}") int cooldownSeconds,
+                                 @Value("${verification.code.max-attempts:5}") int maxAttempts) {
+        if (length < 4 || length > 9) {
+            throw new IllegalArgumentException("验证码长度需在 4 到 9 之间: " + length);
+        }
+        this.redisUtil = redisUtil;
+        this.expirationSeconds = expirationSeconds;
+        this.length = length;
+        this.bound = (int) Math.pow(10, length);
+        this.cooldownMillis = cooldownSeconds * 1000L;
+        this.maxAttempts = maxAttempts;
+        this.randoms = new SecureRandom[Runtime.getRuntime().availableProcessors()];
+        for (int i = 0; i < randoms.length; i++) {
+            randoms[i] = newRandom();
+        }
+
+        this.issuedCounter = Counter.builder("verification.code.issued")
+                .tag("result", "issued")
+                .description("已签发的验证码数")
+                .register(meterRegistry);
+        this.cooldownCounter = Counter.builder("verification.code.issued")
+                .tag("result", "cooldown")
+                .description("冷却期内被拒绝的签发请求数")
+                .register(meterRegistry);
+        for (Result result : Result.values()) {
+            verifyCounters.put(result, Counter.builder("verification.code.verifications")
+                    .tag("result", result.name().toLowerCase())
+                    .description("验证码校验次数")
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 签发验证码
+     *
+     * @param type 用途（register/login/bind等）
+     * @param target 手机号或邮箱
+     * @return 验证码
+     * @throws RateLimitExceededException 冷却期内重复签发时
+     */
+    public String issue(String type, String target) {
+        String code = generate();
+        // 验证码与校验时的输入经过同一个序列化器，脚本中直接比较序列化后的值
+        Long cooldownRemaining = redisUtil.execute(ISSUE_SCRIPT, Collections.singletonList(key(type, target)),
+                code, expirationSeconds * 1000L, cooldownMillis);
+        if (cooldownRemaining == null) {
+            throw new BusinessException(503, "验证码服务暂不可用，请稍后重试");
+        }
+        if (cooldownRemaining > 0) {
+            cooldownCounter.increment();
+            throw new RateLimitExceededException((cooldownRemaining + 999) / 1000);
+        }
+        issuedCounter.increment();
+        return code;
+    }
+
+    /**
+     * 校验并消费验证码，成功后验证码立即失效
+     *
+     * @param type 用途
+     * @param target 手机号或邮箱
+     * @param code 用户输入的验证码
+     * @return 校验结果
+     */
+    public Result verify(String type, String target, String code) {
+        Result result;
+        if (code == null || code.length() != length) {
+            result = Result.MISMATCH;
+        } else {
+            Long reply = redisUtil.execute(VERIFY_SCRIPT, Collections.singletonList(key(type, target)), code, maxAttempts);
+            result = toResult(reply);
+        }
+        verifyCounters.get(result).increment();
+        return result;
+    }
+
+    /**
+     * 生成定长数字验证码，取值在 [0, 10^length) 内均匀分布
+     */
+    String generate() {
+        SecureRandom random = randoms[ThreadLocalRandom.current().nextInt(randoms.length)];
+        String digits = Integer.toString(random.nextInt(bound));
+        return "0".repeat(length - digits.length()) + digits;
+    }
+
+    private static Result toResult(Long reply) {
+        if (reply == null) {
+            return Result.ERROR;
+        }
+        return switch (reply.intValue()) {
+            case 1 -> Result.VERIFIED;
+            case 0 -> Result.MISMATCH;
+            case -2 -> Result.EXHAUSTED;
+            default -> Result.MISSING;
+        };
+    }
+
+    private static String key(String type, String target) {
+        return KEY_PREFIX + type + ":" + target;
+    }
+
+    /**
+     * DRBG 实例各自加锁，多个实例可并发生成；默认的 NativePRNG 在进程内共享同一把锁
+     */
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
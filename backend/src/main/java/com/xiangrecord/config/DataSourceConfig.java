@@ -0,0 +1,198 @@
+package com.xiangrecord.config;
+
+import com.xiangrecord.datasource.ReadYourWritesTracker;
+import com.xiangrecord.datasource.ReplicaRoutingDataSource;
+import com.xiangrecord.datasource.ShardRoutingDataSource;
+import com.xiangrecord.util.RedisUtil;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 数据源配置类
+ * 开启读写分离（app.datasource.routing.enabled）时，主库沿用 spring.datasource 配置，
+ * 从库按 app.datasource.replicas 列表创建只读连接池，应用使用的数据源为延迟获取连接的路由数据源。
+ * 开启分片（app.datasource.sharding.enabled）时，spring.datasource 为默认分片（读写分离只作用于默认分片），
+ * 其余分片按 app.datasource.shards 列表创建连接池；各分片的自增步长相同、起始值不同，记录ID与变更序号全局唯一
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("${app.datasource.routing.enabled:false} or ${app.datasource.sharding.enabled:false}")
+public class DataSourceConfig {
+
+    /**
+     * 主库连接池
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties,
+                                              @Value("${app.datasource.sharding.enabled:false}") boolean sharded,
+                                              @Value("${app.datasource.sharding.id-step:16}") int idStep) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        if (sharded) {
+            dataSource.setConnectionInitSql(autoIncrementSql(idStep, ShardRoutingDataSource.DEFAULT_SHARD));
+        }
+        return dataSource;
+    }
+
+    /**
+     * 读己之写窗口
+     * 可用从库的延迟不超过 max-lag-seconds，窗口不短于该值才能保证读到自己的写入
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+    public ReadYourWritesTracker readYourWritesTracker(
+            RedisUtil redisUtil,
+            RedisMessageListenerContainer listenerContainer,
+            @Value("${app.datasource.routing.read-your-writes-seconds:5}") long readYourWritesSeconds,
+            @Value("${app.datasource.routing.max-lag-seconds:3}") long maxLagSeconds) {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(redisUtil,
+                Duration.ofSeconds(Math.max(readYourWritesSeconds, maxLagSeconds)));
+        // 其他实例的写入通知在本地开启窗口，判断时无需访问Redis
+        listenerContainer.addMessageListener(tracker, new ChannelTopic(ReadYourWritesTracker.CHANNEL));
+        return tracker;
+    }
+
+    /**
+     * 读写分离路由数据源
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            ReadYourWritesTracker readYourWritesTracker,
+            Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${app.datasource.routing.max-lag-seconds:3}") long maxLagSeconds) {
+        List<HikariConfig> configs = Binder.get(environment)
+                .bind("app.datasource.replicas", Bindable.listOf(HikariConfig.class))
+                .orElse(List.of());
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < configs.size(); i++) {
+            HikariConfig config = configs.get(i);
+            if (!StringUtils.hasText(config.getPoolName())) {
+                config.setPoolName("replica-" + i);
+            }
+            config.setReadOnly(true);
+            // 连接池在首次获取连接时才初始化且不校验初始连接，从库不可用不影响应用启动
+            config.setInitializationFailTimeout(-1);
+            HikariDataSource replica = new HikariDataSource();
+            config.copyStateTo(replica);
+            replicas.put(config.getPoolName(), replica);
+        }
+        if (replicas.isEmpty()) {
+            log.warn("已开启读写分离但未配置从库，所有请求使用主库");
+        }
+
+        log.info("读写分离已开启，从库: {}", replicas.keySet());
+        return new ReplicaRoutingDataSource(
+                primaryDataSource, replicas, readYourWritesTracker, maxLagSeconds, meterRegistry);
+    }
+
+    /**
+     * 分片路由数据源：默认分片为主库（开启读写分离时为读写分离路由数据源），其余分片按配置创建连接池
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.datasource.sharding.enabled", havingValue = "true")
+    public ShardRoutingDataSource shardRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+            Environment environment,
+            @Value("${app.datasource.sharding.id-step:16}") int idStep) {
+        List<HikariConfig> configs = Binder.get(environment)
+                .bind("app.datasource.shards", Bindable.listOf(HikariConfig.class))
+                .orElse(List.of());
+        if (configs.size() + 1 > idStep) {
+            throw new IllegalStateException("分片数不能超过自增步长 app.datasource.sharding.id-step: " + idStep);
+        }
+
+        List<DataSource> shards = new ArrayList<>();
+        DataSource defaultShard = replicaRoutingDataSource.getIfAvailable();
+        shards.add(defaultShard != null ? defaultShard : primaryDataSource);
+        for (int i = 0; i < configs.size(); i++) {
+            int shard = i + 1;
+            HikariConfig config = configs.get(i);
+            if (!StringUtils.hasText(config.getPoolName())) {
+                config.setPoolName("shard-" + shard);
+            }
+            config.setConnectionInitSql(autoIncrementSql(idStep, shard));
+            HikariDataSource dataSource = new HikariDataSource();
+            config.copyStateTo(dataSource);
+            shards.add(dataSource);
+        }
+
+        log.info("分片已开启，分片数: {}, 自增步长: {}", shards.size(), idStep);
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * 开启分片时在每个分片上执行数据库迁移
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.sharding.enabled", havingValue = "true")
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            for (int shard = 0; shard < shardRoutingDataSource.getShardCount(); shard++) {
+                log.info("执行分片数据库迁移，分片: {}", shard);
+                ShardRoutingDataSource.using(shard, flyway::migrate);
+            }
+        };
+    }
+
+    /**
+     * 应用数据源：事务开始时只返回连接代理，执行首条SQL时才按分片上下文与事务只读标记选择实际的库
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                                 ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+        DataSource target = shardRoutingDataSource.getIfAvailable();
+        if (target == null) {
+            target = replicaRoutingDataSource.getIfAvailable();
+        }
+        if (target == null) {
+            target = primaryDataSource;
+        }
+        return new LazyConnectionDataSourceProxy(target);
+    }
+
+    /**
+     * 分片的自增步长与起始值：第 n 个分片分配 n+1, n+1+step, ...
+     */
+    private static String autoIncrementSql(int idStep, int shard) {
+        return "SET SESSION auto_increment_increment = " + idStep + ", auto_increment_offset = " + (shard + 1);
+    }
+}
@@ -1,16 +1,28 @@
 package com.xiangrecord.config;
 
 import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.autoconfigure.ConfigurationCustomizer;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.OptimisticLockerInnerInterceptor;
+import com.xiangrecord.entity.enums.CodedEnum;
+import com.xiangrecord.entity.enums.Color;
+import com.xiangrecord.entity.enums.Moisture;
+import com.xiangrecord.entity.enums.Mood;
+import com.xiangrecord.entity.enums.Shape;
+import com.xiangrecord.entity.enums.Size;
+import com.xiangrecord.entity.enums.Smell;
+import com.xiangrecord.entity.enums.Texture;
+import com.xiangrecord.handler.CodedEnumTypeHandler;
+import com.xiangrecord.interceptor.RecordTableInnerInterceptor;
+import org.apache.ibatis.type.TypeHandlerRegistry;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * MyBatis配置类
- * 配置MyBatis-Plus的分页插件、乐观锁插件等
+ * 配置MyBatis-Plus的记录表路由、分页插件、乐观锁插件、枚举类型处理器等
  */
 @Configuration
 @MapperScan("com.xiangrecord.mapper")
@@ -22,6 +34,9 @@ public class MyBatisConfig {
     @Bean
     public MybatisPlusInterceptor mybatisPlusInterceptor() {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+
+        // 记录表路由插件（需在分页插件之前，使COUNT查询使用替换后的表名）
+        interceptor.addInnerInterceptor(new RecordTableInnerInterceptor());
         
         // 分页插件
         PaginationInnerInterceptor paginationInterceptor = new PaginationInnerInterceptor(DbType.MYSQL);
@@ -36,4 +51,25 @@ public class MyBatisConfig {
         
         return interceptor;
     }
-}
\ No newline at end of file
+
+    /**
+     * 注册编码枚举类型处理器，记录分类属性以TINYINT编码读写
+     */
+    @Bean
+    public ConfigurationCustomizer codedEnumTypeHandlerCustomizer() {
+        return configuration -> {
+            TypeHandlerRegistry registry = configuration.getTypeHandlerRegistry();
+            register(registry, Color.class);
+            register(registry, Smell.class);
+            register(registry, Moisture.class);
+            register(registry, Shape.class);
+            register(registry, Size.class);
+            register(registry, Texture.class);
+            register(registry, Mood.class);
+        };
+    }
+
+    private static <E extends Enum<E> & CodedEnum> void register(TypeHandlerRegistry registry, Class<E> type) {
+        registry.register(type, new CodedEnumTypeHandler<>(type));
+    }
+}
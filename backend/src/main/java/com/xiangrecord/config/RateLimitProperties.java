@@ -0,0 +1,83 @@
+package com.xiangrecord.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 限流配置
+ * 每条规则按路径匹配请求，对IP、手机号、用户等维度分别设置令牌桶；
+ * 未配置容量的维度使用 requests-per-minute。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 是否启用限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 未配置容量的令牌桶的默认容量与每分钟补充数
+     */
+    private int requestsPerMinute = 60;
+
+    /**
+     * 本地预取比例：每次访问Redis最多预取桶内剩余令牌的该比例，后续请求在本地扣减
+     */
+    private double leaseFraction = 0.1;
+
+    /**
+     * 本地预取令牌的有效期（毫秒），过期未用完的令牌作废
+     */
+    private long leaseTtlMs = 1000;
+
+    /**
+     * 限流规则，按配置顺序注册
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+
+        /**
+         * 规则名称，用于Redis键与监控标签
+         */
+        private String name;
+
+        /**
+         * 匹配的路径（Ant风格，不含 context-path）
+         */
+        private List<String> paths = new ArrayList<>();
+
+        /**
+         * 各维度的令牌桶
+         */
+        private List<Limit> limits = new ArrayList<>();
+    }
+
+    @Data
+    public static class Limit {
+
+        /**
+         * 计数维度：ip / phone / user
+         */
+        private String key;
+
+        /**
+         * 桶容量（允许的突发请求数），未配置时使用 requests-per-minute
+         */
+        private int capacity;
+
+        /**
+         * 每分钟补充的令牌数，未配置时等于容量
+         */
+        private int refillPerMinute;
+    }
+}
@@ -0,0 +1,61 @@
+package com.xiangrecord.config;
+
+import com.xiangrecord.entity.enums.CodedEnum;
+import com.xiangrecord.interceptor.RateLimitInterceptor;
+import com.xiangrecord.service.RateLimitService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.converter.ConverterFactory;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Web MVC配置
+ * 请求参数按取值（如 brown）转换为编码枚举，与JSON中的表示保持一致；
+ * 每条限流规则在其路径上注册一个限流拦截器
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final RateLimitProperties rateLimitProperties;
+    private final RateLimitService rateLimitService;
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverterFactory(new StringToCodedEnumConverterFactory());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!rateLimitProperties.isEnabled()) {
+            return;
+        }
+        for (RateLimitProperties.Rule rule : rateLimitProperties.getRules()) {
+            if (!rule.getPaths().isEmpty()) {
+                registry.addInterceptor(new RateLimitInterceptor(rateLimitService, rule.getName()))
+                        .addPathPatterns(rule.getPaths());
+            }
+        }
+    }
+
+    /**
+     * 字符串到编码枚举的转换器工厂，不支持的取值抛出 IllegalArgumentException（最终返回400）
+     */
+    private static final class StringToCodedEnumConverterFactory implements ConverterFactory<String, CodedEnum> {
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public <T extends CodedEnum> Converter<String, T> getConverter(Class<T> targetType) {
+            // 编码枚举均为枚举类型，按原始类型调用 CodedEnum.fromValue
+            return source -> (T) CodedEnum.fromValue((Class) targetType, source.trim());
+        }
+    }
+}
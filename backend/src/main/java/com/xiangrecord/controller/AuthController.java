@@ -1,6 +1,9 @@
 package com.xiangrecord.controller;
 
 import com.xiangrecord.dto.*;
+import com.xiangrecord.exception.BusinessException;
+import com.xiangrecord.exception.RateLimitExceededException;
+import com.xiangrecord.service.RateLimitService;
 import com.xiangrecord.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -8,6 +11,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -16,6 +20,8 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 用户认证控制器
@@ -32,34 +38,39 @@ import java.util.Map;
 public class AuthController {
 
     private final UserService userService;
+    private final RateLimitService rateLimitService;
 
     @PostMapping("/login/phone")
     @Operation(summary = "手机号登录", description = "使用手机号和密码进行登录")
     @ApiResponses({
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "登录成功"),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "请求参数错误"),
-        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "手机号或密码错误")
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "手机号或密码错误"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "登录尝试过于频繁")
     })
-    public ResponseEntity<ApiResponse<LoginResponse>> loginWithPhone(@Valid @RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<ApiResponse<LoginResponse>>> loginWithPhone(
+            @Valid @RequestBody LoginRequest request) {
         log.info("Phone login request for: {}", request.getPhone());
+        // 手机号在请求体中，拦截器只能按IP限流，这里按手机号限制密码尝试次数
+        rateLimitService.acquire(RateLimitService.RULE_LOGIN, RateLimitService.KEY_PHONE, request.getPhone());
         
         try {
             if (!"phone".equals(request.getLoginType())) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(ApiResponse.badRequest("登录类型错误"));
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.badRequest("登录类型错误")));
             }
             
             if (request.getPhone() == null || request.getPassword() == null) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(ApiResponse.badRequest("手机号和密码不能为空"));
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.badRequest("手机号和密码不能为空")));
             }
             
-            LoginResponse response = userService.loginWithPhone(request.getPhone(), request.getPassword());
-            return ResponseEntity.ok(ApiResponse.success("登录成功", response));
+            // 密码校验在密码哈希线程池中执行，请求线程立即释放
+            return userService.loginWithPhone(request.getPhone(), request.getPassword())
+                    .thenApply(response -> ResponseEntity.ok(ApiResponse.success("登录成功", response)))
+                    .exceptionally(e -> failure("手机号登录失败", "登录失败", e));
         } catch (Exception e) {
-            log.error("手机号登录失败", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error(500, "登录失败: " + e.getMessage()));
+            return CompletableFuture.completedFuture(failure("手机号登录失败", "登录失败", e));
         }
     }
 
@@ -130,16 +141,17 @@ public class AuthController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "请求参数错误"),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "手机号或邮箱已注册")
     })
-    public ResponseEntity<ApiResponse<RegisterResponse>> register(@Valid @RequestBody RegisterRequest request) {
+    public CompletableFuture<ResponseEntity<ApiResponse<RegisterResponse>>> register(
+            @Valid @RequestBody RegisterRequest request) {
         log.info("Registration request for phone: {}", request.getPhone());
         
         try {
-            RegisterResponse response = userService.register(request);
-            return ResponseEntity.ok(ApiResponse.success("注册成功", response));
+            // 密码加密在密码哈希线程池中执行，请求线程立即释放
+            return userService.register(request)
+                    .thenApply(response -> ResponseEntity.ok(ApiResponse.success("注册成功", response)))
+                    .exceptionally(e -> failure("用户注册失败", "注册失败", e));
         } catch (Exception e) {
-            log.error("用户注册失败", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error(500, "注册失败: " + e.getMessage()));
+            return CompletableFuture.completedFuture(failure("用户注册失败", "注册失败", e));
         }
     }
 
@@ -153,14 +165,13 @@ public class AuthController {
     public ResponseEntity<ApiResponse<VerificationCodeResponse>> sendVerificationCode(
             @Valid @RequestBody VerificationCodeRequest request) {
         log.info("Verification code request for phone: {}, type: {}", request.getPhone(), request.getType());
+        rateLimitService.acquire(RateLimitService.RULE_SMS, RateLimitService.KEY_PHONE, request.getPhone());
         
         try {
             VerificationCodeResponse response = userService.sendVerificationCode(request);
             return ResponseEntity.ok(ApiResponse.success("验证码发送成功", response));
         } catch (Exception e) {
-            log.error("发送验证码失败", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error(500, "发送验证码失败: " + e.getMessage()));
+            return failure("发送验证码失败", "发送验证码失败", e);
         }
     }
 
@@ -319,4 +330,25 @@ public class AuthController {
                     .body(ApiResponse.error(500, "检查手机号失败: " + e.getMessage()));
         }
     }
+
+    /**
+     * 认证失败的响应：线程池已满、重发过于频繁等业务异常返回对应状态码（如503、429），其他异常返回500
+     */
+    private static <T> ResponseEntity<ApiResponse<T>> failure(String logMessage, String action, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RateLimitExceededException rateLimitException) {
+            log.warn("{}: {}", logMessage, rateLimitException.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimitException.getRetryAfterSeconds()))
+                    .body(ApiResponse.error(429, rateLimitException.getMessage()));
+        }
+        if (cause instanceof BusinessException businessException) {
+            log.warn("{}: {}", logMessage, businessException.getMessage());
+            return ResponseEntity.status(businessException.getCode())
+                    .body(ApiResponse.error(businessException.getCode(), businessException.getMessage()));
+        }
+        log.error(logMessage, cause);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error(500, action + ": " + cause.getMessage()));
+    }
 }
\ No newline at end of file
@@ -1,8 +1,22 @@
 package com.xiangrecord.controller;
 
 import com.xiangrecord.dto.ApiResponse;
+import com.xiangrecord.dto.BatchDeleteRequest;
+import com.xiangrecord.dto.BatchDeleteResult;
+import com.xiangrecord.dto.BatchRecordRequest;
+import com.xiangrecord.dto.BatchRecordResult;
+import com.xiangrecord.dto.AttributeCooccurrence;
+import com.xiangrecord.dto.BucketUnit;
+import com.xiangrecord.dto.ExportFormat;
 import com.xiangrecord.dto.PoopRecordDTO;
+import com.xiangrecord.dto.RecordChanges;
+import com.xiangrecord.dto.RecordStatsSummary;
+import com.xiangrecord.dto.RecordTimeSeries;
+import com.xiangrecord.dto.SlicePage;
+import com.xiangrecord.entity.enums.Color;
+import com.xiangrecord.entity.enums.Mood;
 import com.xiangrecord.service.PoopRecordService;
+import com.xiangrecord.service.RecordStatsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -11,19 +25,27 @@ import lombok.extern.slf4j.Slf4j;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.metadata.OrderItem;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * 便便记录控制器
@@ -41,6 +63,7 @@ import java.util.Optional;
 public class PoopRecordController {
 
     private final PoopRecordService poopRecordService;
+    private final RecordStatsService recordStatsService;
 
     @PostMapping
     @Operation(summary = "创建记录", description = "创建一条新的便便记录")
@@ -57,6 +80,29 @@ public class PoopRecordController {
         }
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "批量创建记录", description = "一次提交多条便便记录（如游客模式切换到云端模式时上传本地记录），返回逐条结果")
+    public ResponseEntity<ApiResponse<BatchRecordResult>> createRecords(
+            @Valid @RequestBody BatchRecordRequest request) {
+        try {
+            BatchRecordResult result = poopRecordService.createRecords(request.getRecords());
+            HttpStatus status = result.getSucceeded() > 0 ? HttpStatus.CREATED : HttpStatus.OK;
+            return ResponseEntity.status(status)
+                    .body(ApiResponse.success("批量创建完成", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.badRequest(e.getMessage()));
+        } catch (TransientDataAccessException e) {
+            // 死锁、锁等待超时等，整批已回滚，客户端可整批重试
+            log.warn("批量创建记录失败，整批已回滚: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error(503, "数据库繁忙，整批记录未保存，请稍后重试"));
+        } catch (Exception e) {
+            log.error("批量创建记录失败", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "批量创建记录失败: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "获取记录", description = "根据ID获取便便记录")
     public ResponseEntity<ApiResponse<PoopRecordDTO>> getRecord(
@@ -115,6 +161,23 @@ public class PoopRecordController {
         }
     }
 
+    @PostMapping("/batch-delete")
+    @Operation(summary = "批量删除记录", description = "按记录时间批量删除用户的记录，连续的记录合并为一条范围删除")
+    public ResponseEntity<ApiResponse<BatchDeleteResult>> deleteRecords(
+            @Valid @RequestBody BatchDeleteRequest request) {
+        try {
+            BatchDeleteResult result = poopRecordService.deleteRecordsByTimes(
+                    request.getUserId(), request.getRecordTimes());
+            return ResponseEntity.ok(ApiResponse.success("批量删除完成", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.badRequest(e.getMessage()));
+        } catch (Exception e) {
+            log.error("批量删除记录失败，用户ID: {}", request.getUserId(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "批量删除记录失败: " + e.getMessage()));
+        }
+    }
+
     @GetMapping
     @Operation(summary = "分页查询记录", description = "分页查询所有便便记录")
     public ResponseEntity<ApiResponse<IPage<PoopRecordDTO>>> getAllRecords(
@@ -143,8 +206,8 @@ public class PoopRecordController {
     @Operation(summary = "条件查询记录", description = "根据多个条件查询便便记录")
     public ResponseEntity<ApiResponse<IPage<PoopRecordDTO>>> searchRecords(
             @Parameter(description = "用户ID") @RequestParam(required = false) Long userId,
-            @Parameter(description = "颜色") @RequestParam(required = false) String color,
-            @Parameter(description = "心情") @RequestParam(required = false) String mood,
+            @Parameter(description = "颜色") @RequestParam(required = false) Color color,
+            @Parameter(description = "心情") @RequestParam(required = false) Mood mood,
             @Parameter(description = "开始时间") @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
             @Parameter(description = "结束时间") @RequestParam(required = false)
@@ -164,11 +227,155 @@ public class PoopRecordController {
         }
     }
 
+    @GetMapping(params = "mode=cursor")
+    @Operation(summary = "游标分页查询记录", description = "按 (记录时间, ID) 倒序游标分页，适用于无限滚动，深度翻页性能不下降")
+    public ResponseEntity<ApiResponse<SlicePage<PoopRecordDTO>>> getAllRecordsByCursor(
+            @Parameter(description = "用户ID") @RequestParam(required = false) Long userId,
+            @Parameter(description = "上一页返回的游标，首页不传") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size) {
+        try {
+            SlicePage<PoopRecordDTO> records = poopRecordService.getRecordsByCursor(
+                    null, null, null, null, cursor, size, userId);
+            return ResponseEntity.ok(ApiResponse.success(records));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.badRequest(e.getMessage()));
+        } catch (Exception e) {
+            log.error("游标查询记录失败", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "查询记录失败: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/search", params = "mode=cursor")
+    @Operation(summary = "游标条件查询记录", description = "根据多个条件游标分页查询便便记录")
+    public ResponseEntity<ApiResponse<SlicePage<PoopRecordDTO>>> searchRecordsByCursor(
+            @Parameter(description = "用户ID") @RequestParam(required = false) Long userId,
+            @Parameter(description = "颜色") @RequestParam(required = false) Color color,
+            @Parameter(description = "心情") @RequestParam(required = false) Mood mood,
+            @Parameter(description = "开始时间") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @Parameter(description = "结束时间") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @Parameter(description = "上一页返回的游标，首页不传") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size) {
+        try {
+            SlicePage<PoopRecordDTO> records = poopRecordService.getRecordsByCursor(
+                    color, mood, startTime, endTime, cursor, size, userId);
+            return ResponseEntity.ok(ApiResponse.success(records));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.badRequest(e.getMessage()));
+        } catch (Exception e) {
+            log.error("游标条件查询失败", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "条件查询失败: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping(params = "mode=scroll")
+    @Operation(summary = "滚动分页查询记录", description = "按页码分页但不执行COUNT查询，需要总数时返回计数器或估算值")
+    public ResponseEntity<ApiResponse<SlicePage<PoopRecordDTO>>> getAllRecordsByScroll(
+            @Parameter(description = "用户ID") @RequestParam(required = false) Long userId,
+            @Parameter(description = "页码，从1开始") @RequestParam(defaultValue = "1") @Min(1) int page,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @Parameter(description = "是否返回总数") @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            SlicePage<PoopRecordDTO> records = poopRecordService.getRecordsBySlice(
+                    null, null, null, null, page, size, withTotal, userId);
+            return ResponseEntity.ok(ApiResponse.success(records));
+        } catch (Exception e) {
+            log.error("滚动查询记录失败", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "查询记录失败: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/search", params = "mode=scroll")
+    @Operation(summary = "滚动条件查询记录", description = "根据多个条件按页码分页查询，不执行COUNT查询")
+    public ResponseEntity<ApiResponse<SlicePage<PoopRecordDTO>>> searchRecordsByScroll(
+            @Parameter(description = "用户ID") @RequestParam(required = false) Long userId,
+            @Parameter(description = "颜色") @RequestParam(required = false) Color color,
+            @Parameter(description = "心情") @RequestParam(required = false) Mood mood,
+            @Parameter(description = "开始时间") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @Parameter(description = "结束时间") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @Parameter(description = "页码，从1开始") @RequestParam(defaultValue = "1") @Min(1) int page,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @Parameter(description = "是否返回总数") @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            SlicePage<PoopRecordDTO> records = poopRecordService.getRecordsBySlice(
+                    color, mood, startTime, endTime, page, size, withTotal, userId);
+            return ResponseEntity.ok(ApiResponse.success(records));
+        } catch (Exception e) {
+            log.error("滚动条件查询失败", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "条件查询失败: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "增量同步记录", description = "返回水位之后新增、更新和删除的记录以及新的水位，未传水位时要求全量同步")
+    public ResponseEntity<ApiResponse<RecordChanges>> getChanges(
+            @Parameter(description = "用户ID") @RequestParam Long userId,
+            @Parameter(description = "上次同步返回的水位，首次同步不传") @RequestParam(required = false) String since,
+            @Parameter(description = "单次最多返回的变更数") @RequestParam(defaultValue = "200") @Min(1) @Max(400) int limit) {
+        try {
+            RecordChanges changes = poopRecordService.getChangesSince(userId, since, limit);
+            return ResponseEntity.ok(ApiResponse.success(changes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.badRequest(e.getMessage()));
+        } catch (Exception e) {
+            log.error("增量同步失败，用户ID: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "增量同步失败: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "导出记录", description = "流式导出用户的全部记录（NDJSON或CSV），可选gzip压缩")
+    public ResponseEntity<StreamingResponseBody> exportRecords(
+            @Parameter(description = "用户ID") @RequestParam Long userId,
+            @Parameter(description = "导出格式：ndjson、csv") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "开始时间") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @Parameter(description = "结束时间") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @Parameter(description = "是否gzip压缩") @RequestParam(defaultValue = "false") boolean gzip) {
+        // 格式不正确时抛出IllegalArgumentException，由全局异常处理返回400
+        ExportFormat exportFormat = ExportFormat.of(format);
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                if (gzip) {
+                    GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 8192);
+                    poopRecordService.exportRecords(userId, startTime, endTime, exportFormat, gzipStream);
+                    gzipStream.finish();
+                } else {
+                    poopRecordService.exportRecords(userId, startTime, endTime, exportFormat, outputStream);
+                }
+            } catch (Exception e) {
+                // 响应已开始写出，无法再返回错误体，只记录日志并中断连接
+                log.error("导出记录失败，用户ID: {}", userId, e);
+                throw e;
+            }
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("records-" + userId + "." + exportFormat.getExtension())
+                .build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
     @GetMapping("/recent")
     @Operation(summary = "获取最近记录", description = "获取最近的便便记录")
     public ResponseEntity<ApiResponse<List<PoopRecordDTO>>> getRecentRecords(
             @Parameter(description = "用户ID") @RequestParam(required = false) Long userId,
-            @Parameter(description = "记录数量") @RequestParam(defaultValue = "10") @Min(1) int limit) {
+            @Parameter(description = "记录数量，超过缓存窗口（默认50）时按窗口大小返回") @RequestParam(defaultValue = "10") @Min(1) int limit) {
         try {
             List<PoopRecordDTO> records = poopRecordService.getRecentRecords(limit, userId);
             return ResponseEntity.ok(ApiResponse.success(records));
@@ -197,8 +404,8 @@ public class PoopRecordController {
     @Operation(summary = "统计记录数量", description = "根据条件统计记录数量")
     public ResponseEntity<ApiResponse<Long>> countRecords(
             @Parameter(description = "用户ID") @RequestParam(required = false) Long userId,
-            @Parameter(description = "颜色") @RequestParam(required = false) String color,
-            @Parameter(description = "心情") @RequestParam(required = false) String mood,
+            @Parameter(description = "颜色") @RequestParam(required = false) Color color,
+            @Parameter(description = "心情") @RequestParam(required = false) Mood mood,
             @Parameter(description = "开始时间") @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
             @Parameter(description = "结束时间") @RequestParam(required = false)
@@ -226,4 +433,71 @@ public class PoopRecordController {
                     .body(ApiResponse.error(500, "统计记录数量失败: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/stats/summary")
+    @Operation(summary = "统计汇总", description = "一次查询返回记录总数及颜色、气味、干湿度、形状、大小、质地、心情的分布")
+    public ResponseEntity<ApiResponse<RecordStatsSummary>> getStatsSummary(
+            @Parameter(description = "用户ID") @RequestParam(required = false) Long userId,
+            @Parameter(description = "开始时间") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @Parameter(description = "结束时间") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
+        try {
+            RecordStatsSummary summary = recordStatsService.getSummary(userId, startTime, endTime);
+            return ResponseEntity.ok(ApiResponse.success(summary));
+        } catch (Exception e) {
+            log.error("获取统计汇总失败", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "获取统计汇总失败: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/stats/timeseries")
+    @Operation(summary = "时间序列统计", description = "按天/周/月统计记录数及每个时间段出现最多的形状、颜色，返回连续的时间桶")
+    public ResponseEntity<ApiResponse<RecordTimeSeries>> getTimeSeries(
+            @Parameter(description = "用户ID") @RequestParam Long userId,
+            @Parameter(description = "分桶粒度：day、week、month") @RequestParam(defaultValue = "day") String bucket,
+            @Parameter(description = "用户时区") @RequestParam(defaultValue = "UTC") String tz,
+            @Parameter(description = "开始时间（UTC）") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @Parameter(description = "结束时间（UTC）") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
+        try {
+            ZoneId zone = ZoneId.of(tz);
+            RecordTimeSeries series = recordStatsService.getTimeSeries(
+                    userId, BucketUnit.of(bucket), zone, startTime, endTime);
+            return ResponseEntity.ok(ApiResponse.success(series));
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.badRequest("时区不正确: " + tz));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.badRequest(e.getMessage()));
+        } catch (Exception e) {
+            log.error("获取时间序列统计失败，用户ID: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "获取时间序列统计失败: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/stats/cooccurrence")
+    @Operation(summary = "属性共现表", description = "统计两个分类属性（如颜色与心情）各取值组合的记录数")
+    public ResponseEntity<ApiResponse<AttributeCooccurrence>> getCooccurrence(
+            @Parameter(description = "用户ID") @RequestParam(required = false) Long userId,
+            @Parameter(description = "行属性：color、smell、moisture、shape、size、texture、mood") @RequestParam String row,
+            @Parameter(description = "列属性：color、smell、moisture、shape、size、texture、mood") @RequestParam String column,
+            @Parameter(description = "开始时间") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @Parameter(description = "结束时间") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
+        try {
+            AttributeCooccurrence cooccurrence = recordStatsService.getCooccurrence(
+                    userId, row, column, startTime, endTime);
+            return ResponseEntity.ok(ApiResponse.success(cooccurrence));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.badRequest(e.getMessage()));
+        } catch (Exception e) {
+            log.error("获取属性共现表失败，用户ID: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "获取属性共现表失败: " + e.getMessage()));
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.xiangrecord.controller;
 import com.xiangrecord.dto.*;
 import com.xiangrecord.service.UserService;
 import com.xiangrecord.util.JwtUtil;
+import com.xiangrecord.util.ParsedToken;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -292,7 +293,8 @@ public class UserController {
                 return null;
             }
             
-            return jwtUtil.getUserIdFromToken(token);
+            ParsedToken parsed = jwtUtil.parse(token);
+            return parsed != null ? parsed.getUserId() : null;
         } catch (Exception e) {
             log.error("从token获取用户ID失败: {}", e.getMessage());
             return null;
@@ -0,0 +1,103 @@
+package com.xiangrecord.datasource;
+
+import com.xiangrecord.util.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 读己之写窗口
+ * 用户的写事务提交后的一段时间内，其只读事务也走主库，避免从库延迟导致刚写入的数据读不到。
+ * 窗口只记录在本实例内存中，判断时不访问Redis；写入时通过 Redis 频道通知其他实例，
+ * 各实例收到通知后在本地开启同样长度的窗口，请求落到其他实例时同样生效。
+ * 通知是尽力而为的，Redis不可用或漏收通知时窗口只在本实例内生效，此时最多读到延迟不超过 max-lag-seconds 的从库数据。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+public class ReadYourWritesTracker implements MessageListener {
+
+    public static final String CHANNEL = "db:recent-writes";
+
+    /**
+     * 可为null，为null时窗口只在本实例内生效
+     */
+    private final RedisUtil redisUtil;
+
+    private final long windowMillis;
+
+    /**
+     * 用户 -> 窗口截止时间（毫秒）
+     */
+    private final ConcurrentHashMap<String, Long> deadlines = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(RedisUtil redisUtil, Duration window) {
+        this.redisUtil = redisUtil;
+        this.windowMillis = Math.max(0, window.toMillis());
+    }
+
+    /**
+     * 记录用户刚完成一次写入
+     *
+     * @param user 用户标识
+     */
+    public void markWritten(String user) {
+        if (windowMillis == 0) {
+            return;
+        }
+        openWindow(user);
+        if (redisUtil != null) {
+            redisUtil.publish(CHANNEL, user);
+        }
+    }
+
+    /**
+     * 收到其他实例（或本实例）发布的写入通知，在本地开启窗口
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String user = redisUtil != null ? redisUtil.deserialize(message.getBody(), String.class) : null;
+        if (user == null || windowMillis == 0) {
+            return;
+        }
+        openWindow(user);
+    }
+
+    /**
+     * 用户是否处于写后窗口内，窗口内的读取须走主库；只查本地，不访问Redis
+     *
+     * @param user 用户标识
+     * @return 是否须读主库
+     */
+    public boolean requiresPrimary(String user) {
+        if (windowMillis == 0) {
+            return false;
+        }
+        Long deadline = deadlines.get(user);
+        if (deadline == null) {
+            return false;
+        }
+        if (deadline > System.currentTimeMillis()) {
+            return true;
+        }
+        deadlines.remove(user, deadline);
+        return false;
+    }
+
+    private void openWindow(String user) {
+        long deadline = System.currentTimeMillis() + windowMillis;
+        deadlines.merge(user, deadline, Math::max);
+    }
+
+    /**
+     * 清理已过期的本地窗口
+     */
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        deadlines.values().removeIf(deadline -> deadline <= now);
+    }
+}
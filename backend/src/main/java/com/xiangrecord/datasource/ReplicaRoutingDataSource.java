@@ -0,0 +1,250 @@
+package com.xiangrecord.datasource;
+
+import com.xiangrecord.util.SecurityUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离路由数据源
+ * 只读事务轮询路由到健康的从库；写事务、非事务操作以及处于读己之写窗口内的用户路由到主库。
+ * 从库在健康检查通过后才接收读请求，复制延迟超过阈值、复制中断或获取连接失败时摘除，没有可用从库时回退到主库。
+ * 须由 LazyConnectionDataSourceProxy 包装，使连接在首条SQL执行时（事务的只读标记已生效）才获取。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final String LAG_QUERY = "SHOW REPLICA STATUS";
+    private static final String LAG_COLUMN = "Seconds_Behind_Source";
+    private static final int VALID_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWritesTracker tracker;
+    private final long maxLagSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Counter writeCounter;
+    private final Counter recentWriteCounter;
+    private final Counter noReplicaCounter;
+    private final Counter fallbackCounter;
+    private final Counter replicaCounter;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    ReadYourWritesTracker tracker, long maxLagSeconds,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        List<Replica> list = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> list.add(new Replica(name, dataSource)));
+        this.replicas = Collections.unmodifiableList(list);
+        this.tracker = tracker;
+        this.maxLagSeconds = maxLagSeconds;
+
+        this.writeCounter = routeCounter(meterRegistry, "primary", "write");
+        this.recentWriteCounter = routeCounter(meterRegistry, "primary", "recent-write");
+        this.noReplicaCounter = routeCounter(meterRegistry, "primary", "no-replica");
+        this.fallbackCounter = routeCounter(meterRegistry, "primary", "replica-failed");
+        this.replicaCounter = routeCounter(meterRegistry, "replica", "read-only");
+        Gauge.builder("datasource.replicas.available", this, ReplicaRoutingDataSource::availableReplicas)
+                .description("当前可用的从库数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = route();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            replica.markDown("获取连接失败: " + e.getMessage());
+            fallbackCounter.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("读写分离数据源不支持指定用户名密码获取连接");
+    }
+
+    /**
+     * 检查各从库的可用性与复制延迟，由定时任务调用
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                Long lag = readLagSeconds(connection);
+                if (lag == null) {
+                    replica.markDown("复制未运行");
+                } else if (lag > maxLagSeconds) {
+                    replica.markDown("复制延迟 " + lag + " 秒");
+                } else {
+                    replica.markUp(lag);
+                }
+            } catch (SQLException e) {
+                replica.markDown("检查失败: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 当前可用的从库数
+     */
+    public int availableReplicas() {
+        int available = 0;
+        for (Replica replica : replicas) {
+            if (replica.available) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("关闭从库连接池失败: {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 选择目标数据源，返回null表示主库
+     */
+    private Replica route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            writeCounter.increment();
+            return null;
+        }
+        String user = SecurityUtil.currentUser();
+        if (user != null && tracker.requiresPrimary(user)) {
+            recentWriteCounter.increment();
+            return null;
+        }
+        Replica replica = nextAvailableReplica();
+        if (replica == null) {
+            noReplicaCounter.increment();
+            return null;
+        }
+        replicaCounter.increment();
+        return replica;
+    }
+
+    /**
+     * 写事务提交后为当前用户开启读己之写窗口；SUPPORTS 等没有实际事务的非只读方法不写库，不开启窗口
+     */
+    private void trackWrite() {
+        String user = SecurityUtil.currentUser();
+        if (user == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tracker.markWritten(user);
+                }
+            });
+        } else if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 不在事务管理范围内的自动提交写入，获取连接时即开启窗口
+            tracker.markWritten(user);
+        }
+    }
+
+    private Replica nextAvailableReplica() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 读取复制延迟（秒），复制未运行时返回null；未配置复制的MySQL实例和非MySQL库（如本地测试库）只检查连接有效性
+     */
+    private static Long readLagSeconds(Connection connection) throws SQLException {
+        if (!"MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())) {
+            return connection.isValid(VALID_TIMEOUT_SECONDS) ? 0L : null;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+            if (!rs.next()) {
+                return 0L;
+            }
+            long lag = rs.getLong(LAG_COLUMN);
+            return rs.wasNull() ? null : lag;
+        }
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .tag("target", target)
+                .tag("reason", reason)
+                .description("按目标库与原因统计的连接路由次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 从库及其可用状态
+     */
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void markDown(String reason) {
+            if (available) {
+                log.warn("从库 {} 已摘除，读请求回退到主库，原因: {}", name, reason);
+            }
+            available = false;
+        }
+
+        private void markUp(long lagSeconds) {
+            if (!available) {
+                log.info("从库 {} 可用，复制延迟: {} 秒", name, lagSeconds);
+            }
+            available = true;
+        }
+    }
+}
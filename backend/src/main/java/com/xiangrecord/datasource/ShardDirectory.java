@@ -0,0 +1,175 @@
+package com.xiangrecord.datasource;
+
+import com.xiangrecord.dto.ShardBucket;
+import com.xiangrecord.mapper.ShardBucketMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 分片目录
+ * 用户ID对桶数取模得到虚拟桶，桶到分片的映射保存在默认分片的 record_shard_buckets 表中，
+ * 本地缓存一份快照并定期刷新。迁移以桶为单位进行，只需修改目录，不改变用户到桶的映射。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.datasource.sharding.enabled", havingValue = "true")
+public class ShardDirectory {
+
+    private final ShardBucketMapper shardBucketMapper;
+
+    @Getter
+    private final int shardCount;
+
+    @Getter
+    private final int bucketCount;
+
+    @Getter
+    private final long refreshIntervalMs;
+
+    private volatile Snapshot snapshot;
+
+    public ShardDirectory(ShardBucketMapper shardBucketMapper,
+                          ShardRoutingDataSource shardRoutingDataSource,
+                          @Value("${app.datasource.sharding.buckets:1024}") int bucketCount,
+                          @Value("${app.datasource.sharding.directory-refresh-ms:5000}") long refreshIntervalMs) {
+        if (bucketCount < shardRoutingDataSource.getShardCount()) {
+            throw new IllegalArgumentException("桶数不能小于分片数，桶数: " + bucketCount
+                    + "，分片数: " + shardRoutingDataSource.getShardCount());
+        }
+        this.shardBucketMapper = shardBucketMapper;
+        this.shardCount = shardRoutingDataSource.getShardCount();
+        this.bucketCount = bucketCount;
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    /**
+     * 初始化目录：首次开启分片时所有桶位于默认分片（已有数据均在默认分片），之后加载目录快照
+     */
+    @PostConstruct
+    public void initialize() {
+        List<ShardBucket> initial = new ArrayList<>(bucketCount);
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            initial.add(new ShardBucket(bucket, ShardRoutingDataSource.DEFAULT_SHARD, false));
+        }
+        int inserted = onDirectory(() -> shardBucketMapper.insertBuckets(initial));
+        if (inserted > 0) {
+            log.info("初始化分片目录，新增桶数: {}", inserted);
+        }
+        snapshot = load();
+        log.info("分片已开启，分片数: {}, 桶数: {}", shardCount, bucketCount);
+    }
+
+    /**
+     * 定期刷新目录快照，刷新失败时继续使用上一份快照
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.sharding.directory-refresh-ms:5000}")
+    public void refresh() {
+        try {
+            snapshot = load();
+        } catch (DataAccessException | IllegalStateException e) {
+            log.error("刷新分片目录失败，继续使用当前目录", e);
+        }
+    }
+
+    /**
+     * 用户所在的桶
+     */
+    public int bucketOf(long userId) {
+        return (int) Math.floorMod(userId, (long) bucketCount);
+    }
+
+    /**
+     * 用户所在的分片，未关联用户的记录位于默认分片
+     */
+    public int shardOf(Long userId) {
+        if (userId == null) {
+            return ShardRoutingDataSource.DEFAULT_SHARD;
+        }
+        return snapshot.shards[bucketOf(userId)];
+    }
+
+    /**
+     * 用户所在的桶是否正在迁移
+     */
+    public boolean isMoving(Long userId) {
+        return userId != null && snapshot.moving[bucketOf(userId)];
+    }
+
+    /**
+     * 桶是否正在迁移
+     */
+    public boolean isBucketMoving(int bucket) {
+        return snapshot.moving[bucket];
+    }
+
+    /**
+     * 当前各桶所在的分片（副本）
+     */
+    public int[] getAssignment() {
+        return snapshot.shards.clone();
+    }
+
+    /**
+     * 修改桶所在的分片与迁移状态，并立即刷新本实例的快照；其他实例在下次刷新后生效
+     *
+     * @param bucket 桶编号
+     * @param shard 分片序号
+     * @param moving 是否迁移中
+     */
+    public void update(int bucket, int shard, boolean moving) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("分片序号超出范围: " + shard);
+        }
+        onDirectory(() -> shardBucketMapper.updateBucket(bucket, shard, moving));
+        snapshot = load();
+    }
+
+    private Snapshot load() {
+        List<ShardBucket> rows = onDirectory(shardBucketMapper::listBuckets);
+        if (rows.size() != bucketCount) {
+            throw new IllegalStateException("分片目录的桶数与配置不一致，目录: " + rows.size() + "，配置: " + bucketCount);
+        }
+        int[] shards = new int[bucketCount];
+        boolean[] moving = new boolean[bucketCount];
+        for (ShardBucket row : rows) {
+            int bucket = row.getBucket();
+            if (bucket < 0 || bucket >= bucketCount || row.getShard() < 0 || row.getShard() >= shardCount) {
+                throw new IllegalStateException("分片目录项无效，桶: " + bucket + "，分片: " + row.getShard());
+            }
+            shards[bucket] = row.getShard();
+            moving[bucket] = Boolean.TRUE.equals(row.getMoving());
+        }
+        return new Snapshot(shards, moving);
+    }
+
+    private static <T> T onDirectory(Supplier<T> action) {
+        return ShardRoutingDataSource.using(ShardRoutingDataSource.DEFAULT_SHARD, action);
+    }
+
+    /**
+     * 目录快照，整体替换，读取时无需加锁
+     */
+    private static final class Snapshot {
+
+        private final int[] shards;
+        private final boolean[] moving;
+
+        private Snapshot(int[] shards, boolean[] moving) {
+            this.shards = shards;
+            this.moving = moving;
+        }
+    }
+}
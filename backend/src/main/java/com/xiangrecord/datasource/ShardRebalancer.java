@@ -0,0 +1,326 @@
+package com.xiangrecord.datasource;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.xiangrecord.entity.PoopRecord;
+import com.xiangrecord.entity.RecordChange;
+import com.xiangrecord.handler.RecordTableNameHandler;
+import com.xiangrecord.mapper.PoopRecordMapper;
+import com.xiangrecord.mapper.RecordChangeMapper;
+import com.xiangrecord.service.RecordArchiveService;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 分片再平衡
+ * 按桶把记录、归档记录和变更日志从源分片迁移到目标分片，使各分片的桶数均衡（新增分片后执行）。
+ * 每批桶的迁移步骤：
+ * 1. 在目录中标记为迁移中，等待各实例刷新目录，此后这些桶的写入被拒绝；
+ * 2. 按 (record_time, id) 和 seq 分页把桶内用户的数据复制到目标分片，保留原ID与序号；
+ * 3. 在目录中指向目标分片并解除迁移标记，等待各实例刷新目录；
+ * 4. 分批删除源分片上的数据。
+ * 任一步骤中断后重新执行即可：执行前先删除各分片上不属于该分片的用户数据（未完成复制的目标数据或未删除的源数据），
+ * 并解除遗留的迁移标记。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.datasource.sharding.enabled", havingValue = "true")
+public class ShardRebalancer {
+
+    private final ShardDirectory directory;
+    private final ShardRouter shardRouter;
+    private final PoopRecordMapper poopRecordMapper;
+    private final RecordChangeMapper recordChangeMapper;
+    private final RecordArchiveService archiveService;
+
+    @Value("${app.datasource.sharding.rebalance.batch-buckets:16}")
+    private int batchBuckets;
+
+    @Value("${app.datasource.sharding.rebalance.copy-batch-size:1000}")
+    private int copyBatchSize;
+
+    public ShardRebalancer(ShardDirectory directory,
+                           ShardRouter shardRouter,
+                           PoopRecordMapper poopRecordMapper,
+                           RecordChangeMapper recordChangeMapper,
+                           RecordArchiveService archiveService) {
+        this.directory = directory;
+        this.shardRouter = shardRouter;
+        this.poopRecordMapper = poopRecordMapper;
+        this.recordChangeMapper = recordChangeMapper;
+        this.archiveService = archiveService;
+    }
+
+    /**
+     * 规划并执行再平衡
+     *
+     * @param dryRun 只输出迁移计划，不迁移数据
+     * @return 迁移的桶数
+     */
+    public int rebalance(boolean dryRun) throws InterruptedException {
+        if (!dryRun) {
+            recover();
+        }
+        List<BucketMove> moves = plan(directory.getAssignment(), directory.getShardCount());
+        Map<String, Long> summary = moves.stream()
+                .collect(Collectors.groupingBy(move -> move.getFrom() + "->" + move.getTo(), Collectors.counting()));
+        log.info("分片再平衡计划，迁移桶数: {}, 明细: {}", moves.size(), summary);
+        if (dryRun || moves.isEmpty()) {
+            return 0;
+        }
+
+        int batchSize = Math.max(1, batchBuckets);
+        for (int from = 0; from < moves.size(); from += batchSize) {
+            List<BucketMove> batch = moves.subList(from, Math.min(from + batchSize, moves.size()));
+            moveBuckets(batch);
+            log.info("分片再平衡进度: {}/{}", Math.min(from + batchSize, moves.size()), moves.size());
+        }
+        return moves.size();
+    }
+
+    /**
+     * 规划迁移：各分片的目标桶数相差不超过1，桶数较多的分片保留多出的桶，只迁出超出目标的桶
+     *
+     * @param assignment 各桶当前所在的分片
+     * @param shardCount 分片数
+     * @return 迁移列表
+     */
+    public static List<BucketMove> plan(int[] assignment, int shardCount) {
+        int[] counts = new int[shardCount];
+        for (int shard : assignment) {
+            counts[shard]++;
+        }
+        int base = assignment.length / shardCount;
+        int extra = assignment.length % shardCount;
+        int[] quota = new int[shardCount];
+        List<Integer> byCount = IntStream.range(0, shardCount).boxed()
+                .sorted(Comparator.comparingInt((Integer shard) -> counts[shard]).reversed())
+                .collect(Collectors.toList());
+        for (int i = 0; i < shardCount; i++) {
+            quota[byCount.get(i)] = base + (i < extra ? 1 : 0);
+        }
+
+        List<BucketMove> moves = new ArrayList<>();
+        int receiver = 0;
+        for (int bucket = 0; bucket < assignment.length; bucket++) {
+            int from = assignment[bucket];
+            if (counts[from] <= quota[from]) {
+                continue;
+            }
+            while (counts[receiver] >= quota[receiver]) {
+                receiver++;
+            }
+            moves.add(new BucketMove(bucket, from, receiver));
+            counts[from]--;
+            counts[receiver]++;
+        }
+        return moves;
+    }
+
+    /**
+     * 迁移一批桶
+     */
+    private void moveBuckets(List<BucketMove> moves) throws InterruptedException {
+        for (BucketMove move : moves) {
+            directory.update(move.getBucket(), move.getFrom(), true);
+        }
+        awaitDirectoryRefresh();
+
+        // 桶已停止写入后再列出用户，迁移期间不会出现新用户
+        Map<Integer, List<Long>> usersByBucket = listUsers(moves);
+        long copied = 0;
+        for (BucketMove move : moves) {
+            for (Long userId : usersByBucket.getOrDefault(move.getBucket(), List.of())) {
+                copied += copyUser(userId, move.getFrom(), move.getTo());
+            }
+        }
+
+        for (BucketMove move : moves) {
+            directory.update(move.getBucket(), move.getTo(), false);
+        }
+        awaitDirectoryRefresh();
+
+        for (BucketMove move : moves) {
+            for (Long userId : usersByBucket.getOrDefault(move.getBucket(), List.of())) {
+                deleteUser(userId, move.getFrom());
+            }
+        }
+        log.info("迁移桶完成，桶: {}, 复制行数: {}",
+                moves.stream().map(BucketMove::getBucket).collect(Collectors.toList()), copied);
+    }
+
+    /**
+     * 恢复上次中断的迁移：删除各分片上不属于该分片的用户数据，再解除遗留的迁移标记
+     */
+    private void recover() {
+        for (int shard = 0; shard < directory.getShardCount(); shard++) {
+            for (Long userId : listUsers(shard)) {
+                if (directory.shardOf(userId) != shard) {
+                    log.info("清理分片上的残留数据，分片: {}, 用户ID: {}", shard, userId);
+                    deleteUser(userId, shard);
+                }
+            }
+        }
+        int[] assignment = directory.getAssignment();
+        for (int bucket = 0; bucket < assignment.length; bucket++) {
+            if (directory.isBucketMoving(bucket)) {
+                directory.update(bucket, assignment[bucket], false);
+            }
+        }
+    }
+
+    /**
+     * 列出待迁移桶在源分片上的用户
+     */
+    private Map<Integer, List<Long>> listUsers(List<BucketMove> moves) {
+        Map<Integer, Integer> sourceOf = new HashMap<>();
+        moves.forEach(move -> sourceOf.put(move.getBucket(), move.getFrom()));
+
+        Map<Integer, List<Long>> usersByBucket = new HashMap<>();
+        for (int shard : new TreeSet<>(sourceOf.values())) {
+            for (Long userId : listUsers(shard)) {
+                int bucket = directory.bucketOf(userId);
+                Integer source = sourceOf.get(bucket);
+                if (source != null && source == shard) {
+                    usersByBucket.computeIfAbsent(bucket, key -> new ArrayList<>()).add(userId);
+                }
+            }
+        }
+        return usersByBucket;
+    }
+
+    /**
+     * 列出分片上有记录或变更日志的用户
+     */
+    private Set<Long> listUsers(int shard) {
+        Set<Long> userIds = new TreeSet<>(shardRouter.onShard(shard,
+                () -> archiveService.readFrom(null, poopRecordMapper::selectUserIds)));
+        userIds.addAll(shardRouter.onShard(shard, recordChangeMapper::selectUserIds));
+        return userIds;
+    }
+
+    /**
+     * 复制用户的记录与变更日志，返回复制的行数
+     * 记录从全量视图读取（归档任务同时运行时，每条记录在任一时刻都恰好出现一次），早于归档边界的写入目标分片的归档表
+     */
+    private long copyUser(Long userId, int from, int to) {
+        long copied = 0;
+        LocalDateTime lastTime = null;
+        Long lastId = null;
+        while (true) {
+            LocalDateTime afterTime = lastTime;
+            Long afterId = lastId;
+            List<PoopRecord> rows = shardRouter.onShard(from, () -> archiveService.readFrom(null,
+                    () -> poopRecordMapper.selectList(new LambdaQueryWrapper<PoopRecord>()
+                            .eq(PoopRecord::getUserId, userId)
+                            .and(afterTime != null, w -> w
+                                    .gt(PoopRecord::getRecordTime, afterTime)
+                                    .or(o -> o.eq(PoopRecord::getRecordTime, afterTime).gt(PoopRecord::getId, afterId)))
+                            .orderByAsc(PoopRecord::getRecordTime, PoopRecord::getId)
+                            .last("LIMIT " + copyBatchSize))));
+            if (rows.isEmpty()) {
+                break;
+            }
+            Map<Boolean, List<PoopRecord>> byArchive = rows.stream()
+                    .collect(Collectors.partitioningBy(row -> archiveService.isEnabled()
+                            && row.getRecordTime().isBefore(archiveService.getArchiveCutoff())));
+            shardRouter.onShard(to, () -> {
+                if (!byArchive.get(false).isEmpty()) {
+                    poopRecordMapper.insertBatchWithIds(byArchive.get(false));
+                }
+                if (!byArchive.get(true).isEmpty()) {
+                    archiveService.onArchive(() -> poopRecordMapper.insertBatchWithIds(byArchive.get(true)));
+                }
+                return null;
+            });
+            copied += rows.size();
+            PoopRecord last = rows.get(rows.size() - 1);
+            lastTime = last.getRecordTime();
+            lastId = last.getId();
+        }
+
+        long lastSeq = 0;
+        while (true) {
+            long afterSeq = lastSeq;
+            List<RecordChange> changes = shardRouter.onShard(from,
+                    () -> recordChangeMapper.selectList(new LambdaQueryWrapper<RecordChange>()
+                            .eq(RecordChange::getUserId, userId)
+                            .gt(RecordChange::getSeq, afterSeq)
+                            .orderByAsc(RecordChange::getSeq)
+                            .last("LIMIT " + copyBatchSize)));
+            if (changes.isEmpty()) {
+                break;
+            }
+            shardRouter.onShard(to, () -> recordChangeMapper.insertBatchWithSeq(changes));
+            copied += changes.size();
+            lastSeq = changes.get(changes.size() - 1).getSeq();
+        }
+        return copied;
+    }
+
+    /**
+     * 分批删除用户在指定分片上的记录与变更日志
+     * 归档任务只会把记录从热表移到中转表、再移到归档表，按此顺序删除不会遗漏正在归档的记录
+     */
+    private void deleteUser(Long userId, int shard) {
+        shardRouter.onShard(shard, () -> {
+            for (String table : new String[]{RecordTableNameHandler.HOT_TABLE,
+                    RecordTableNameHandler.STAGE_TABLE, RecordTableNameHandler.ARCHIVE_TABLE}) {
+                deleteInBatches(() -> RecordTableNameHandler.using(table,
+                        () -> poopRecordMapper.delete(new LambdaQueryWrapper<PoopRecord>()
+                                .eq(PoopRecord::getUserId, userId)
+                                .last("LIMIT " + copyBatchSize))));
+            }
+            deleteInBatches(() -> recordChangeMapper.delete(new LambdaQueryWrapper<RecordChange>()
+                    .eq(RecordChange::getUserId, userId)
+                    .last("LIMIT " + copyBatchSize)));
+            return null;
+        });
+    }
+
+    private void deleteInBatches(Supplier<Integer> batch) {
+        int deleted;
+        do {
+            deleted = batch.get();
+        } while (deleted >= copyBatchSize);
+    }
+
+    /**
+     * 等待各实例刷新分片目录（两个刷新周期）
+     */
+    private void awaitDirectoryRefresh() throws InterruptedException {
+        Thread.sleep(directory.getRefreshIntervalMs() * 2);
+    }
+
+    /**
+     * 桶迁移
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class BucketMove {
+
+        private final int bucket;
+        private final int from;
+        private final int to;
+    }
+}
@@ -0,0 +1,201 @@
+package com.xiangrecord.datasource;
+
+import com.xiangrecord.exception.BusinessException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 分片路由
+ * 按用户ID把记录相关的数据库操作路由到用户所在的分片；未指定用户的查询在各分片上并行执行，由调用方归并结果。
+ * 未开启分片时所有操作直接在当前线程执行，行为与单库一致。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class ShardRouter {
+
+    private static final int MOVING_STATUS = 503;
+
+    /**
+     * 分片目录，未开启分片时为空
+     */
+    private final ShardDirectory directory;
+
+    private final ExecutorService fanOutExecutor;
+
+    public ShardRouter(ObjectProvider<ShardDirectory> directoryProvider,
+                       @Value("${app.datasource.sharding.fan-out-threads:8}") int fanOutThreads) {
+        this.directory = directoryProvider.getIfAvailable();
+        if (directory != null) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("shard-fan-out-");
+            threadFactory.setDaemon(true);
+            this.fanOutExecutor = Executors.newFixedThreadPool(Math.max(1, fanOutThreads), threadFactory);
+        } else {
+            this.fanOutExecutor = null;
+        }
+    }
+
+    /**
+     * 是否开启分片
+     */
+    public boolean isSharded() {
+        return directory != null;
+    }
+
+    public int getShardCount() {
+        return directory != null ? directory.getShardCount() : 1;
+    }
+
+    /**
+     * 用户所在的分片
+     */
+    public int shardOf(Long userId) {
+        return directory != null ? directory.shardOf(userId) : ShardRoutingDataSource.DEFAULT_SHARD;
+    }
+
+    /**
+     * 在用户所在的分片上执行读操作
+     *
+     * @param userId 用户ID，为空时使用默认分片
+     * @param action 数据库操作
+     * @return 操作结果
+     */
+    public <T> T onUser(Long userId, Supplier<T> action) {
+        if (directory == null) {
+            return action.get();
+        }
+        return ShardRoutingDataSource.using(directory.shardOf(userId), action);
+    }
+
+    /**
+     * 在用户所在的分片上执行写操作，用户数据正在迁移时拒绝写入
+     *
+     * @param userId 用户ID，为空时使用默认分片
+     * @param action 数据库操作
+     * @return 操作结果
+     */
+    public <T> T onUserWrite(Long userId, Supplier<T> action) {
+        if (directory == null) {
+            return action.get();
+        }
+        checkNotMoving(userId);
+        return ShardRoutingDataSource.using(directory.shardOf(userId), action);
+    }
+
+    /**
+     * 在多个用户共同所在的分片上执行写操作（同一事务只能访问一个分片）
+     *
+     * @param userIds 用户ID，可包含空值
+     * @param action 数据库操作
+     * @return 操作结果
+     * @throws IllegalArgumentException 用户位于不同分片时
+     */
+    public <T> T onUsersWrite(Collection<Long> userIds, Supplier<T> action) {
+        if (directory == null) {
+            return action.get();
+        }
+        Integer shard = null;
+        for (Long userId : userIds) {
+            checkNotMoving(userId);
+            int userShard = directory.shardOf(userId);
+            if (shard != null && shard != userShard) {
+                throw new IllegalArgumentException("批量写入的记录属于不同分片的用户，请按用户分别提交");
+            }
+            shard = userShard;
+        }
+        return ShardRoutingDataSource.using(shard != null ? shard : ShardRoutingDataSource.DEFAULT_SHARD, action);
+    }
+
+    /**
+     * 在指定分片上执行操作
+     *
+     * @param shard 分片序号
+     * @param action 数据库操作
+     * @return 操作结果
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (directory == null) {
+            return action.get();
+        }
+        return ShardRoutingDataSource.using(shard, action);
+    }
+
+    /**
+     * 在每个分片上并行执行操作
+     * 操作在独立线程中执行，不参与调用方的事务，表名提示等线程上下文需在操作内部设置
+     *
+     * @param action 数据库操作
+     * @return 按分片序号排列的结果
+     */
+    public <T> List<T> onEachShard(Supplier<T> action) {
+        if (directory == null) {
+            return Collections.singletonList(action.get());
+        }
+        int shardCount = directory.getShardCount();
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> ShardRoutingDataSource.using(target, action), fanOutExecutor));
+        }
+        List<T> results = new ArrayList<>(shardCount);
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 依次在每个分片上执行操作（用于定时任务等后台维护）
+     *
+     * @param action 数据库操作，参数为分片序号
+     */
+    public void forEachShard(IntConsumer action) {
+        for (int shard = 0; shard < getShardCount(); shard++) {
+            int target = shard;
+            onShard(target, () -> {
+                action.accept(target);
+                return null;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdown();
+        }
+    }
+
+    private void checkNotMoving(Long userId) {
+        if (directory.isMoving(userId)) {
+            log.info("用户数据迁移中，暂停写入，用户ID: {}, 桶: {}", userId, directory.bucketOf(Objects.requireNonNull(userId)));
+            throw new BusinessException(MOVING_STATUS, "数据迁移中，请稍后重试");
+        }
+    }
+}
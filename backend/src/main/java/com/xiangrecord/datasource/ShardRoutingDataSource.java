@@ -0,0 +1,131 @@
+package com.xiangrecord.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 分片路由数据源
+ * 按当前线程的分片上下文选择分片库，未设置上下文时使用默认分片（用户表等未分片的表均位于默认分片）。
+ * 须由 LazyConnectionDataSourceProxy 包装，使事务在首条SQL执行时才按分片上下文获取连接；
+ * 事务内的连接固定在一个分片上，同一事务切换到其他分片会抛出异常，而不是静默地访问错误的库。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+public class ShardRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    /**
+     * 默认分片
+     */
+    public static final int DEFAULT_SHARD = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 事务资源键，记录当前事务（含 SUPPORTS 等事务同步范围）所在的分片
+     */
+    private static final Object TRANSACTION_SHARD_KEY = new Object();
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个分片");
+        }
+        this.shards = List.copyOf(shards);
+    }
+
+    /**
+     * 在指定分片上执行数据库操作，结束后恢复之前的分片上下文
+     *
+     * @param shard 分片序号
+     * @param action 数据库操作
+     * @return 操作结果
+     */
+    public static <T> T using(int shard, Supplier<T> action) {
+        bindToTransaction(shard);
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * 当前线程的分片
+     */
+    public static int currentShard() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : DEFAULT_SHARD;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int shard = currentShard();
+        if (shard < 0 || shard >= shards.size()) {
+            throw new IllegalStateException("分片序号超出范围: " + shard + "，分片数: " + shards.size());
+        }
+        bindToTransaction(shard);
+        return shards.get(shard).getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("分片数据源不支持指定用户名密码获取连接");
+    }
+
+    @Override
+    public void close() {
+        // 默认分片的连接池由容器管理，这里只关闭其余分片
+        for (int i = 1; i < shards.size(); i++) {
+            if (shards.get(i) instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("关闭分片连接池失败: {}", i, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 在事务同步范围内记录所用分片，之后请求其他分片时抛出异常
+     */
+    private static void bindToTransaction(int shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Integer bound = (Integer) TransactionSynchronizationManager.getResource(TRANSACTION_SHARD_KEY);
+        if (bound == null) {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD_KEY, shard);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD_KEY);
+                }
+            });
+        } else if (bound != shard) {
+            throw new IllegalStateException("同一事务内不能访问多个分片，事务所在分片: " + bound + "，请求分片: " + shard);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.xiangrecord.dto;
+
+import com.xiangrecord.entity.enums.Color;
+import com.xiangrecord.entity.enums.Moisture;
+import com.xiangrecord.entity.enums.Mood;
+import com.xiangrecord.entity.enums.Shape;
+import com.xiangrecord.entity.enums.Size;
+import com.xiangrecord.entity.enums.Smell;
+import com.xiangrecord.entity.enums.Texture;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 分类属性组合计数（统计查询结果行）
+ * 一行对应一种 (颜色, 气味, 干湿度, 形状, 大小, 质地, 心情) 组合及其记录数
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttributeCombinationCount {
+
+    private Color color;
+    private Smell smell;
+    private Moisture moisture;
+    private Shape shape;
+    private Size size;
+    private Texture texture;
+    private Mood mood;
+
+    /**
+     * 该组合的记录数
+     */
+    private Long total;
+}
@@ -0,0 +1,51 @@
+package com.xiangrecord.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 属性共现表DTO
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "两个分类属性的共现表")
+public class AttributeCooccurrence {
+
+    @Schema(description = "行属性", example = "color")
+    private String rowAttribute;
+
+    @Schema(description = "列属性", example = "mood")
+    private String columnAttribute;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+    @Schema(description = "统计开始时间（未指定时为空）", example = "2024-01-01T00:00:00.000Z")
+    private LocalDateTime startTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+    @Schema(description = "统计结束时间（未指定时为空）", example = "2024-01-31T23:59:59.999Z")
+    private LocalDateTime endTime;
+
+    @Schema(description = "两个属性均有取值的记录数", example = "128")
+    private Long total;
+
+    @Schema(description = "行属性取值（按记录数倒序）", example = "[\"brown\",\"yellow\"]")
+    private List<String> rowValues;
+
+    @Schema(description = "列属性取值（按记录数倒序）", example = "[\"happy\",\"normal\"]")
+    private List<String> columnValues;
+
+    @Schema(description = "共现记录数，counts[i][j] 对应 rowValues[i] 与 columnValues[j]", example = "[[80,20],[10,18]]")
+    private List<List<Long>> counts;
+}
@@ -0,0 +1,33 @@
+package com.xiangrecord.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 按记录时间批量删除请求DTO
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "按记录时间批量删除请求")
+public class BatchDeleteRequest {
+
+    @NotNull(message = "用户ID不能为空")
+    @Schema(description = "用户ID", example = "123")
+    private Long userId;
+
+    @NotEmpty(message = "记录时间列表不能为空")
+    @Schema(description = "待删除记录的记录时间（UTC毫秒时间戳）", example = "[1705329000000, 1705332600000]")
+    private List<@NotNull Long> recordTimes;
+}
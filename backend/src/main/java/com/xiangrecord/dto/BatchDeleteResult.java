@@ -0,0 +1,33 @@
+package com.xiangrecord.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量删除记录结果DTO
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "批量删除记录结果")
+public class BatchDeleteResult {
+
+    @Schema(description = "请求删除的时间戳数量（去重后）", example = "120")
+    private Integer requested;
+
+    @Schema(description = "库中存在的时间戳数量", example = "118")
+    private Integer matched;
+
+    @Schema(description = "实际删除的记录数", example = "118")
+    private Long deleted;
+
+    @Schema(description = "执行的范围删除语句数（连续片段数）", example = "3")
+    private Integer segments;
+}
@@ -0,0 +1,29 @@
+package com.xiangrecord.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量创建记录请求DTO
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "批量创建记录请求")
+public class BatchRecordRequest {
+
+    @NotEmpty(message = "记录列表不能为空")
+    @Schema(description = "待创建的记录列表")
+    private List<@Valid PoopRecordDTO> records;
+}
@@ -0,0 +1,58 @@
+package com.xiangrecord.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量创建记录结果DTO
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "批量创建记录结果")
+public class BatchRecordResult {
+
+    @Schema(description = "提交的记录数", example = "120")
+    private Integer total;
+
+    @Schema(description = "创建成功数", example = "119")
+    private Integer succeeded;
+
+    @Schema(description = "创建失败数", example = "1")
+    private Integer failed;
+
+    @Schema(description = "逐条结果，顺序与请求一致")
+    private List<Item> items;
+
+    /**
+     * 单条记录结果
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @Schema(description = "单条记录创建结果")
+    public static class Item {
+
+        @Schema(description = "记录在请求中的下标", example = "0")
+        private Integer index;
+
+        @Schema(description = "是否创建成功", example = "true")
+        private Boolean success;
+
+        @Schema(description = "创建后的记录ID", example = "123")
+        private Long id;
+
+        @Schema(description = "失败原因")
+        private String message;
+    }
+}
@@ -0,0 +1,97 @@
+package com.xiangrecord.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * 时间序列统计的分桶粒度
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public enum BucketUnit {
+
+    /**
+     * 按天
+     */
+    DAY(ChronoUnit.DAYS) {
+        @Override
+        public LocalDate truncate(LocalDate date) {
+            return date;
+        }
+    },
+
+    /**
+     * 按周（周一为一周开始）
+     */
+    WEEK(ChronoUnit.WEEKS) {
+        @Override
+        public LocalDate truncate(LocalDate date) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+    },
+
+    /**
+     * 按月
+     */
+    MONTH(ChronoUnit.MONTHS) {
+        @Override
+        public LocalDate truncate(LocalDate date) {
+            return date.withDayOfMonth(1);
+        }
+    };
+
+    private final ChronoUnit unit;
+
+    BucketUnit(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * 获取日期所在桶的起始日期
+     *
+     * @param date 日期
+     * @return 桶起始日期
+     */
+    public abstract LocalDate truncate(LocalDate date);
+
+    /**
+     * 计算两个桶起始日期之间相差的桶数
+     *
+     * @param from 起始桶
+     * @param to 结束桶
+     * @return 桶数
+     */
+    public long between(LocalDate from, LocalDate to) {
+        return unit.between(from, to);
+    }
+
+    /**
+     * 获取之后第n个桶的起始日期
+     *
+     * @param bucketStart 桶起始日期
+     * @param n 桶数
+     * @return 桶起始日期
+     */
+    public LocalDate plus(LocalDate bucketStart, long n) {
+        return bucketStart.plus(n, unit);
+    }
+
+    /**
+     * 根据名称解析分桶粒度（不区分大小写）
+     *
+     * @param name 名称
+     * @return 分桶粒度
+     * @throws IllegalArgumentException 不支持的粒度
+     */
+    public static BucketUnit of(String name) {
+        for (BucketUnit bucketUnit : values()) {
+            if (bucketUnit.name().equalsIgnoreCase(name)) {
+                return bucketUnit;
+            }
+        }
+        throw new IllegalArgumentException("不支持的分桶粒度: " + name);
+    }
+}
@@ -0,0 +1,44 @@
+package com.xiangrecord.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 记录导出格式
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+
+    /**
+     * 每行一个JSON对象
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * 逗号分隔值（UTF-8带BOM，便于表格软件打开）
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    /**
+     * 根据名称解析导出格式（不区分大小写）
+     *
+     * @param name 格式名称
+     * @return 导出格式
+     * @throws IllegalArgumentException 不支持的格式
+     */
+    public static ExportFormat of(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("不支持的导出格式: " + name);
+    }
+}
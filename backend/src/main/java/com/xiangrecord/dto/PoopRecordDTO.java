@@ -5,8 +5,14 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.xiangrecord.entity.enums.Color;
+import com.xiangrecord.entity.enums.Moisture;
+import com.xiangrecord.entity.enums.Mood;
+import com.xiangrecord.entity.enums.Shape;
+import com.xiangrecord.entity.enums.Size;
+import com.xiangrecord.entity.enums.Smell;
+import com.xiangrecord.entity.enums.Texture;
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 import java.time.LocalDateTime;
@@ -32,33 +38,33 @@ public class PoopRecordDTO {
     @Schema(description = "记录时间", example = "2024-01-15T14:30:00.000Z")
     private LocalDateTime recordTime;
 
-    @NotBlank(message = "颜色不能为空")
+    @NotNull(message = "颜色不能为空")
     @Schema(description = "颜色", example = "brown", allowableValues = {"brown", "yellow", "green", "black", "red", "white"})
-    private String color;
+    private Color color;
 
-    @NotBlank(message = "气味不能为空")
+    @NotNull(message = "气味不能为空")
     @Schema(description = "气味", example = "normal", allowableValues = {"normal", "mild", "strong", "sweet", "sour"})
-    private String smell;
+    private Smell smell;
 
-    @NotBlank(message = "干湿度不能为空")
+    @NotNull(message = "干湿度不能为空")
     @Schema(description = "干湿度", example = "normal", allowableValues = {"dry", "normal", "wet", "watery"})
-    private String moisture;
+    private Moisture moisture;
 
-    @NotBlank(message = "形状不能为空")
+    @NotNull(message = "形状不能为空")
     @Schema(description = "形状", example = "sausage", allowableValues = {"sausage", "lumpy", "cracked", "soft", "liquid", "pellets"})
-    private String shape;
+    private Shape shape;
 
-    @NotBlank(message = "大小不能为空")
+    @NotNull(message = "大小不能为空")
     @Schema(description = "大小", example = "medium", allowableValues = {"small", "medium", "large", "extra_large"})
-    private String size;
+    private Size size;
 
-    @NotBlank(message = "质地不能为空")
+    @NotNull(message = "质地不能为空")
     @Schema(description = "质地", example = "smooth", allowableValues = {"smooth", "rough", "sticky", "fluffy"})
-    private String texture;
+    private Texture texture;
 
-    @NotBlank(message = "心情不能为空")
+    @NotNull(message = "心情不能为空")
     @Schema(description = "心情", example = "happy", allowableValues = {"happy", "relieved", "normal", "uncomfortable", "painful"})
-    private String mood;
+    private Mood mood;
 
     @Schema(description = "备注", example = "今天感觉很舒畅")
     private String notes;
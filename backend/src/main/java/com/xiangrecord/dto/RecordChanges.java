@@ -0,0 +1,38 @@
+package com.xiangrecord.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 增量同步结果DTO
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "增量同步结果")
+public class RecordChanges {
+
+    @Schema(description = "水位之后新增或更新的记录（当前最新内容）")
+    private List<PoopRecordDTO> upserts;
+
+    @Schema(description = "水位之后删除的记录ID")
+    private List<Long> deletedIds;
+
+    @Schema(description = "新的同步水位，下次请求作为since传入", example = "MXwxMjN8MjAyNC0wMS0xNVQxNDozMDowMC4xMjM")
+    private String watermark;
+
+    @Schema(description = "是否还有更多变更，为true时应立即用新水位继续拉取", example = "false")
+    private Boolean hasMore;
+
+    @Schema(description = "是否需要全量同步（未传水位或水位已过期），此时应先全量拉取再从返回的水位开始增量同步", example = "false")
+    private Boolean fullResync;
+}
@@ -0,0 +1,29 @@
+package com.xiangrecord.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 记录表分区信息（information_schema.PARTITIONS 查询结果行）
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecordPartition {
+
+    /**
+     * 分区名
+     */
+    private String name;
+
+    /**
+     * 分区上界（不含），如 '2024-02-01 00:00:00'；最后一个分区为 MAXVALUE
+     */
+    private String description;
+}
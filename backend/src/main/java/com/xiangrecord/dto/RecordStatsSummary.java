@@ -0,0 +1,40 @@
+package com.xiangrecord.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 记录统计汇总DTO
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "记录统计汇总")
+public class RecordStatsSummary {
+
+    @Schema(description = "记录总数", example = "128")
+    private Long total;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+    @Schema(description = "统计开始时间（未指定时为空）", example = "2024-01-01T00:00:00.000Z")
+    private LocalDateTime startTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+    @Schema(description = "统计结束时间（未指定时为空）", example = "2024-01-31T23:59:59.999Z")
+    private LocalDateTime endTime;
+
+    @Schema(description = "各分类属性的取值分布，键为属性名（color、smell、moisture、shape、size、texture、mood），值为取值到记录数的映射（按记录数倒序）",
+            example = "{\"color\":{\"brown\":100,\"yellow\":28},\"mood\":{\"happy\":90,\"normal\":38}}")
+    private Map<String, Map<String, Long>> histograms;
+}
@@ -0,0 +1,55 @@
+package com.xiangrecord.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 记录时间序列统计DTO
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "记录时间序列统计")
+public class RecordTimeSeries {
+
+    @Schema(description = "分桶粒度", example = "day", allowableValues = {"day", "week", "month"})
+    private String bucket;
+
+    @Schema(description = "分桶所用时区", example = "Asia/Shanghai")
+    private String timezone;
+
+    @Schema(description = "连续的时间桶（没有记录的桶计数为0）")
+    private List<Bucket> buckets;
+
+    /**
+     * 单个时间桶
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @Schema(description = "时间桶")
+    public static class Bucket {
+
+        @Schema(description = "桶起始日期（用户时区）", example = "2024-01-15")
+        private String start;
+
+        @Schema(description = "记录数", example = "2")
+        private Long count;
+
+        @Schema(description = "出现最多的形状（无记录时为空）", example = "sausage")
+        private String dominantShape;
+
+        @Schema(description = "出现最多的颜色（无记录时为空）", example = "brown")
+        private String dominantColor;
+    }
+}
@@ -0,0 +1,34 @@
+package com.xiangrecord.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 分片目录项（record_shard_buckets 表的行）
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShardBucket {
+
+    /**
+     * 虚拟桶编号（user_id 对桶数取模）
+     */
+    private Integer bucket;
+
+    /**
+     * 所在分片序号
+     */
+    private Integer shard;
+
+    /**
+     * 是否迁移中，迁移中的桶暂停写入
+     */
+    private Boolean moving;
+}
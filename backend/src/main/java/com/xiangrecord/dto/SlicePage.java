@@ -0,0 +1,41 @@
+package com.xiangrecord.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 无总数分片结果（用于游标分页、页码滚动等无限滚动场景）
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "分片查询结果")
+public class SlicePage<T> {
+
+    @Schema(description = "当前分片数据")
+    private List<T> records;
+
+    @Schema(description = "当前页码（页码滚动模式下返回）", example = "1")
+    private Long current;
+
+    @Schema(description = "每页大小", example = "10")
+    private Integer size;
+
+    @Schema(description = "是否还有更多数据", example = "true")
+    private Boolean hasMore;
+
+    @Schema(description = "下一页游标（不透明字符串，没有更多数据时为空）", example = "MXwyMDI0LTAxLTE1VDE0OjMwfDEyMw")
+    private String nextCursor;
+
+    @Schema(description = "记录总数（仅在请求时返回，可能为缓存值或估算值）", example = "128")
+    private Long total;
+}
@@ -1,7 +1,13 @@
 package com.xiangrecord.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
-import jakarta.validation.constraints.NotBlank;
+import com.xiangrecord.entity.enums.Color;
+import com.xiangrecord.entity.enums.Moisture;
+import com.xiangrecord.entity.enums.Mood;
+import com.xiangrecord.entity.enums.Shape;
+import com.xiangrecord.entity.enums.Size;
+import com.xiangrecord.entity.enums.Smell;
+import com.xiangrecord.entity.enums.Texture;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -34,40 +40,40 @@ public class PoopRecord extends BaseEntity {
     @Schema(description = "记录时间", example = "2024-01-15T14:30:00.000Z")
     private LocalDateTime recordTime;
 
-    @NotBlank(message = "颜色不能为空")
+    @NotNull(message = "颜色不能为空")
     @TableField("color")
     @Schema(description = "颜色", example = "brown", allowableValues = {"brown", "yellow", "green", "black", "red", "white"})
-    private String color;
+    private Color color;
 
-    @NotBlank(message = "气味不能为空")
+    @NotNull(message = "气味不能为空")
     @TableField("smell")
     @Schema(description = "气味", example = "normal", allowableValues = {"normal", "mild", "strong", "sweet", "sour"})
-    private String smell;
+    private Smell smell;
 
-    @NotBlank(message = "干湿度不能为空")
+    @NotNull(message = "干湿度不能为空")
     @TableField("moisture")
     @Schema(description = "干湿度", example = "normal", allowableValues = {"dry", "normal", "wet", "watery"})
-    private String moisture;
+    private Moisture moisture;
 
-    @NotBlank(message = "形状不能为空")
+    @NotNull(message = "形状不能为空")
     @TableField("shape")
     @Schema(description = "形状", example = "sausage", allowableValues = {"sausage", "lumpy", "cracked", "soft", "liquid", "pellets"})
-    private String shape;
+    private Shape shape;
 
-    @NotBlank(message = "大小不能为空")
+    @NotNull(message = "大小不能为空")
     @TableField("size")
     @Schema(description = "大小", example = "medium", allowableValues = {"small", "medium", "large", "extra_large"})
-    private String size;
+    private Size size;
 
-    @NotBlank(message = "质地不能为空")
+    @NotNull(message = "质地不能为空")
     @TableField("texture")
     @Schema(description = "质地", example = "smooth", allowableValues = {"smooth", "rough", "sticky", "fluffy"})
-    private String texture;
+    private Texture texture;
 
-    @NotBlank(message = "心情不能为空")
+    @NotNull(message = "心情不能为空")
     @TableField("mood")
     @Schema(description = "心情", example = "happy", allowableValues = {"happy", "relieved", "normal", "uncomfortable", "painful"})
-    private String mood;
+    private Mood mood;
 
     @TableField("notes")
     @Schema(description = "备注", example = "今天感觉很舒畅")
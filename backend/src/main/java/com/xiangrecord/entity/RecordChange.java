@@ -0,0 +1,67 @@
+package com.xiangrecord.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 便便记录变更日志实体类
+ * 用于增量同步，删除操作以 op = 'D' 的行作为墓碑保留
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@TableName("poop_record_changes")
+public class RecordChange {
+
+    /**
+     * 新增或更新
+     */
+    public static final String OP_UPSERT = "U";
+
+    /**
+     * 删除
+     */
+    public static final String OP_DELETE = "D";
+
+    /**
+     * 变更序号，自增
+     */
+    @TableId(value = "seq", type = IdType.AUTO)
+    private Long seq;
+
+    /**
+     * 用户ID
+     */
+    @TableField("user_id")
+    private Long userId;
+
+    /**
+     * 记录ID
+     */
+    @TableField("record_id")
+    private Long recordId;
+
+    /**
+     * 变更类型
+     */
+    @TableField("op")
+    private String op;
+
+    /**
+     * 变更时间
+     */
+    @TableField("changed_at")
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,137 @@
+package com.xiangrecord.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 短信发件箱实体类
+ * 每行是一条待发送或已处理的短信，由派发线程异步发送
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@TableName("sms_outbox")
+public class SmsOutbox {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENDING = "SENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * 同一批中有更新的同类短信，未发送
+     */
+    public static final String STATUS_SUPERSEDED = "SUPERSEDED";
+
+    /**
+     * 发送前已过期，未发送
+     */
+    public static final String STATUS_EXPIRED = "EXPIRED";
+
+    /**
+     * 通知短信的类别
+     */
+    public static final String CATEGORY_NOTIFICATION = "notification";
+
+    /**
+     * 短信ID，自增
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 手机号
+     */
+    @TableField("phone")
+    private String phone;
+
+    /**
+     * 类别：验证码用途或 notification
+     */
+    @TableField("category")
+    private String category;
+
+    /**
+     * 验证码或通知内容，发送结束（SENT/FAILED/SUPERSEDED/EXPIRED）后清空
+     */
+    @TableField("content")
+    private String content;
+
+    /**
+     * 去重键
+     */
+    @TableField("dedup_key")
+    private String dedupKey;
+
+    /**
+     * 状态
+     */
+    @TableField("status")
+    private String status;
+
+    /**
+     * 已调用服务商的次数
+     */
+    @TableField("attempts")
+    private Integer attempts;
+
+    /**
+     * 下次发送时间（SENDING 时为认领到期时间）
+     */
+    @TableField("next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * 过期时间
+     */
+    @TableField("expires_at")
+    private LocalDateTime expiresAt;
+
+    /**
+     * 认领标识
+     */
+    @TableField("claim_token")
+    private String claimToken;
+
+    /**
+     * 服务商返回的消息ID
+     */
+    @TableField("provider_message_id")
+    private String providerMessageId;
+
+    /**
+     * 最近一次失败原因
+     */
+    @TableField("last_error")
+    private String lastError;
+
+    /**
+     * 创建时间
+     */
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * 发送成功时间
+     */
+    @TableField("sent_at")
+    private LocalDateTime sentAt;
+}
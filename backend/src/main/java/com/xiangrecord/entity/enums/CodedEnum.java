@@ -0,0 +1,77 @@
+package com.xiangrecord.entity.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * 带数据库编码的枚举
+ * 数据库中以 TINYINT 编码存储，JSON 中以小写取值字符串表示（与原字符串字段保持一致）
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public interface CodedEnum {
+
+    /**
+     * 数据库编码（从1开始）
+     *
+     * @return 编码
+     */
+    int getCode();
+
+    /**
+     * 对外取值（JSON、请求参数）
+     *
+     * @return 取值
+     */
+    @JsonValue
+    String getValue();
+
+    /**
+     * 根据取值解析枚举
+     *
+     * @param type 枚举类型
+     * @param value 取值，为空时返回null
+     * @param <E> 枚举类型
+     * @return 枚举
+     * @throws IllegalArgumentException 不支持的取值
+     */
+    static <E extends Enum<E> & CodedEnum> E fromValue(Class<E> type, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        for (E constant : type.getEnumConstants()) {
+            if (constant.getValue().equals(value)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("不支持的取值: " + value);
+    }
+
+    /**
+     * 根据数据库编码解析枚举
+     *
+     * @param type 枚举类型
+     * @param code 编码
+     * @param <E> 枚举类型
+     * @return 枚举
+     * @throws IllegalArgumentException 未知编码
+     */
+    static <E extends Enum<E> & CodedEnum> E fromCode(Class<E> type, int code) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.getCode() == code) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException(type.getSimpleName() + " 未知编码: " + code);
+    }
+
+    /**
+     * 取枚举的取值
+     *
+     * @param constant 枚举，可为null
+     * @return 取值，枚举为null时返回null
+     */
+    static String valueOf(CodedEnum constant) {
+        return constant != null ? constant.getValue() : null;
+    }
+}
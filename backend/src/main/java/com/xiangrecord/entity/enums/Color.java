@@ -0,0 +1,36 @@
+package com.xiangrecord.entity.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 记录颜色
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public enum Color implements CodedEnum {
+
+    BROWN(1, "brown"),
+    YELLOW(2, "yellow"),
+    GREEN(3, "green"),
+    BLACK(4, "black"),
+    RED(5, "red"),
+    WHITE(6, "white");
+
+    private final int code;
+    private final String value;
+
+    /**
+     * 根据取值解析
+     *
+     * @param value 取值，为空时返回null
+     * @return 颜色
+     * @throws IllegalArgumentException 不支持的取值
+     */
+    public static Color of(String value) {
+        return CodedEnum.fromValue(Color.class, value);
+    }
+}
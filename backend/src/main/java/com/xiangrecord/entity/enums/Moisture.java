@@ -0,0 +1,34 @@
+package com.xiangrecord.entity.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 记录干湿度
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public enum Moisture implements CodedEnum {
+
+    DRY(1, "dry"),
+    NORMAL(2, "normal"),
+    WET(3, "wet"),
+    WATERY(4, "watery");
+
+    private final int code;
+    private final String value;
+
+    /**
+     * 根据取值解析
+     *
+     * @param value 取值，为空时返回null
+     * @return 干湿度
+     * @throws IllegalArgumentException 不支持的取值
+     */
+    public static Moisture of(String value) {
+        return CodedEnum.fromValue(Moisture.class, value);
+    }
+}
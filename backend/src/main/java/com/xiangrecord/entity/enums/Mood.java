@@ -0,0 +1,35 @@
+package com.xiangrecord.entity.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 记录心情
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public enum Mood implements CodedEnum {
+
+    HAPPY(1, "happy"),
+    RELIEVED(2, "relieved"),
+    NORMAL(3, "normal"),
+    UNCOMFORTABLE(4, "uncomfortable"),
+    PAINFUL(5, "painful");
+
+    private final int code;
+    private final String value;
+
+    /**
+     * 根据取值解析
+     *
+     * @param value 取值，为空时返回null
+     * @return 心情
+     * @throws IllegalArgumentException 不支持的取值
+     */
+    public static Mood of(String value) {
+        return CodedEnum.fromValue(Mood.class, value);
+    }
+}
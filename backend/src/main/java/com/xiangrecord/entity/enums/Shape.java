@@ -0,0 +1,36 @@
+package com.xiangrecord.entity.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 记录形状
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public enum Shape implements CodedEnum {
+
+    SAUSAGE(1, "sausage"),
+    LUMPY(2, "lumpy"),
+    CRACKED(3, "cracked"),
+    SOFT(4, "soft"),
+    LIQUID(5, "liquid"),
+    PELLETS(6, "pellets");
+
+    private final int code;
+    private final String value;
+
+    /**
+     * 根据取值解析
+     *
+     * @param value 取值，为空时返回null
+     * @return 形状
+     * @throws IllegalArgumentException 不支持的取值
+     */
+    public static Shape of(String value) {
+        return CodedEnum.fromValue(Shape.class, value);
+    }
+}
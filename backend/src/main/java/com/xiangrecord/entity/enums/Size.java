@@ -0,0 +1,34 @@
+package com.xiangrecord.entity.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 记录大小
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public enum Size implements CodedEnum {
+
+    SMALL(1, "small"),
+    MEDIUM(2, "medium"),
+    LARGE(3, "large"),
+    EXTRA_LARGE(4, "extra_large");
+
+    private final int code;
+    private final String value;
+
+    /**
+     * 根据取值解析
+     *
+     * @param value 取值，为空时返回null
+     * @return 大小
+     * @throws IllegalArgumentException 不支持的取值
+     */
+    public static Size of(String value) {
+        return CodedEnum.fromValue(Size.class, value);
+    }
+}
@@ -0,0 +1,35 @@
+package com.xiangrecord.entity.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 记录气味
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public enum Smell implements CodedEnum {
+
+    NORMAL(1, "normal"),
+    MILD(2, "mild"),
+    STRONG(3, "strong"),
+    SWEET(4, "sweet"),
+    SOUR(5, "sour");
+
+    private final int code;
+    private final String value;
+
+    /**
+     * 根据取值解析
+     *
+     * @param value 取值，为空时返回null
+     * @return 气味
+     * @throws IllegalArgumentException 不支持的取值
+     */
+    public static Smell of(String value) {
+        return CodedEnum.fromValue(Smell.class, value);
+    }
+}
@@ -0,0 +1,34 @@
+package com.xiangrecord.entity.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 记录质地
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public enum Texture implements CodedEnum {
+
+    SMOOTH(1, "smooth"),
+    ROUGH(2, "rough"),
+    STICKY(3, "sticky"),
+    FLUFFY(4, "fluffy");
+
+    private final int code;
+    private final String value;
+
+    /**
+     * 根据取值解析
+     *
+     * @param value 取值，为空时返回null
+     * @return 质地
+     * @throws IllegalArgumentException 不支持的取值
+     */
+    public static Texture of(String value) {
+        return CodedEnum.fromValue(Texture.class, value);
+    }
+}
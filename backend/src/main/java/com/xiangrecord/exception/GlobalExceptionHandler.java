@@ -2,8 +2,10 @@ package com.xiangrecord.exception;
 
 import com.xiangrecord.dto.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -97,6 +99,31 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(400, message));
     }
 
+    /**
+     * 处理请求体无法解析异常（如JSON格式错误、枚举字段取值不支持）
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiResponse<String>> handleMessageNotReadableException(
+            HttpMessageNotReadableException ex) {
+        log.warn("请求体解析失败: {}", ex.getMessage());
+        
+        return ResponseEntity.badRequest()
+                .body(ApiResponse.error(400, "请求体格式不正确或包含不支持的取值"));
+    }
+
+    /**
+     * 处理请求频率超限异常
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiResponse<String>> handleRateLimitExceededException(
+            RateLimitExceededException ex) {
+        log.warn("请求频率超限，{}秒后可重试", ex.getRetryAfterSeconds());
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(429, ex.getMessage()));
+    }
+
     /**
      * 处理业务异常
      */
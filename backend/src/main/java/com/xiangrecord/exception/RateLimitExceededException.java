@@ -0,0 +1,22 @@
+package com.xiangrecord.exception;
+
+/**
+ * 请求频率超限异常
+ * 返回429，并通过 Retry-After 告知客户端多少秒后可以重试
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public class RateLimitExceededException extends BusinessException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        super(429, "请求过于频繁，请稍后重试");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,53 @@
+package com.xiangrecord.handler;
+
+import com.xiangrecord.entity.enums.CodedEnum;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 编码枚举类型处理器
+ * 将 {@link CodedEnum} 以 TINYINT 编码读写数据库
+ *
+ * @param <E> 枚举类型
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public class CodedEnumTypeHandler<E extends Enum<E> & CodedEnum> extends BaseTypeHandler<E> {
+
+    private final Class<E> type;
+
+    public CodedEnumTypeHandler(Class<E> type) {
+        if (type == null) {
+            throw new IllegalArgumentException("枚举类型不能为空");
+        }
+        this.type = type;
+    }
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, E parameter, JdbcType jdbcType) throws SQLException {
+        ps.setInt(i, parameter.getCode());
+    }
+
+    @Override
+    public E getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        int code = rs.getInt(columnName);
+        return rs.wasNull() ? null : CodedEnum.fromCode(type, code);
+    }
+
+    @Override
+    public E getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        int code = rs.getInt(columnIndex);
+        return rs.wasNull() ? null : CodedEnum.fromCode(type, code);
+    }
+
+    @Override
+    public E getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        int code = cs.getInt(columnIndex);
+        return cs.wasNull() ? null : CodedEnum.fromCode(type, code);
+    }
+}
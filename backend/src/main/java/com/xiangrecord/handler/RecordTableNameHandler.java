@@ -0,0 +1,67 @@
+package com.xiangrecord.handler;
+
+import com.baomidou.mybatisplus.extension.plugins.handler.TableNameHandler;
+
+import java.util.function.Supplier;
+
+/**
+ * 记录表名处理器
+ * 记录相关SQL默认访问热表 poop_records；在 {@link #using} 范围内执行的SQL改为访问指定的归档表或全量视图
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public class RecordTableNameHandler implements TableNameHandler {
+
+    /**
+     * 热表（按月分区）
+     */
+    public static final String HOT_TABLE = "poop_records";
+
+    /**
+     * 归档表（压缩存储的冷数据）
+     */
+    public static final String ARCHIVE_TABLE = "poop_records_archive";
+
+    /**
+     * 归档中转表（归档过程中暂存整个分区的记录）
+     */
+    public static final String STAGE_TABLE = "poop_records_archive_stage";
+
+    /**
+     * 全量视图（热表、归档中转表与归档表的并集）
+     */
+    public static final String ALL_VIEW = "poop_records_all";
+
+    private static final ThreadLocal<String> TARGET = new ThreadLocal<>();
+
+    /**
+     * 在指定表上执行查询，结束后恢复之前的目标表
+     *
+     * @param table 目标表名
+     * @param action 数据库操作
+     * @return 操作结果
+     */
+    public static <T> T using(String table, Supplier<T> action) {
+        String previous = TARGET.get();
+        TARGET.set(table);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                TARGET.set(previous);
+            } else {
+                TARGET.remove();
+            }
+        }
+    }
+
+    @Override
+    public String dynamicTableName(String sql, String tableName) {
+        if (!HOT_TABLE.equalsIgnoreCase(tableName)) {
+            return tableName;
+        }
+        String target = TARGET.get();
+        return target != null ? target : tableName;
+    }
+}
@@ -1,7 +1,8 @@
 package com.xiangrecord.interceptor;
 
-import com.xiangrecord.util.JwtUtil;
-import com.xiangrecord.util.RedisUtil;
+import com.xiangrecord.cache.TokenClaimsCache;
+import com.xiangrecord.cache.TokenRevocationCache;
+import com.xiangrecord.util.ParsedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,6 +23,7 @@ import java.util.ArrayList;
 /**
  * JWT认证过滤器
  * 用于验证请求中的JWT token并设置Spring Security上下文
+ * 验签结果由 TokenClaimsCache 缓存，同一令牌只解析一次；吊销状态由 TokenRevocationCache 在本地判断
  * 
  * @author xiangrecord
  * @version 1.0.0
@@ -31,12 +33,11 @@ import java.util.ArrayList;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
-    private final RedisUtil redisUtil;
+    private final TokenClaimsCache tokenClaimsCache;
+    private final TokenRevocationCache tokenRevocationCache;
 
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
-    private static final String TOKEN_BLACKLIST_PREFIX = "blacklist:token:";
 
     @Override
     protected void doFilterInternal(
@@ -51,11 +52,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             
             if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 // 验证token
-                if (validateToken(token)) {
+                ParsedToken verified = validateToken(token);
+                if (verified != null) {
                     // 从token中获取用户信息
-                    Long userIdLong = jwtUtil.getUserIdFromToken(token);
-                    String username = jwtUtil.getUsernameFromToken(token);
-                    String userId = userIdLong != null ? userIdLong.toString() : null;
+                    String userId = verified.getUserId() != null ? verified.getUserId().toString() : null;
+                    String username = verified.getUsername();
                     
                     if (userId != null && username != null) {
                         // 创建认证对象
@@ -103,34 +104,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     /**
      * 验证token的有效性
+     * 
+     * @return 验签通过的令牌信息，无效时返回null
      */
-    private boolean validateToken(String token) {
+    private ParsedToken validateToken(String token) {
         try {
-            // 检查token是否在黑名单中
-            if (isTokenBlacklisted(token)) {
-                log.debug("Token已在黑名单中: {}", token);
-                return false;
+            // 验证token的有效性
+            ParsedToken parsed = tokenClaimsCache.get(token);
+            if (parsed == null) {
+                return null;
             }
             
-            // 验证token的有效性
-            return jwtUtil.validateToken(token);
+            // 检查token是否已吊销
+            if (tokenRevocationCache.isRevoked(parsed)) {
+                log.debug("Token已吊销，jti: {}", parsed.getId());
+                return null;
+            }
+            return parsed;
         } catch (Exception e) {
             log.debug("Token验证失败: {}", e.getMessage());
-            return false;
-        }
-    }
-
-    /**
-     * 检查token是否在黑名单中
-     */
-    private boolean isTokenBlacklisted(String token) {
-        try {
-            String blacklistKey = TOKEN_BLACKLIST_PREFIX + token;
-            return redisUtil.hasKey(blacklistKey);
-        } catch (Exception e) {
-            log.error("检查token黑名单时发生错误: {}", e.getMessage());
-            // 如果Redis出现问题，为了安全起见，假设token不在黑名单中
-            return false;
+            return null;
         }
     }
 
@@ -0,0 +1,52 @@
+package com.xiangrecord.interceptor;
+
+import com.xiangrecord.service.RateLimitService;
+import com.xiangrecord.util.SecurityUtil;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * 限流拦截器
+ * 每条限流规则注册一个实例，只拦截该规则的路径；按客户端IP、当前用户、
+ * 以及路径变量或请求参数中的手机号取令牌。请求体中的手机号由控制器自行限流。
+ * 异步处理器（返回 CompletableFuture）完成后的二次分派不再取令牌，每个请求只计一次。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PHONE = "phone";
+
+    private final RateLimitService rateLimitService;
+    private final String rule;
+
+    public RateLimitInterceptor(RateLimitService rateLimitService, String rule) {
+        this.rateLimitService = rateLimitService;
+        this.rule = rule;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        rateLimitService.acquire(rule, RateLimitService.KEY_IP, request.getRemoteAddr());
+        rateLimitService.acquire(rule, RateLimitService.KEY_USER, SecurityUtil.currentUser());
+        rateLimitService.acquire(rule, RateLimitService.KEY_PHONE, phone(request));
+        return true;
+    }
+
+    private static String phone(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables instanceof Map<?, ?> map && map.get(PHONE) != null) {
+            return map.get(PHONE).toString();
+        }
+        return request.getParameter(PHONE);
+    }
+}
@@ -0,0 +1,35 @@
+package com.xiangrecord.interceptor;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import com.baomidou.mybatisplus.extension.plugins.inner.DynamicTableNameInnerInterceptor;
+import com.xiangrecord.handler.RecordTableNameHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.SqlCommandType;
+
+import java.sql.Connection;
+
+/**
+ * 记录表动态表名插件
+ * 普通查询在 beforeQuery 中替换表名（替换后才计算一级缓存键）；流式游标查询不经过 beforeQuery，
+ * 这里在语句预编译前对查询再替换一次。替换后的SQL不再包含热表名，重复替换不会产生影响。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public class RecordTableInnerInterceptor extends DynamicTableNameInnerInterceptor {
+
+    public RecordTableInnerInterceptor() {
+        super(new RecordTableNameHandler());
+    }
+
+    @Override
+    public void beforePrepare(StatementHandler sh, Connection connection, Integer transactionTimeout) {
+        PluginUtils.MPStatementHandler mpSh = PluginUtils.mpStatementHandler(sh);
+        if (mpSh.mappedStatement().getSqlCommandType() == SqlCommandType.SELECT) {
+            PluginUtils.MPBoundSql mpBs = mpSh.mPBoundSql();
+            mpBs.sql(changeTable(mpBs.sql()));
+            return;
+        }
+        super.beforePrepare(sh, connection, transactionTimeout);
+    }
+}
@@ -1,8 +1,18 @@
 package com.xiangrecord.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.xiangrecord.dto.AttributeCombinationCount;
 import com.xiangrecord.entity.PoopRecord;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 便便记录Mapper接口
@@ -14,4 +24,115 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface PoopRecordMapper extends BaseMapper<PoopRecord> {
     // 继承BaseMapper即可，所有CRUD操作通过Service层的Lambda表达式实现
-}
\ No newline at end of file
+
+    /**
+     * 估算记录总行数（热表与归档表之和，读取表统计信息，不扫描数据）
+     */
+    @Select("SELECT SUM(TABLE_ROWS) FROM information_schema.TABLES " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN ('poop_records', 'poop_records_archive')")
+    Long estimateRowCount();
+
+    /**
+     * 多行批量插入，一条INSERT写入整批记录，自增ID按顺序回填到实体
+     * 该语句不经过MetaObjectHandler，创建时间、更新时间需由调用方设置
+     */
+    @Insert({"<script>",
+            "INSERT INTO poop_records (record_time, color, smell, moisture, shape, size, texture, mood, notes, user_id, created_at, updated_at) VALUES ",
+            "<foreach collection='records' item='r' separator=','>",
+            "(#{r.recordTime}, #{r.color}, #{r.smell}, #{r.moisture}, #{r.shape}, #{r.size}, #{r.texture}, ",
+            "#{r.mood}, #{r.notes}, #{r.userId}, #{r.createdAt}, #{r.updatedAt})",
+            "</foreach>",
+            "</script>"})
+    @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
+    int insertBatch(@Param("records") List<PoopRecord> records);
+
+    /**
+     * 保留原ID的多行批量插入（用于分片迁移），插入更大的ID时自增计数器随之推进
+     * 该语句不经过MetaObjectHandler，创建时间、更新时间沿用原记录
+     */
+    @Insert({"<script>",
+            "INSERT INTO poop_records (id, record_time, color, smell, moisture, shape, size, texture, mood, notes, user_id, created_at, updated_at) VALUES ",
+            "<foreach collection='records' item='r' separator=','>",
+            "(#{r.id}, #{r.recordTime}, #{r.color}, #{r.smell}, #{r.moisture}, #{r.shape}, #{r.size}, #{r.texture}, ",
+            "#{r.mood}, #{r.notes}, #{r.userId}, #{r.createdAt}, #{r.updatedAt})",
+            "</foreach>",
+            "</script>"})
+    int insertBatchWithIds(@Param("records") List<PoopRecord> records);
+
+    /**
+     * 列出有记录的用户ID（按 user_id 索引松散扫描）
+     *
+     * @return 用户ID列表
+     */
+    @Select("SELECT DISTINCT user_id FROM poop_records WHERE user_id IS NOT NULL")
+    List<Long> selectUserIds();
+
+    /**
+     * 流式读取用户的记录（按记录时间、ID升序）
+     * fetchSize = Integer.MIN_VALUE 使MySQL驱动逐行返回结果，内存占用与记录总数无关；
+     * 游标需在事务内遍历，遍历期间占用一个数据库连接
+     *
+     * @param userId 用户ID
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @return 记录游标
+     */
+    @Select({"<script>",
+            "SELECT id, record_time, color, smell, moisture, shape, size, texture, mood, notes, user_id, created_at, updated_at",
+            "FROM poop_records WHERE user_id = #{userId}",
+            "<if test='startTime != null'>AND record_time &gt;= #{startTime}</if>",
+            "<if test='endTime != null'>AND record_time &lt;= #{endTime}</if>",
+            "ORDER BY record_time, id",
+            "</script>"})
+    @Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY)
+    Cursor<PoopRecord> streamByUser(@Param("userId") Long userId,
+                                    @Param("startTime") LocalDateTime startTime,
+                                    @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 按全部分类属性分组计数，一次扫描得到所有属性组合的记录数，各属性的分布由调用方汇总
+     *
+     * @param userId 用户ID（可选）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @return 属性组合计数
+     */
+    @Select({"<script>",
+            "SELECT color, smell, moisture, shape, size, texture, mood, COUNT(*) AS total FROM poop_records",
+            "<where>",
+            "<if test='userId != null'>user_id = #{userId}</if>",
+            "<if test='startTime != null'>AND record_time &gt;= #{startTime}</if>",
+            "<if test='endTime != null'>AND record_time &lt;= #{endTime}</if>",
+            "</where>",
+            "GROUP BY color, smell, moisture, shape, size, texture, mood",
+            "</script>"})
+    List<AttributeCombinationCount> countByAttributes(@Param("userId") Long userId,
+                                                      @Param("startTime") LocalDateTime startTime,
+                                                      @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 流式读取用户记录的时间、形状和颜色（用于时间序列统计）
+     *
+     * @param userId 用户ID
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 记录游标（仅填充 recordTime、shape、color）
+     */
+    @Select("SELECT record_time, shape, color FROM poop_records " +
+            "WHERE user_id = #{userId} AND record_time >= #{startTime} AND record_time <= #{endTime}")
+    @Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY)
+    Cursor<PoopRecord> streamTimeline(@Param("userId") Long userId,
+                                      @Param("startTime") LocalDateTime startTime,
+                                      @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 流式读取用户全部记录的时间和分类属性（按记录时间升序，用于构建列式分析数据）
+     *
+     * @param userId 用户ID
+     * @return 记录游标（仅填充 recordTime 和七个分类属性）
+     */
+    @Select("SELECT record_time, color, smell, moisture, shape, size, texture, mood FROM poop_records " +
+            "WHERE user_id = #{userId} ORDER BY record_time")
+    @Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY)
+    Cursor<PoopRecord> streamAttributes(@Param("userId") Long userId);
+}
@@ -0,0 +1,78 @@
+package com.xiangrecord.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.xiangrecord.entity.RecordChange;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 便便记录变更日志Mapper接口
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Mapper
+public interface RecordChangeMapper extends BaseMapper<RecordChange> {
+
+    /**
+     * 多行批量写入变更日志
+     *
+     * @param changes 变更列表
+     * @return 写入行数
+     */
+    @Insert({"<script>",
+            "INSERT INTO poop_record_changes (user_id, record_id, op, changed_at) VALUES ",
+            "<foreach collection='changes' item='c' separator=','>",
+            "(#{c.userId}, #{c.recordId}, #{c.op}, #{c.changedAt})",
+            "</foreach>",
+            "</script>"})
+    int insertBatch(@Param("changes") List<RecordChange> changes);
+
+    /**
+     * 保留原序号的多行批量写入（用于分片迁移），写入更大的序号时自增计数器随之推进，迁移后新变更的序号仍然递增
+     *
+     * @param changes 变更列表
+     * @return 写入行数
+     */
+    @Insert({"<script>",
+            "INSERT INTO poop_record_changes (seq, user_id, record_id, op, changed_at) VALUES ",
+            "<foreach collection='changes' item='c' separator=','>",
+            "(#{c.seq}, #{c.userId}, #{c.recordId}, #{c.op}, #{c.changedAt})",
+            "</foreach>",
+            "</script>"})
+    int insertBatchWithSeq(@Param("changes") List<RecordChange> changes);
+
+    /**
+     * 列出有变更日志的用户ID
+     *
+     * @return 用户ID列表
+     */
+    @Select("SELECT DISTINCT user_id FROM poop_record_changes WHERE user_id IS NOT NULL")
+    List<Long> selectUserIds();
+
+    /**
+     * 获取用户在指定时间之前的最大变更序号
+     *
+     * @param userId 用户ID
+     * @param before 截止时间
+     * @return 最大序号，无变更时返回null
+     */
+    @Select("SELECT MAX(seq) FROM poop_record_changes WHERE user_id = #{userId} AND changed_at < #{before}")
+    Long selectMaxSeqBefore(@Param("userId") Long userId, @Param("before") LocalDateTime before);
+
+    /**
+     * 分批清理早于指定时间的变更日志
+     *
+     * @param before 截止时间
+     * @param limit 单批删除行数
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM poop_record_changes WHERE changed_at < #{before} LIMIT #{limit}")
+    int deleteChangedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
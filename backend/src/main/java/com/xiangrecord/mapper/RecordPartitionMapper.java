@@ -0,0 +1,68 @@
+package com.xiangrecord.mapper;
+
+import com.xiangrecord.dto.RecordPartition;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 便便记录分区维护Mapper接口
+ * 分区名只能由调用方根据 information_schema 中的分区信息生成并校验，不得来自外部输入
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Mapper
+public interface RecordPartitionMapper {
+
+    /**
+     * 按分区顺序列出热表的分区
+     *
+     * @return 分区列表，表未分区时为空
+     */
+    @Select("SELECT PARTITION_NAME AS name, PARTITION_DESCRIPTION AS description FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'poop_records' AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION")
+    List<RecordPartition> listPartitions();
+
+    /**
+     * 重组相邻分区（拆分或合并），分区内的记录按新的分区范围重新分布，不会丢失
+     *
+     * @param partitions 被重组的分区名，逗号分隔
+     * @param definitions 新的分区定义
+     */
+    @Update("ALTER TABLE poop_records REORGANIZE PARTITION ${partitions} INTO (${definitions})")
+    void reorganizePartitions(@Param("partitions") String partitions, @Param("definitions") String definitions);
+
+    /**
+     * 将分区与归档中转表交换，分区内的记录原子地移入中转表（调用前中转表须为空）
+     *
+     * @param partition 分区名
+     */
+    @Update("ALTER TABLE poop_records EXCHANGE PARTITION ${partition} WITH TABLE poop_records_archive_stage")
+    void exchangeWithStage(@Param("partition") String partition);
+
+    /**
+     * 将中转表中的记录写入归档表
+     *
+     * @return 写入行数
+     */
+    @Insert("INSERT INTO poop_records_archive " +
+            "(id, record_time, color, smell, moisture, shape, size, texture, mood, notes, user_id, created_at, updated_at) " +
+            "SELECT id, record_time, color, smell, moisture, shape, size, texture, mood, notes, user_id, created_at, updated_at " +
+            "FROM poop_records_archive_stage")
+    int copyStageToArchive();
+
+    /**
+     * 清空中转表
+     *
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM poop_records_archive_stage")
+    int clearStage();
+}
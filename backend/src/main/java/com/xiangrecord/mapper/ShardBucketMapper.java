@@ -0,0 +1,54 @@
+package com.xiangrecord.mapper;
+
+import com.xiangrecord.dto.ShardBucket;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 分片目录Mapper接口
+ * 目录表只使用默认分片上的一份，调用方负责在默认分片上执行
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Mapper
+public interface ShardBucketMapper {
+
+    /**
+     * 按桶编号列出全部目录项
+     *
+     * @return 目录项列表
+     */
+    @Select("SELECT bucket, shard, moving FROM record_shard_buckets ORDER BY bucket")
+    List<ShardBucket> listBuckets();
+
+    /**
+     * 写入初始目录项，已存在的桶保持不变（多个实例同时初始化时只有一份生效）
+     *
+     * @param buckets 目录项
+     * @return 写入行数
+     */
+    @Insert({"<script>",
+            "INSERT IGNORE INTO record_shard_buckets (bucket, shard, moving) VALUES ",
+            "<foreach collection='buckets' item='b' separator=','>",
+            "(#{b.bucket}, #{b.shard}, #{b.moving})",
+            "</foreach>",
+            "</script>"})
+    int insertBuckets(@Param("buckets") List<ShardBucket> buckets);
+
+    /**
+     * 更新桶所在分片与迁移状态
+     *
+     * @param bucket 桶编号
+     * @param shard 分片序号
+     * @param moving 是否迁移中
+     * @return 更新行数
+     */
+    @Update("UPDATE record_shard_buckets SET shard = #{shard}, moving = #{moving} WHERE bucket = #{bucket}")
+    int updateBucket(@Param("bucket") int bucket, @Param("shard") int shard, @Param("moving") boolean moving);
+}
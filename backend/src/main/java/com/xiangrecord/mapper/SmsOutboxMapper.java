@@ -0,0 +1,117 @@
+package com.xiangrecord.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.xiangrecord.entity.SmsOutbox;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 短信发件箱Mapper接口
+ * 派发线程的更新都带上认领标识，认领过期后被其他线程重新认领的行不会被旧的派发结果覆盖；
+ * 标记为结束状态的同一条更新中清空短信内容，验证码不在发件箱中保留到清理为止
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Mapper
+public interface SmsOutboxMapper extends BaseMapper<SmsOutbox> {
+
+    /**
+     * 认领一批到期的短信：待发送的，以及认领已过期（派发线程中断）的
+     *
+     * @param token 认领标识
+     * @param now 当前时间
+     * @param claimUntil 认领到期时间
+     * @param limit 单批条数
+     * @return 认领条数
+     */
+    @Update("UPDATE sms_outbox SET status = 'SENDING', claim_token = #{token}, next_attempt_at = #{claimUntil}, " +
+            "updated_at = #{now} " +
+            "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= #{now} " +
+            "ORDER BY next_attempt_at LIMIT #{limit}")
+    int claimBatch(@Param("token") String token, @Param("now") LocalDateTime now,
+                   @Param("claimUntil") LocalDateTime claimUntil, @Param("limit") int limit);
+
+    /**
+     * 查询本次认领的短信
+     *
+     * @param token 认领标识
+     * @return 短信列表（按ID升序）
+     */
+    @Select("SELECT id, phone, category, content, dedup_key, status, attempts, next_attempt_at, expires_at, " +
+            "claim_token, created_at FROM sms_outbox WHERE claim_token = #{token} AND status = 'SENDING' ORDER BY id")
+    List<SmsOutbox> selectClaimed(@Param("token") String token);
+
+    /**
+     * 批量标记为发送成功，并写入各自的服务商消息ID，同时清空内容
+     *
+     * @param token 认领标识
+     * @param messages 发送成功的短信（含 providerMessageId）
+     * @param now 当前时间
+     * @return 更新行数
+     */
+    @Update({"<script>",
+            "UPDATE sms_outbox SET status = 'SENT', content = NULL, attempts = attempts + 1, sent_at = #{now}, ",
+            "updated_at = #{now}, ",
+            "provider_message_id = CASE id ",
+            "<foreach collection='messages' item='m'>WHEN #{m.id} THEN #{m.providerMessageId} </foreach>",
+            "END ",
+            "WHERE claim_token = #{token} AND id IN ",
+            "<foreach collection='messages' item='m' open='(' separator=',' close=')'>#{m.id}</foreach>",
+            "</script>"})
+    int markSent(@Param("token") String token, @Param("messages") List<SmsOutbox> messages,
+                 @Param("now") LocalDateTime now);
+
+    /**
+     * 记录一次失败的发送：待重试（PENDING）或最终失败（FAILED，同时清空内容）
+     *
+     * @param id 短信ID
+     * @param token 认领标识
+     * @param status 新状态
+     * @param nextAttemptAt 下次发送时间
+     * @param error 失败原因
+     * @param now 当前时间
+     * @return 更新行数
+     */
+    @Update("UPDATE sms_outbox SET status = #{status}, " +
+            "content = CASE WHEN #{status} = 'FAILED' THEN NULL ELSE content END, " +
+            "attempts = attempts + 1, next_attempt_at = #{nextAttemptAt}, " +
+            "last_error = #{error}, updated_at = #{now} WHERE id = #{id} AND claim_token = #{token}")
+    int markAttemptFailed(@Param("id") Long id, @Param("token") String token, @Param("status") String status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * 批量标记为未发送即结束（SUPERSEDED/EXPIRED），同时清空内容
+     *
+     * @param token 认领标识
+     * @param ids 短信ID列表
+     * @param status 新状态
+     * @param now 当前时间
+     * @return 更新行数
+     */
+    @Update({"<script>",
+            "UPDATE sms_outbox SET status = #{status}, content = NULL, updated_at = #{now} ",
+            "WHERE claim_token = #{token} AND id IN ",
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"})
+    int markSkipped(@Param("token") String token, @Param("ids") List<Long> ids, @Param("status") String status,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * 分批清理早于指定时间已结束的短信
+     *
+     * @param before 截止时间
+     * @param limit 单批删除行数
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM sms_outbox WHERE status IN ('SENT', 'FAILED', 'SUPERSEDED', 'EXPIRED') " +
+            "AND updated_at < #{before} LIMIT #{limit}")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -19,13 +19,24 @@ import java.util.Optional;
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
 
+    /**
+     * 用户资料列，不含密码哈希
+     */
+    String PROFILE_COLUMNS = "id, username, email, phone, avatar, login_type, huawei_id, wechat_id, "
+            + "last_login_time, is_active, is_deleted";
+
+    /**
+     * 登录校验所需的列（资料列加密码哈希）
+     */
+    String AUTH_COLUMNS = PROFILE_COLUMNS + ", password_hash";
+
     /**
      * 根据手机号查找用户
      * 
      * @param phone 手机号
      * @return 用户信息
      */
-    @Select("SELECT * FROM users WHERE phone = #{phone} AND is_deleted = false")
+    @Select("SELECT " + AUTH_COLUMNS + " FROM users WHERE phone = #{phone} AND is_deleted = false")
     Optional<User> findByPhone(@Param("phone") String phone);
 
     /**
@@ -34,7 +45,7 @@ public interface UserMapper extends BaseMapper<User> {
      * @param huaweiId 华为ID
      * @return 用户信息
      */
-    @Select("SELECT * FROM users WHERE huawei_id = #{huaweiId} AND is_deleted = false")
+    @Select("SELECT " + AUTH_COLUMNS + " FROM users WHERE huawei_id = #{huaweiId} AND is_deleted = false")
     Optional<User> findByHuaweiId(@Param("huaweiId") String huaweiId);
 
     /**
@@ -43,7 +54,7 @@ public interface UserMapper extends BaseMapper<User> {
      * @param wechatId 微信ID
      * @return 用户信息
      */
-    @Select("SELECT * FROM users WHERE wechat_id = #{wechatId} AND is_deleted = false")
+    @Select("SELECT " + AUTH_COLUMNS + " FROM users WHERE wechat_id = #{wechatId} AND is_deleted = false")
     Optional<User> findByWechatId(@Param("wechatId") String wechatId);
 
     /**
@@ -52,9 +63,54 @@ public interface UserMapper extends BaseMapper<User> {
      * @param email 邮箱
      * @return 用户信息
      */
-    @Select("SELECT * FROM users WHERE email = #{email} AND is_deleted = false")
+    @Select("SELECT " + AUTH_COLUMNS + " FROM users WHERE email = #{email} AND is_deleted = false")
     Optional<User> findByEmail(@Param("email") String email);
 
+    /**
+     * 根据ID查询用户资料（不含密码哈希）
+     * 
+     * @param id 用户ID
+     * @return 用户资料
+     */
+    @Select("SELECT " + PROFILE_COLUMNS + " FROM users WHERE id = #{id} AND is_deleted = false")
+    Optional<User> selectProfileById(@Param("id") Long id);
+
+    /**
+     * 根据手机号查询用户ID（只读唯一索引）
+     * 
+     * @param phone 手机号
+     * @return 用户ID，不存在时返回null
+     */
+    @Select("SELECT id FROM users WHERE phone = #{phone} AND is_deleted = false")
+    Long findIdByPhone(@Param("phone") String phone);
+
+    /**
+     * 根据邮箱查询用户ID（只读唯一索引）
+     * 
+     * @param email 邮箱
+     * @return 用户ID，不存在时返回null
+     */
+    @Select("SELECT id FROM users WHERE email = #{email} AND is_deleted = false")
+    Long findIdByEmail(@Param("email") String email);
+
+    /**
+     * 根据华为ID查询用户ID（只读唯一索引）
+     * 
+     * @param huaweiId 华为ID
+     * @return 用户ID，不存在时返回null
+     */
+    @Select("SELECT id FROM users WHERE huawei_id = #{huaweiId} AND is_deleted = false")
+    Long findIdByHuaweiId(@Param("huaweiId") String huaweiId);
+
+    /**
+     * 根据微信ID查询用户ID（只读唯一索引）
+     * 
+     * @param wechatId 微信ID
+     * @return 用户ID，不存在时返回null
+     */
+    @Select("SELECT id FROM users WHERE wechat_id = #{wechatId} AND is_deleted = false")
+    Long findIdByWechatId(@Param("wechatId") String wechatId);
+
     /**
      * 检查手机号是否已存在
      * 
@@ -83,6 +139,17 @@ public interface UserMapper extends BaseMapper<User> {
     @Update("UPDATE users SET last_login_time = #{lastLoginTime}, updated_at = NOW() WHERE id = #{userId}")
     int updateLastLoginTime(@Param("userId") Long userId, @Param("lastLoginTime") LocalDateTime lastLoginTime);
 
+    /**
+     * 替换密码哈希（仅当哈希未被并发修改时）
+     * 
+     * @param userId 用户ID
+     * @param oldHash 原密码哈希
+     * @param newHash 新密码哈希
+     * @return 更新行数
+     */
+    @Update("UPDATE users SET password_hash = #{newHash}, updated_at = NOW() WHERE id = #{userId} AND password_hash = #{oldHash}")
+    int replacePasswordHash(@Param("userId") Long userId, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
     /**
      * 软删除用户
      * 
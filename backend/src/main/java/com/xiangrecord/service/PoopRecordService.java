@@ -2,9 +2,18 @@ package com.xiangrecord.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.xiangrecord.dto.BatchDeleteResult;
+import com.xiangrecord.dto.BatchRecordResult;
+import com.xiangrecord.dto.ExportFormat;
 import com.xiangrecord.dto.PoopRecordDTO;
+import com.xiangrecord.dto.RecordChanges;
+import com.xiangrecord.dto.SlicePage;
 import com.xiangrecord.entity.PoopRecord;
+import com.xiangrecord.entity.enums.Color;
+import com.xiangrecord.entity.enums.Mood;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +34,16 @@ public interface PoopRecordService {
      */
     PoopRecordDTO createRecord(PoopRecordDTO recordDTO);
 
+    /**
+     * 批量创建记录
+     * 按分块执行多行INSERT，分块失败时逐条写入以给出单条结果
+     *
+     * @param recordDTOs 记录DTO列表
+     * @return 批量创建结果（逐条结果顺序与请求一致）
+     * @throws IllegalArgumentException 记录列表为空或超过单次上限
+     */
+    BatchRecordResult createRecords(List<PoopRecordDTO> recordDTOs);
+
     /**
      * 根据ID获取记录
      * 
@@ -50,6 +69,17 @@ public interface PoopRecordService {
      */
     boolean deleteRecord(Long id);
 
+    /**
+     * 按记录时间批量删除用户的记录
+     * 先将时间戳规划为连续片段，每个片段执行一条范围删除
+     *
+     * @param userId 用户ID
+     * @param recordTimes 记录时间（UTC毫秒时间戳）
+     * @return 批量删除结果
+     * @throws IllegalArgumentException 时间戳列表为空或超过单次上限
+     */
+    BatchDeleteResult deleteRecordsByTimes(Long userId, List<Long> recordTimes);
+
     /**
      * 分页查询所有记录
      * 
@@ -80,7 +110,7 @@ public interface PoopRecordService {
      * @param page 分页参数
      * @return 分页记录列表
      */
-    IPage<PoopRecordDTO> getRecordsByColor(String color, Page<PoopRecordDTO> page);
+    IPage<PoopRecordDTO> getRecordsByColor(Color color, Page<PoopRecordDTO> page);
 
     /**
      * 根据心情查询记录
@@ -89,10 +119,11 @@ public interface PoopRecordService {
      * @param page 分页参数
      * @return 分页记录列表
      */
-    IPage<PoopRecordDTO> getRecordsByMood(String mood, Page<PoopRecordDTO> page);
+    IPage<PoopRecordDTO> getRecordsByMood(Mood mood, Page<PoopRecordDTO> page);
 
     /**
      * 获取最近的记录
+     * 指定用户时从用户时间线缓存读取，数量超过缓存窗口时按窗口大小截断
      * 
      * @param limit 限制数量
      * @param userId 用户ID（可选）
@@ -102,6 +133,7 @@ public interface PoopRecordService {
 
     /**
      * 获取今日记录
+     * 指定用户且时间线缓存覆盖今天时直接从缓存过滤
      * 
      * @param userId 用户ID（可选）
      * @return 今日记录列表
@@ -120,14 +152,93 @@ public interface PoopRecordService {
      * @return 分页记录列表
      */
     IPage<PoopRecordDTO> getRecordsByConditions(
-            String color,
-            String mood,
+            Color color,
+            Mood mood,
             LocalDateTime startTime,
             LocalDateTime endTime,
             Page<PoopRecordDTO> page,
             Long userId
     );
 
+    /**
+     * 游标分页查询记录（按记录时间、ID倒序）
+     * 基于 (record_time, id) 定位，不执行COUNT查询，翻页深度不影响查询耗时
+     *
+     * @param color 颜色（可选）
+     * @param mood 心情（可选）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param cursor 上一页返回的游标，为空时从最新记录开始
+     * @param size 每页大小
+     * @param userId 用户ID（可选）
+     * @return 分片记录列表
+     */
+    SlicePage<PoopRecordDTO> getRecordsByCursor(
+            Color color,
+            Mood mood,
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            String cursor,
+            int size,
+            Long userId
+    );
+
+    /**
+     * 页码滚动查询记录（按记录时间、ID倒序）
+     * 不执行COUNT查询；需要总数时由计数器或短期缓存提供，不扫描全表
+     *
+     * @param color 颜色（可选）
+     * @param mood 心情（可选）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param current 页码，从1开始
+     * @param size 每页大小
+     * @param withTotal 是否返回总数
+     * @param userId 用户ID（可选）
+     * @return 分片记录列表
+     */
+    SlicePage<PoopRecordDTO> getRecordsBySlice(
+            Color color,
+            Mood mood,
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            long current,
+            int size,
+            boolean withTotal,
+            Long userId
+    );
+
+    /**
+     * 增量同步：获取水位之后新增、更新和删除的记录
+     *
+     * @param userId 用户ID
+     * @param since 上次同步返回的水位，为空时要求客户端全量同步
+     * @param limit 单次最多返回的变更数
+     * @return 增量同步结果
+     * @throws IllegalArgumentException 水位格式不正确
+     */
+    RecordChanges getChangesSince(Long userId, String since, int limit);
+
+    /**
+     * 流式导出用户的记录（按记录时间升序）
+     * 逐行从数据库游标读取并写出，内存占用与记录总数无关；不关闭传入的输出流
+     *
+     * @param userId 用户ID
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param format 导出格式
+     * @param out 输出流
+     * @return 导出的记录数
+     * @throws IOException 写出失败（如客户端断开连接）
+     */
+    long exportRecords(
+            Long userId,
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            ExportFormat format,
+            OutputStream out
+    ) throws IOException;
+
     /**
      * 统计指定时间范围内的记录数量
      * 
@@ -145,7 +256,7 @@ public interface PoopRecordService {
      * @param userId 用户ID（可选）
      * @return 记录数量
      */
-    long countRecordsByColor(String color, Long userId);
+    long countRecordsByColor(Color color, Long userId);
 
     /**
      * 根据心情统计记录数量
@@ -154,5 +265,5 @@ public interface PoopRecordService {
      * @param userId 用户ID（可选）
      * @return 记录数量
      */
-    long countRecordsByMood(String mood, Long userId);
+    long countRecordsByMood(Mood mood, Long userId);
 }
\ No newline at end of file
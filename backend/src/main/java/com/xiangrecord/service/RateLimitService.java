@@ -0,0 +1,29 @@
+package com.xiangrecord.service;
+
+/**
+ * 限流服务接口
+ * 令牌桶保存在Redis中，由所有实例共享
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public interface RateLimitService {
+
+    String RULE_LOGIN = "login";
+    String RULE_SMS = "sms";
+
+    String KEY_IP = "ip";
+    String KEY_PHONE = "phone";
+    String KEY_USER = "user";
+
+    /**
+     * 从规则中指定维度的令牌桶取一个令牌
+     * 限流未启用、规则或维度未配置、标识为空时直接放行
+     *
+     * @param rule 规则名称
+     * @param keyType 计数维度（ip/phone/user）
+     * @param key 维度取值，如IP地址、手机号、用户ID
+     * @throws com.xiangrecord.exception.RateLimitExceededException 令牌不足时
+     */
+    void acquire(String rule, String keyType, String key);
+}
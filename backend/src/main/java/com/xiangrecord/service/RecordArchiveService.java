@@ -0,0 +1,68 @@
+package com.xiangrecord.service;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * 记录归档服务接口
+ * 热表按月分区，只保留最近若干个月的记录；更早的分区整体移入压缩的归档表。
+ * 查询按开始时间路由：不早于归档边界时只访问热表，否则访问热表与归档表的全量视图。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public interface RecordArchiveService {
+
+    /**
+     * 是否启用归档
+     *
+     * @return 启用时返回true
+     */
+    boolean isEnabled();
+
+    /**
+     * 获取归档边界，归档表中的记录时间均早于该时间
+     *
+     * @return 归档边界（月初零点）
+     */
+    LocalDateTime getArchiveCutoff();
+
+    /**
+     * 判断从指定时间开始的查询是否可能命中归档数据
+     *
+     * @param startTime 查询开始时间，为空表示不限
+     * @return 可能命中归档数据时返回true
+     */
+    boolean reachesArchive(LocalDateTime startTime);
+
+    /**
+     * 按查询开始时间选择热表或全量视图执行查询
+     *
+     * @param startTime 查询开始时间，为空表示不限
+     * @param query 查询
+     * @return 查询结果
+     */
+    <T> T readFrom(LocalDateTime startTime, Supplier<T> query);
+
+    /**
+     * 在归档表上执行操作
+     *
+     * @param action 数据库操作
+     * @return 操作结果
+     */
+    <T> T onArchive(Supplier<T> action);
+
+    /**
+     * 提前创建未来月份的分区
+     *
+     * @return 新建分区数
+     */
+    int ensureFuturePartitions();
+
+    /**
+     * 将整体早于归档边界的分区移入归档表
+     *
+     * @return 归档的记录数
+     */
+    long archiveExpiredPartitions();
+}
@@ -0,0 +1,53 @@
+package com.xiangrecord.service;
+
+import com.xiangrecord.entity.RecordChange;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 便便记录变更日志服务接口
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public interface RecordChangeService {
+
+    /**
+     * 记录变更，需在写入记录的同一事务内调用
+     *
+     * @param userId 用户ID，为空时不记录
+     * @param recordIds 记录ID列表
+     * @param op 变更类型，见 {@link RecordChange#OP_UPSERT}、{@link RecordChange#OP_DELETE}
+     */
+    void logChanges(Long userId, Collection<Long> recordIds, String op);
+
+    /**
+     * 按序号升序获取用户指定序号之后的变更
+     *
+     * @param userId 用户ID
+     * @param afterSeq 起始序号（不含）
+     * @param limit 最大条数
+     * @return 变更列表
+     */
+    List<RecordChange> getChangesAfter(Long userId, long afterSeq, int limit);
+
+    /**
+     * 获取用户在指定时间之前的最大变更序号
+     *
+     * @param userId 用户ID
+     * @param before 截止时间
+     * @return 最大序号，无变更时返回0
+     */
+    long getMaxSeqBefore(Long userId, LocalDateTime before);
+
+    /**
+     * 清理早于指定时间的变更日志
+     *
+     * @param before 截止时间
+     * @param batchSize 单批删除行数
+     * @return 删除行数
+     */
+    int purgeChangesBefore(LocalDateTime before, int batchSize);
+}
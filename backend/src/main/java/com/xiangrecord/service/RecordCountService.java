@@ -0,0 +1,46 @@
+package com.xiangrecord.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 记录数量服务接口
+ * 为分页总数提供计数器/缓存值，避免每次分页都执行 COUNT 扫描
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public interface RecordCountService {
+
+    /**
+     * 获取记录总数
+     * 指定用户时返回该用户的计数器（首次访问时初始化）；未指定用户时返回全表估算值
+     *
+     * @param userId 用户ID（可选）
+     * @return 记录总数
+     */
+    long getTotal(Long userId);
+
+    /**
+     * 获取带条件查询的记录数量（短期缓存，可能存在少量偏差）
+     *
+     * @param conditionKey 查询条件标识
+     * @param loader 缓存未命中时的计数方法
+     * @return 记录数量
+     */
+    long getCachedCount(String conditionKey, LongSupplier loader);
+
+    /**
+     * 调整用户记录计数器，计数器尚未初始化时不做处理
+     *
+     * @param userId 用户ID
+     * @param delta 变化量
+     */
+    void adjustTotal(Long userId, long delta);
+
+    /**
+     * 清除用户记录计数器，下次访问时重新统计
+     *
+     * @param userId 用户ID
+     */
+    void evictTotal(Long userId);
+}
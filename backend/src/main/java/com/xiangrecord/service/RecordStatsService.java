@@ -0,0 +1,67 @@
+package com.xiangrecord.service;
+
+import com.xiangrecord.dto.AttributeCooccurrence;
+import com.xiangrecord.dto.BucketUnit;
+import com.xiangrecord.dto.RecordStatsSummary;
+import com.xiangrecord.dto.RecordTimeSeries;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 记录统计服务接口
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public interface RecordStatsService {
+
+    /**
+     * 获取统计汇总：记录总数及全部分类属性的取值分布（一次查询）
+     *
+     * @param userId 用户ID（可选）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @return 统计汇总
+     */
+    RecordStatsSummary getSummary(Long userId, LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 获取按时间分桶的记录数及每桶出现最多的形状、颜色
+     * 记录时间按UTC解释，按用户时区划分桶，返回区间内连续的全部桶
+     *
+     * @param userId 用户ID
+     * @param unit 分桶粒度
+     * @param zone 用户时区
+     * @param startTime 开始时间（UTC，可选，默认结束时间前一年）
+     * @param endTime 结束时间（UTC，可选，默认当前时间）
+     * @return 时间序列
+     * @throws IllegalArgumentException 时间范围不正确或桶数超过上限
+     */
+    RecordTimeSeries getTimeSeries(
+            Long userId,
+            BucketUnit unit,
+            ZoneId zone,
+            LocalDateTime startTime,
+            LocalDateTime endTime
+    );
+
+    /**
+     * 获取两个分类属性的共现表
+     *
+     * @param userId 用户ID（可选）
+     * @param rowAttribute 行属性名
+     * @param columnAttribute 列属性名
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @return 共现表
+     * @throws IllegalArgumentException 属性名不支持或两个属性相同
+     */
+    AttributeCooccurrence getCooccurrence(
+            Long userId,
+            String rowAttribute,
+            String columnAttribute,
+            LocalDateTime startTime,
+            LocalDateTime endTime
+    );
+}
@@ -2,6 +2,7 @@ package com.xiangrecord.service;
 
 /**
  * 短信服务接口
+ * 短信异步发送，返回值只表示是否已加入发送队列
  * 
  * @author xiangrecord
  * @version 1.0.0
@@ -14,7 +15,7 @@ public interface SmsService {
      * @param phone 手机号
      * @param code 验证码
      * @param type 验证码类型（register, login, reset_password等）
-     * @return 是否发送成功
+     * @return 是否已加入发送队列
      */
     boolean sendVerificationCode(String phone, String code, String type);
 
@@ -23,7 +24,7 @@ public interface SmsService {
      * 
      * @param phone 手机号
      * @param message 短信内容
-     * @return 是否发送成功
+     * @return 是否已加入发送队列
      */
     boolean sendNotification(String phone, String message);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.xiangrecord.dto.*;
 import com.xiangrecord.entity.User;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 用户服务接口
@@ -14,13 +15,13 @@ import java.util.Optional;
 public interface UserService {
 
     /**
-     * 手机号登录
+     * 手机号登录，密码校验在密码哈希线程池中执行
      * 
      * @param phone 手机号
      * @param password 密码
      * @return 登录响应
      */
-    LoginResponse loginWithPhone(String phone, String password);
+    CompletableFuture<LoginResponse> loginWithPhone(String phone, String password);
 
     /**
      * 华为账号登录
@@ -39,12 +40,12 @@ public interface UserService {
     LoginResponse loginWithWechat(String authCode);
 
     /**
-     * 用户注册
+     * 用户注册，密码加密在密码哈希线程池中执行
      * 
      * @param request 注册请求
      * @return 注册响应
      */
-    RegisterResponse register(RegisterRequest request);
+    CompletableFuture<RegisterResponse> register(RegisterRequest request);
 
     /**
      * 发送验证码
@@ -1,24 +1,73 @@
 package com.xiangrecord.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.xiangrecord.analytics.RecordAnalyticsEngine;
+import com.xiangrecord.cache.RecordCache;
+import com.xiangrecord.cache.TimelineCache;
+import com.xiangrecord.datasource.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.xiangrecord.dto.BatchDeleteResult;
+import com.xiangrecord.dto.BatchRecordResult;
+import com.xiangrecord.dto.ExportFormat;
 import com.xiangrecord.dto.PoopRecordDTO;
+import com.xiangrecord.dto.RecordChanges;
+import com.xiangrecord.dto.SlicePage;
 import com.xiangrecord.entity.PoopRecord;
+import com.xiangrecord.entity.RecordChange;
+import com.xiangrecord.entity.enums.CodedEnum;
+import com.xiangrecord.entity.enums.Color;
+import com.xiangrecord.entity.enums.Mood;
 import com.xiangrecord.mapper.PoopRecordMapper;
 import com.xiangrecord.service.PoopRecordService;
+import com.xiangrecord.service.RecordArchiveService;
+import com.xiangrecord.service.RecordChangeService;
+import com.xiangrecord.service.RecordCountService;
+import com.xiangrecord.util.ContinuousSegmentPlanner;
+import com.xiangrecord.util.RecordCursor;
+import com.xiangrecord.util.ShardResultMerger;
+import com.xiangrecord.util.SyncWatermark;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -29,9 +78,47 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class PoopRecordServiceImpl extends ServiceImpl<PoopRecordMapper, PoopRecord> implements PoopRecordService {
 
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER =
+            "id,recordTime,color,smell,moisture,shape,size,texture,mood,notes,createdAt,updatedAt";
+    private static final DateTimeFormatter EXPORT_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+
+    private final RecordCountService recordCountService;
+    private final ContinuousSegmentPlanner segmentPlanner;
+    private final RecordChangeService recordChangeService;
+    private final ObjectMapper objectMapper;
+    private final RecordCache recordCache;
+    private final TimelineCache timelineCache;
+    private final RecordAnalyticsEngine analyticsEngine;
+    private final RecordArchiveService archiveService;
+    private final ShardRouter shardRouter;
+
+    @Value("${app.records.batch.max-size:500}")
+    private int batchMaxSize;
+
+    @Value("${app.records.batch.chunk-size:100}")
+    private int batchChunkSize;
+
+    @Value("${app.records.batch.max-delete-size:100000}")
+    private int batchMaxDeleteSize;
+
+    @Value("${app.records.changes.retention-days:30}")
+    private int changeRetentionDays;
+
+    @Value("${app.records.changes.grace-seconds:5}")
+    private int changeGraceSeconds;
+
+    @Value("${app.records.partitions.recent-months:2}")
+    private int recentPartitionMonths;
+
+    @Value("${app.datasource.sharding.max-fan-out-rows:10000}")
+    private int maxFanOutRows;
+
     @Override
     @Transactional
     public PoopRecordDTO createRecord(PoopRecordDTO recordDTO) {
@@ -43,32 +130,133 @@ public class PoopRecordServiceImpl extends ServiceImpl<PoopRecordMapper, PoopRec
         }
         
         PoopRecord entity = convertToEntity(recordDTO);
-        // MyBatis-Plus会自动生成ID和填充创建时间、更新时间
-        boolean success = save(entity);
-        
-        if (success) {
-            log.info("便便记录创建成功，ID: {}", entity.getId());
-            return convertToDTO(entity);
-        } else {
-            throw new RuntimeException("创建便便记录失败");
+        return shardRouter.onUserWrite(entity.getUserId(), () -> {
+            // MyBatis-Plus会自动生成ID和填充创建时间、更新时间
+            boolean success = save(entity);
+
+            if (success) {
+                log.info("便便记录创建成功，ID: {}", entity.getId());
+                onRecordsChanged(entity.getUserId(), Collections.singletonList(entity.getId()), RecordChange.OP_UPSERT, 1);
+                return convertToDTO(entity);
+            } else {
+                throw new RuntimeException("创建便便记录失败");
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public BatchRecordResult createRecords(List<PoopRecordDTO> recordDTOs) {
+        if (recordDTOs == null || recordDTOs.isEmpty()) {
+            throw new IllegalArgumentException("记录列表不能为空");
+        }
+        if (recordDTOs.size() > batchMaxSize) {
+            throw new IllegalArgumentException("单次最多创建" + batchMaxSize + "条记录");
+        }
+        log.info("批量创建便便记录，数量: {}", recordDTOs.size());
+
+        List<PoopRecord> entities = new ArrayList<>(recordDTOs.size());
+        for (PoopRecordDTO recordDTO : recordDTOs) {
+            if (recordDTO.getRecordTime() == null) {
+                recordDTO.setRecordTime(LocalDateTime.now());
+            }
+            PoopRecord entity = convertToEntity(recordDTO);
+            // 客户端本地ID不落库，由数据库分配
+            entity.setId(null);
+            entities.add(entity);
+        }
+
+        // 同一事务只能访问一个分片，整批记录须属于同一分片的用户
+        List<Long> userIds = entities.stream().map(PoopRecord::getUserId).distinct().collect(Collectors.toList());
+        return shardRouter.onUsersWrite(userIds, () -> insertRecords(entities));
+    }
+
+    /**
+     * 分块多行插入，块因数据错误失败时逐条写入定位失败记录
+     * 只有数据完整性错误（唯一键冲突、字段超长等）是语句级回滚，可以在同一事务中继续；
+     * 死锁、锁等待超时等错误可能已回滚整个事务（之前写入的块也已丢失），直接抛出使整批失败
+     */
+    private BatchRecordResult insertRecords(List<PoopRecord> entities) {
+        BatchRecordResult.Item[] items = new BatchRecordResult.Item[entities.size()];
+        int chunkSize = Math.max(1, batchChunkSize);
+        for (int from = 0; from < entities.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, entities.size());
+            List<PoopRecord> chunk = entities.subList(from, to);
+            try {
+                baseMapper.insertBatch(chunk);
+                for (int i = from; i < to; i++) {
+                    items[i] = batchItem(i, entities.get(i).getId(), null);
+                }
+            } catch (DataIntegrityViolationException e) {
+                // 多行INSERT因数据错误整体失败（语句级回滚），逐条写入以定位失败记录
+                log.warn("批量插入失败，改为逐条写入，区间: [{}, {})", from, to, e);
+                for (int i = from; i < to; i++) {
+                    PoopRecord entity = entities.get(i);
+                    entity.setId(null);
+                    try {
+                        baseMapper.insert(entity);
+                        items[i] = batchItem(i, entity.getId(), null);
+                    } catch (DataIntegrityViolationException ex) {
+                        log.warn("批量创建中第{}条记录写入失败", i, ex);
+                        items[i] = batchItem(i, null, "记录保存失败");
+                    }
+                }
+            }
+        }
+
+        Map<Long, List<Long>> createdPerUser = new HashMap<>();
+        int succeeded = 0;
+        for (BatchRecordResult.Item item : items) {
+            if (Boolean.TRUE.equals(item.getSuccess())) {
+                succeeded++;
+                Long userId = entities.get(item.getIndex()).getUserId();
+                if (userId != null) {
+                    createdPerUser.computeIfAbsent(userId, key -> new ArrayList<>()).add(item.getId());
+                }
+            }
         }
+        createdPerUser.forEach((userId, recordIds) ->
+                onRecordsChanged(userId, recordIds, RecordChange.OP_UPSERT, recordIds.size()));
+
+        log.info("批量创建便便记录完成，成功: {}, 失败: {}", succeeded, items.length - succeeded);
+        return BatchRecordResult.builder()
+                .total(items.length)
+                .succeeded(succeeded)
+                .failed(items.length - succeeded)
+                .items(Arrays.asList(items))
+                .build();
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<PoopRecordDTO> getRecordById(Long id) {
         log.debug("根据ID获取便便记录: {}", id);
-        
-        PoopRecord entity = getById(id);
-        return entity != null ? Optional.of(convertToDTO(entity)) : Optional.empty();
+
+        // 不开启事务，等待同一ID回源结果的请求不占用数据库连接；
+        // 方法不是只读事务，开启读写分离时回源读主库，从库延迟不会把旧值回填到共享缓存
+        return recordCache.get(id, () -> {
+            PoopRecord entity = findRecord(id);
+            return entity != null ? Optional.of(convertToDTO(entity)) : Optional.empty();
+        });
     }
 
     @Override
     @Transactional
     public Optional<PoopRecordDTO> updateRecord(Long id, PoopRecordDTO recordDTO) {
         log.info("更新便便记录，ID: {}, 数据: {}", id, recordDTO);
-        
+
+        return shardRouter.onUserWrite(ownerOf(id), () -> doUpdateRecord(id, recordDTO));
+    }
+
+    private Optional<PoopRecordDTO> doUpdateRecord(Long id, PoopRecordDTO recordDTO) {
         PoopRecord existingRecord = getById(id);
+        boolean archived = false;
+        if (existingRecord == null && archiveService.isEnabled()) {
+            existingRecord = archiveService.onArchive(() -> getById(id));
+            archived = existingRecord != null;
+        }
         if (existingRecord != null) {
+            LocalDateTime previousTime = existingRecord.getRecordTime();
             // 更新字段
             existingRecord.setRecordTime(recordDTO.getRecordTime());
             existingRecord.setColor(recordDTO.getColor());
@@ -80,9 +268,15 @@ public class PoopRecordServiceImpl extends ServiceImpl<PoopRecordMapper, PoopRec
             existingRecord.setMood(recordDTO.getMood());
             existingRecord.setNotes(recordDTO.getNotes());
             
-            boolean success = updateById(existingRecord);
+            boolean success = archived
+                    ? restoreFromArchive(existingRecord)
+                    // 带上原记录时间，只访问记录所在的分区
+                    : update(existingRecord, new LambdaUpdateWrapper<PoopRecord>()
+                            .eq(PoopRecord::getId, id)
+                            .eq(PoopRecord::getRecordTime, previousTime));
             if (success) {
                 log.info("便便记录更新成功，ID: {}", id);
+                onRecordsChanged(existingRecord.getUserId(), Collections.singletonList(id), RecordChange.OP_UPSERT, 0);
                 return Optional.of(convertToDTO(existingRecord));
             }
         }
@@ -93,11 +287,27 @@ public class PoopRecordServiceImpl extends ServiceImpl<PoopRecordMapper, PoopRec
     @Transactional
     public boolean deleteRecord(Long id) {
         log.info("删除便便记录，ID: {}", id);
-        
-        if (getById(id) != null) {
-            boolean result = removeById(id);
+
+        return shardRouter.onUserWrite(ownerOf(id), () -> doDeleteRecord(id));
+    }
+
+    private boolean doDeleteRecord(Long id) {
+        PoopRecord existingRecord = getById(id);
+        boolean archived = false;
+        if (existingRecord == null && archiveService.isEnabled()) {
+            existingRecord = archiveService.onArchive(() -> getById(id));
+            archived = existingRecord != null;
+        }
+        if (existingRecord != null) {
+            LocalDateTime recordTime = existingRecord.getRecordTime();
+            boolean result = archived
+                    ? archiveService.onArchive(() -> removeById(id))
+                    : remove(new LambdaQueryWrapper<PoopRecord>()
+                            .eq(PoopRecord::getId, id)
+                            .eq(PoopRecord::getRecordTime, recordTime));
             if (result) {
                 log.info("便便记录删除成功，ID: {}", id);
+                onRecordsChanged(existingRecord.getUserId(), Collections.singletonList(id), RecordChange.OP_DELETE, -1);
             }
             return result;
         }
@@ -106,15 +316,83 @@ public class PoopRecordServiceImpl extends ServiceImpl<PoopRecordMapper, PoopRec
         return false;
     }
 
+    @Override
+    @Transactional
+    public BatchDeleteResult deleteRecordsByTimes(Long userId, List<Long> recordTimes) {
+        if (recordTimes == null || recordTimes.isEmpty()) {
+            throw new IllegalArgumentException("记录时间列表不能为空");
+        }
+        if (recordTimes.size() > batchMaxDeleteSize) {
+            throw new IllegalArgumentException("单次最多删除" + batchMaxDeleteSize + "条记录");
+        }
+
+        long[] requested = recordTimes.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        log.info("按记录时间批量删除便便记录，用户ID: {}, 数量: {}", userId, requested.length);
+
+        BatchDeleteResult result = shardRouter.onUserWrite(userId, () -> {
+            List<Long> deletedIds = new ArrayList<>();
+            BatchDeleteResult deleted = deleteByTimes(userId, requested, deletedIds);
+            if (archiveService.reachesArchive(toRecordTime(requested[0]))) {
+                // 请求区间早于归档边界时，归档表中的记录同样处理
+                BatchDeleteResult archived = archiveService.onArchive(() -> deleteByTimes(userId, requested, deletedIds));
+                deleted.setMatched(deleted.getMatched() + archived.getMatched());
+                deleted.setDeleted(deleted.getDeleted() + archived.getDeleted());
+                deleted.setSegments(deleted.getSegments() + archived.getSegments());
+            }
+            onRecordsChanged(userId, deletedIds, RecordChange.OP_DELETE, -deleted.getDeleted());
+            return deleted;
+        });
+
+        log.info("批量删除便便记录完成，用户ID: {}, 片段数: {}, 删除数: {}", userId, result.getSegments(), result.getDeleted());
+        return result;
+    }
+
+    /**
+     * 在当前路由的表上按记录时间删除，删除的记录ID追加到 deletedIds
+     */
+    private BatchDeleteResult deleteByTimes(Long userId, long[] requested, List<Long> deletedIds) {
+        // 锁定请求区间内该用户的全部记录，防止规划与删除之间插入新记录落入删除范围
+        LambdaQueryWrapper<PoopRecord> spanWrapper = new LambdaQueryWrapper<PoopRecord>()
+                .select(PoopRecord::getId, PoopRecord::getRecordTime)
+                .eq(PoopRecord::getUserId, userId)
+                .between(PoopRecord::getRecordTime,
+                        toRecordTime(requested[0]), toRangeEnd(requested[requested.length - 1]))
+                .orderByAsc(PoopRecord::getRecordTime)
+                .last("FOR UPDATE");
+        List<PoopRecord> spanRecords = list(spanWrapper);
+        long[] existing = spanRecords.stream()
+                .mapToLong(record -> toEpochMilli(record.getRecordTime()))
+                .toArray();
+
+        List<ContinuousSegmentPlanner.TimeRange> ranges = segmentPlanner.plan(requested, existing);
+        long deleted = 0;
+        int matched = 0;
+        for (ContinuousSegmentPlanner.TimeRange range : ranges) {
+            matched += range.getCount();
+            deleted += baseMapper.delete(new LambdaQueryWrapper<PoopRecord>()
+                    .eq(PoopRecord::getUserId, userId)
+                    .between(PoopRecord::getRecordTime, toRecordTime(range.getStart()), toRangeEnd(range.getEnd())));
+        }
+        // 区间内被请求的记录即为删除的记录（区间已加锁）
+        spanRecords.stream()
+                .filter(record -> Arrays.binarySearch(requested, toEpochMilli(record.getRecordTime())) >= 0)
+                .map(PoopRecord::getId)
+                .forEach(deletedIds::add);
+
+        return BatchDeleteResult.builder()
+                .requested(requested.length)
+                .matched(matched)
+                .deleted(deleted)
+                .segments(ranges.size())
+                .build();
+    }
+
     @Override
     public IPage<PoopRecordDTO> getAllRecords(Page<PoopRecordDTO> page, Long userId) {
         log.debug("分页查询所有便便记录，页码: {}, 大小: {}, 用户ID: {}", page.getCurrent(), page.getSize(), userId);
 
-        Page<PoopRecord> recordPage = new Page<>(page.getCurrent(), page.getSize());
-        LambdaQueryWrapper<PoopRecord> queryWrapper = new LambdaQueryWrapper<PoopRecord>()
-                .eq(userId != null, PoopRecord::getUserId, userId)
-                .orderByDesc(PoopRecord::getRecordTime);
-        IPage<PoopRecord> result = page(recordPage, queryWrapper);
+        IPage<PoopRecord> result = pageRecords(page, userId, null, () -> new LambdaQueryWrapper<PoopRecord>()
+                .eq(userId != null, PoopRecord::getUserId, userId));
         return result.<PoopRecordDTO>convert(record -> convertToDTO(record));
     }
 
@@ -125,35 +403,26 @@ public class PoopRecordServiceImpl extends ServiceImpl<PoopRecordMapper, PoopRec
             Page<PoopRecordDTO> page) {
         log.debug("根据时间范围查询便便记录: {} - {}", startTime, endTime);
 
-        Page<PoopRecord> recordPage = new Page<>(page.getCurrent(), page.getSize());
-        LambdaQueryWrapper<PoopRecord> queryWrapper = new LambdaQueryWrapper<PoopRecord>()
-                .between(PoopRecord::getRecordTime, startTime, endTime)
-                .orderByDesc(PoopRecord::getRecordTime);
-        IPage<PoopRecord> result = page(recordPage, queryWrapper);
+        IPage<PoopRecord> result = pageRecords(page, null, startTime, () -> new LambdaQueryWrapper<PoopRecord>()
+                .between(PoopRecord::getRecordTime, startTime, endTime));
         return result.<PoopRecordDTO>convert(record -> convertToDTO(record));
     }
 
     @Override
-    public IPage<PoopRecordDTO> getRecordsByColor(String color, Page<PoopRecordDTO> page) {
+    public IPage<PoopRecordDTO> getRecordsByColor(Color color, Page<PoopRecordDTO> page) {
         log.debug("根据颜色查询便便记录: {}", color);
 
-        Page<PoopRecord> recordPage = new Page<>(page.getCurrent(), page.getSize());
-        LambdaQueryWrapper<PoopRecord> queryWrapper = new LambdaQueryWrapper<PoopRecord>()
-                .eq(PoopRecord::getColor, color)
-                .orderByDesc(PoopRecord::getRecordTime);
-        IPage<PoopRecord> result = page(recordPage, queryWrapper);
+        IPage<PoopRecord> result = pageRecords(page, null, null, () -> new LambdaQueryWrapper<PoopRecord>()
+                .eq(PoopRecord::getColor, color));
         return result.<PoopRecordDTO>convert(record -> convertToDTO(record));
     }
 
     @Override
-    public IPage<PoopRecordDTO> getRecordsByMood(String mood, Page<PoopRecordDTO> page) {
+    public IPage<PoopRecordDTO> getRecordsByMood(Mood mood, Page<PoopRecordDTO> page) {
         log.debug("根据心情查询便便记录: {}", mood);
 
-        Page<PoopRecord> recordPage = new Page<>(page.getCurrent(), page.getSize());
-        LambdaQueryWrapper<PoopRecord> queryWrapper = new LambdaQueryWrapper<PoopRecord>()
-                .eq(PoopRecord::getMood, mood)
-                .orderByDesc(PoopRecord::getRecordTime);
-        IPage<PoopRecord> result = page(recordPage, queryWrapper);
+        IPage<PoopRecord> result = pageRecords(page, null, null, () -> new LambdaQueryWrapper<PoopRecord>()
+                .eq(PoopRecord::getMood, mood));
         return result.<PoopRecordDTO>convert(record -> convertToDTO(record));
     }
 
@@ -161,15 +430,13 @@ public class PoopRecordServiceImpl extends ServiceImpl<PoopRecordMapper, PoopRec
     public List<PoopRecordDTO> getRecentRecords(int limit, Long userId) {
         log.debug("获取最近的便便记录，数量: {}, 用户ID: {}", limit, userId);
 
-        LambdaQueryWrapper<PoopRecord> queryWrapper = new LambdaQueryWrapper<PoopRecord>()
-                .eq(userId != null, PoopRecord::getUserId, userId)
-                .orderByDesc(PoopRecord::getRecordTime)
-                .last("LIMIT " + limit);
-
-        return list(queryWrapper)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // 超过缓存窗口的数量按窗口大小截断
+        int size = Math.max(1, Math.min(limit, timelineCache.getWindow()));
+        if (userId == null) {
+            return loadLatest(null, size);
+        }
+        List<PoopRecordDTO> latest = timelineCache.getLatest(userId, () -> loadLatest(userId, timelineCache.getWindow()));
+        return new ArrayList<>(latest.subList(0, Math.min(size, latest.size())));
     }
 
     @Override
@@ -179,12 +446,24 @@ public class PoopRecordServiceImpl extends ServiceImpl<PoopRecordMapper, PoopRec
         LocalDateTime startOfDay = LocalDateTime.now().with(LocalTime.MIN);
         LocalDateTime endOfDay = LocalDateTime.now().with(LocalTime.MAX);
 
-        LambdaQueryWrapper<PoopRecord> queryWrapper = new LambdaQueryWrapper<PoopRecord>()
-                .eq(userId != null, PoopRecord::getUserId, userId)
-                .between(PoopRecord::getRecordTime, startOfDay, endOfDay)
-                .orderByDesc(PoopRecord::getRecordTime);
+        if (userId != null) {
+            int window = timelineCache.getWindow();
+            List<PoopRecordDTO> latest = timelineCache.getLatest(userId, () -> loadLatest(userId, window));
+            // 窗口未满（即包含用户全部记录）或最旧一条早于今天时，窗口已覆盖今天的全部记录
+            boolean coversToday = latest.size() < window
+                    || latest.get(latest.size() - 1).getRecordTime().isBefore(startOfDay);
+            if (coversToday) {
+                return latest.stream()
+                        .filter(record -> !record.getRecordTime().isBefore(startOfDay)
+                                && !record.getRecordTime().isAfter(endOfDay))
+                        .collect(Collectors.toList());
+            }
+        }
 
-        return list(queryWrapper)
+        return listRecords(userId, startOfDay, () -> new LambdaQueryWrapper<PoopRecord>()
+                        .eq(userId != null, PoopRecord::getUserId, userId)
+                        .between(PoopRecord::getRecordTime, startOfDay, endOfDay)
+                        .orderByDesc(PoopRecord::getRecordTime, PoopRecord::getId))
                 .stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -192,8 +471,8 @@ public class PoopRecordServiceImpl extends ServiceImpl<PoopRecordMapper, PoopRec
 
     @Override
     public IPage<PoopRecordDTO> getRecordsByConditions(
-            String color,
-            String mood,
+            Color color,
+            Mood mood,
             LocalDateTime startTime,
             LocalDateTime endTime,
             Page<PoopRecordDTO> page,
@@ -201,47 +480,571 @@ public class PoopRecordServiceImpl extends ServiceImpl<PoopRecordMapper, PoopRec
         log.debug("根据条件查询便便记录 - 颜色: {}, 心情: {}, 时间范围: {} - {}, 用户ID: {}",
                 color, mood, startTime, endTime, userId);
 
-        Page<PoopRecord> recordPage = new Page<>(page.getCurrent(), page.getSize());
-        LambdaQueryWrapper<PoopRecord> queryWrapper = new LambdaQueryWrapper<PoopRecord>()
-                .eq(userId != null, PoopRecord::getUserId, userId)
-                .eq(StringUtils.hasText(color), PoopRecord::getColor, color)
-                .eq(StringUtils.hasText(mood), PoopRecord::getMood, mood)
-                .ge(startTime != null, PoopRecord::getRecordTime, startTime)
-                .le(endTime != null, PoopRecord::getRecordTime, endTime)
-                .orderByDesc(PoopRecord::getRecordTime);
-
-        IPage<PoopRecord> result = page(recordPage, queryWrapper);
+        IPage<PoopRecord> result = pageRecords(page, userId, startTime,
+                () -> buildConditionWrapper(color, mood, startTime, endTime, userId));
         return result.<PoopRecordDTO>convert(record -> convertToDTO(record));
     }
 
+    @Override
+    public SlicePage<PoopRecordDTO> getRecordsByCursor(
+            Color color,
+            Mood mood,
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            String cursor,
+            int size,
+            Long userId) {
+        log.debug("游标分页查询便便记录 - 颜色: {}, 心情: {}, 时间范围: {} - {}, 游标: {}, 大小: {}, 用户ID: {}",
+                color, mood, startTime, endTime, cursor, size, userId);
+
+        RecordCursor position = RecordCursor.decode(cursor);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime anchor = position != null ? position.getRecordTime()
+                : endTime != null && endTime.isBefore(now) ? endTime : now;
+
+        // 多取一条用于判断是否还有下一页
+        List<PoopRecord> rows = listNewestFirst(userId, startTime, anchor, size + 1, from ->
+                buildConditionWrapper(color, mood, from, endTime, userId)
+                        // (record_time, id) < (游标时间, 游标ID)
+                        .and(position != null, w -> w
+                                .lt(PoopRecord::getRecordTime, position.getRecordTime())
+                                .or(o -> o.eq(PoopRecord::getRecordTime, position.getRecordTime())
+                                        .lt(PoopRecord::getId, position.getId())))
+                        .orderByDesc(PoopRecord::getRecordTime, PoopRecord::getId));
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            PoopRecord last = rows.get(rows.size() - 1);
+            nextCursor = new RecordCursor(last.getRecordTime(), last.getId()).encode();
+        }
+
+        return SlicePage.<PoopRecordDTO>builder()
+                .records(rows.stream().map(this::convertToDTO).collect(Collectors.toList()))
+                .size(size)
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    public SlicePage<PoopRecordDTO> getRecordsBySlice(
+            Color color,
+            Mood mood,
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            long current,
+            int size,
+            boolean withTotal,
+            Long userId) {
+        log.debug("页码滚动查询便便记录 - 颜色: {}, 心情: {}, 时间范围: {} - {}, 页码: {}, 大小: {}, 用户ID: {}",
+                color, mood, startTime, endTime, current, size, userId);
+
+        Supplier<LambdaQueryWrapper<PoopRecord>> condition =
+                () -> buildConditionWrapper(color, mood, startTime, endTime, userId);
+        Long total = null;
+        if (withTotal) {
+            boolean unfiltered = color == null && mood == null
+                    && startTime == null && endTime == null;
+            if (unfiltered) {
+                // 在分页查询之前统计：计数在事务外执行，此时本事务尚未占用连接
+                total = recordCountService.getTotal(userId);
+            } else {
+                String conditionKey = String.join("|", String.valueOf(userId), CodedEnum.valueOf(color),
+                        CodedEnum.valueOf(mood), String.valueOf(startTime), String.valueOf(endTime));
+                total = recordCountService.getCachedCount(conditionKey,
+                        () -> countRecords(userId, startTime, condition));
+            }
+        }
+
+        List<PoopRecord> rows;
+        if (userId != null || !shardRouter.isSharded()) {
+            // 关闭分页插件的COUNT查询
+            Page<PoopRecord> slicePage = new Page<>(current, size, false);
+            rows = shardRouter.onUser(userId, () -> archiveService.readFrom(startTime,
+                    () -> page(slicePage, condition.get().orderByDesc(PoopRecord::getRecordTime, PoopRecord::getId))))
+                    .getRecords();
+        } else {
+            rows = listAcrossShards(startTime, condition, (Math.max(1, current) - 1) * size, size);
+        }
+
+        return SlicePage.<PoopRecordDTO>builder()
+                .records(rows.stream().map(this::convertToDTO).collect(Collectors.toList()))
+                .current(current)
+                .size(size)
+                // 取满一页即认为可能还有下一页，最坏情况下多请求一次空页
+                .hasMore(rows.size() == size)
+                .total(total)
+                .build();
+    }
+
+    @Override
+    public RecordChanges getChangesSince(Long userId, String since, int limit) {
+        log.debug("增量同步便便记录，用户ID: {}, 水位: {}, 数量: {}", userId, since, limit);
+
+        return shardRouter.onUser(userId, () -> loadChangesSince(userId, since, limit));
+    }
+
+    private RecordChanges loadChangesSince(Long userId, String since, int limit) {
+        SyncWatermark position = SyncWatermark.decode(since);
+        LocalDateTime now = LocalDateTime.now();
+        // 序号在插入时分配、提交顺序可能不同；宽限期内的变更可能还有更小序号的事务未提交
+        LocalDateTime settledBefore = now.minusSeconds(changeGraceSeconds);
+
+        if (position == null || position.getChangedAt().isBefore(now.minusDays(changeRetentionDays))) {
+            // 未同步过或水位早于变更日志保留期：客户端需全量拉取，之后从该水位增量同步
+            long headSeq = recordChangeService.getMaxSeqBefore(userId, settledBefore);
+            return RecordChanges.builder()
+                    .upserts(Collections.emptyList())
+                    .deletedIds(Collections.emptyList())
+                    .watermark(new SyncWatermark(headSeq, settledBefore).encode())
+                    .hasMore(false)
+                    .fullResync(true)
+                    .build();
+        }
+
+        List<RecordChange> changes = recordChangeService.getChangesAfter(userId, position.getSeq(), limit + 1);
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+
+        // 水位只推进到连续的已稳定变更为止；之后的变更本次照常返回，下次会重复返回（客户端按ID幂等处理）
+        SyncWatermark next = position;
+        for (RecordChange change : changes) {
+            if (!change.getChangedAt().isBefore(settledBefore)) {
+                break;
+            }
+            next = new SyncWatermark(change.getSeq(), change.getChangedAt());
+        }
+        if (next == position) {
+            hasMore = false;
+        }
+
+        // 同一记录只保留最后一次变更
+        Map<Long, String> latestOps = new LinkedHashMap<>();
+        for (RecordChange change : changes) {
+            latestOps.remove(change.getRecordId());
+            latestOps.put(change.getRecordId(), change.getOp());
+        }
+        List<Long> upsertIds = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : latestOps.entrySet()) {
+            if (RecordChange.OP_DELETE.equals(entry.getValue())) {
+                deletedIds.add(entry.getKey());
+            } else {
+                upsertIds.add(entry.getKey());
+            }
+        }
+
+        List<PoopRecordDTO> upserts = new ArrayList<>();
+        if (!upsertIds.isEmpty()) {
+            Map<Long, PoopRecord> current = listByIds(upsertIds).stream()
+                    .collect(Collectors.toMap(PoopRecord::getId, record -> record));
+            if (current.size() < upsertIds.size() && archiveService.isEnabled()) {
+                // 期间被归档的记录从归档表读取
+                List<Long> missingIds = upsertIds.stream()
+                        .filter(recordId -> !current.containsKey(recordId))
+                        .collect(Collectors.toList());
+                archiveService.onArchive(() -> listByIds(missingIds))
+                        .forEach(record -> current.put(record.getId(), record));
+            }
+            for (Long recordId : upsertIds) {
+                PoopRecord record = current.get(recordId);
+                if (record != null) {
+                    upserts.add(convertToDTO(record));
+                } else {
+                    // 已在本页之后被删除，删除变更会在后续返回，这里提前按删除处理
+                    deletedIds.add(recordId);
+                }
+            }
+        }
+
+        return RecordChanges.builder()
+                .upserts(upserts)
+                .deletedIds(deletedIds)
+                .watermark(next.encode())
+                .hasMore(hasMore)
+                .fullResync(false)
+                .build();
+    }
+
+    @Override
+    public long exportRecords(
+            Long userId,
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            ExportFormat format,
+            OutputStream out) throws IOException {
+        log.info("导出便便记录，用户ID: {}, 时间范围: {} - {}, 格式: {}", userId, startTime, endTime, format);
+
+        long count = 0;
+        // 游标在只读事务内遍历，事务结束即释放连接
+        try (Cursor<PoopRecord> cursor = shardRouter.onUser(userId, () -> archiveService.readFrom(startTime,
+                () -> baseMapper.streamByUser(userId, startTime, endTime)))) {
+            if (format == ExportFormat.CSV) {
+                Writer writer = new BufferedWriter(
+                        new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+                writer.write('\uFEFF');
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                for (PoopRecord record : cursor) {
+                    writeCsvRow(writer, record);
+                    count++;
+                }
+                writer.flush();
+            } else {
+                BufferedOutputStream buffered = new BufferedOutputStream(out, EXPORT_BUFFER_SIZE);
+                try (SequenceWriter sequenceWriter = objectMapper.writerFor(PoopRecordDTO.class)
+                        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .withRootValueSeparator("\n")
+                        .writeValues(buffered)) {
+                    for (PoopRecord record : cursor) {
+                        sequenceWriter.write(convertToDTO(record));
+                        count++;
+                    }
+                }
+                if (count > 0) {
+                    buffered.write('\n');
+                }
+                buffered.flush();
+            }
+        }
+
+        log.info("导出便便记录完成，用户ID: {}, 数量: {}", userId, count);
+        return count;
+    }
+
     @Override
     public long countRecordsByTimeRange(LocalDateTime startTime, LocalDateTime endTime, Long userId) {
         log.debug("统计时间范围内的便便记录数量: {} - {}, 用户ID: {}", startTime, endTime, userId);
 
-        LambdaQueryWrapper<PoopRecord> queryWrapper = new LambdaQueryWrapper<PoopRecord>()
+        return countRecords(userId, startTime, () -> new LambdaQueryWrapper<PoopRecord>()
                 .eq(userId != null, PoopRecord::getUserId, userId)
-                .between(PoopRecord::getRecordTime, startTime, endTime);
-        return count(queryWrapper);
+                .between(PoopRecord::getRecordTime, startTime, endTime));
     }
 
     @Override
-    public long countRecordsByColor(String color, Long userId) {
+    public long countRecordsByColor(Color color, Long userId) {
         log.debug("统计颜色的便便记录数量: {}, 用户ID: {}", color, userId);
 
-        LambdaQueryWrapper<PoopRecord> queryWrapper = new LambdaQueryWrapper<PoopRecord>()
+        return countRecords(userId, null, () -> new LambdaQueryWrapper<PoopRecord>()
                 .eq(userId != null, PoopRecord::getUserId, userId)
-                .eq(PoopRecord::getColor, color);
-        return count(queryWrapper);
+                .eq(PoopRecord::getColor, color));
     }
 
     @Override
-    public long countRecordsByMood(String mood, Long userId) {
+    public long countRecordsByMood(Mood mood, Long userId) {
         log.debug("统计心情的便便记录数量: {}, 用户ID: {}", mood, userId);
 
-        LambdaQueryWrapper<PoopRecord> queryWrapper = new LambdaQueryWrapper<PoopRecord>()
+        return countRecords(userId, null, () -> new LambdaQueryWrapper<PoopRecord>()
                 .eq(userId != null, PoopRecord::getUserId, userId)
-                .eq(PoopRecord::getMood, mood);
-        return count(queryWrapper);
+                .eq(PoopRecord::getMood, mood));
+    }
+
+    /**
+     * 构建批量创建的单条结果
+     */
+    private BatchRecordResult.Item batchItem(int index, Long id, String message) {
+        return BatchRecordResult.Item.builder()
+                .index(index)
+                .success(message == null)
+                .id(id)
+                .message(message)
+                .build();
+    }
+
+    /**
+     * 记录时间按UTC与毫秒时间戳互转
+     */
+    private static long toEpochMilli(LocalDateTime recordTime) {
+        return recordTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toRecordTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC);
+    }
+
+    /**
+     * 范围删除的结束时间，覆盖该毫秒内更高精度的存储值
+     */
+    private static LocalDateTime toRangeEnd(long epochMilli) {
+        return toRecordTime(epochMilli).plusNanos(999_999);
+    }
+
+    /**
+     * 从数据库加载最新的记录（按记录时间、ID倒序），不执行COUNT查询
+     */
+    private List<PoopRecordDTO> loadLatest(Long userId, int size) {
+        return listNewestFirst(userId, null, LocalDateTime.now(), size, from -> new LambdaQueryWrapper<PoopRecord>()
+                        .eq(userId != null, PoopRecord::getUserId, userId)
+                        .ge(from != null, PoopRecord::getRecordTime, from)
+                        .orderByDesc(PoopRecord::getRecordTime, PoopRecord::getId))
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 按记录时间倒序读取前 limit 条记录：指定用户或未开启分片时在用户所在分片上读取，否则各分片并行读取后归并
+     */
+    private List<PoopRecord> listNewestFirst(Long userId, LocalDateTime startTime, LocalDateTime anchor, int limit,
+                                             Function<LocalDateTime, LambdaQueryWrapper<PoopRecord>> query) {
+        if (userId != null || !shardRouter.isSharded()) {
+            return shardRouter.onUser(userId, () -> listNewestFirst(startTime, anchor, limit, query));
+        }
+        return ShardResultMerger.mergeNewestFirst(
+                shardRouter.onEachShard(() -> listNewestFirst(startTime, anchor, limit, query)), 0, limit);
+    }
+
+    /**
+     * 在当前分片上按记录时间倒序读取前 limit 条记录，不执行COUNT查询
+     * 先只扫描锚点所在月及之前几个月的分区，不足时扩大到热表的全部分区，仍不足且可能存在归档数据时再查询全量视图；
+     * 较窄的时间范围内已取满时，范围之外更早的记录不会排在前面
+     *
+     * @param startTime 查询条件的开始时间（可选）
+     * @param anchor 最近分区窗口的计算起点（游标时间、结束时间或当前时间）
+     * @param limit 数量
+     * @param query 按时间下界构建查询条件（含排序），下界为空表示不限
+     * @return 记录列表
+     */
+    private List<PoopRecord> listNewestFirst(LocalDateTime startTime, LocalDateTime anchor, int limit,
+                                             Function<LocalDateTime, LambdaQueryWrapper<PoopRecord>> query) {
+        LocalDateTime recentStart = anchor.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1)
+                .minusMonths(Math.max(0, recentPartitionMonths));
+        if (startTime == null || startTime.isBefore(recentStart)) {
+            List<PoopRecord> rows = listFirst(query.apply(recentStart), limit);
+            if (rows.size() >= limit) {
+                return rows;
+            }
+        }
+        if (!archiveService.reachesArchive(startTime)) {
+            return listFirst(query.apply(startTime), limit);
+        }
+        // 归档记录均早于归档边界，热表中不早于边界的记录已取满时无需查询归档数据
+        LocalDateTime cutoff = archiveService.getArchiveCutoff();
+        if (cutoff.isBefore(recentStart)) {
+            List<PoopRecord> rows = listFirst(query.apply(cutoff), limit);
+            if (rows.size() >= limit) {
+                return rows;
+            }
+        }
+        return archiveService.readFrom(startTime, () -> listFirst(query.apply(startTime), limit));
+    }
+
+    private List<PoopRecord> listFirst(LambdaQueryWrapper<PoopRecord> queryWrapper, int limit) {
+        return page(new Page<>(1, limit, false), queryWrapper).getRecords();
+    }
+
+    /**
+     * 分页查询记录（按记录时间倒序）
+     * 指定用户或未开启分片时在用户所在分片上分页；否则各分片并行读取前 offset+size 条后归并，总数为各分片计数之和
+     *
+     * @param page 分页参数
+     * @param userId 用户ID（可选）
+     * @param startTime 查询开始时间（用于选择热表或全量视图），为空表示不限
+     * @param condition 查询条件（不含排序），每次调用返回新的条件对象
+     * @return 分页结果
+     */
+    private IPage<PoopRecord> pageRecords(Page<PoopRecordDTO> page, Long userId, LocalDateTime startTime,
+                                          Supplier<LambdaQueryWrapper<PoopRecord>> condition) {
+        if (userId != null || !shardRouter.isSharded()) {
+            Page<PoopRecord> recordPage = new Page<>(page.getCurrent(), page.getSize());
+            return shardRouter.onUser(userId, () -> archiveService.readFrom(startTime,
+                    () -> page(recordPage, condition.get().orderByDesc(PoopRecord::getRecordTime))));
+        }
+        Page<PoopRecord> merged = new Page<>(page.getCurrent(), page.getSize());
+        merged.setRecords(listAcrossShards(startTime, condition,
+                (Math.max(1, page.getCurrent()) - 1) * page.getSize(), (int) page.getSize()));
+        merged.setTotal(countRecords(null, startTime, condition));
+        return merged;
+    }
+
+    /**
+     * 跨分片读取按 (record_time, id) 倒序排列的第 offset 条起的 limit 条记录
+     * 每个分片都需读取前 offset+limit 条，深分页的代价随分片数成倍增加，超过上限时拒绝
+     */
+    private List<PoopRecord> listAcrossShards(LocalDateTime startTime, Supplier<LambdaQueryWrapper<PoopRecord>> condition,
+                                              long offset, int limit) {
+        long needed = offset + limit;
+        if (needed > maxFanOutRows) {
+            throw new IllegalArgumentException("未指定用户时最多查询前" + maxFanOutRows + "条记录，请缩小查询范围");
+        }
+        List<List<PoopRecord>> shardRows = shardRouter.onEachShard(() -> archiveService.readFrom(startTime,
+                () -> list(condition.get()
+                        .orderByDesc(PoopRecord::getRecordTime, PoopRecord::getId)
+                        .last("LIMIT " + needed))));
+        return ShardResultMerger.mergeNewestFirst(shardRows, offset, limit);
+    }
+
+    /**
+     * 按条件列出全部记录，条件须按 (record_time, id) 倒序排列
+     */
+    private List<PoopRecord> listRecords(Long userId, LocalDateTime startTime,
+                                         Supplier<LambdaQueryWrapper<PoopRecord>> query) {
+        if (userId != null || !shardRouter.isSharded()) {
+            return shardRouter.onUser(userId, () -> archiveService.readFrom(startTime, () -> list(query.get())));
+        }
+        return ShardResultMerger.mergeNewestFirst(
+                shardRouter.onEachShard(() -> archiveService.readFrom(startTime, () -> list(query.get()))),
+                0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 按条件计数：指定用户或未开启分片时在用户所在分片上计数，否则为各分片计数之和
+     */
+    private long countRecords(Long userId, LocalDateTime startTime, Supplier<LambdaQueryWrapper<PoopRecord>> condition) {
+        if (userId != null || !shardRouter.isSharded()) {
+            return shardRouter.onUser(userId, () -> archiveService.readFrom(startTime, () -> count(condition.get())));
+        }
+        return shardRouter.onEachShard(() -> archiveService.readFrom(startTime, () -> count(condition.get())))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    /**
+     * 按ID查找记录，热表中不存在时查找归档表
+     * 开启分片时并行查询各分片；迁移期间两个分片可能都有该记录，以目录中用户所在的分片为准
+     */
+    private PoopRecord findRecord(Long id) {
+        if (!shardRouter.isSharded()) {
+            return findOnCurrentShard(id);
+        }
+        List<PoopRecord> found = shardRouter.onEachShard(() -> findOnCurrentShard(id));
+        PoopRecord any = null;
+        for (int shard = 0; shard < found.size(); shard++) {
+            PoopRecord record = found.get(shard);
+            if (record != null) {
+                if (shardRouter.shardOf(record.getUserId()) == shard) {
+                    return record;
+                }
+                any = record;
+            }
+        }
+        return any;
+    }
+
+    private PoopRecord findOnCurrentShard(Long id) {
+        PoopRecord entity = getById(id);
+        if (entity == null && archiveService.isEnabled()) {
+            entity = archiveService.onArchive(() -> getById(id));
+        }
+        return entity;
+    }
+
+    /**
+     * 记录所属的用户，用于按ID修改时选择分片；未开启分片时无需查找，返回null
+     */
+    private Long ownerOf(Long id) {
+        if (!shardRouter.isSharded()) {
+            return null;
+        }
+        PoopRecord record = findRecord(id);
+        return record != null ? record.getUserId() : null;
+    }
+
+    /**
+     * 写出一行CSV
+     */
+    private void writeCsvRow(Writer writer, PoopRecord record) throws IOException {
+        writer.write(String.valueOf(record.getId()));
+        writer.write(',');
+        writer.write(formatExportTime(record.getRecordTime()));
+        for (String value : new String[]{CodedEnum.valueOf(record.getColor()), CodedEnum.valueOf(record.getSmell()),
+                CodedEnum.valueOf(record.getMoisture()), CodedEnum.valueOf(record.getShape()),
+                CodedEnum.valueOf(record.getSize()), CodedEnum.valueOf(record.getTexture()),
+                CodedEnum.valueOf(record.getMood()), record.getNotes()}) {
+            writer.write(',');
+            writer.write(escapeCsv(value));
+        }
+        writer.write(',');
+        writer.write(formatExportTime(record.getCreatedAt()));
+        writer.write(',');
+        writer.write(formatExportTime(record.getUpdatedAt()));
+        writer.write('\n');
+    }
+
+    private static String formatExportTime(LocalDateTime time) {
+        return time != null ? EXPORT_TIME_FORMAT.format(time) : "";
+    }
+
+    /**
+     * CSV字段转义：包含逗号、引号或换行时加引号，内部引号加倍
+     */
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * 构建通用查询条件（不含排序）
+     */
+    private LambdaQueryWrapper<PoopRecord> buildConditionWrapper(
+            Color color,
+            Mood mood,
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            Long userId) {
+        return new LambdaQueryWrapper<PoopRecord>()
+                .eq(userId != null, PoopRecord::getUserId, userId)
+                .eq(color != null, PoopRecord::getColor, color)
+                .eq(mood != null, PoopRecord::getMood, mood)
+                .ge(startTime != null, PoopRecord::getRecordTime, startTime)
+                .le(endTime != null, PoopRecord::getRecordTime, endTime);
+    }
+
+    /**
+     * 将被修改的归档记录移回热表（保留原ID），按新的记录时间进入对应分区，过期后由归档任务重新归档
+     */
+    private boolean restoreFromArchive(PoopRecord record) {
+        archiveService.onArchive(() -> baseMapper.deleteById(record.getId()));
+        record.setUpdatedAt(LocalDateTime.now());
+        return baseMapper.insert(record) > 0;
+    }
+
+    /**
+     * 记录变更后的处理
+     * 变更日志在当前事务内写入，计数器等缓存在事务提交后更新，避免回滚时产生脏数据
+     *
+     * @param userId 用户ID
+     * @param recordIds 变更的记录ID
+     * @param op 变更类型
+     * @param countDelta 记录数量变化量
+     */
+    private void onRecordsChanged(Long userId, Collection<Long> recordIds, String op, long countDelta) {
+        recordChangeService.logChanges(userId, recordIds, op);
+        afterCommit(() -> {
+            recordCache.evict(recordIds);
+            timelineCache.invalidate(userId);
+            analyticsEngine.invalidate(userId);
+            recordCountService.adjustTotal(userId, countDelta);
+        });
+    }
+
+    /**
+     * 注册事务提交后执行的操作，无事务时立即执行
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 
     /**
@@ -280,7 +1083,7 @@ public class PoopRecordServiceImpl extends ServiceImpl<PoopRecordMapper, PoopRec
 
         PoopRecord entity = new PoopRecord();
         entity.setId(null);
-        if (dto.getId() != 0) {
+        if (dto.getId() != null && dto.getId() != 0) {
             entity.setId(dto.getId());
         }
         entity.setRecordTime(dto.getRecordTime());
@@ -0,0 +1,187 @@
+package com.xiangrecord.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xiangrecord.config.RateLimitProperties;
+import com.xiangrecord.exception.RateLimitExceededException;
+import com.xiangrecord.service.RateLimitService;
+import com.xiangrecord.util.RedisUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 限流服务实现
+ * 令牌桶以哈希（tokens、ts）保存在Redis中，由Lua脚本按Redis服务器时间补充并扣减，多实例共享同一个桶。
+ * 桶内令牌充足时，一次访问Redis预取剩余令牌的一部分（lease-fraction）放在本地，
+ * 有效期（lease-ttl-ms）内的后续请求直接在本地扣减，远低于限额的流量大多不必访问Redis；
+ * 剩余令牌越少预取越少，接近限额时每个请求都以Redis为准。
+ * 被拒绝后在本地记住重试时间，重试时间前的请求直接拒绝。Redis不可用时放行。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class RateLimitServiceImpl implements RateLimitService {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+    private static final int MAX_LOCAL_BUCKETS = 100_000;
+
+    /**
+     * 补充并取令牌，返回 {取得的令牌数, 令牌不足时距下一个令牌的毫秒数}
+     * ARGV: 容量, 每分钟补充数, 预取比例
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>(
+            "local now = redis.call('TIME') " +
+            "local nowMs = tonumber(now[1]) * 1000 + math.floor(tonumber(now[2]) / 1000) " +
+            "local capacity = tonumber(ARGV[1]) " +
+            "local ratePerMs = tonumber(ARGV[2]) / 60000 " +
+            "local fraction = tonumber(ARGV[3]) " +
+            "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts') " +
+            "local tokens = tonumber(state[1]) or capacity " +
+            "local ts = tonumber(state[2]) or nowMs " +
+            "tokens = math.min(capacity, tokens + math.max(0, nowMs - ts) * ratePerMs) " +
+            "local granted = 0 " +
+            "local retry = 0 " +
+            "if tokens >= 1 then " +
+            "  granted = math.max(1, math.floor(tokens * fraction)) " +
+            "  tokens = tokens - granted " +
+            "else " +
+            "  retry = math.ceil((1 - tokens) / ratePerMs) " +
+            "end " +
+            "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(nowMs)) " +
+            "redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / ratePerMs)) " +
+            "return {granted, retry}",
+            List.class);
+
+    private final RedisUtil redisUtil;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double leaseFraction;
+
+    /**
+     * 规则名称 -> 计数维度 -> 令牌桶配置
+     */
+    private final Map<String, Map<String, RateLimitProperties.Limit>> limits = new HashMap<>();
+
+    /**
+     * 本地预取的令牌与拒绝记录，键为Redis中的桶键
+     */
+    private final Cache<String, Lease> leases;
+
+    /**
+     * 规则与判定结果 -> 计数器，只对已配置的规则计数，数量有限
+     */
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public RateLimitServiceImpl(RateLimitProperties properties, RedisUtil redisUtil, MeterRegistry meterRegistry) {
+        this.redisUtil = redisUtil;
+        this.meterRegistry = meterRegistry;
+        this.enabled = properties.isEnabled();
+        this.leaseFraction = properties.getLeaseFraction();
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(MAX_LOCAL_BUCKETS)
+                .expireAfterWrite(Duration.ofMillis(properties.getLeaseTtlMs()))
+                .build();
+
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            Map<String, RateLimitProperties.Limit> ruleLimits = new HashMap<>();
+            for (RateLimitProperties.Limit configured : rule.getLimits()) {
+                RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+                limit.setKey(configured.getKey());
+                limit.setCapacity(configured.getCapacity() > 0 ? configured.getCapacity() : properties.getRequestsPerMinute());
+                limit.setRefillPerMinute(Math.max(1, configured.getRefillPerMinute() > 0
+                        ? configured.getRefillPerMinute() : limit.getCapacity()));
+                ruleLimits.put(limit.getKey(), limit);
+            }
+            limits.put(rule.getName(), ruleLimits);
+        }
+        log.info("限流{}，规则: {}", enabled ? "已启用" : "未启用", limits.keySet());
+    }
+
+    @Override
+    public void acquire(String rule, String keyType, String key) {
+        if (!enabled || key == null || key.isBlank()) {
+            return;
+        }
+        RateLimitProperties.Limit limit = limits.getOrDefault(rule, Collections.emptyMap()).get(keyType);
+        if (limit == null) {
+            return;
+        }
+
+        String bucket = KEY_PREFIX + rule + ":" + keyType + ":" + key;
+        long now = System.currentTimeMillis();
+        Lease lease = leases.getIfPresent(bucket);
+        if (lease != null) {
+            if (lease.deniedUntil > now) {
+                count(rule, "denied");
+                throw new RateLimitExceededException(retryAfterSeconds(lease.deniedUntil - now));
+            }
+            if (lease.tokens.getAndDecrement() > 0) {
+                count(rule, "local");
+                return;
+            }
+        }
+
+        List<?> result = redisUtil.execute(TOKEN_BUCKET_SCRIPT, Collections.singletonList(bucket),
+                limit.getCapacity(), limit.getRefillPerMinute(), leaseFraction);
+        if (result == null || result.size() < 2) {
+            // Redis不可用时放行，避免限流故障导致登录等接口整体不可用
+            count(rule, "error");
+            return;
+        }
+        long granted = ((Number) result.get(0)).longValue();
+        long retryMs = ((Number) result.get(1)).longValue();
+        if (granted > 0) {
+            if (granted > 1) {
+                leases.put(bucket, new Lease((int) granted - 1, 0));
+            }
+            count(rule, "allowed");
+            return;
+        }
+        leases.put(bucket, new Lease(0, now + retryMs));
+        count(rule, "denied");
+        log.debug("请求频率超限，规则: {}, 维度: {}, {}ms后可重试", rule, keyType, retryMs);
+        throw new RateLimitExceededException(retryAfterSeconds(retryMs));
+    }
+
+    private void count(String rule, String result) {
+        counters.computeIfAbsent(rule + ":" + result, key -> Counter.builder("ratelimit.requests")
+                        .tag("rule", rule)
+                        .tag("result", result)
+                        .description("限流判定次数：local 为本地预取放行，allowed/denied 为Redis判定，error 为Redis不可用时放行")
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private static long retryAfterSeconds(long retryMs) {
+        return Math.max(1, (retryMs + 999) / 1000);
+    }
+
+    /**
+     * 本地预取的令牌；deniedUntil 大于当前时间表示桶已空，在此之前直接拒绝
+     */
+    private static final class Lease {
+
+        private final AtomicInteger tokens;
+        private final long deniedUntil;
+
+        private Lease(int tokens, long deniedUntil) {
+            this.tokens = new AtomicInteger(tokens);
+            this.deniedUntil = deniedUntil;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.xiangrecord.service.impl;
+
+import com.xiangrecord.dto.RecordPartition;
+import com.xiangrecord.handler.RecordTableNameHandler;
+import com.xiangrecord.mapper.RecordPartitionMapper;
+import com.xiangrecord.service.RecordArchiveService;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 记录归档服务实现类
+ * 归档分区时先用 EXCHANGE PARTITION 把整个分区原子地换入中转表，再在一个事务内把中转表的记录写入归档表并清空中转表，
+ * 全量视图包含中转表，任何时刻每条记录都恰好出现一次。已清空的分区最后合并到 p_history，
+ * 交换之后写入这些分区的记录随合并保留在热表，下次归档时再移出。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class RecordArchiveServiceImpl implements RecordArchiveService {
+
+    private static final String HISTORY_PARTITION = "p_history";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final Pattern PARTITION_NAME = Pattern.compile("p_history|p_future|p\\d{6}");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final RecordPartitionMapper partitionMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Getter
+    @Value("${app.records.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.records.archive.hot-months:12}")
+    private int hotMonths;
+
+    @Value("${app.records.partitions.premake-months:3}")
+    private int premakeMonths;
+
+    public RecordArchiveServiceImpl(RecordPartitionMapper partitionMapper,
+                                    PlatformTransactionManager transactionManager) {
+        this.partitionMapper = partitionMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public LocalDateTime getArchiveCutoff() {
+        return currentMonth().minusMonths(Math.max(1, hotMonths)).atStartOfDay();
+    }
+
+    @Override
+    public boolean reachesArchive(LocalDateTime startTime) {
+        return enabled && (startTime == null || startTime.isBefore(getArchiveCutoff()));
+    }
+
+    @Override
+    public <T> T readFrom(LocalDateTime startTime, Supplier<T> query) {
+        if (reachesArchive(startTime)) {
+            return RecordTableNameHandler.using(RecordTableNameHandler.ALL_VIEW, query);
+        }
+        return query.get();
+    }
+
+    @Override
+    public <T> T onArchive(Supplier<T> action) {
+        return RecordTableNameHandler.using(RecordTableNameHandler.ARCHIVE_TABLE, action);
+    }
+
+    @Override
+    public int ensureFuturePartitions() {
+        List<RecordPartition> partitions = partitionMapper.listPartitions();
+        if (partitions.isEmpty()) {
+            log.warn("记录表未分区，跳过创建分区");
+            return 0;
+        }
+        RecordPartition future = partitions.get(partitions.size() - 1);
+        if (!FUTURE_PARTITION.equals(future.getName()) || partitions.size() < 2) {
+            log.warn("记录表分区结构不符合预期，跳过创建分区，最后一个分区: {}", future.getName());
+            return 0;
+        }
+
+        // 最后一个有界分区的上界即下一个待建分区的起点
+        LocalDate bound = parseBound(partitions.get(partitions.size() - 2));
+        LocalDate target = currentMonth().plusMonths(Math.max(0, premakeMonths) + 1L);
+        List<String> definitions = new ArrayList<>();
+        while (bound.isBefore(target)) {
+            LocalDate next = bound.plusMonths(1);
+            definitions.add(partitionDefinition("p" + PARTITION_SUFFIX.format(bound), next));
+            bound = next;
+        }
+        if (definitions.isEmpty()) {
+            return 0;
+        }
+
+        int created = definitions.size();
+        definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        partitionMapper.reorganizePartitions(FUTURE_PARTITION, String.join(", ", definitions));
+        log.info("创建记录表分区完成，新建分区数: {}, 分区上界: {}", created, bound);
+        return created;
+    }
+
+    @Override
+    public long archiveExpiredPartitions() {
+        if (!enabled) {
+            return 0;
+        }
+        // 先处理上次中断后遗留在中转表中的记录
+        long archived = moveStageToArchive();
+
+        LocalDateTime cutoff = getArchiveCutoff();
+        List<RecordPartition> expired = new ArrayList<>();
+        for (RecordPartition partition : partitionMapper.listPartitions()) {
+            LocalDate bound = parseBound(partition);
+            if (bound == null || bound.atStartOfDay().isAfter(cutoff)) {
+                break;
+            }
+            expired.add(partition);
+        }
+        if (expired.isEmpty()) {
+            return archived;
+        }
+
+        for (RecordPartition partition : expired) {
+            partitionMapper.exchangeWithStage(checkName(partition.getName()));
+            long moved = moveStageToArchive();
+            archived += moved;
+            log.info("归档记录分区完成，分区: {}, 记录数: {}", partition.getName(), moved);
+        }
+
+        // 合并已清空的分区，减少分区数量
+        if (expired.size() > 1 || !HISTORY_PARTITION.equals(expired.get(0).getName())) {
+            String names = expired.stream()
+                    .map(partition -> checkName(partition.getName()))
+                    .collect(Collectors.joining(", "));
+            LocalDate bound = parseBound(expired.get(expired.size() - 1));
+            partitionMapper.reorganizePartitions(names, partitionDefinition(HISTORY_PARTITION, bound));
+        }
+        log.info("归档过期记录完成，归档边界: {}, 分区数: {}, 记录数: {}", cutoff, expired.size(), archived);
+        return archived;
+    }
+
+    /**
+     * 在一个事务内把中转表的记录写入归档表并清空中转表
+     */
+    private long moveStageToArchive() {
+        Integer moved = transactionTemplate.execute(status -> {
+            partitionMapper.copyStageToArchive();
+            return partitionMapper.clearStage();
+        });
+        return moved != null ? moved : 0;
+    }
+
+    /**
+     * 解析分区上界，MAXVALUE 分区返回null
+     */
+    private static LocalDate parseBound(RecordPartition partition) {
+        String description = partition.getDescription();
+        if (description == null || "MAXVALUE".equalsIgnoreCase(description.trim())) {
+            return null;
+        }
+        return LocalDate.parse(description.replace("'", "").trim().substring(0, 10));
+    }
+
+    private static String partitionDefinition(String name, LocalDate bound) {
+        return "PARTITION " + name + " VALUES LESS THAN ('" + bound + "')";
+    }
+
+    /**
+     * 分区名会拼接进DDL，只接受约定格式的名称
+     */
+    private static String checkName(String name) {
+        if (name == null || !PARTITION_NAME.matcher(name).matches()) {
+            throw new IllegalStateException("记录表分区名不符合约定: " + name);
+        }
+        return name;
+    }
+
+    private static LocalDate currentMonth() {
+        return LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.xiangrecord.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.xiangrecord.entity.RecordChange;
+import com.xiangrecord.mapper.RecordChangeMapper;
+import com.xiangrecord.service.RecordChangeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 便便记录变更日志服务实现类
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class RecordChangeServiceImpl extends ServiceImpl<RecordChangeMapper, RecordChange> implements RecordChangeService {
+
+    @Override
+    @Transactional
+    public void logChanges(Long userId, Collection<Long> recordIds, String op) {
+        if (userId == null || recordIds == null || recordIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<RecordChange> changes = recordIds.stream()
+                .map(recordId -> RecordChange.builder()
+                        .userId(userId)
+                        .recordId(recordId)
+                        .op(op)
+                        .changedAt(now)
+                        .build())
+                .collect(Collectors.toList());
+        baseMapper.insertBatch(changes);
+        log.debug("记录变更日志，用户ID: {}, 类型: {}, 数量: {}", userId, op, changes.size());
+    }
+
+    @Override
+    public List<RecordChange> getChangesAfter(Long userId, long afterSeq, int limit) {
+        Page<RecordChange> changePage = new Page<>(1, limit, false);
+        LambdaQueryWrapper<RecordChange> queryWrapper = new LambdaQueryWrapper<RecordChange>()
+                .eq(RecordChange::getUserId, userId)
+                .gt(RecordChange::getSeq, afterSeq)
+                .orderByAsc(RecordChange::getSeq);
+        return page(changePage, queryWrapper).getRecords();
+    }
+
+    @Override
+    public long getMaxSeqBefore(Long userId, LocalDateTime before) {
+        Long maxSeq = baseMapper.selectMaxSeqBefore(userId, before);
+        return maxSeq != null ? maxSeq : 0L;
+    }
+
+    @Override
+    @Transactional
+    public int purgeChangesBefore(LocalDateTime before, int batchSize) {
+        return baseMapper.deleteChangedBefore(before, batchSize);
+    }
+}
@@ -0,0 +1,182 @@
+package com.xiangrecord.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.xiangrecord.datasource.ShardRouter;
+import com.xiangrecord.entity.PoopRecord;
+import com.xiangrecord.mapper.PoopRecordMapper;
+import com.xiangrecord.service.RecordArchiveService;
+import com.xiangrecord.service.RecordCountService;
+import com.xiangrecord.util.RedisUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 记录数量服务实现类
+ * 用户计数器保存在Redis中，首次访问时执行一次COUNT初始化，之后由创建/删除操作在事务提交后增减。
+ * 计数器不存在时的增减会记入"丢失计数"，初始化时若COUNT期间丢失计数有变化，说明结果可能漏掉了并发的增减，
+ * 此时不写入结果并重新统计，避免错误的计数保留到过期为止。
+ * 统计不加入调用方的事务：可重复读隔离级别下事务内的COUNT读到的是事务快照，重新统计也看不到快照之后提交的记录。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecordCountServiceImpl implements RecordCountService {
+
+    private static final String USER_COUNT_PREFIX = "record_count:user:";
+    private static final String TABLE_ESTIMATE_KEY = "record_count:estimate";
+    private static final String CONDITION_COUNT_PREFIX = "record_count:query:";
+    private static final String USER_DROPPED_PREFIX = "record_count:dropped:";
+    private static final int INIT_ATTEMPTS = 2;
+    private static final long DROPPED_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * 仅在计数器存在时增减，避免在未初始化的键上产生错误的计数；计数器不存在时增加丢失计数
+     */
+    private static final RedisScript<Long> ADJUST_IF_EXISTS_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then " +
+            "  return redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+            "end " +
+            "redis.call('INCR', KEYS[2]) " +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[2]) " +
+            "return nil",
+            Long.class);
+
+    /**
+     * 初始化计数器：已被其他请求初始化时保留已有值；COUNT期间丢失计数有变化时不写入（返回0）
+     */
+    private static final RedisScript<Long> INIT_IF_UNCHANGED_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then " +
+            "  return 1 " +
+            "end " +
+            "local dropped = tonumber(redis.call('GET', KEYS[2]) or '0') " +
+            "if dropped ~= tonumber(ARGV[2]) then " +
+            "  return 0 " +
+            "end " +
+            "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3]) " +
+            "return 1",
+            Long.class);
+
+    private final PoopRecordMapper poopRecordMapper;
+    private final RedisUtil redisUtil;
+    private final RecordArchiveService archiveService;
+    private final ShardRouter shardRouter;
+
+    @Value("${app.records.count.user-ttl-hours:24}")
+    private long userCountTtlHours;
+
+    @Value("${app.records.count.estimate-ttl-seconds:60}")
+    private long estimateTtlSeconds;
+
+    /**
+     * 挂起调用方的事务，每次统计读取最新提交的数据（开启读写分离时读主库，不把从库延迟写入计数器）
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long getTotal(Long userId) {
+        if (userId == null) {
+            // 开启分片时为各分片估算值之和
+            return getCachedValue(TABLE_ESTIMATE_KEY, estimateTtlSeconds, TimeUnit.SECONDS,
+                    () -> shardRouter.onEachShard(poopRecordMapper::estimateRowCount).stream()
+                            .mapToLong(estimate -> estimate != null ? estimate : 0L)
+                            .sum());
+        }
+        return getUserTotal(userId,
+                () -> shardRouter.onUser(userId, () -> archiveService.readFrom(null, () -> poopRecordMapper.selectCount(
+                        new LambdaQueryWrapper<PoopRecord>().eq(PoopRecord::getUserId, userId)))));
+    }
+
+    /**
+     * 读取用户计数器，不存在时统计并初始化；统计期间有增减未能记入时重新统计
+     */
+    long getUserTotal(Long userId, LongSupplier counter) {
+        String key = USER_COUNT_PREFIX + userId;
+        String cached = redisUtil.get(key);
+        if (cached != null) {
+            try {
+                return Long.parseLong(cached);
+            } catch (NumberFormatException e) {
+                log.warn("计数缓存格式不正确，重新统计，key: {}, value: {}", key, cached);
+                redisUtil.delete(key);
+            }
+        }
+
+        String droppedKey = USER_DROPPED_PREFIX + userId;
+        long value = 0;
+        for (int attempt = 1; attempt <= INIT_ATTEMPTS; attempt++) {
+            long droppedBefore = parseOrZero(redisUtil.get(droppedKey));
+            value = counter.getAsLong();
+            Long initialized = redisUtil.execute(INIT_IF_UNCHANGED_SCRIPT, List.of(key, droppedKey),
+                    value, droppedBefore, TimeUnit.HOURS.toMillis(userCountTtlHours));
+            if (initialized == null || initialized == 1L) {
+                return value;
+            }
+            log.debug("统计期间有记录增减未能计入，重新统计，用户ID: {}, 第{}次", userId, attempt);
+        }
+        // 仍有并发增减时不写入，返回最近一次统计结果，下次访问再初始化
+        return value;
+    }
+
+    @Override
+    public long getCachedCount(String conditionKey, LongSupplier loader) {
+        return getCachedValue(CONDITION_COUNT_PREFIX + conditionKey, estimateTtlSeconds, TimeUnit.SECONDS, loader);
+    }
+
+    @Override
+    public void adjustTotal(Long userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        Long current = redisUtil.execute(ADJUST_IF_EXISTS_SCRIPT,
+                List.of(USER_COUNT_PREFIX + userId, USER_DROPPED_PREFIX + userId), delta, DROPPED_TTL_MILLIS);
+        log.debug("调整用户记录计数，用户ID: {}, 变化量: {}, 当前值: {}", userId, delta, current);
+    }
+
+    @Override
+    public void evictTotal(Long userId) {
+        if (userId != null) {
+            redisUtil.delete(USER_COUNT_PREFIX + userId);
+        }
+    }
+
+    /**
+     * 读取缓存的计数，未命中时加载并写入（仅在键不存在时写入，避免覆盖并发增减后的值）
+     */
+    private long getCachedValue(String key, long timeout, TimeUnit unit, LongSupplier loader) {
+        String cached = redisUtil.get(key);
+        if (cached != null) {
+            try {
+                return Long.parseLong(cached);
+            } catch (NumberFormatException e) {
+                log.warn("计数缓存格式不正确，重新统计，key: {}, value: {}", key, cached);
+                redisUtil.delete(key);
+            }
+        }
+        long value = loader.getAsLong();
+        redisUtil.setIfAbsent(key, value, timeout, unit);
+        return value;
+    }
+
+    private static long parseOrZero(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.xiangrecord.service.impl;
+
+import com.xiangrecord.analytics.RecordAnalyticsEngine;
+import com.xiangrecord.analytics.RecordAttribute;
+import com.xiangrecord.analytics.UserColumns;
+import com.xiangrecord.datasource.ShardRouter;
+import com.xiangrecord.dto.AttributeCombinationCount;
+import com.xiangrecord.dto.AttributeCooccurrence;
+import com.xiangrecord.dto.BucketUnit;
+import com.xiangrecord.dto.RecordStatsSummary;
+import com.xiangrecord.dto.RecordTimeSeries;
+import com.xiangrecord.entity.PoopRecord;
+import com.xiangrecord.entity.enums.CodedEnum;
+import com.xiangrecord.mapper.PoopRecordMapper;
+import com.xiangrecord.service.RecordArchiveService;
+import com.xiangrecord.service.RecordStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 记录统计服务实现类
+ * 指定用户且启用分析引擎时从进程内列式快照计算，否则由SQL聚合
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class RecordStatsServiceImpl implements RecordStatsService {
+
+    /**
+     * 参与统计的分类属性，按输出顺序排列
+     */
+    private static final Map<String, Function<AttributeCombinationCount, String>> ATTRIBUTES = new LinkedHashMap<>();
+
+    static {
+        ATTRIBUTES.put("color", combination -> CodedEnum.valueOf(combination.getColor()));
+        ATTRIBUTES.put("smell", combination -> CodedEnum.valueOf(combination.getSmell()));
+        ATTRIBUTES.put("moisture", combination -> CodedEnum.valueOf(combination.getMoisture()));
+        ATTRIBUTES.put("shape", combination -> CodedEnum.valueOf(combination.getShape()));
+        ATTRIBUTES.put("size", combination -> CodedEnum.valueOf(combination.getSize()));
+        ATTRIBUTES.put("texture", combination -> CodedEnum.valueOf(combination.getTexture()));
+        ATTRIBUTES.put("mood", combination -> CodedEnum.valueOf(combination.getMood()));
+    }
+
+    private final PoopRecordMapper poopRecordMapper;
+    private final RecordAnalyticsEngine analyticsEngine;
+    private final RecordArchiveService archiveService;
+    private final ShardRouter shardRouter;
+
+    @Value("${app.records.stats.max-buckets:400}")
+    private int maxBuckets;
+
+    @Override
+    public RecordStatsSummary getSummary(Long userId, LocalDateTime startTime, LocalDateTime endTime) {
+        log.debug("获取统计汇总，用户ID: {}, 时间范围: {} - {}", userId, startTime, endTime);
+        if (useColumns(userId)) {
+            return summarizeColumns(userId, startTime, endTime);
+        }
+
+        List<AttributeCombinationCount> combinations = countByAttributes(userId, startTime, endTime);
+
+        long total = 0;
+        Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+        ATTRIBUTES.keySet().forEach(attribute -> counts.put(attribute, new HashMap<>()));
+        for (AttributeCombinationCount combination : combinations) {
+            long count = combination.getTotal();
+            total += count;
+            ATTRIBUTES.forEach((attribute, getter) -> {
+                String value = getter.apply(combination);
+                if (value != null) {
+                    counts.get(attribute).merge(value, count, Long::sum);
+                }
+            });
+        }
+
+        Map<String, Map<String, Long>> histograms = new LinkedHashMap<>();
+        counts.forEach((attribute, histogram) -> histograms.put(attribute, sortByCountDesc(histogram)));
+
+        return RecordStatsSummary.builder()
+                .total(total)
+                .startTime(startTime)
+                .endTime(endTime)
+                .histograms(histograms)
+                .build();
+    }
+
+    @Override
+    public RecordTimeSeries getTimeSeries(
+            Long userId,
+            BucketUnit unit,
+            ZoneId zone,
+            LocalDateTime startTime,
+            LocalDateTime endTime) {
+        LocalDateTime end = endTime != null ? endTime : LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime start = startTime != null ? startTime : end.minusYears(1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("开始时间不能晚于结束时间");
+        }
+
+        LocalDate firstBucket = unit.truncate(toZonedDate(start, zone));
+        long bucketCount = unit.between(firstBucket, unit.truncate(toZonedDate(end, zone))) + 1;
+        if (bucketCount > maxBuckets) {
+            throw new IllegalArgumentException("时间桶数量超过上限" + maxBuckets + "，请缩小时间范围或增大分桶粒度");
+        }
+        log.debug("获取时间序列统计，用户ID: {}, 粒度: {}, 时区: {}, 时间范围: {} - {}, 桶数: {}",
+                userId, unit, zone, start, end, bucketCount);
+
+        int size = (int) bucketCount;
+        long[] counts = new long[size];
+        String[] dominantShapes = new String[size];
+        String[] dominantColors = new String[size];
+        if (useColumns(userId)) {
+            aggregateColumns(userId, unit, zone, firstBucket, start, end, counts, dominantShapes, dominantColors);
+        } else {
+            aggregateCursor(userId, unit, zone, firstBucket, start, end, counts, dominantShapes, dominantColors);
+        }
+
+        List<RecordTimeSeries.Bucket> buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(RecordTimeSeries.Bucket.builder()
+                    .start(unit.plus(firstBucket, i).toString())
+                    .count(counts[i])
+                    .dominantShape(dominantShapes[i])
+                    .dominantColor(dominantColors[i])
+                    .build());
+        }
+
+        return RecordTimeSeries.builder()
+                .bucket(unit.name().toLowerCase())
+                .timezone(zone.getId())
+                .buckets(buckets)
+                .build();
+    }
+
+    @Override
+    public AttributeCooccurrence getCooccurrence(
+            Long userId,
+            String rowAttribute,
+            String columnAttribute,
+            LocalDateTime startTime,
+            LocalDateTime endTime) {
+        RecordAttribute row = RecordAttribute.of(rowAttribute);
+        RecordAttribute column = RecordAttribute.of(columnAttribute);
+        if (row == column) {
+            throw new IllegalArgumentException("行属性和列属性不能相同");
+        }
+        log.debug("获取属性共现表，用户ID: {}, 属性: {} x {}, 时间范围: {} - {}",
+                userId, row.getFieldName(), column.getFieldName(), startTime, endTime);
+
+        // 行取值 -> 列取值 -> 记录数，两个属性均有取值的记录才计入
+        Map<String, Map<String, Long>> pairs = new HashMap<>();
+        if (useColumns(userId)) {
+            long[][] matrix = analyticsEngine.getColumns(userId)
+                    .cooccurrence(row, column, fromMillis(startTime), toMillis(endTime));
+            for (int i = 1; i < matrix.length; i++) {
+                for (int j = 1; j < matrix[i].length; j++) {
+                    if (matrix[i][j] > 0) {
+                        pairs.computeIfAbsent(row.decode(i), key -> new HashMap<>())
+                                .put(column.decode(j), matrix[i][j]);
+                    }
+                }
+            }
+        } else {
+            Function<AttributeCombinationCount, String> rowGetter = ATTRIBUTES.get(row.getFieldName());
+            Function<AttributeCombinationCount, String> columnGetter = ATTRIBUTES.get(column.getFieldName());
+            List<AttributeCombinationCount> combinations = countByAttributes(userId, startTime, endTime);
+            for (AttributeCombinationCount combination : combinations) {
+                String rowValue = rowGetter.apply(combination);
+                String columnValue = columnGetter.apply(combination);
+                if (rowValue != null && columnValue != null) {
+                    pairs.computeIfAbsent(rowValue, key -> new HashMap<>())
+                            .merge(columnValue, combination.getTotal(), Long::sum);
+                }
+            }
+        }
+
+        long total = 0;
+        Map<String, Long> rowTotals = new HashMap<>();
+        Map<String, Long> columnTotals = new HashMap<>();
+        for (Map.Entry<String, Map<String, Long>> rowEntry : pairs.entrySet()) {
+            for (Map.Entry<String, Long> cell : rowEntry.getValue().entrySet()) {
+                total += cell.getValue();
+                rowTotals.merge(rowEntry.getKey(), cell.getValue(), Long::sum);
+                columnTotals.merge(cell.getKey(), cell.getValue(), Long::sum);
+            }
+        }
+        List<String> rowValues = new ArrayList<>(sortByCountDesc(rowTotals).keySet());
+        List<String> columnValues = new ArrayList<>(sortByCountDesc(columnTotals).keySet());
+        List<List<Long>> counts = new ArrayList<>(rowValues.size());
+        for (String rowValue : rowValues) {
+            Map<String, Long> cells = pairs.get(rowValue);
+            List<Long> rowCounts = new ArrayList<>(columnValues.size());
+            for (String columnValue : columnValues) {
+                rowCounts.add(cells.getOrDefault(columnValue, 0L));
+            }
+            counts.add(rowCounts);
+        }
+
+        return AttributeCooccurrence.builder()
+                .rowAttribute(row.getFieldName())
+                .columnAttribute(column.getFieldName())
+                .startTime(startTime)
+                .endTime(endTime)
+                .total(total)
+                .rowValues(rowValues)
+                .columnValues(columnValues)
+                .counts(counts)
+                .build();
+    }
+
+    private boolean useColumns(Long userId) {
+        return userId != null && analyticsEngine.isEnabled();
+    }
+
+    /**
+     * 从列式快照计算统计汇总
+     */
+    private RecordStatsSummary summarizeColumns(Long userId, LocalDateTime startTime, LocalDateTime endTime) {
+        UserColumns columns = analyticsEngine.getColumns(userId);
+        long from = fromMillis(startTime);
+        long to = toMillis(endTime);
+
+        Map<String, Map<String, Long>> histograms = new LinkedHashMap<>();
+        for (RecordAttribute attribute : RecordAttribute.values()) {
+            long[] codeCounts = columns.histogram(attribute, from, to);
+            Map<String, Long> histogram = new HashMap<>();
+            for (int code = 1; code < codeCounts.length; code++) {
+                if (codeCounts[code] > 0) {
+                    histogram.put(attribute.decode(code), codeCounts[code]);
+                }
+            }
+            histograms.put(attribute.getFieldName(), sortByCountDesc(histogram));
+        }
+
+        return RecordStatsSummary.builder()
+                .total((long) columns.count(from, to))
+                .startTime(startTime)
+                .endTime(endTime)
+                .histograms(histograms)
+                .build();
+    }
+
+    /**
+     * 从列式快照按桶聚合：桶边界换算为UTC毫秒后单次顺序扫描
+     */
+    private void aggregateColumns(Long userId, BucketUnit unit, ZoneId zone, LocalDate firstBucket,
+                                  LocalDateTime start, LocalDateTime end,
+                                  long[] counts, String[] dominantShapes, String[] dominantColors) {
+        int size = counts.length;
+        long[] boundaries = new long[size + 1];
+        for (int i = 0; i <= size; i++) {
+            boundaries[i] = unit.plus(firstBucket, i).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+
+        UserColumns columns = analyticsEngine.getColumns(userId);
+        long from = fromMillis(start);
+        long to = toMillis(end);
+        long[][] shapeCounts = columns.bucketHistogram(RecordAttribute.SHAPE, boundaries, from, to);
+        long[][] colorCounts = columns.bucketHistogram(RecordAttribute.COLOR, boundaries, from, to);
+        for (int i = 0; i < size; i++) {
+            for (long count : shapeCounts[i]) {
+                counts[i] += count;
+            }
+            dominantShapes[i] = dominant(RecordAttribute.SHAPE, shapeCounts[i]);
+            dominantColors[i] = dominant(RecordAttribute.COLOR, colorCounts[i]);
+        }
+    }
+
+    /**
+     * 按全部分类属性分组计数；未指定用户且开启分片时合并各分片的分组结果（调用方按组合累加，无需合并相同组合）
+     */
+    private List<AttributeCombinationCount> countByAttributes(Long userId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (userId != null || !shardRouter.isSharded()) {
+            return shardRouter.onUser(userId, () -> archiveService.readFrom(startTime,
+                    () -> poopRecordMapper.countByAttributes(userId, startTime, endTime)));
+        }
+        return shardRouter.onEachShard(() -> archiveService.readFrom(startTime,
+                        () -> poopRecordMapper.countByAttributes(null, startTime, endTime)))
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 逐行读取数据库游标按桶聚合，不在内存中保留记录
+     */
+    private void aggregateCursor(Long userId, BucketUnit unit, ZoneId zone, LocalDate firstBucket,
+                                 LocalDateTime start, LocalDateTime end,
+                                 long[] counts, String[] dominantShapes, String[] dominantColors) {
+        int size = counts.length;
+        List<Map<String, Long>> shapeCounts = new ArrayList<>(size);
+        List<Map<String, Long>> colorCounts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            shapeCounts.add(new HashMap<>());
+            colorCounts.add(new HashMap<>());
+        }
+
+        try (Cursor<PoopRecord> cursor = shardRouter.onUser(userId, () -> archiveService.readFrom(start,
+                () -> poopRecordMapper.streamTimeline(userId, start, end)))) {
+            for (PoopRecord record : cursor) {
+                long index = unit.between(firstBucket, unit.truncate(toZonedDate(record.getRecordTime(), zone)));
+                if (index < 0 || index >= size) {
+                    continue;
+                }
+                int bucket = (int) index;
+                counts[bucket]++;
+                if (record.getShape() != null) {
+                    shapeCounts.get(bucket).merge(record.getShape().getValue(), 1L, Long::sum);
+                }
+                if (record.getColor() != null) {
+                    colorCounts.get(bucket).merge(record.getColor().getValue(), 1L, Long::sum);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("关闭时间序列统计游标失败", e);
+        }
+
+        for (int i = 0; i < size; i++) {
+            dominantShapes[i] = dominant(shapeCounts.get(i));
+            dominantColors[i] = dominant(colorCounts.get(i));
+        }
+    }
+
+    private static long fromMillis(LocalDateTime startTime) {
+        return startTime != null ? startTime.toInstant(ZoneOffset.UTC).toEpochMilli() : Long.MIN_VALUE;
+    }
+
+    private static long toMillis(LocalDateTime endTime) {
+        return endTime != null ? endTime.toInstant(ZoneOffset.UTC).toEpochMilli() : Long.MAX_VALUE;
+    }
+
+    /**
+     * 将UTC记录时间转换为用户时区的日期
+     */
+    private static LocalDate toZonedDate(LocalDateTime utcTime, ZoneId zone) {
+        return utcTime.atOffset(ZoneOffset.UTC).atZoneSameInstant(zone).toLocalDate();
+    }
+
+    /**
+     * 按枚举编码计数取出现次数最多的值，次数相同时取字典序较小者
+     */
+    private static String dominant(RecordAttribute attribute, long[] codeCounts) {
+        String best = null;
+        long bestCount = 0;
+        for (int code = 1; code < codeCounts.length; code++) {
+            long count = codeCounts[code];
+            if (count == 0) {
+                continue;
+            }
+            String value = attribute.decode(code);
+            if (count > bestCount || (count == bestCount && value.compareTo(best) < 0)) {
+                best = value;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 取出现次数最多的值，次数相同时取字典序较小者
+     */
+    private static String dominant(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .max(Map.Entry.<String, Long>comparingByValue()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .map(Map.Entry::getKey)
+                .orElse(null);
+    }
+
+    private static Map<String, Long> sortByCountDesc(Map<String, Long> histogram) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        histogram.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+}
@@ -1,129 +1,88 @@
 package com.xiangrecord.service.impl;
 
+import com.xiangrecord.entity.SmsOutbox;
+import com.xiangrecord.mapper.SmsOutboxMapper;
 import com.xiangrecord.service.SmsService;
+import com.xiangrecord.sms.SmsDispatcher;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
 /**
  * 短信服务实现类
- * 
+ * 短信写入发件箱后立即返回，由 SmsDispatcher 异步批量发送，请求线程不等待服务商响应
+ *
  * @author xiangrecord
  * @version 1.0.0
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class SmsServiceImpl implements SmsService {
 
-    @Value("${verification.sms.enabled:false}")
-    private boolean smsEnabled;
+    private final SmsOutboxMapper smsOutboxMapper;
+    private final SmsDispatcher smsDispatcher;
 
-    @Value("${verification.sms.mock-code:123456}")
-    private String mockCode;
+    @Value("${verification.code.expiration:300}")
+    private int codeExpirationSeconds;
 
     @Override
     public boolean sendVerificationCode(String phone, String code, String type) {
-        if (!smsEnabled) {
-            // 开发环境模拟发送
-            log.info("[模拟短信] 向手机号 {} 发送{}验证码: {}", phone, getTypeDescription(type), code);
-            log.info("[开发提示] 请使用模拟验证码: {}", mockCode);
-            return true;
-        }
-
-        try {
-            // 这里应该调用真实的短信服务API
-            // 例如：阿里云短信、腾讯云短信、华为云短信等
-            return sendRealSms(phone, code, type);
-        } catch (Exception e) {
-            log.error("发送验证码短信失败: phone={}, type={}, error={}", phone, type, e.getMessage(), e);
-            return false;
-        }
+        // 验证码失效后不再发送；同一手机号同一用途只发送最新的验证码
+        LocalDateTime now = LocalDateTime.now();
+        return enqueue(SmsOutbox.builder()
+                .phone(phone)
+                .category(type)
+                .content(code)
+                .dedupKey("code:" + type + ":" + phone)
+                .expiresAt(now.plusSeconds(codeExpirationSeconds))
+                .build(), now);
     }
 
     @Override
     public boolean sendNotification(String phone, String message) {
-        if (!smsEnabled) {
-            // 开发环境模拟发送
-            log.info("[模拟短信] 向手机号 {} 发送通知: {}", phone, message);
-            return true;
-        }
-
-        try {
-            // 这里应该调用真实的短信服务API
-            return sendRealNotificationSms(phone, message);
-        } catch (Exception e) {
-            log.error("发送通知短信失败: phone={}, message={}, error={}", phone, message, e.getMessage(), e);
-            return false;
-        }
+        // 同一手机号内容相同的通知只发送一条；去重键使用内容的SHA-256摘要，内容不同的通知不会被误判为重复
+        return enqueue(SmsOutbox.builder()
+                .phone(phone)
+                .category(SmsOutbox.CATEGORY_NOTIFICATION)
+                .content(message)
+                .dedupKey("notice:" + phone + ":" + sha256(message))
+                .build(), LocalDateTime.now());
     }
 
-    /**
-     * 发送真实的验证码短信
-     * 生产环境中需要实现具体的短信服务商API调用
-     */
-    private boolean sendRealSms(String phone, String code, String type) {
-        // TODO: 实现真实的短信发送逻辑
-        // 示例：
-        // 1. 选择合适的短信模板
-        // 2. 调用短信服务商API
-        // 3. 处理返回结果
-        
-        log.info("发送验证码短信: phone={}, code={}, type={}", phone, code, type);
-        
-        // 这里应该是真实的API调用
-        // 例如：阿里云短信服务
-        /*
+    private boolean enqueue(SmsOutbox message, LocalDateTime now) {
+        message.setStatus(SmsOutbox.STATUS_PENDING);
+        message.setAttempts(0);
+        message.setNextAttemptAt(now);
+        message.setCreatedAt(now);
+        message.setUpdatedAt(now);
         try {
-            SendSmsRequest request = new SendSmsRequest();
-            request.setPhoneNumbers(phone);
-            request.setSignName("香记录");
-            request.setTemplateCode(getTemplateCode(type));
-            request.setTemplateParam("{\"code\":\"" + code + "\"}");
-            
-            SendSmsResponse response = client.sendSms(request);
-            return "OK".equals(response.getCode());
+            smsOutboxMapper.insert(message);
         } catch (Exception e) {
-            log.error("调用阿里云短信服务失败", e);
+            log.error("短信写入发件箱失败: phone={}, category={}, error={}",
+                    message.getPhone(), message.getCategory(), e.getMessage(), e);
             return false;
         }
-        */
-        
-        return true;
-    }
-
-    /**
-     * 发送真实的通知短信
-     */
-    private boolean sendRealNotificationSms(String phone, String message) {
-        // TODO: 实现真实的通知短信发送逻辑
-        log.info("发送通知短信: phone={}, message={}", phone, message);
+        smsDispatcher.wakeUp();
         return true;
     }
 
     /**
-     * 获取验证码类型描述
+     * 计算内容的SHA-256摘要（十六进制）
      */
-    private String getTypeDescription(String type) {
-        return switch (type) {
-            case "register" -> "注册";
-            case "login" -> "登录";
-            case "reset_password" -> "重置密码";
-            case "change_phone" -> "更换手机号";
-            default -> "验证";
-        };
-    }
-
-    /**
-     * 根据类型获取短信模板代码
-     * 生产环境中需要配置真实的模板代码
-     */
-    private String getTemplateCode(String type) {
-        return switch (type) {
-            case "register" -> "SMS_REGISTER_TEMPLATE";
-            case "login" -> "SMS_LOGIN_TEMPLATE";
-            case "reset_password" -> "SMS_RESET_PASSWORD_TEMPLATE";
-            case "change_phone" -> "SMS_CHANGE_PHONE_TEMPLATE";
-            default -> "SMS_DEFAULT_TEMPLATE";
-        };
+    private static String sha256(String content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
     }
-}
\ No newline at end of file
+}
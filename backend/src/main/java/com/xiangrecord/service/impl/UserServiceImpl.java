@@ -1,23 +1,28 @@
 package com.xiangrecord.service.impl;
 
+import com.xiangrecord.cache.TokenRevocationCache;
+import com.xiangrecord.cache.UserCache;
+import com.xiangrecord.cache.VerificationCodeStore;
 import com.xiangrecord.dto.*;
 import com.xiangrecord.entity.User;
+import com.xiangrecord.exception.BusinessException;
 import com.xiangrecord.mapper.UserMapper;
+import com.xiangrecord.service.SmsService;
 import com.xiangrecord.service.UserService;
+import com.xiangrecord.util.AuthCompletionExecutor;
 import com.xiangrecord.util.JwtUtil;
+import com.xiangrecord.util.ParsedToken;
 import com.xiangrecord.util.PasswordUtil;
-import com.xiangrecord.util.RedisUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
-import java.util.Random;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 用户服务实现类
@@ -31,25 +36,18 @@ import java.util.concurrent.TimeUnit;
 public class UserServiceImpl implements UserService {
 
     private final UserMapper userMapper;
+    private final UserCache userCache;
     private final JwtUtil jwtUtil;
     private final PasswordUtil passwordUtil;
-    private final RedisUtil redisUtil;
-
-    /**
-     * 验证码相关常量
-     */
-    private static final String VERIFICATION_CODE_PREFIX = "verification_code:";
-    private static final int VERIFICATION_CODE_EXPIRE_MINUTES = 5;
-    private static final int VERIFICATION_CODE_LENGTH = 6;
-
-    /**
-     * Token黑名单常量
-     */
-    private static final String TOKEN_BLACKLIST_PREFIX = "token_blacklist:";
+    private final TokenRevocationCache tokenRevocationCache;
+    private final VerificationCodeStore verificationCodeStore;
+    private final SmsService smsService;
+    private final TransactionTemplate transactionTemplate;
+    private final AuthCompletionExecutor completionExecutor;
 
     @Override
-    @Transactional
-    public LoginResponse loginWithPhone(String phone, String password) {
+    public CompletableFuture<LoginResponse> loginWithPhone(String phone, String password) {
+        User user;
         try {
             // 查找用户
             Optional<User> userOpt = userMapper.findByPhone(phone);
@@ -57,35 +55,66 @@ public class UserServiceImpl implements UserService {
                 throw new RuntimeException("用户不存在");
             }
 
-            User user = userOpt.get();
+            user = userOpt.get();
             if (user.getIsDeleted()) {
                 throw new RuntimeException("用户已被删除");
             }
             if (!user.getIsActive()) {
                 throw new RuntimeException("用户已被禁用");
             }
-
-            // 验证密码
-            if (!passwordUtil.matches(password, user.getPasswordHash())) {
-                throw new RuntimeException("密码错误");
-            }
-
-            // 更新最后登录时间
-            updateLastLoginTime(user.getId());
-
-            // 生成JWT tokenaa
-            String token = jwtUtil.generateToken(user.getId(), user.getUsername());
-            String refreshToken = jwtUtil.generateRefreshToken(user.getId());
-
-            return LoginResponse.builder()
-                    .token(token)
-                    .refreshToken(refreshToken)
-                    .user(convertToUserDTO(user))
-                    .build();
         } catch (Exception e) {
             log.error("Phone login failed: {}", phone, e);
             throw new RuntimeException("登录失败: " + e.getMessage());
         }
+
+        // 验证密码（线程池已满时直接抛出503），后续的数据库写入和令牌签发不占用哈希线程
+        return passwordUtil.matchesAsync(password, user.getPasswordHash())
+                .thenApplyAsync(matched -> {
+                    if (!matched) {
+                        throw new RuntimeException("登录失败: 密码错误");
+                    }
+
+                    // 哈希算法变化或代价超出允许范围时在后台重新哈希
+                    rehashInBackground(user, password);
+
+                    // 更新最后登录时间
+                    updateLastLoginTime(user.getId());
+
+                    // 生成JWT token
+                    String token = jwtUtil.generateToken(user.getId(), user.getUsername());
+                    String refreshToken = jwtUtil.generateRefreshToken(user.getId());
+
+                    return LoginResponse.builder()
+                            .token(token)
+                            .refreshToken(refreshToken)
+                            .user(convertToUserDTO(user))
+                            .build();
+                }, completionExecutor::execute);
+    }
+
+    /**
+     * 用登录时校验通过的明文密码按当前策略重新哈希；线程池繁忙时跳过，下次登录再处理
+     */
+    private void rehashInBackground(User user, String rawPassword) {
+        String oldHash = user.getPasswordHash();
+        if (!passwordUtil.needsRehash(oldHash) || !passwordUtil.isIdle()) {
+            return;
+        }
+        try {
+            passwordUtil.encodeAsync(rawPassword)
+                    .thenAcceptAsync(newHash -> {
+                        // 期间密码被修改时不覆盖
+                        if (userMapper.replacePasswordHash(user.getId(), oldHash, newHash) > 0) {
+                            log.info("用户密码哈希已按当前策略更新，用户ID: {}", user.getId());
+                        }
+                    }, completionExecutor::execute)
+                    .exceptionally(e -> {
+                        log.warn("重新哈希用户密码失败，用户ID: {}", user.getId(), e);
+                        return null;
+                    });
+        } catch (BusinessException e) {
+            log.debug("密码哈希线程池繁忙，跳过重新哈希，用户ID: {}", user.getId());
+        }
     }
 
     @Override
@@ -101,8 +130,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @Transactional
-    public RegisterResponse register(RegisterRequest request) {
+    public CompletableFuture<RegisterResponse> register(RegisterRequest request) {
         try {
             // 验证验证码
             if (!verifyCode(request.getPhone(), request.getVerificationCode(), "register")) {
@@ -118,52 +146,59 @@ public class UserServiceImpl implements UserService {
             if (StringUtils.hasText(request.getEmail()) && isEmailRegistered(request.getEmail())) {
                 throw new RuntimeException("邮箱已被注册");
             }
-
-            // 创建新用户
-            User user = new User();
-            user.setUsername(request.getUsername());
-            user.setPhone(request.getPhone());
-            user.setEmail(request.getEmail());
-            user.setPasswordHash(passwordUtil.encode(request.getPassword()));
-            user.setLoginType("phone");
-            user.setIsActive(true);
-            user.setIsDeleted(false);
-            user.setCreatedAt(LocalDateTime.now());
-            user.setUpdatedAt(LocalDateTime.now());
-
-            userMapper.insert(user);
-
-            // 生成JWT token
-            String token = jwtUtil.generateToken(user.getId(), user.getUsername());
-            String refreshToken = jwtUtil.generateRefreshToken(user.getId());
-
-            return RegisterResponse.builder()
-                    .token(token)
-                    .refreshToken(refreshToken)
-                    .user(convertToUserDTO(user))
-                    .build();
         } catch (Exception e) {
             log.error("User registration failed: {}", request.getPhone(), e);
             throw new RuntimeException("注册失败: " + e.getMessage());
         }
+
+        // 加密密码（线程池已满时直接抛出503），完成后在后续处理线程池中开启事务创建用户
+        return passwordUtil.encodeAsync(request.getPassword())
+                .thenApplyAsync(passwordHash -> transactionTemplate.execute(status -> {
+                    // 创建新用户
+                    User user = new User();
+                    user.setUsername(request.getUsername());
+                    user.setPhone(request.getPhone());
+                    user.setEmail(request.getEmail());
+                    user.setPasswordHash(passwordHash);
+                    user.setLoginType("phone");
+                    user.setIsActive(true);
+                    user.setIsDeleted(false);
+                    user.setCreatedAt(LocalDateTime.now());
+                    user.setUpdatedAt(LocalDateTime.now());
+
+                    userMapper.insert(user);
+                    // 清除手机号、邮箱上缓存的"未注册"空标记（事务提交后执行）
+                    userCache.evict(user);
+
+                    // 生成JWT token
+                    String token = jwtUtil.generateToken(user.getId(), user.getUsername());
+                    String refreshToken = jwtUtil.generateRefreshToken(user.getId());
+
+                    return RegisterResponse.builder()
+                            .token(token)
+                            .refreshToken(refreshToken)
+                            .user(convertToUserDTO(user))
+                            .build();
+                }), completionExecutor::execute);
     }
 
     @Override
     public VerificationCodeResponse sendVerificationCode(VerificationCodeRequest request) {
         try {
-            // 生成6位数字验证码
-            String code = generateVerificationCode();
-
-            // 存储到Redis，设置5分钟过期
-            String key = VERIFICATION_CODE_PREFIX + request.getType() + ":" + request.getPhone();
-            redisUtil.setEx(key, code, VERIFICATION_CODE_EXPIRE_MINUTES, TimeUnit.MINUTES);
+            // 生成并存储验证码（冷却期内重发时抛出429）
+            String code = verificationCodeStore.issue(request.getType(), request.getPhone());
 
-            // TODO: 调用短信服务发送验证码
-            log.info("Verification code sent to {}: {}", request.getPhone(), code);
+            // 写入短信发件箱后立即返回，由派发线程异步发送
+            if (!smsService.sendVerificationCode(request.getPhone(), code, request.getType())) {
+                throw new BusinessException(503, "验证码发送失败，请稍后重试");
+            }
+            log.info("Verification code queued for {}", request.getPhone());
 
             return VerificationCodeResponse.builder()
-                    .expiresIn(VERIFICATION_CODE_EXPIRE_MINUTES * 60)
+                    .expiresIn(verificationCodeStore.getExpirationSeconds())
                     .build();
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Send verification code failed: {}", request.getPhone(), e);
             throw new RuntimeException("验证码发送失败: " + e.getMessage());
@@ -173,15 +208,12 @@ public class UserServiceImpl implements UserService {
     @Override
     public boolean verifyCode(String phone, String code, String type) {
         try {
-            String key = VERIFICATION_CODE_PREFIX + type + ":" + phone;
-            String storedCode = redisUtil.get(key);
-
-            if (storedCode != null && storedCode.equals(code)) {
-                // 验证成功后删除验证码
-                redisUtil.delete(key);
-                return true;
+            // 校验与消费在同一个脚本中完成，同一验证码只能成功使用一次
+            VerificationCodeStore.Result result = verificationCodeStore.verify(type, phone, code);
+            if (result != VerificationCodeStore.Result.VERIFIED) {
+                log.debug("Verify code failed: {}, result: {}", phone, result);
             }
-            return false;
+            return result == VerificationCodeStore.Result.VERIFIED;
         } catch (Exception e) {
             log.error("Verify code failed: {}", phone, e);
             return false;
@@ -191,14 +223,11 @@ public class UserServiceImpl implements UserService {
     @Override
     public boolean validateToken(String token) {
         try {
-            // 检查token是否在黑名单中
-            String blacklistKey = TOKEN_BLACKLIST_PREFIX + token;
-            if (redisUtil.hasKey(blacklistKey)) {
-                return false;
-            }
-
             // 验证token有效性
-            return jwtUtil.validateToken(token);
+            ParsedToken parsed = jwtUtil.parse(token);
+
+            // 检查token是否已吊销
+            return parsed != null && !tokenRevocationCache.isRevoked(parsed);
         } catch (Exception e) {
             log.error("Token validation failed", e);
             return false;
@@ -209,25 +238,22 @@ public class UserServiceImpl implements UserService {
     public String refreshToken(String refreshToken) {
         try {
             // 验证刷新token
-            if (!jwtUtil.validateToken(refreshToken)) {
+            ParsedToken parsed = jwtUtil.parse(refreshToken);
+            if (parsed == null || tokenRevocationCache.isRevoked(parsed)) {
                 throw new RuntimeException("刷新token无效");
             }
 
             // 检查token类型
-            String tokenType = jwtUtil.getTokenType(refreshToken);
-            if (!"refresh".equals(tokenType)) {
+            if (!parsed.isRefreshToken()) {
                 throw new RuntimeException("token类型错误");
             }
 
             // 获取用户ID
-            Long userId = jwtUtil.getUserIdFromToken(refreshToken);
-            if (userId == null) {
-                throw new RuntimeException("无法获取用户信息");
-            }
+            Long userId = parsed.getUserId();
 
-            // 获取用户信息
-            User user = userMapper.selectById(userId);
-            if (user == null || user.getIsDeleted()) {
+            // 获取用户信息（已删除的用户不在缓存中）
+            UserDTO user = userCache.getById(userId).orElse(null);
+            if (user == null) {
                 throw new RuntimeException("用户不存在");
             }
 
@@ -242,15 +268,10 @@ public class UserServiceImpl implements UserService {
     @Override
     public boolean logout(String token) {
         try {
-            // 将token加入黑名单
-            String blacklistKey = TOKEN_BLACKLIST_PREFIX + token;
-            long expireTime = jwtUtil.getExpirationTime();
-            long currentTime = System.currentTimeMillis();
-
-            if (expireTime > currentTime) {
-                // 转换为秒
-                long ttl = (expireTime - currentTime) / 1000;
-                redisUtil.setEx(blacklistKey, "blacklisted", ttl, TimeUnit.SECONDS);
+            // 吊销token，保留到token过期为止
+            ParsedToken parsed = jwtUtil.parse(token);
+            if (parsed != null) {
+                tokenRevocationCache.revoke(parsed);
             }
 
             return true;
@@ -263,11 +284,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserDTO getUserById(Long userId) {
         try {
-            User user = userMapper.selectById(userId);
-            if (user != null && !user.getIsDeleted()) {
-                return convertToUserDTO(user);
-            }
-            return null;
+            return userCache.getById(userId).orElse(null);
         } catch (Exception e) {
             log.error("Get user by id failed: {}", userId, e);
             return null;
@@ -277,11 +294,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserDTO getUserByPhone(String phone) {
         try {
-            Optional<User> userOpt = userMapper.findByPhone(phone);
-            if (userOpt.isPresent() && !userOpt.get().getIsDeleted()) {
-                return convertToUserDTO(userOpt.get());
-            }
-            return null;
+            return userCache.getByPhone(phone).orElse(null);
         } catch (Exception e) {
             log.error("Get user by phone failed: {}", phone, e);
             return null;
@@ -292,6 +305,7 @@ public class UserServiceImpl implements UserService {
     public void updateLastLoginTime(Long userId) {
         try {
             userMapper.updateLastLoginTime(userId, LocalDateTime.now());
+            userCache.evict(userId);
         } catch (Exception e) {
             log.error("Update last login time failed: {}", userId, e);
         }
@@ -300,7 +314,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public boolean isPhoneRegistered(String phone) {
         try {
-            return userMapper.existsByPhone(phone);
+            return userCache.getByPhone(phone).isPresent();
         } catch (Exception e) {
             log.error("Check phone registration failed: {}", phone, e);
             return false;
@@ -310,7 +324,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public boolean isEmailRegistered(String email) {
         try {
-            return userMapper.existsByEmail(email);
+            return userCache.getByEmail(email).isPresent();
         } catch (Exception e) {
             log.error("Check email registration failed: {}", email, e);
             return false;
@@ -346,6 +360,7 @@ public class UserServiceImpl implements UserService {
             }
 
             userMapper.updateById(user);
+            userCache.evict(user);
             return convertToUserDTO(user);
         } catch (Exception e) {
             log.error("Update user failed: {}", request.getUserId(), e);
@@ -374,8 +389,11 @@ public class UserServiceImpl implements UserService {
             // 更新密码
             user.setPasswordHash(passwordUtil.encode(request.getNewPassword()));
             userMapper.updateById(user);
+            userCache.evict(user);
 
             return true;
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Update password failed: {}", request.getUserId(), e);
             throw new RuntimeException("更新密码失败: " + e.getMessage());
@@ -402,6 +420,7 @@ public class UserServiceImpl implements UserService {
 
             user.setPhone(request.getPhone());
             userMapper.updateById(user);
+            userCache.evict(user);
 
             return true;
         } catch (Exception e) {
@@ -430,6 +449,7 @@ public class UserServiceImpl implements UserService {
 
             user.setEmail(request.getEmail());
             userMapper.updateById(user);
+            userCache.evict(user);
 
             return true;
         } catch (Exception e) {
@@ -449,6 +469,7 @@ public class UserServiceImpl implements UserService {
             // 软删除
             user.setIsDeleted(true);
             userMapper.updateById(user);
+            userCache.evict(user);
 
             return true;
         } catch (Exception e) {
@@ -457,18 +478,6 @@ public class UserServiceImpl implements UserService {
         }
     }
 
-    /**
-     * 生成验证码
-     */
-    private String generateVerificationCode() {
-        Random random = new Random();
-        StringBuilder code = new StringBuilder();
-        for (int i = 0; i < VERIFICATION_CODE_LENGTH; i++) {
-            code.append(random.nextInt(10));
-        }
-        return code.toString();
-    }
-
     /**
      * 转换User实体为UserDTO
      */
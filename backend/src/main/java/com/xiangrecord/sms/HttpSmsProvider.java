@@ -0,0 +1,120 @@
+package com.xiangrecord.sms;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xiangrecord.entity.SmsOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP短信网关
+ * 一批短信一次 POST 到网关，请求体为 {"messages":[{"id","phone","template","params"}]}，
+ * 响应体为 {"results":[{"id","status","messageId","error"}]}；status 为 ACCEPTED、THROTTLED（可重试）或 REJECTED。
+ * 网关返回429或5xx时整批重试。真实服务商（阿里云、腾讯云等）通过适配到该协议的网关接入，
+ * 压测时指向测试代码中的 SmsGatewayStandIn。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "verification.sms.enabled", havingValue = "true")
+public class HttpSmsProvider implements SmsProvider {
+
+    private final ObjectMapper objectMapper;
+    private final URI gatewayUri;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public HttpSmsProvider(ObjectMapper objectMapper,
+                           @Value("${verification.sms.gateway-url}") String gatewayUrl,
+                           @Value("${verification.sms.timeout-ms:3000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        this.gatewayUri = URI.create(gatewayUrl);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public List<SmsDelivery> send(List<SmsOutbox> messages) throws IOException, InterruptedException {
+        List<Map<String, Object>> payload = new ArrayList<>(messages.size());
+        for (SmsOutbox message : messages) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", String.valueOf(message.getId()));
+            item.put("phone", message.getPhone());
+            item.put("template", getTemplateCode(message.getCategory()));
+            item.put("params", SmsOutbox.CATEGORY_NOTIFICATION.equals(message.getCategory())
+                    ? Map.of("content", message.getContent())
+                    : Map.of("code", message.getContent()));
+            payload.add(item);
+        }
+        HttpRequest request = HttpRequest.newBuilder(gatewayUri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(Map.of("messages", payload))))
+                .build();
+
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        int status = response.statusCode();
+        if (status == 429 || status >= 500) {
+            throw new IOException("短信网关暂不可用，HTTP " + status);
+        }
+        List<SmsDelivery> results = new ArrayList<>(messages.size());
+        if (status != 200) {
+            log.warn("短信网关拒绝请求，HTTP {}, 条数: {}", status, messages.size());
+            messages.forEach(message -> results.add(SmsDelivery.rejected("HTTP " + status)));
+            return results;
+        }
+
+        Map<String, JsonNode> byId = new HashMap<>();
+        for (JsonNode result : objectMapper.readTree(response.body()).path("results")) {
+            byId.put(result.path("id").asText(), result);
+        }
+        for (SmsOutbox message : messages) {
+            JsonNode result = byId.get(String.valueOf(message.getId()));
+            if (result == null) {
+                results.add(SmsDelivery.retryable("网关未返回该短信的结果"));
+                continue;
+            }
+            String error = result.path("error").asText(null);
+            results.add(switch (result.path("status").asText()) {
+                case "ACCEPTED" -> SmsDelivery.accepted(result.path("messageId").asText(null));
+                case "THROTTLED" -> SmsDelivery.retryable(error != null ? error : "THROTTLED");
+                default -> SmsDelivery.rejected(error != null ? error : result.path("status").asText());
+            });
+        }
+        return results;
+    }
+
+    /**
+     * 根据类型获取短信模板代码
+     * 生产环境中需要配置真实的模板代码
+     */
+    private String getTemplateCode(String type) {
+        return switch (type) {
+            case "register" -> "SMS_REGISTER_TEMPLATE";
+            case "login" -> "SMS_LOGIN_TEMPLATE";
+            case "reset_password" -> "SMS_RESET_PASSWORD_TEMPLATE";
+            case "change_phone" -> "SMS_CHANGE_PHONE_TEMPLATE";
+            case SmsOutbox.CATEGORY_NOTIFICATION -> "SMS_NOTIFICATION_TEMPLATE";
+            default -> "SMS_DEFAULT_TEMPLATE";
+        };
+    }
+}
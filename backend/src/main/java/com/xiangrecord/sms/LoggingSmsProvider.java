@@ -0,0 +1,55 @@
+package com.xiangrecord.sms;
+
+import com.xiangrecord.entity.SmsOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 模拟短信服务商（开发环境）
+ * 只打印短信内容，全部视为发送成功
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "verification.sms.enabled", havingValue = "false", matchIfMissing = true)
+public class LoggingSmsProvider implements SmsProvider {
+
+    @Value("${verification.sms.mock-code:123456}")
+    private String mockCode;
+
+    @Override
+    public List<SmsDelivery> send(List<SmsOutbox> messages) {
+        List<SmsDelivery> results = new ArrayList<>(messages.size());
+        for (SmsOutbox message : messages) {
+            if (SmsOutbox.CATEGORY_NOTIFICATION.equals(message.getCategory())) {
+                log.info("[模拟短信] 向手机号 {} 发送通知: {}", message.getPhone(), message.getContent());
+            } else {
+                log.info("[模拟短信] 向手机号 {} 发送{}验证码: {}", message.getPhone(),
+                        getTypeDescription(message.getCategory()), message.getContent());
+                log.info("[开发提示] 请使用模拟验证码: {}", mockCode);
+            }
+            results.add(SmsDelivery.accepted("mock-" + message.getId()));
+        }
+        return results;
+    }
+
+    /**
+     * 获取验证码类型描述
+     */
+    private String getTypeDescription(String type) {
+        return switch (type) {
+            case "register" -> "注册";
+            case "login" -> "登录";
+            case "reset_password" -> "重置密码";
+            case "change_phone" -> "更换手机号";
+            default -> "验证";
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.xiangrecord.sms;
+
+import lombok.Getter;
+
+/**
+ * 单条短信的发送结果
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+public final class SmsDelivery {
+
+    /**
+     * 服务商是否已受理
+     */
+    private final boolean accepted;
+
+    /**
+     * 失败时是否值得重试（限流、服务商临时故障）；号码无效等失败不重试
+     */
+    private final boolean retryable;
+
+    /**
+     * 服务商返回的消息ID
+     */
+    private final String messageId;
+
+    /**
+     * 失败原因
+     */
+    private final String error;
+
+    private SmsDelivery(boolean accepted, boolean retryable, String messageId, String error) {
+        this.accepted = accepted;
+        this.retryable = retryable;
+        this.messageId = messageId;
+        this.error = error;
+    }
+
+    public static SmsDelivery accepted(String messageId) {
+        return new SmsDelivery(true, false, messageId, null);
+    }
+
+    public static SmsDelivery retryable(String error) {
+        return new SmsDelivery(false, true, null, error);
+    }
+
+    public static SmsDelivery rejected(String error) {
+        return new SmsDelivery(false, false, null, error);
+    }
+}
@@ -0,0 +1,297 @@
+package com.xiangrecord.sms;
+
+import com.xiangrecord.entity.SmsOutbox;
+import com.xiangrecord.mapper.SmsOutboxMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 短信派发器
+ * 若干派发线程循环执行：从发件箱认领一批到期短信，同一批中去重键相同的只发送最新一条，其余标记为 SUPERSEDED，
+ * 已过期的标记为 EXPIRED；剩余短信一次调用服务商发送，失败的按指数退避（带随机抖动）重新排队，达到最大次数后标记为 FAILED。
+ * 新短信入队时唤醒派发线程，等待 linger-ms 让并发入队的短信合并到同一批；没有唤醒时按 poll-interval-ms 轮询，
+ * 以处理重试和其他实例入队的短信。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class SmsDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final SmsOutboxMapper smsOutboxMapper;
+    private final SmsProvider smsProvider;
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final long lingerMs;
+    private final long pollIntervalMs;
+    private final Duration claimTimeout;
+    private final int maxAttempts;
+    private final long backoffInitialMs;
+    private final long backoffMaxMs;
+
+    private final Semaphore wakeups = new Semaphore(0);
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    private final Map<String, Counter> messageCounters = new LinkedHashMap<>();
+    private final Timer providerSuccessTimer;
+    private final Timer providerErrorTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer deliveryTimer;
+
+    public SmsDispatcher(SmsOutboxMapper smsOutboxMapper,
+                         SmsProvider smsProvider,
+                         MeterRegistry meterRegistry,
+                         @Value("${verification.sms.dispatch.enabled:true}") boolean enabled,
+                         @Value("${verification.sms.dispatch.workers:2}") int workers,
+                         @Value("${verification.sms.dispatch.batch-size:100}") int batchSize,
+                         @Value("${verification.sms.dispatch.linger-ms:20}") long lingerMs,
+                         @Value("${verification.sms.dispatch.poll-interval-ms:1000}") long pollIntervalMs,
+                         @Value("${verification.sms.dispatch.claim-timeout-seconds:30}") long claimTimeoutSeconds,
+                         @Value("${verification.sms.dispatch.max-attempts:5}") int maxAttempts,
+                         @Value("${verification.sms.dispatch.backoff-initial-ms:1000}") long backoffInitialMs,
+                         @Value("${verification.sms.dispatch.backoff-max-ms:60000}") long backoffMaxMs) {
+        this.smsOutboxMapper = smsOutboxMapper;
+        this.smsProvider = smsProvider;
+        this.enabled = enabled;
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerMs = lingerMs;
+        this.pollIntervalMs = pollIntervalMs;
+        this.claimTimeout = Duration.ofSeconds(claimTimeoutSeconds);
+        this.maxAttempts = maxAttempts;
+        this.backoffInitialMs = backoffInitialMs;
+        this.backoffMaxMs = backoffMaxMs;
+
+        for (String status : List.of(SmsOutbox.STATUS_SENT, SmsOutbox.STATUS_PENDING, SmsOutbox.STATUS_FAILED,
+                SmsOutbox.STATUS_SUPERSEDED, SmsOutbox.STATUS_EXPIRED)) {
+            messageCounters.put(status, Counter.builder("sms.messages")
+                    .tag("status", status.toLowerCase())
+                    .description("短信派发结果：sent 成功，pending 失败后重新排队，failed 最终失败，superseded/expired 未发送")
+                    .register(meterRegistry));
+        }
+        this.providerSuccessTimer = providerTimer(meterRegistry, "success");
+        this.providerErrorTimer = providerTimer(meterRegistry, "error");
+        this.batchSizeSummary = DistributionSummary.builder("sms.batch.size")
+                .description("每次调用服务商发送的短信条数")
+                .register(meterRegistry);
+        this.deliveryTimer = Timer.builder("sms.delivery.latency")
+                .description("短信从入队到服务商受理的耗时")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("短信派发未启用，短信只写入发件箱");
+            return;
+        }
+        running = true;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sms-dispatch-");
+        threadFactory.setDaemon(true);
+        executor = Executors.newFixedThreadPool(workers, threadFactory);
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::runLoop);
+        }
+        log.info("短信派发已启动，线程数: {}, 单批条数: {}", workers, batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (executor != null) {
+            wakeups.release(workers);
+            executor.shutdown();
+            // 未完成的批次在认领到期后由其他实例重新认领
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 有新短信入队，唤醒派发线程
+     */
+    public void wakeUp() {
+        if (wakeups.availablePermits() < workers) {
+            wakeups.release();
+        }
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                if (wakeups.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS) && lingerMs > 0) {
+                    Thread.sleep(lingerMs);
+                }
+                wakeups.drainPermits();
+                int claimed;
+                do {
+                    claimed = dispatchOnce();
+                } while (running && claimed >= batchSize);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("短信派发失败", e);
+            }
+        }
+    }
+
+    /**
+     * 认领并发送一批短信
+     *
+     * @return 认领的条数
+     */
+    int dispatchOnce() {
+        LocalDateTime now = LocalDateTime.now();
+        String token = UUID.randomUUID().toString();
+        if (smsOutboxMapper.claimBatch(token, now, now.plus(claimTimeout), batchSize) == 0) {
+            return 0;
+        }
+        List<SmsOutbox> claimed = smsOutboxMapper.selectClaimed(token);
+        Plan plan = plan(claimed, now);
+        skip(token, plan.superseded, SmsOutbox.STATUS_SUPERSEDED, now);
+        skip(token, plan.expired, SmsOutbox.STATUS_EXPIRED, now);
+        if (!plan.toSend.isEmpty()) {
+            send(token, plan.toSend);
+        }
+        return claimed.size();
+    }
+
+    private void send(String token, List<SmsOutbox> messages) {
+        batchSizeSummary.record(messages.size());
+        List<SmsDelivery> results;
+        long start = System.nanoTime();
+        try {
+            results = smsProvider.send(messages);
+            providerSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            results = failAll(messages, "派发线程被中断");
+        } catch (Exception e) {
+            providerErrorTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.warn("调用短信服务商失败，条数: {}, 原因: {}", messages.size(), e.getMessage());
+            results = failAll(messages, e.getMessage());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<SmsOutbox> sent = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            SmsOutbox message = messages.get(i);
+            SmsDelivery result = i < results.size() ? results.get(i) : SmsDelivery.retryable("服务商未返回该短信的结果");
+            if (result.isAccepted()) {
+                message.setProviderMessageId(result.getMessageId());
+                sent.add(message);
+                deliveryTimer.record(Duration.between(message.getCreatedAt(), now));
+                continue;
+            }
+            int attempts = message.getAttempts() + 1;
+            boolean expired = message.getExpiresAt() != null && !message.getExpiresAt().isAfter(now);
+            String status = result.isRetryable() && attempts < maxAttempts && !expired
+                    ? SmsOutbox.STATUS_PENDING : SmsOutbox.STATUS_FAILED;
+            LocalDateTime nextAttemptAt = now.plus(Duration.ofMillis(backoffMillis(attempts, backoffInitialMs, backoffMaxMs)));
+            smsOutboxMapper.markAttemptFailed(message.getId(), token, status, nextAttemptAt, truncate(result.getError()), now);
+            messageCounters.get(status).increment();
+            if (SmsOutbox.STATUS_FAILED.equals(status)) {
+                log.warn("短信发送失败，ID: {}, 手机号: {}, 次数: {}, 原因: {}",
+                        message.getId(), message.getPhone(), attempts, result.getError());
+            }
+        }
+        if (!sent.isEmpty()) {
+            smsOutboxMapper.markSent(token, sent, now);
+            messageCounters.get(SmsOutbox.STATUS_SENT).increment(sent.size());
+        }
+    }
+
+    private void skip(String token, List<Long> ids, String status, LocalDateTime now) {
+        if (!ids.isEmpty()) {
+            smsOutboxMapper.markSkipped(token, ids, status, now);
+            messageCounters.get(status).increment(ids.size());
+        }
+    }
+
+    /**
+     * 过期的不发送；同一批中去重键相同的只发送ID最大（最新）的一条
+     */
+    static Plan plan(List<SmsOutbox> claimed, LocalDateTime now) {
+        Plan plan = new Plan();
+        Map<String, SmsOutbox> latest = new LinkedHashMap<>();
+        for (SmsOutbox message : claimed) {
+            if (message.getExpiresAt() != null && !message.getExpiresAt().isAfter(now)) {
+                plan.expired.add(message.getId());
+                continue;
+            }
+            SmsOutbox previous = latest.put(message.getDedupKey(), message);
+            if (previous != null) {
+                if (previous.getId() > message.getId()) {
+                    latest.put(message.getDedupKey(), previous);
+                    plan.superseded.add(message.getId());
+                } else {
+                    plan.superseded.add(previous.getId());
+                }
+            }
+        }
+        plan.toSend.addAll(latest.values());
+        return plan;
+    }
+
+    /**
+     * 第 attempts 次失败后的等待时间：初始值按2的幂增长，不超过上限，再取其一半到全部之间的随机值，避免重试集中
+     */
+    static long backoffMillis(int attempts, long initialMs, long maxMs) {
+        long base = Math.min(maxMs, initialMs << Math.min(30, Math.max(0, attempts - 1)));
+        return base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+
+    private static List<SmsDelivery> failAll(List<SmsOutbox> messages, String error) {
+        List<SmsDelivery> results = new ArrayList<>(messages.size());
+        messages.forEach(message -> results.add(SmsDelivery.retryable(error)));
+        return results;
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private static Timer providerTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("sms.provider.calls")
+                .tag("result", result)
+                .description("调用短信服务商的耗时")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 一批短信的处理计划
+     */
+    static final class Plan {
+        final List<SmsOutbox> toSend = new ArrayList<>();
+        final List<Long> superseded = new ArrayList<>();
+        final List<Long> expired = new ArrayList<>();
+    }
+}
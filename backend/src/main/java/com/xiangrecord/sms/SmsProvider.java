@@ -0,0 +1,24 @@
+package com.xiangrecord.sms;
+
+import com.xiangrecord.entity.SmsOutbox;
+
+import java.util.List;
+
+/**
+ * 短信服务商
+ * 一次调用发送一批短信
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public interface SmsProvider {
+
+    /**
+     * 发送一批短信
+     *
+     * @param messages 短信列表
+     * @return 与 messages 一一对应的发送结果
+     * @throws Exception 整批调用失败（超时、服务商不可用等），整批按可重试处理
+     */
+    List<SmsDelivery> send(List<SmsOutbox> messages) throws Exception;
+}
@@ -0,0 +1,43 @@
+package com.xiangrecord.task;
+
+import com.xiangrecord.datasource.ShardRouter;
+import com.xiangrecord.service.RecordArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 记录分区维护任务
+ * 提前创建未来月份的分区，并将超过保留期的分区移入归档表（开启分片时依次处理各分片）
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecordArchiveTask {
+
+    private final RecordArchiveService recordArchiveService;
+    private final ShardRouter shardRouter;
+
+    @Scheduled(cron = "${app.records.archive.cron:0 0 4 * * ?}")
+    public void maintainPartitions() {
+        shardRouter.forEachShard(shard -> {
+            try {
+                recordArchiveService.ensureFuturePartitions();
+            } catch (DataAccessException e) {
+                // 创建失败不影响归档，未来时间的记录暂存在 p_future，下次执行时随拆分移入对应分区
+                log.error("创建记录表分区失败，分片: {}", shard, e);
+            }
+            try {
+                long archived = recordArchiveService.archiveExpiredPartitions();
+                log.info("记录分区维护完成，分片: {}, 归档记录数: {}", shard, archived);
+            } catch (DataAccessException e) {
+                log.error("归档记录分区失败，分片: {}", shard, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.xiangrecord.task;
+
+import com.xiangrecord.datasource.ShardRouter;
+import com.xiangrecord.service.RecordChangeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 变更日志清理任务
+ * 定期删除超过保留期的变更日志（含删除墓碑），水位早于保留期的客户端会被要求全量同步
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecordChangePurgeTask {
+
+    private final RecordChangeService recordChangeService;
+    private final ShardRouter shardRouter;
+
+    @Value("${app.records.changes.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${app.records.changes.purge-batch-size:5000}")
+    private int purgeBatchSize;
+
+    @Scheduled(cron = "${app.records.changes.purge-cron:0 30 3 * * ?}")
+    public void purgeExpiredChanges() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        shardRouter.forEachShard(shard -> {
+            long total = 0;
+            int deleted;
+            do {
+                // 分批删除，避免长事务和大范围锁
+                deleted = recordChangeService.purgeChangesBefore(before, purgeBatchSize);
+                total += deleted;
+            } while (deleted >= purgeBatchSize);
+            log.info("清理过期变更日志完成，分片: {}, 截止时间: {}, 删除数: {}", shard, before, total);
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package com.xiangrecord.task;
+
+import com.xiangrecord.datasource.ReadYourWritesTracker;
+import com.xiangrecord.datasource.ReplicaRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 从库健康检查任务
+ * 定期检查从库可用性与复制延迟，摘除或恢复从库，并清理过期的读己之写窗口
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+public class ReplicaHealthTask {
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    @Scheduled(fixedDelayString = "${app.datasource.routing.health-check-interval-ms:2000}")
+    public void checkReplicas() {
+        replicaRoutingDataSource.checkReplicas();
+        readYourWritesTracker.purgeExpired();
+    }
+}
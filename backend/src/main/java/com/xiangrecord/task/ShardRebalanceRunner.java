@@ -0,0 +1,53 @@
+package com.xiangrecord.task;
+
+import com.xiangrecord.datasource.ShardRebalancer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * 分片再平衡工具入口
+ * 以独立进程执行，完成后退出，例如：
+ * java -jar xiangrecord-backend-1.0.0.jar --spring.main.web-application-type=none --app.datasource.sharding.rebalance.enabled=true
+ * 加上 --app.datasource.sharding.rebalance.dry-run=true 只输出迁移计划
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = {"app.datasource.sharding.enabled", "app.datasource.sharding.rebalance.enabled"},
+        havingValue = "true")
+public class ShardRebalanceRunner implements ApplicationRunner {
+
+    private final ShardRebalancer shardRebalancer;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Value("${app.datasource.sharding.rebalance.dry-run:false}")
+    private boolean dryRun;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        try {
+            int moved = shardRebalancer.rebalance(dryRun);
+            log.info("分片再平衡完成，迁移桶数: {}", moved);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("分片再平衡被中断，重新执行即可继续", e);
+            exitCode = 1;
+        } catch (RuntimeException e) {
+            log.error("分片再平衡失败，重新执行即可继续", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> code));
+    }
+}
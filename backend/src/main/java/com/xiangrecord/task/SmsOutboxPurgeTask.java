@@ -0,0 +1,44 @@
+package com.xiangrecord.task;
+
+import com.xiangrecord.mapper.SmsOutboxMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 短信发件箱清理任务
+ * 定期删除超过保留期的已结束短信（发送成功、最终失败、被取代、已过期），发件箱只在默认分片上
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SmsOutboxPurgeTask {
+
+    private final SmsOutboxMapper smsOutboxMapper;
+
+    @Value("${verification.sms.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${verification.sms.outbox.purge-batch-size:5000}")
+    private int purgeBatchSize;
+
+    @Scheduled(cron = "${verification.sms.outbox.purge-cron:0 45 3 * * ?}")
+    public void purgeFinishedMessages() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        long total = 0;
+        int deleted;
+        do {
+            // 分批删除，避免长事务和大范围锁
+            deleted = smsOutboxMapper.deleteFinishedBefore(before, purgeBatchSize);
+            total += deleted;
+        } while (deleted >= purgeBatchSize);
+        log.info("清理短信发件箱完成，截止时间: {}, 删除数: {}", before, total);
+    }
+}
@@ -0,0 +1,72 @@
+package com.xiangrecord.util;
+
+import com.xiangrecord.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录/注册后续处理线程池
+ * 密码哈希完成后的数据库写入、缓存失效和令牌签发在这里执行，不占用密码哈希线程，
+ * 数据库或Redis变慢时不会拖住哈希线程池。线程池已满时返回503。
+ * 不实现 Executor 接口，避免影响Spring默认任务执行器的自动配置；使用时传入 {@code executor::execute}。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class AuthCompletionExecutor {
+
+    private static final int BUSY_STATUS = 503;
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rejectedCounter;
+
+    public AuthCompletionExecutor(MeterRegistry meterRegistry,
+                                  @Value("${app.security.auth-executor.threads:8}") int threads,
+                                  @Value("${app.security.auth-executor.queue-capacity:256}") int queueCapacity) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("auth-completion-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        // executor.queued、executor.queue.remaining、executor.active 等指标
+        new ExecutorServiceMetrics(executor, "auth-completion", Tags.empty()).bindTo(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.completion.rejected")
+                .description("线程池已满被拒绝的登录/注册后续处理任务数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交任务
+     *
+     * @param task 任务
+     * @throws BusinessException 线程池已满时（503）
+     */
+    public void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("登录/注册后续处理线程池已满，拒绝请求，排队数: {}", executor.getQueue().size());
+            throw new BusinessException(BUSY_STATUS, "系统繁忙，请稍后重试");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,109 @@
+package com.xiangrecord.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 连续片段规划器
+ * 将待删除的时间戳按库中已有记录划分为连续片段：片段内不夹杂未请求删除的记录，
+ * 因此每个片段可以用一条范围删除语句完成。
+ * 排序 O(n log n)，归并匹配 O(n)。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Component
+public class ContinuousSegmentPlanner {
+
+    /**
+     * 规划连续片段
+     *
+     * @param requested 请求删除的时间戳（无需有序，允许重复）
+     * @param existing 库中已有记录的时间戳（无需有序，允许重复）
+     * @return 按时间升序排列的连续片段；不存在的时间戳会被忽略
+     */
+    public List<TimeRange> plan(long[] requested, long[] existing) {
+        long[] wanted = sortedDistinct(requested);
+        long[] present = sortedDistinct(existing);
+
+        List<TimeRange> ranges = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        int previousIndex = -1;
+        long start = 0;
+        long end = 0;
+        int count = 0;
+        while (i < wanted.length && j < present.length) {
+            if (wanted[i] < present[j]) {
+                i++;
+            } else if (wanted[i] > present[j]) {
+                j++;
+            } else {
+                if (count > 0 && j == previousIndex + 1) {
+                    // 与上一个命中的记录相邻，延长当前片段
+                    end = present[j];
+                    count++;
+                } else {
+                    if (count > 0) {
+                        ranges.add(new TimeRange(start, end, count));
+                    }
+                    start = present[j];
+                    end = present[j];
+                    count = 1;
+                }
+                previousIndex = j;
+                i++;
+                j++;
+            }
+        }
+        if (count > 0) {
+            ranges.add(new TimeRange(start, end, count));
+        }
+        return ranges;
+    }
+
+    private static long[] sortedDistinct(long[] values) {
+        if (values == null || values.length == 0) {
+            return new long[0];
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int size = 1;
+        for (int k = 1; k < sorted.length; k++) {
+            if (sorted[k] != sorted[size - 1]) {
+                sorted[size++] = sorted[k];
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+
+    /**
+     * 连续片段（闭区间）
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class TimeRange {
+
+        /**
+         * 片段起始时间戳
+         */
+        private final long start;
+
+        /**
+         * 片段结束时间戳
+         */
+        private final long end;
+
+        /**
+         * 片段内的时间戳数量
+         */
+        private final int count;
+    }
+}
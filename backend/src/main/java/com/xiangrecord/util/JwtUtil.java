@@ -7,14 +7,20 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 /**
  * JWT工具类
- * 
+ * 签名密钥与解析器在创建时构建一次并复用（JwtParser 线程安全）；
+ * 令牌通过 parse 验签一次得到 ParsedToken，各字段从中读取。
+ *
  * @author xiangrecord
  * @version 1.0.0
  */
@@ -22,17 +28,23 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret:xiangrecord-jwt-secret-key-2024-very-long-and-secure}")
-    private String secret;
+    private final Long expiration; // 默认1小时
 
-    @Value("${jwt.expiration:3600}")
-    private Long expiration; // 默认1小时
+    private final Long refreshExpiration; // 默认7天
 
-    @Value("${jwt.refresh-expiration:604800}")
-    private Long refreshExpiration; // 默认7天
+    private final SecretKey signingKey;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    private final JwtParser parser;
+
+    public JwtUtil(@Value("${jwt.secret:xiangrecord-jwt-secret-key-2024-very-long-and-secure}") String secret,
+                   @Value("${jwt.expiration:3600}") Long expiration,
+                   @Value("${jwt.refresh-expiration:604800}") Long refreshExpiration) {
+        this.expiration = expiration;
+        this.refreshExpiration = refreshExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     /**
@@ -46,7 +58,7 @@ public class JwtUtil {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("username", username);
-        claims.put("type", "access");
+        claims.put("type", ParsedToken.TYPE_ACCESS);
         return createToken(claims, userId.toString(), expiration * 1000);
     }
 
@@ -59,7 +71,7 @@ public class JwtUtil {
     public String generateRefreshToken(Long userId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
-        claims.put("type", "refresh");
+        claims.put("type", ParsedToken.TYPE_REFRESH);
         return createToken(claims, userId.toString(), refreshExpiration * 1000);
     }
 
@@ -77,147 +89,88 @@ public class JwtUtil {
 
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     /**
-     * 验证令牌
+     * 验签并解析令牌
      * 
      * @param token JWT token
-     * @return 是否有效
+     * @return 解析结果，令牌无效、已过期或缺少必要声明时返回null
      */
-    public boolean validateToken(String token) {
+    public ParsedToken parse(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Date expiryDate = claims.getExpiration();
+            Long userId = getUserId(claims);
+            if (expiryDate == null || userId == null) {
+                log.error("JWT token validation failed: missing exp or userId");
+                return null;
+            }
+            // 早期签发的令牌没有jti，以令牌摘要作为标识
+            String id = claims.getId() != null ? claims.getId() : "sha256:" + digest(token);
+            return new ParsedToken(
+                    id,
+                    userId,
+                    claims.get("username", String.class),
+                    claims.get("type", String.class),
+                    expiryDate.getTime());
         } catch (JwtException | IllegalArgumentException e) {
             log.error("JWT token validation failed: {}", e.getMessage());
-            return false;
-        }
-    }
-
-    /**
-     * 从令牌中获取用户ID
-     * 
-     * @param token JWT token
-     * @return 用户ID
-     */
-    public Long getUserIdFromToken(String token) {
-        try {
-            Claims claims = getClaimsFromToken(token);
-            Object userId = claims.get("userId");
-            if (userId instanceof Integer) {
-                return ((Integer) userId).longValue();
-            } else if (userId instanceof Long) {
-                return (Long) userId;
-            } else {
-                return Long.parseLong(userId.toString());
-            }
-        } catch (Exception e) {
-            log.error("Failed to get user ID from token: {}", e.getMessage());
             return null;
         }
     }
 
     /**
-     * 从令牌中获取用户名
+     * 计算令牌的SHA-256摘要（Base64）
      * 
      * @param token JWT token
-     * @return 用户名
+     * @return 摘要
      */
-    public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, claims -> claims.get("username", String.class));
-    }
-
-    /**
-     * 从令牌中获取过期时间
-     * 
-     * @param token JWT token
-     * @return 过期时间
-     */
-    public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
-    }
-
-    /**
-     * 从令牌中获取过期时间戳
-     * 
-     * @param token JWT token
-     * @return 过期时间戳（毫秒）
-     */
-    public Long getExpirationFromToken(String token) {
+    public static String digest(String token) {
         try {
-            Date expiration = getExpirationDateFromToken(token);
-            return expiration != null ? expiration.getTime() : null;
-        } catch (Exception e) {
-            log.error("Failed to get expiration from token: {}", e.getMessage());
-            return null;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
         }
     }
 
     /**
-     * 检查令牌是否过期
-     * 
-     * @param token JWT token
-     * @return 是否过期
-     */
-    public boolean isTokenExpired(String token) {
-        try {
-            Date expiration = getExpirationDateFromToken(token);
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            log.error("Failed to check token expiration: {}", e.getMessage());
-            return true;
-        }
-    }
-
-    /**
-     * 获取令牌类型
+     * 验证令牌
      * 
      * @param token JWT token
-     * @return 令牌类型（access/refresh）
+     * @return 是否有效
      */
-    public String getTokenType(String token) {
-        return getClaimFromToken(token, claims -> claims.get("type", String.class));
+    public boolean validateToken(String token) {
+        return parse(token) != null;
     }
 
     /**
-     * 从令牌中获取指定声明
-     * 
-     * @param token JWT token
-     * @param claimsResolver 声明解析器
-     * @param <T> 返回类型
-     * @return 声明值
+     * 从声明中获取用户ID，缺少 userId 声明时使用 subject
      */
-    public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        try {
-            final Claims claims = getClaimsFromToken(token);
-            return claimsResolver.apply(claims);
-        } catch (Exception e) {
-            log.error("Failed to get claim from token: {}", e.getMessage());
-            return null;
+    private Long getUserId(Claims claims) {
+        Object userId = claims.get("userId");
+        if (userId == null) {
+            userId = claims.getSubject();
         }
-    }
-
-    /**
-     * 从令牌中获取所有声明
-     * 
-     * @param token JWT token
-     * @return 声明
-     */
-    private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        if (userId instanceof Integer) {
+            return ((Integer) userId).longValue();
+        } else if (userId instanceof Long) {
+            return (Long) userId;
+        } else if (userId != null) {
+            try {
+                return Long.parseLong(userId.toString());
+            } catch (NumberFormatException e) {
+                log.error("Failed to get user ID from token: {}", e.getMessage());
+            }
+        }
+        return null;
     }
 
     /**
@@ -237,34 +190,4 @@ public class JwtUtil {
     public Long getRefreshExpirationTime() {
         return refreshExpiration;
     }
-
-    /**
-     * 刷新令牌
-     * 
-     * @param refreshToken 刷新令牌
-     * @param username 用户名
-     * @return 新的访问令牌
-     */
-    public String refreshToken(String refreshToken, String username) {
-        try {
-            if (!validateToken(refreshToken)) {
-                return null;
-            }
-            
-            String tokenType = getTokenType(refreshToken);
-            if (!"refresh".equals(tokenType)) {
-                return null;
-            }
-            
-            Long userId = getUserIdFromToken(refreshToken);
-            if (userId == null) {
-                return null;
-            }
-            
-            return generateToken(userId, username);
-        } catch (Exception e) {
-            log.error("Failed to refresh token: {}", e.getMessage());
-            return null;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.xiangrecord.util;
+
+import lombok.Getter;
+
+/**
+ * 验签通过的JWT令牌
+ * 由 JwtUtil.parse 解析一次得到，之后读取用户ID、用户名、类型等信息无需再次解析令牌
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+public final class ParsedToken {
+
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    /**
+     * 令牌ID（jti），没有jti的早期令牌为令牌摘要
+     */
+    private final String id;
+
+    private final Long userId;
+
+    /**
+     * 用户名，刷新令牌不包含
+     */
+    private final String username;
+
+    /**
+     * 令牌类型（access/refresh）
+     */
+    private final String type;
+
+    /**
+     * 过期时间戳（毫秒）
+     */
+    private final long expiresAt;
+
+    public ParsedToken(String id, Long userId, String username, String type, long expiresAt) {
+        this.id = id;
+        this.userId = userId;
+        this.username = username;
+        this.type = type;
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isAccessToken() {
+        return TYPE_ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return TYPE_REFRESH.equals(type);
+    }
+
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+
+    /**
+     * 距过期的剩余时间（毫秒），已过期时为0
+     */
+    public long remainingMillis(long now) {
+        return Math.max(0, expiresAt - now);
+    }
+}
@@ -0,0 +1,179 @@
+package com.xiangrecord.util;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 密码哈希策略
+ * 启动时在当前机器上实测单次哈希耗时，选出最接近目标耗时（不超过）的代价：
+ * BCrypt 为强度（每加1耗时翻倍），Argon2id 为迭代次数（内存与并行度固定）。
+ * 新哈希使用当前策略；校验时按哈希前缀识别算法，参数从哈希中读取，因此新旧代价的哈希都能校验。
+ * 校准结果受机器与计时噪声影响，各实例可能相差一档；为避免用户在不同实例间登录时哈希来回改写，
+ * 代价只在低于配置的下限或与当前代价相差超过一档时才重新哈希，算法或固定参数变化时总是重新哈希。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class PasswordHashPolicy {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2ID = "argon2id";
+
+    private static final int BCRYPT_MIN_STRENGTH = 10;
+    private static final int BCRYPT_MAX_STRENGTH = 16;
+    private static final int ARGON2_MAX_ITERATIONS = 10;
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int CALIBRATION_RUNS = 3;
+    private static final String CALIBRATION_PASSWORD = "calibration-password-0123456789";
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+    private static final Pattern ARGON2_HASH = Pattern.compile("^\\$argon2(id|i|d)\\$v=\\d+\\$m=(\\d+),t=(\\d+),p=(\\d+)\\$");
+
+    /**
+     * 当前算法（bcrypt/argon2id）
+     */
+    @Getter
+    private final String algorithm;
+
+    /**
+     * 当前代价：BCrypt 为强度，Argon2id 为迭代次数
+     */
+    @Getter
+    private final int cost;
+
+    /**
+     * 代价下限，低于下限的哈希总是重新哈希，校准结果也不低于下限
+     */
+    private final int minCost;
+
+    private final int argon2MemoryKb;
+    private final int argon2Parallelism;
+
+    private final PasswordEncoder encoder;
+    private final BCryptPasswordEncoder bcryptVerifier = new BCryptPasswordEncoder();
+    private final Argon2PasswordEncoder argon2Verifier;
+
+    public PasswordHashPolicy(@Value("${app.security.password-hash.algorithm:bcrypt}") String algorithm,
+                              @Value("${app.security.password-hash.calibrate:true}") boolean calibrate,
+                              @Value("${app.security.password-hash.target-ms:250}") long targetMs,
+                              @Value("${app.security.password-hash.bcrypt-strength:12}") int bcryptStrength,
+                              @Value("${app.security.password-hash.argon2-memory-kb:19456}") int argon2MemoryKb,
+                              @Value("${app.security.password-hash.argon2-iterations:2}") int argon2Iterations,
+                              @Value("${app.security.password-hash.argon2-parallelism:1}") int argon2Parallelism,
+                              @Value("${app.security.password-hash.bcrypt-min-strength:10}") int bcryptMinStrength,
+                              @Value("${app.security.password-hash.argon2-min-iterations:2}") int argon2MinIterations) {
+        if (!BCRYPT.equals(algorithm) && !ARGON2ID.equals(algorithm)) {
+            throw new IllegalArgumentException("不支持的密码哈希算法: " + algorithm);
+        }
+        this.algorithm = algorithm;
+        this.argon2MemoryKb = argon2MemoryKb;
+        this.argon2Parallelism = argon2Parallelism;
+        this.argon2Verifier = argon2(1);
+
+        this.minCost = BCRYPT.equals(algorithm) ? bcryptMinStrength : argon2MinIterations;
+        int configured = BCRYPT.equals(algorithm) ? bcryptStrength : argon2Iterations;
+        this.cost = calibrate ? Math.max(minCost, calibrate(targetMs)) : configured;
+        this.encoder = BCRYPT.equals(algorithm) ? new BCryptPasswordEncoder(cost) : argon2(cost);
+        log.info("密码哈希策略: {}, 代价: {}{}", algorithm, cost, calibrate ? "（按目标耗时 " + targetMs + "ms 校准）" : "");
+    }
+
+    /**
+     * 使用当前策略计算哈希
+     */
+    public String encode(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /**
+     * 校验密码，按哈希前缀识别算法
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (encodedPassword.startsWith("$argon2")) {
+            return argon2Verifier.matches(rawPassword, encodedPassword);
+        }
+        return bcryptVerifier.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * 哈希是否需要按当前策略重新计算：算法或固定参数不同，或代价低于下限、与当前代价相差超过一档
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher bcrypt = BCRYPT_HASH.matcher(encodedPassword);
+        if (bcrypt.find()) {
+            return !BCRYPT.equals(algorithm) || costOutOfRange(Integer.parseInt(bcrypt.group(1)));
+        }
+        Matcher argon2 = ARGON2_HASH.matcher(encodedPassword);
+        if (argon2.find()) {
+            return !ARGON2ID.equals(algorithm)
+                    || !"id".equals(argon2.group(1))
+                    || Integer.parseInt(argon2.group(2)) != argon2MemoryKb
+                    || costOutOfRange(Integer.parseInt(argon2.group(3)))
+                    || Integer.parseInt(argon2.group(4)) != argon2Parallelism;
+        }
+        // 无法识别的哈希无法通过校验，不会走到重新哈希
+        return false;
+    }
+
+    /**
+     * 相差一档以内视为相同，避免各实例校准结果不同时来回重新哈希
+     */
+    private boolean costOutOfRange(int hashCost) {
+        return hashCost < minCost || Math.abs(hashCost - cost) > 1;
+    }
+
+    /**
+     * 实测最低代价的耗时，推算出不超过目标耗时的最大代价
+     */
+    private int calibrate(long targetMs) {
+        if (BCRYPT.equals(algorithm)) {
+            double baseMs = measureMs(new BCryptPasswordEncoder(BCRYPT_MIN_STRENGTH));
+            int strength = BCRYPT_MIN_STRENGTH;
+            while (strength < BCRYPT_MAX_STRENGTH && baseMs * (1L << (strength + 1 - BCRYPT_MIN_STRENGTH)) <= targetMs) {
+                strength++;
+            }
+            log.info("BCrypt 强度{}实测耗时 {}ms，选用强度 {}", BCRYPT_MIN_STRENGTH, String.format("%.1f", baseMs), strength);
+            return strength;
+        }
+        // Argon2id 耗时与迭代次数近似线性
+        double perIterationMs = measureMs(argon2(1));
+        int iterations = (int) Math.max(1, Math.min(ARGON2_MAX_ITERATIONS, Math.floor(targetMs / perIterationMs)));
+        log.info("Argon2id 单次迭代实测耗时 {}ms（内存 {}KB），选用迭代次数 {}",
+                String.format("%.1f", perIterationMs), argon2MemoryKb, iterations);
+        return iterations;
+    }
+
+    /**
+     * 预热一次后取多次耗时的中位数
+     */
+    private static double measureMs(PasswordEncoder encoder) {
+        encoder.encode(CALIBRATION_PASSWORD);
+        double[] samples = new double[CALIBRATION_RUNS];
+        for (int i = 0; i < CALIBRATION_RUNS; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(samples);
+        return samples[CALIBRATION_RUNS / 2];
+    }
+
+    private Argon2PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH,
+                argon2Parallelism, argon2MemoryKb, iterations);
+    }
+}
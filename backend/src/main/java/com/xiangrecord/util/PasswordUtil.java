@@ -1,12 +1,30 @@
 package com.xiangrecord.util;
 
+import com.xiangrecord.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
 /**
  * 密码工具类
+ * BCrypt计算在独立的有界线程池中执行，不占用请求线程；线程数与队列长度有上限，
+ * 队列已满时立即以503拒绝，登录高峰不会拖慢其他接口。
+ * 算法与代价由 PasswordHashPolicy 决定。
  * 
  * @author xiangrecord
  * @version 1.0.0
@@ -15,49 +33,159 @@ import org.springframework.stereotype.Component;
 @Component
 public class PasswordUtil {
 
-    private final PasswordEncoder passwordEncoder;
+    private static final int BUSY_STATUS = 503;
+
+    private final PasswordHashPolicy hashPolicy;
+
+    private final ThreadPoolExecutor hashExecutor;
 
-    public PasswordUtil() {
-        this.passwordEncoder = new BCryptPasswordEncoder(12);
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordUtil(PasswordHashPolicy hashPolicy,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.security.password-hash.threads:4}") int threads,
+                        @Value("${app.security.password-hash.queue-capacity:64}") int queueCapacity) {
+        this.hashPolicy = hashPolicy;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hash-");
+        threadFactory.setDaemon(true);
+        this.hashExecutor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        // executor.queued、executor.queue.remaining、executor.active 等指标
+        new ExecutorServiceMetrics(hashExecutor, "password-hash", Tags.empty()).bindTo(meterRegistry);
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.queueTimer = Timer.builder("password.hash.queue")
+                .description("密码哈希任务排队时间")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hash.rejected")
+                .description("线程池已满被拒绝的密码哈希任务数")
+                .register(meterRegistry);
     }
 
     /**
-     * 加密密码
+     * 加密密码（阻塞等待线程池计算结果）
      * 
      * @param rawPassword 原始密码
      * @return 加密后的密码
+     * @throws BusinessException 线程池已满时（503）
      */
     public String encode(String rawPassword) {
-        try {
-            if (rawPassword == null || rawPassword.trim().isEmpty()) {
-                throw new IllegalArgumentException("密码不能为空");
-            }
-            return passwordEncoder.encode(rawPassword);
-        } catch (Exception e) {
-            log.error("Password encoding failed", e);
-            throw new RuntimeException("密码加密失败", e);
+        return await(encodeAsync(rawPassword));
+    }
+
+    /**
+     * 在线程池中加密密码
+     * 
+     * @param rawPassword 原始密码
+     * @return 加密后的密码
+     * @throws BusinessException 线程池已满时（503）
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        if (rawPassword == null || rawPassword.trim().isEmpty()) {
+            throw new IllegalArgumentException("密码不能为空");
         }
+        return submit(encodeTimer, () -> {
+            try {
+                return hashPolicy.encode(rawPassword);
+            } catch (Exception e) {
+                log.error("Password encoding failed", e);
+                throw new RuntimeException("密码加密失败", e);
+            }
+        });
     }
 
     /**
-     * 验证密码
+     * 验证密码（阻塞等待线程池计算结果）
      * 
      * @param rawPassword 原始密码
      * @param encodedPassword 加密后的密码
      * @return 是否匹配
+     * @throws BusinessException 线程池已满时（503）
      */
     public boolean matches(String rawPassword, String encodedPassword) {
-        try {
-            if (rawPassword == null || encodedPassword == null) {
+        return await(matchesAsync(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 在线程池中验证密码
+     * 
+     * @param rawPassword 原始密码
+     * @param encodedPassword 加密后的密码
+     * @return 是否匹配
+     * @throws BusinessException 线程池已满时（503）
+     */
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return submit(matchesTimer, () -> {
+            try {
+                return hashPolicy.matches(rawPassword, encodedPassword);
+            } catch (Exception e) {
+                log.error("Password matching failed", e);
                 return false;
             }
-            return passwordEncoder.matches(rawPassword, encodedPassword);
-        } catch (Exception e) {
-            log.error("Password matching failed", e);
-            return false;
+        });
+    }
+
+    /**
+     * 密码哈希是否需要按当前策略重新计算（算法变化，或代价低于下限、相差超过一档）
+     * 
+     * @param encodedPassword 加密后的密码
+     * @return 是否需要重新哈希
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return hashPolicy.needsRehash(encodedPassword);
+    }
+
+    /**
+     * 线程池是否空闲（没有排队任务），用于决定是否执行可推迟的后台哈希
+     */
+    public boolean isIdle() {
+        return hashExecutor.getQueue().isEmpty();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> hash) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.record(hash);
+            }, hashExecutor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("密码哈希线程池已满，拒绝请求，排队数: {}", hashExecutor.getQueue().size());
+            throw new BusinessException(BUSY_STATUS, "系统繁忙，请稍后重试");
         }
     }
 
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hash")
+                .tag("operation", operation)
+                .description("密码哈希计算耗时")
+                .register(meterRegistry);
+    }
+
     /**
      * 验证密码强度
      * 
@@ -0,0 +1,62 @@
+package com.xiangrecord.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 记录游标
+ * 以 (record_time, id) 作为定位点，编码为不透明的 URL 安全字符串
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class RecordCursor {
+
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime recordTime;
+    private final Long id;
+
+    /**
+     * 编码为游标字符串
+     *
+     * @return 游标字符串
+     */
+    public String encode() {
+        String raw = VERSION + SEPARATOR + recordTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @param cursor 游标字符串，为空表示从头开始
+     * @return 游标，cursor为空时返回null
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static RecordCursor decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("游标格式不正确");
+            }
+            return new RecordCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("游标格式不正确", e);
+        }
+    }
+}
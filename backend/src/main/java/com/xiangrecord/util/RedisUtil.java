@@ -3,8 +3,13 @@ package com.xiangrecord.util;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -103,6 +108,22 @@ public class RedisUtil {
         }
     }
 
+    /**
+     * 批量删除键
+     *
+     * @param keys 键集合
+     * @return 删除的键数量
+     */
+    public long delete(Collection<String> keys) {
+        try {
+            Long deleted = redisTemplate.delete(keys);
+            return deleted != null ? deleted : 0;
+        } catch (Exception e) {
+            log.error("Redis batch delete operation failed for {} keys", keys.size(), e);
+            return 0;
+        }
+    }
+
     /**
      * 检查键是否存在
      * 
@@ -186,9 +207,27 @@ public class RedisUtil {
         }
     }
 
+    /**
+     * 执行Lua脚本
+     *
+     * @param script 脚本
+     * @param keys 键列表
+     * @param args 参数
+     * @param <T> 返回类型
+     * @return 脚本返回值，执行失败时返回null
+     */
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        try {
+            return redisTemplate.execute(script, keys, args);
+        } catch (Exception e) {
+            log.error("Redis script execution failed for keys: {}", keys, e);
+            return null;
+        }
+    }
+
     /**
      * 设置如果不存在
-     * 
+     *
      * @param key 键
      * @param value 值
      * @return 是否设置成功
@@ -219,4 +258,107 @@ public class RedisUtil {
             return false;
         }
     }
+
+    /**
+     * 向有序集合添加成员
+     *
+     * @param key 键
+     * @param member 成员
+     * @param score 分值
+     * @return 是否添加成功
+     */
+    public boolean zAdd(String key, Object member, double score) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForZSet().add(key, member, score));
+        } catch (Exception e) {
+            log.error("Redis zAdd operation failed for key: {}", key, e);
+            return false;
+        }
+    }
+
+    /**
+     * 获取有序集合成员的分值
+     *
+     * @param key 键
+     * @param member 成员
+     * @return 分值，成员不存在或执行失败时返回null
+     */
+    public Double zScore(String key, Object member) {
+        try {
+            return redisTemplate.opsForZSet().score(key, member);
+        } catch (Exception e) {
+            log.error("Redis zScore operation failed for key: {}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 按分值范围获取有序集合成员及分值
+     *
+     * @param key 键
+     * @param min 最小分值
+     * @param max 最大分值
+     * @return 成员及分值，执行失败时返回null
+     */
+    public Set<ZSetOperations.TypedTuple<Object>> zRangeByScoreWithScores(String key, double min, double max) {
+        try {
+            return redisTemplate.opsForZSet().rangeByScoreWithScores(key, min, max);
+        } catch (Exception e) {
+            log.error("Redis zRangeByScoreWithScores operation failed for key: {}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 按分值范围删除有序集合成员
+     *
+     * @param key 键
+     * @param min 最小分值
+     * @param max 最大分值
+     * @return 删除的成员数
+     */
+    public long zRemoveRangeByScore(String key, double min, double max) {
+        try {
+            Long removed = redisTemplate.opsForZSet().removeRangeByScore(key, min, max);
+            return removed != null ? removed : 0;
+        } catch (Exception e) {
+            log.error("Redis zRemoveRangeByScore operation failed for key: {}", key, e);
+            return 0;
+        }
+    }
+
+    /**
+     * 向频道发布消息
+     *
+     * @param channel 频道
+     * @param message 消息
+     * @return 是否发布成功
+     */
+    public boolean publish(String channel, Object message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+            return true;
+        } catch (Exception e) {
+            log.error("Redis publish failed for channel: {}", channel, e);
+            return false;
+        }
+    }
+
+    /**
+     * 反序列化订阅收到的消息体（与 publish 使用相同的序列化方式）
+     *
+     * @param body 消息体
+     * @param clazz 目标类型
+     * @param <T> 返回类型
+     * @return 消息对象，类型不符或反序列化失败时返回null
+     */
+    public <T> T deserialize(byte[] body, Class<T> clazz) {
+        try {
+            Object value = redisTemplate.getValueSerializer().deserialize(body);
+            return clazz.isInstance(value) ? clazz.cast(value) : null;
+        } catch (Exception e) {
+            log.error("Redis message deserialization failed", e);
+            return null;
+        }
+    }
 }
\ No newline at end of file
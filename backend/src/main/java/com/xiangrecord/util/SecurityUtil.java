@@ -0,0 +1,32 @@
+package com.xiangrecord.util;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * 安全上下文工具类
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public final class SecurityUtil {
+
+    private SecurityUtil() {
+    }
+
+    /**
+     * 当前请求的认证用户（JWT过滤器中principal为用户ID），未认证时返回null
+     *
+     * @return 用户ID字符串
+     */
+    public static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        Object principal = authentication.getPrincipal();
+        return principal != null ? principal.toString() : null;
+    }
+}
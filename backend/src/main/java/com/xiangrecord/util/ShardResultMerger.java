@@ -0,0 +1,94 @@
+package com.xiangrecord.util;
+
+import com.xiangrecord.entity.PoopRecord;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 分片结果归并
+ * 各分片的结果已按 (record_time, id) 倒序排列，多路归并后跳过前 skip 条、取 limit 条，
+ * 只比较各分片当前的队首，复杂度 O((skip + limit) log k)，k 为分片数。
+ * 记录ID全局唯一，迁移期间同一记录可能同时出现在两个分片，归并时按ID去重。
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+public final class ShardResultMerger {
+
+    /**
+     * 按记录时间、ID倒序排列
+     */
+    public static final Comparator<PoopRecord> NEWEST_FIRST = Comparator
+            .comparing(PoopRecord::getRecordTime, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(PoopRecord::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private ShardResultMerger() {
+    }
+
+    /**
+     * 归并各分片按记录时间倒序排列的结果
+     *
+     * @param shardResults 各分片的结果（每个列表已按 (record_time, id) 倒序排列）
+     * @param skip 跳过的条数
+     * @param limit 返回的最大条数
+     * @return 归并后的记录
+     */
+    public static List<PoopRecord> mergeNewestFirst(List<List<PoopRecord>> shardResults, long skip, int limit) {
+        List<PoopRecord> merged = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        if (limit <= 0) {
+            return merged;
+        }
+
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> NEWEST_FIRST.compare(a.current(), b.current()));
+        for (List<PoopRecord> rows : shardResults) {
+            if (rows != null && !rows.isEmpty()) {
+                heads.add(new Head(rows));
+            }
+        }
+
+        long skipped = 0;
+        PoopRecord previous = null;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Head head = heads.poll();
+            PoopRecord record = head.current();
+            if (head.advance()) {
+                heads.add(head);
+            }
+            // 相同ID在排序中相邻
+            if (previous != null && record.getId() != null && record.getId().equals(previous.getId())) {
+                continue;
+            }
+            previous = record;
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                merged.add(record);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 单个分片结果的读取位置
+     */
+    private static final class Head {
+
+        private final List<PoopRecord> rows;
+        private int index;
+
+        private Head(List<PoopRecord> rows) {
+            this.rows = rows;
+        }
+
+        private PoopRecord current() {
+            return rows.get(index);
+        }
+
+        private boolean advance() {
+            return ++index < rows.size();
+        }
+    }
+}
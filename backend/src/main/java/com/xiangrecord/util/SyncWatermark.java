@@ -0,0 +1,62 @@
+package com.xiangrecord.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 增量同步水位
+ * 以变更序号和对应的变更时间作为定位点，编码为不透明的 URL 安全字符串
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class SyncWatermark {
+
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = "|";
+
+    private final long seq;
+    private final LocalDateTime changedAt;
+
+    /**
+     * 编码为水位字符串
+     *
+     * @return 水位字符串
+     */
+    public String encode() {
+        String raw = VERSION + SEPARATOR + seq + SEPARATOR + changedAt;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析水位字符串
+     *
+     * @param watermark 水位字符串，为空表示尚未同步
+     * @return 水位，watermark为空时返回null
+     * @throws IllegalArgumentException 水位格式不正确
+     */
+    public static SyncWatermark decode(String watermark) {
+        if (!StringUtils.hasText(watermark)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("同步水位格式不正确");
+            }
+            return new SyncWatermark(Long.parseLong(parts[1]), LocalDateTime.parse(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("同步水位格式不正确", e);
+        }
+    }
+}
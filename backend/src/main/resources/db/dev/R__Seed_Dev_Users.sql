@@ -0,0 +1,7 @@
+-- 开发环境种子数据：测试账号（仅 dev 配置的 spring.flyway.locations 包含本目录）
+-- 手机号已被占用时忽略，不修改已有用户
+INSERT IGNORE INTO users (username, phone, password_hash, login_type, is_active, is_deleted)
+VALUES
+('测试用户', '13800138000', '$2a$12$rQWpwKZQJjZJjZJjZJjZJeO7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7', 'phone', TRUE, FALSE);
+
+-- 注意：上面的密码哈希值是示例，实际使用时应该是真实的BCrypt哈希值
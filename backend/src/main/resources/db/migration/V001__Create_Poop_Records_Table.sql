@@ -0,0 +1,21 @@
+-- 创建便便记录表（初始结构，与 PoopRecord 实体一致）
+-- 已有数据的库由 Flyway 以版本1作为基线，本脚本不会再次执行
+CREATE TABLE IF NOT EXISTS poop_records (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '记录ID',
+    record_time DATETIME(3) NOT NULL COMMENT '记录时间（UTC）',
+    color VARCHAR(20) NOT NULL COMMENT '颜色',
+    smell VARCHAR(20) NOT NULL COMMENT '气味',
+    moisture VARCHAR(20) NOT NULL COMMENT '干湿度',
+    shape VARCHAR(20) NOT NULL COMMENT '形状',
+    size VARCHAR(20) NOT NULL COMMENT '大小',
+    texture VARCHAR(20) NOT NULL COMMENT '质地',
+    mood VARCHAR(20) NOT NULL COMMENT '心情',
+    notes TEXT COMMENT '备注',
+    user_id BIGINT COMMENT '用户ID',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    -- 索引
+    INDEX idx_record_time (record_time),
+    INDEX idx_color_mood (color, mood)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='便便记录表';
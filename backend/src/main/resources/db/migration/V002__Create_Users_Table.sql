@@ -26,11 +26,4 @@ CREATE TABLE IF NOT EXISTS users (
     INDEX idx_users_is_deleted (is_deleted)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户表';
 
--- 插入测试数据
-INSERT INTO users (username, phone, password_hash, login_type, is_active, is_deleted) 
-VALUES 
-('测试用户', '13800138000', '$2a$12$rQWpwKZQJjZJjZJjZJjZJeO7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7', 'phone', TRUE, FALSE)
-ON DUPLICATE KEY UPDATE username = VALUES(username);
-
--- 注意：上面的密码哈希值是示例，实际使用时应该是真实的BCrypt哈希值
--- 密码 '123456' 的BCrypt哈希值示例：$2a$12$rQWpwKZQJjZJjZJjZJjZJeO7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7.7
\ No newline at end of file
+-- 测试账号不在版本化迁移中插入，开发环境的种子数据见 db/dev
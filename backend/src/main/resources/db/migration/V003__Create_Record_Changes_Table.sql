@@ -0,0 +1,13 @@
+-- 创建便便记录变更日志表（增量同步）
+-- 每次创建、更新、删除记录都会在同一事务内写入一行；op = 'D' 的行即删除墓碑
+CREATE TABLE IF NOT EXISTS poop_record_changes (
+    seq BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '变更序号（单调递增）',
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    record_id BIGINT NOT NULL COMMENT '记录ID',
+    op CHAR(1) NOT NULL COMMENT '变更类型：U 新增/更新，D 删除',
+    changed_at DATETIME(3) NOT NULL COMMENT '变更时间',
+
+    -- 索引
+    INDEX idx_record_changes_user_seq (user_id, seq),
+    INDEX idx_record_changes_changed_at (changed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='便便记录变更日志表';
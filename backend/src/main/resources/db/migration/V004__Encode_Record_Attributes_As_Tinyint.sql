@@ -0,0 +1,48 @@
+-- 便便记录分类属性改为 TINYINT 编码存储
+-- 编码与 com.xiangrecord.entity.enums 中各枚举的 code 一致（从1开始，按声明顺序）
+--
+-- 迁移前可先检查是否存在不支持的取值（应返回空结果）：
+--   SELECT 'color' AS col, color AS val, COUNT(*) FROM poop_records
+--   WHERE color NOT IN ('brown','yellow','green','black','red','white') GROUP BY color;
+-- 存在不支持的取值时，第二步 MODIFY COLUMN 会在严格模式下失败；修正数据后可重新执行本脚本
+-- （第一步对已转换为数字的值保持不变，可重复执行）
+
+-- 第一步：原字符串取值替换为编码（列类型暂不变）
+UPDATE poop_records SET
+    color = CASE color
+        WHEN 'brown' THEN '1' WHEN 'yellow' THEN '2' WHEN 'green' THEN '3'
+        WHEN 'black' THEN '4' WHEN 'red' THEN '5' WHEN 'white' THEN '6'
+        ELSE color END,
+    smell = CASE smell
+        WHEN 'normal' THEN '1' WHEN 'mild' THEN '2' WHEN 'strong' THEN '3'
+        WHEN 'sweet' THEN '4' WHEN 'sour' THEN '5'
+        ELSE smell END,
+    moisture = CASE moisture
+        WHEN 'dry' THEN '1' WHEN 'normal' THEN '2' WHEN 'wet' THEN '3' WHEN 'watery' THEN '4'
+        ELSE moisture END,
+    shape = CASE shape
+        WHEN 'sausage' THEN '1' WHEN 'lumpy' THEN '2' WHEN 'cracked' THEN '3'
+        WHEN 'soft' THEN '4' WHEN 'liquid' THEN '5' WHEN 'pellets' THEN '6'
+        ELSE shape END,
+    size = CASE size
+        WHEN 'small' THEN '1' WHEN 'medium' THEN '2' WHEN 'large' THEN '3' WHEN 'extra_large' THEN '4'
+        ELSE size END,
+    texture = CASE texture
+        WHEN 'smooth' THEN '1' WHEN 'rough' THEN '2' WHEN 'sticky' THEN '3' WHEN 'fluffy' THEN '4'
+        ELSE texture END,
+    mood = CASE mood
+        WHEN 'happy' THEN '1' WHEN 'relieved' THEN '2' WHEN 'normal' THEN '3'
+        WHEN 'uncomfortable' THEN '4' WHEN 'painful' THEN '5'
+        ELSE mood END;
+
+-- 第二步：修改列类型，包含这些列的索引（如 idx_color_mood）随表一起重建
+ALTER TABLE poop_records
+    MODIFY COLUMN color TINYINT UNSIGNED NOT NULL COMMENT '颜色：1 brown, 2 yellow, 3 green, 4 black, 5 red, 6 white',
+    MODIFY COLUMN smell TINYINT UNSIGNED NOT NULL COMMENT '气味：1 normal, 2 mild, 3 strong, 4 sweet, 5 sour',
+    MODIFY COLUMN moisture TINYINT UNSIGNED NOT NULL COMMENT '干湿度：1 dry, 2 normal, 3 wet, 4 watery',
+    MODIFY COLUMN shape TINYINT UNSIGNED NOT NULL COMMENT '形状：1 sausage, 2 lumpy, 3 cracked, 4 soft, 5 liquid, 6 pellets',
+    MODIFY COLUMN size TINYINT UNSIGNED NOT NULL COMMENT '大小：1 small, 2 medium, 3 large, 4 extra_large',
+    MODIFY COLUMN texture TINYINT UNSIGNED NOT NULL COMMENT '质地：1 smooth, 2 rough, 3 sticky, 4 fluffy',
+    MODIFY COLUMN mood TINYINT UNSIGNED NOT NULL COMMENT '心情：1 happy, 2 relieved, 3 normal, 4 uncomfortable, 5 painful';
+
+ANALYZE TABLE poop_records;
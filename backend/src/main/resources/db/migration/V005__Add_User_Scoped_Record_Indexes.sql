@@ -0,0 +1,14 @@
+-- 便便记录表按用户的组合索引
+-- 记录查询均以 user_id 过滤、按 record_time（及 id）排序，以下索引使这些查询走范围扫描且无需 filesort；
+-- 查询形态与索引的对应关系由 QueryPlanTest 通过 EXPLAIN 校验
+ALTER TABLE poop_records
+    -- 列表、最近记录、今日记录、游标分页、时间范围统计、导出、批量删除
+    ADD INDEX idx_records_user_time (user_id, record_time, id),
+    -- 按颜色/心情过滤的列表、游标分页和计数
+    ADD INDEX idx_records_user_color_time (user_id, color, record_time, id),
+    ADD INDEX idx_records_user_mood_time (user_id, mood, record_time, id),
+    -- 不指定用户的按颜色/心情查询（管理端）
+    ADD INDEX idx_records_color_time (color, record_time),
+    ADD INDEX idx_records_mood_time (mood, record_time);
+
+ANALYZE TABLE poop_records;
@@ -0,0 +1,83 @@
+-- 便便记录表按月分区，冷数据归档到压缩表
+-- 热表只保留最近的分区，RecordArchiveTask 定期把超过保留期的分区移入 poop_records_archive，
+-- 并提前创建未来月份的分区；跨越归档边界的读取通过全量视图 poop_records_all 完成
+
+-- 第一步：分区键须包含在每个唯一键中，主键改为 (id, record_time)；id 仍为主键首列，自增不受影响
+ALTER TABLE poop_records DROP PRIMARY KEY, ADD PRIMARY KEY (id, record_time);
+
+-- 第二步：按记录时间范围分区，每月一个分区；p_history 存放更早的记录，p_future 兜底未来时间的记录
+ALTER TABLE poop_records PARTITION BY RANGE COLUMNS (record_time) (
+    PARTITION p_history VALUES LESS THAN ('2024-01-01'),
+    PARTITION p202401 VALUES LESS THAN ('2024-02-01'),
+    PARTITION p202402 VALUES LESS THAN ('2024-03-01'),
+    PARTITION p202403 VALUES LESS THAN ('2024-04-01'),
+    PARTITION p202404 VALUES LESS THAN ('2024-05-01'),
+    PARTITION p202405 VALUES LESS THAN ('2024-06-01'),
+    PARTITION p202406 VALUES LESS THAN ('2024-07-01'),
+    PARTITION p202407 VALUES LESS THAN ('2024-08-01'),
+    PARTITION p202408 VALUES LESS THAN ('2024-09-01'),
+    PARTITION p202409 VALUES LESS THAN ('2024-10-01'),
+    PARTITION p202410 VALUES LESS THAN ('2024-11-01'),
+    PARTITION p202411 VALUES LESS THAN ('2024-12-01'),
+    PARTITION p202412 VALUES LESS THAN ('2025-01-01'),
+    PARTITION p202501 VALUES LESS THAN ('2025-02-01'),
+    PARTITION p202502 VALUES LESS THAN ('2025-03-01'),
+    PARTITION p202503 VALUES LESS THAN ('2025-04-01'),
+    PARTITION p202504 VALUES LESS THAN ('2025-05-01'),
+    PARTITION p202505 VALUES LESS THAN ('2025-06-01'),
+    PARTITION p202506 VALUES LESS THAN ('2025-07-01'),
+    PARTITION p202507 VALUES LESS THAN ('2025-08-01'),
+    PARTITION p202508 VALUES LESS THAN ('2025-09-01'),
+    PARTITION p202509 VALUES LESS THAN ('2025-10-01'),
+    PARTITION p202510 VALUES LESS THAN ('2025-11-01'),
+    PARTITION p202511 VALUES LESS THAN ('2025-12-01'),
+    PARTITION p202512 VALUES LESS THAN ('2026-01-01'),
+    PARTITION p202601 VALUES LESS THAN ('2026-02-01'),
+    PARTITION p202602 VALUES LESS THAN ('2026-03-01'),
+    PARTITION p202603 VALUES LESS THAN ('2026-04-01'),
+    PARTITION p202604 VALUES LESS THAN ('2026-05-01'),
+    PARTITION p202605 VALUES LESS THAN ('2026-06-01'),
+    PARTITION p202606 VALUES LESS THAN ('2026-07-01'),
+    PARTITION p202607 VALUES LESS THAN ('2026-08-01'),
+    PARTITION p202608 VALUES LESS THAN ('2026-09-01'),
+    PARTITION p202609 VALUES LESS THAN ('2026-10-01'),
+    PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+    PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+    PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
+
+-- 第三步：归档表，压缩行格式；记录ID沿用热表分配的ID
+CREATE TABLE IF NOT EXISTS poop_records_archive (
+    id BIGINT NOT NULL COMMENT '记录ID',
+    record_time DATETIME(3) NOT NULL COMMENT '记录时间（UTC）',
+    color TINYINT UNSIGNED NOT NULL COMMENT '颜色：1 brown, 2 yellow, 3 green, 4 black, 5 red, 6 white',
+    smell TINYINT UNSIGNED NOT NULL COMMENT '气味：1 normal, 2 mild, 3 strong, 4 sweet, 5 sour',
+    moisture TINYINT UNSIGNED NOT NULL COMMENT '干湿度：1 dry, 2 normal, 3 wet, 4 watery',
+    shape TINYINT UNSIGNED NOT NULL COMMENT '形状：1 sausage, 2 lumpy, 3 cracked, 4 soft, 5 liquid, 6 pellets',
+    size TINYINT UNSIGNED NOT NULL COMMENT '大小：1 small, 2 medium, 3 large, 4 extra_large',
+    texture TINYINT UNSIGNED NOT NULL COMMENT '质地：1 smooth, 2 rough, 3 sticky, 4 fluffy',
+    mood TINYINT UNSIGNED NOT NULL COMMENT '心情：1 happy, 2 relieved, 3 normal, 4 uncomfortable, 5 painful',
+    notes TEXT COMMENT '备注',
+    user_id BIGINT COMMENT '用户ID',
+    created_at DATETIME NOT NULL COMMENT '创建时间',
+    updated_at DATETIME NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (id),
+
+    -- 索引
+    INDEX idx_archive_user_time (user_id, record_time, id),
+    INDEX idx_archive_record_time (record_time)
+) ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='便便记录归档表';
+
+-- 第四步：归档中转表，结构须与热表完全一致（不分区），用于 EXCHANGE PARTITION 原子地取出整个分区；
+-- 之后修改 poop_records 结构的迁移须同步修改本表
+CREATE TABLE IF NOT EXISTS poop_records_archive_stage LIKE poop_records;
+ALTER TABLE poop_records_archive_stage REMOVE PARTITIONING;
+
+-- 第五步：全量视图，查询条件会下推到各分支并使用各自的索引
+CREATE OR REPLACE VIEW poop_records_all AS
+SELECT id, record_time, color, smell, moisture, shape, size, texture, mood, notes, user_id, created_at, updated_at FROM poop_records
+UNION ALL
+SELECT id, record_time, color, smell, moisture, shape, size, texture, mood, notes, user_id, created_at, updated_at FROM poop_records_archive_stage
+UNION ALL
+SELECT id, record_time, color, smell, moisture, shape, size, texture, mood, notes, user_id, created_at, updated_at FROM poop_records_archive;
@@ -0,0 +1,10 @@
+-- 记录分片目录表
+-- 用户ID按 user_id 对桶数取模映射到虚拟桶，桶再映射到分片库；迁移以桶为单位进行。
+-- 迁移在每个分片库上执行，但只使用默认分片（分片0）上的这张表；开启分片时应用写入初始目录（全部桶位于分片0），
+-- 之后由再平衡工具调整
+CREATE TABLE IF NOT EXISTS record_shard_buckets (
+    bucket INT NOT NULL PRIMARY KEY COMMENT '虚拟桶编号',
+    shard INT NOT NULL COMMENT '所在分片序号',
+    moving TINYINT(1) NOT NULL DEFAULT 0 COMMENT '是否迁移中（迁移中的桶暂停写入）',
+    updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='记录分片目录表';
@@ -0,0 +1,25 @@
+-- 创建短信发件箱表
+-- 请求线程只写入一行即返回，由派发线程按批认领（status 置为 SENDING，next_attempt_at 置为认领到期时间）并调用短信服务商；
+-- 认领到期仍未完成的行（如实例崩溃）会被重新认领。迁移在每个分片库上执行，但只使用默认分片（分片0）上的这张表
+CREATE TABLE IF NOT EXISTS sms_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '短信ID',
+    phone VARCHAR(20) NOT NULL COMMENT '手机号',
+    category VARCHAR(32) NOT NULL COMMENT '类别：验证码用途（register/login等）或 notification',
+    content VARCHAR(500) NOT NULL COMMENT '验证码或通知内容',
+    dedup_key VARCHAR(128) NOT NULL COMMENT '去重键：同一批中去重键相同的短信只发送最新一条',
+    status VARCHAR(16) NOT NULL COMMENT '状态：PENDING, SENDING, SENT, FAILED, SUPERSEDED, EXPIRED',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '已调用服务商的次数',
+    next_attempt_at DATETIME(3) NOT NULL COMMENT '下次发送时间；SENDING 时为认领到期时间',
+    expires_at DATETIME(3) COMMENT '过期时间（验证码失效后不再发送）',
+    claim_token VARCHAR(36) COMMENT '认领标识',
+    provider_message_id VARCHAR(64) COMMENT '服务商返回的消息ID',
+    last_error VARCHAR(255) COMMENT '最近一次失败原因',
+    created_at DATETIME(3) NOT NULL COMMENT '创建时间',
+    updated_at DATETIME(3) NOT NULL COMMENT '更新时间',
+    sent_at DATETIME(3) COMMENT '发送成功时间',
+
+    -- 索引
+    INDEX idx_sms_outbox_status_next (status, next_attempt_at),
+    INDEX idx_sms_outbox_claim_token (claim_token),
+    INDEX idx_sms_outbox_updated_at (updated_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='短信发件箱表';
@@ -0,0 +1,8 @@
+-- 短信发件箱内容在发送结束时清空
+-- 验证码不应在发送后继续以明文保存到清理任务运行为止：标记为 SENT、FAILED、SUPERSEDED、EXPIRED 的同一条 UPDATE 中将 content 置为 NULL
+ALTER TABLE sms_outbox
+    MODIFY content VARCHAR(500) NULL COMMENT '验证码或通知内容，发送结束后清空';
+
+-- 清空已结束短信中残留的内容
+UPDATE sms_outbox SET content = NULL
+WHERE status IN ('SENT', 'FAILED', 'SUPERSEDED', 'EXPIRED');
@@ -0,0 +1,140 @@
+-- =============================================
+-- 香香记录系统 - 分类属性编码前后对比基准
+-- 对比 VARCHAR(20) 与 TINYINT 编码存储的表大小、索引大小和扫描耗时
+-- 在测试库中执行（会创建并删除两张临时表）；@rows 控制数据量
+-- =============================================
+
+SET @rows = 1000000;
+
+DROP TABLE IF EXISTS bench_records_varchar;
+DROP TABLE IF EXISTS bench_records_tinyint;
+
+CREATE TABLE bench_records_varchar (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    record_time DATETIME(3) NOT NULL,
+    color VARCHAR(20) NOT NULL,
+    smell VARCHAR(20) NOT NULL,
+    moisture VARCHAR(20) NOT NULL,
+    shape VARCHAR(20) NOT NULL,
+    size VARCHAR(20) NOT NULL,
+    texture VARCHAR(20) NOT NULL,
+    mood VARCHAR(20) NOT NULL,
+    INDEX idx_user_time (user_id, record_time),
+    INDEX idx_color_mood (color, mood)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE bench_records_tinyint (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    record_time DATETIME(3) NOT NULL,
+    color TINYINT UNSIGNED NOT NULL,
+    smell TINYINT UNSIGNED NOT NULL,
+    moisture TINYINT UNSIGNED NOT NULL,
+    shape TINYINT UNSIGNED NOT NULL,
+    size TINYINT UNSIGNED NOT NULL,
+    texture TINYINT UNSIGNED NOT NULL,
+    mood TINYINT UNSIGNED NOT NULL,
+    INDEX idx_user_time (user_id, record_time),
+    INDEX idx_color_mood (color, mood)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 生成数据：编码随机分布，字符串表写入编码对应的取值
+DROP TEMPORARY TABLE IF EXISTS bench_digits;
+CREATE TEMPORARY TABLE bench_digits (d INT PRIMARY KEY);
+INSERT INTO bench_digits VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9);
+
+INSERT INTO bench_records_tinyint (user_id, record_time, color, smell, moisture, shape, size, texture, mood)
+SELECT n % 1000 + 1,
+       TIMESTAMPADD(MINUTE, n, '2023-01-01 00:00:00'),
+       FLOOR(1 + RAND(n) * 6), FLOOR(1 + RAND(n + 1) * 5), FLOOR(1 + RAND(n + 2) * 4),
+       FLOOR(1 + RAND(n + 3) * 6), FLOOR(1 + RAND(n + 4) * 4), FLOOR(1 + RAND(n + 5) * 4),
+       FLOOR(1 + RAND(n + 6) * 5)
+FROM (
+    SELECT a.d + b.d * 10 + c.d * 100 + e.d * 1000 + f.d * 10000 + g.d * 100000 AS n
+    FROM bench_digits a, bench_digits b, bench_digits c, bench_digits e, bench_digits f, bench_digits g
+) numbers
+WHERE n < @rows;
+
+INSERT INTO bench_records_varchar (id, user_id, record_time, color, smell, moisture, shape, size, texture, mood)
+SELECT id, user_id, record_time,
+       ELT(color, 'brown', 'yellow', 'green', 'black', 'red', 'white'),
+       ELT(smell, 'normal', 'mild', 'strong', 'sweet', 'sour'),
+       ELT(moisture, 'dry', 'normal', 'wet', 'watery'),
+       ELT(shape, 'sausage', 'lumpy', 'cracked', 'soft', 'liquid', 'pellets'),
+       ELT(size, 'small', 'medium', 'large', 'extra_large'),
+       ELT(texture, 'smooth', 'rough', 'sticky', 'fluffy'),
+       ELT(mood, 'happy', 'relieved', 'normal', 'uncomfortable', 'painful')
+FROM bench_records_tinyint;
+
+ANALYZE TABLE bench_records_varchar, bench_records_tinyint;
+
+-- =============================================
+-- 1. 表和索引大小
+-- =============================================
+
+SELECT TABLE_NAME,
+       TABLE_ROWS,
+       AVG_ROW_LENGTH,
+       ROUND(DATA_LENGTH / 1024 / 1024, 2) AS data_mb,
+       ROUND(INDEX_LENGTH / 1024 / 1024, 2) AS index_mb
+FROM information_schema.TABLES
+WHERE TABLE_SCHEMA = DATABASE()
+  AND TABLE_NAME IN ('bench_records_varchar', 'bench_records_tinyint');
+
+SELECT table_name,
+       index_name,
+       ROUND(stat_value * @@innodb_page_size / 1024 / 1024, 2) AS index_mb
+FROM mysql.innodb_index_stats
+WHERE database_name = DATABASE()
+  AND table_name IN ('bench_records_varchar', 'bench_records_tinyint')
+  AND stat_name = 'size'
+ORDER BY index_name, table_name;
+
+-- =============================================
+-- 2. 扫描耗时（各执行一次预热后计时，单位毫秒）
+-- =============================================
+
+-- 2.1 全表扫描分组统计（统计汇总接口的查询形态）
+SELECT COUNT(*) FROM bench_records_varchar GROUP BY color, smell, moisture, shape, size, texture, mood;
+SET @t = SYSDATE(6);
+SELECT COUNT(*) FROM bench_records_varchar GROUP BY color, smell, moisture, shape, size, texture, mood;
+SET @varchar_group_ms = TIMESTAMPDIFF(MICROSECOND, @t, SYSDATE(6)) / 1000;
+
+SELECT COUNT(*) FROM bench_records_tinyint GROUP BY color, smell, moisture, shape, size, texture, mood;
+SET @t = SYSDATE(6);
+SELECT COUNT(*) FROM bench_records_tinyint GROUP BY color, smell, moisture, shape, size, texture, mood;
+SET @tinyint_group_ms = TIMESTAMPDIFF(MICROSECOND, @t, SYSDATE(6)) / 1000;
+
+-- 2.2 覆盖索引扫描 idx_color_mood
+SELECT color, mood, COUNT(*) FROM bench_records_varchar FORCE INDEX (idx_color_mood) GROUP BY color, mood;
+SET @t = SYSDATE(6);
+SELECT color, mood, COUNT(*) FROM bench_records_varchar FORCE INDEX (idx_color_mood) GROUP BY color, mood;
+SET @varchar_index_ms = TIMESTAMPDIFF(MICROSECOND, @t, SYSDATE(6)) / 1000;
+
+SELECT color, mood, COUNT(*) FROM bench_records_tinyint FORCE INDEX (idx_color_mood) GROUP BY color, mood;
+SET @t = SYSDATE(6);
+SELECT color, mood, COUNT(*) FROM bench_records_tinyint FORCE INDEX (idx_color_mood) GROUP BY color, mood;
+SET @tinyint_index_ms = TIMESTAMPDIFF(MICROSECOND, @t, SYSDATE(6)) / 1000;
+
+-- 2.3 等值过滤计数
+SET @t = SYSDATE(6);
+SELECT COUNT(*) FROM bench_records_varchar WHERE color = 'yellow' AND mood = 'painful';
+SET @varchar_filter_ms = TIMESTAMPDIFF(MICROSECOND, @t, SYSDATE(6)) / 1000;
+
+SET @t = SYSDATE(6);
+SELECT COUNT(*) FROM bench_records_tinyint WHERE color = 2 AND mood = 5;
+SET @tinyint_filter_ms = TIMESTAMPDIFF(MICROSECOND, @t, SYSDATE(6)) / 1000;
+
+SELECT 'group by all attributes' AS query, @varchar_group_ms AS varchar_ms, @tinyint_group_ms AS tinyint_ms
+UNION ALL
+SELECT 'idx_color_mood scan', @varchar_index_ms, @tinyint_index_ms
+UNION ALL
+SELECT 'color = ? AND mood = ?', @varchar_filter_ms, @tinyint_filter_ms;
+
+-- =============================================
+-- 清理
+-- =============================================
+
+DROP TABLE bench_records_varchar;
+DROP TABLE bench_records_tinyint;
@@ -10,30 +10,123 @@ SET FOREIGN_KEY_CHECKS = 0;
 
 -- =============================================
 -- 便便记录表
+-- 表结构以 Flyway 迁移脚本（db/migration）为准，应用启动时自动执行；
+-- 本脚本为迁移到最新版本后的结构快照，仅用于手工建库或对照
 -- =============================================
-DROP TABLE IF EXISTS `poop_record`;
+DROP VIEW IF EXISTS `poop_records_all`;
+DROP TABLE IF EXISTS `poop_records`;
 
-CREATE TABLE `poop_record` (
-  `id` varchar(50) NOT NULL COMMENT '记录ID，格式：时间戳+随机字符串',
-  `record_time` datetime NOT NULL COMMENT '记录时间，用户选择的便便时间',
-  `color` varchar(20) NOT NULL COMMENT '颜色：棕色、黄色、绿色、黑色、红色、白色',
-  `smell` varchar(20) NOT NULL COMMENT '气味：正常、轻微、明显、强烈、无味',
-  `moisture` varchar(20) NOT NULL COMMENT '干湿度：很干、偏干、适中、偏湿、很湿',
-  `shape` varchar(20) NOT NULL COMMENT '形状：香肠型、块状、条状、糊状、水状、颗粒状',
-  `size` varchar(20) NOT NULL COMMENT '大小：很小、较小、中等、较大、很大',
-  `texture` varchar(20) NOT NULL COMMENT '质地：光滑、粗糙、软硬适中、偏软、偏硬',
-  `mood` varchar(20) NOT NULL COMMENT '心情：开心、满意、一般、担心、难受',
+CREATE TABLE `poop_records` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '记录ID',
+  `record_time` datetime(3) NOT NULL COMMENT '记录时间（UTC）',
+  `color` tinyint unsigned NOT NULL COMMENT '颜色：1 brown, 2 yellow, 3 green, 4 black, 5 red, 6 white',
+  `smell` tinyint unsigned NOT NULL COMMENT '气味：1 normal, 2 mild, 3 strong, 4 sweet, 5 sour',
+  `moisture` tinyint unsigned NOT NULL COMMENT '干湿度：1 dry, 2 normal, 3 wet, 4 watery',
+  `shape` tinyint unsigned NOT NULL COMMENT '形状：1 sausage, 2 lumpy, 3 cracked, 4 soft, 5 liquid, 6 pellets',
+  `size` tinyint unsigned NOT NULL COMMENT '大小：1 small, 2 medium, 3 large, 4 extra_large',
+  `texture` tinyint unsigned NOT NULL COMMENT '质地：1 smooth, 2 rough, 3 sticky, 4 fluffy',
+  `mood` tinyint unsigned NOT NULL COMMENT '心情：1 happy, 2 relieved, 3 normal, 4 uncomfortable, 5 painful',
   `notes` text COMMENT '备注信息，用户自定义文本',
+  `user_id` bigint DEFAULT NULL COMMENT '用户ID',
   `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '记录创建时间',
   `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '记录更新时间',
-  PRIMARY KEY (`id`),
+  PRIMARY KEY (`id`, `record_time`),
   KEY `idx_record_time` (`record_time`) COMMENT '记录时间索引',
-  KEY `idx_color` (`color`) COMMENT '颜色索引',
-  KEY `idx_mood` (`mood`) COMMENT '心情索引',
-  KEY `idx_created_at` (`created_at`) COMMENT '创建时间索引',
   KEY `idx_color_mood` (`color`, `mood`) COMMENT '颜色和心情组合索引',
-  KEY `idx_record_time_color` (`record_time`, `color`) COMMENT '记录时间和颜色组合索引'
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='便便记录表';
+  KEY `idx_records_user_time` (`user_id`, `record_time`, `id`) COMMENT '用户记录按时间排序',
+  KEY `idx_records_user_color_time` (`user_id`, `color`, `record_time`, `id`) COMMENT '用户按颜色过滤并按时间排序',
+  KEY `idx_records_user_mood_time` (`user_id`, `mood`, `record_time`, `id`) COMMENT '用户按心情过滤并按时间排序',
+  KEY `idx_records_color_time` (`color`, `record_time`) COMMENT '按颜色过滤并按时间排序',
+  KEY `idx_records_mood_time` (`mood`, `record_time`) COMMENT '按心情过滤并按时间排序'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='便便记录表'
+-- 按月分区，未来月份的分区由 RecordArchiveTask 提前创建，过期分区由其移入归档表后合并到 p_history
+PARTITION BY RANGE COLUMNS(`record_time`) (
+  PARTITION `p_history` VALUES LESS THAN ('2024-01-01 00:00:00'),
+  PARTITION `p202401` VALUES LESS THAN ('2024-02-01 00:00:00'),
+  PARTITION `p202402` VALUES LESS THAN ('2024-03-01 00:00:00'),
+  PARTITION `p202403` VALUES LESS THAN ('2024-04-01 00:00:00'),
+  PARTITION `p202404` VALUES LESS THAN ('2024-05-01 00:00:00'),
+  PARTITION `p202405` VALUES LESS THAN ('2024-06-01 00:00:00'),
+  PARTITION `p202406` VALUES LESS THAN ('2024-07-01 00:00:00'),
+  PARTITION `p202407` VALUES LESS THAN ('2024-08-01 00:00:00'),
+  PARTITION `p202408` VALUES LESS THAN ('2024-09-01 00:00:00'),
+  PARTITION `p202409` VALUES LESS THAN ('2024-10-01 00:00:00'),
+  PARTITION `p202410` VALUES LESS THAN ('2024-11-01 00:00:00'),
+  PARTITION `p202411` VALUES LESS THAN ('2024-12-01 00:00:00'),
+  PARTITION `p202412` VALUES LESS THAN ('2025-01-01 00:00:00'),
+  PARTITION `p202501` VALUES LESS THAN ('2025-02-01 00:00:00'),
+  PARTITION `p202502` VALUES LESS THAN ('2025-03-01 00:00:00'),
+  PARTITION `p202503` VALUES LESS THAN ('2025-04-01 00:00:00'),
+  PARTITION `p202504` VALUES LESS THAN ('2025-05-01 00:00:00'),
+  PARTITION `p202505` VALUES LESS THAN ('2025-06-01 00:00:00'),
+  PARTITION `p202506` VALUES LESS THAN ('2025-07-01 00:00:00'),
+  PARTITION `p202507` VALUES LESS THAN ('2025-08-01 00:00:00'),
+  PARTITION `p202508` VALUES LESS THAN ('2025-09-01 00:00:00'),
+  PARTITION `p202509` VALUES LESS THAN ('2025-10-01 00:00:00'),
+  PARTITION `p202510` VALUES LESS THAN ('2025-11-01 00:00:00'),
+  PARTITION `p202511` VALUES LESS THAN ('2025-12-01 00:00:00'),
+  PARTITION `p202512` VALUES LESS THAN ('2026-01-01 00:00:00'),
+  PARTITION `p202601` VALUES LESS THAN ('2026-02-01 00:00:00'),
+  PARTITION `p202602` VALUES LESS THAN ('2026-03-01 00:00:00'),
+  PARTITION `p202603` VALUES LESS THAN ('2026-04-01 00:00:00'),
+  PARTITION `p202604` VALUES LESS THAN ('2026-05-01 00:00:00'),
+  PARTITION `p202605` VALUES LESS THAN ('2026-06-01 00:00:00'),
+  PARTITION `p202606` VALUES LESS THAN ('2026-07-01 00:00:00'),
+  PARTITION `p202607` VALUES LESS THAN ('2026-08-01 00:00:00'),
+  PARTITION `p202608` VALUES LESS THAN ('2026-09-01 00:00:00'),
+  PARTITION `p202609` VALUES LESS THAN ('2026-10-01 00:00:00'),
+  PARTITION `p202610` VALUES LESS THAN ('2026-11-01 00:00:00'),
+  PARTITION `p202611` VALUES LESS THAN ('2026-12-01 00:00:00'),
+  PARTITION `p202612` VALUES LESS THAN ('2027-01-01 00:00:00'),
+  PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+);
+
+-- =============================================
+-- 便便记录归档表（超过保留期的分区整体移入，压缩存储）
+-- =============================================
+DROP TABLE IF EXISTS `poop_records_archive`;
+
+CREATE TABLE `poop_records_archive` (
+  `id` bigint NOT NULL COMMENT '记录ID',
+  `record_time` datetime(3) NOT NULL COMMENT '记录时间（UTC）',
+  `color` tinyint unsigned NOT NULL COMMENT '颜色：1 brown, 2 yellow, 3 green, 4 black, 5 red, 6 white',
+  `smell` tinyint unsigned NOT NULL COMMENT '气味：1 normal, 2 mild, 3 strong, 4 sweet, 5 sour',
+  `moisture` tinyint unsigned NOT NULL COMMENT '干湿度：1 dry, 2 normal, 3 wet, 4 watery',
+  `shape` tinyint unsigned NOT NULL COMMENT '形状：1 sausage, 2 lumpy, 3 cracked, 4 soft, 5 liquid, 6 pellets',
+  `size` tinyint unsigned NOT NULL COMMENT '大小：1 small, 2 medium, 3 large, 4 extra_large',
+  `texture` tinyint unsigned NOT NULL COMMENT '质地：1 smooth, 2 rough, 3 sticky, 4 fluffy',
+  `mood` tinyint unsigned NOT NULL COMMENT '心情：1 happy, 2 relieved, 3 normal, 4 uncomfortable, 5 painful',
+  `notes` text COMMENT '备注',
+  `user_id` bigint DEFAULT NULL COMMENT '用户ID',
+  `created_at` datetime NOT NULL COMMENT '创建时间',
+  `updated_at` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_archive_user_time` (`user_id`, `record_time`, `id`),
+  KEY `idx_archive_record_time` (`record_time`)
+) ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='便便记录归档表';
+
+-- 归档中转表：与 poop_records 结构一致但不分区，归档时通过 EXCHANGE PARTITION 原子地取出整个分区
+DROP TABLE IF EXISTS `poop_records_archive_stage`;
+CREATE TABLE `poop_records_archive_stage` LIKE `poop_records`;
+ALTER TABLE `poop_records_archive_stage` REMOVE PARTITIONING;
+
+-- 全量视图：跨越归档边界的查询访问该视图
+CREATE VIEW `poop_records_all` AS
+SELECT `id`, `record_time`, `color`, `smell`, `moisture`, `shape`, `size`, `texture`, `mood`, `notes`, `user_id`, `created_at`, `updated_at` FROM `poop_records`
+UNION ALL
+SELECT `id`, `record_time`, `color`, `smell`, `moisture`, `shape`, `size`, `texture`, `mood`, `notes`, `user_id`, `created_at`, `updated_at` FROM `poop_records_archive_stage`
+UNION ALL
+SELECT `id`, `record_time`, `color`, `smell`, `moisture`, `shape`, `size`, `texture`, `mood`, `notes`, `user_id`, `created_at`, `updated_at` FROM `poop_records_archive`;
+
+-- 记录分片目录表：开启分片时由应用写入初始目录，只使用分片0上的这张表
+DROP TABLE IF EXISTS `record_shard_buckets`;
+CREATE TABLE `record_shard_buckets` (
+  `bucket` int NOT NULL COMMENT '虚拟桶编号',
+  `shard` int NOT NULL COMMENT '所在分片序号',
+  `moving` tinyint(1) NOT NULL DEFAULT '0' COMMENT '是否迁移中（迁移中的桶暂停写入）',
+  `updated_at` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间',
+  PRIMARY KEY (`bucket`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='记录分片目录表';
 
 -- =============================================
 -- 用户表（预留，如果将来需要多用户支持）
@@ -77,12 +170,12 @@ SET FOREIGN_KEY_CHECKS = 1;
 -- =============================================
 -- 查看表结构
 -- =============================================
-SHOW CREATE TABLE `poop_record`;
-DESCRIBE `poop_record`;
+SHOW CREATE TABLE `poop_records`;
+DESCRIBE `poop_records`;
 
 -- =============================================
 -- 查看索引信息
 -- =============================================
-SHOW INDEX FROM `poop_record`;
+SHOW INDEX FROM `poop_records`;
 
 COMMIT;
\ No newline at end of file
@@ -8,9 +8,13 @@ USE `xiangrecord`;
 -- 数据库维护脚本
 -- =============================================
 
--- 1. 清理过期数据（删除1年前的记录）
--- DELETE FROM `poop_record` 
--- WHERE `created_at` < DATE_SUB(NOW(), INTERVAL 1 YEAR);
+-- 1. 过期数据无需手工删除：poop_records 按月分区，RecordArchiveTask 每天将超过保留期
+--    （app.records.archive.hot-months）的分区移入压缩的 poop_records_archive，查询经 poop_records_all 视图透明访问
+-- 查看各分区的记录数和大小
+-- SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS, DATA_LENGTH, INDEX_LENGTH
+-- FROM information_schema.PARTITIONS
+-- WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'poop_records'
+-- ORDER BY PARTITION_ORDINAL_POSITION;
 
 -- 2. 优化表
 -- OPTIMIZE TABLE `poop_record`;
@@ -0,0 +1,203 @@
+package com.xiangrecord.analytics;
+
+import com.xiangrecord.entity.PoopRecord;
+import com.xiangrecord.entity.enums.Color;
+import com.xiangrecord.entity.enums.Mood;
+import com.xiangrecord.entity.enums.Shape;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * 列式快照的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架
+ */
+public class UserColumnsTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        System.out.println("开始测试列式快照...");
+
+        testHistogramWithinRange();
+        testCooccurrence();
+        testBucketHistogram();
+        testCodesMatchEnumCodes();
+        testMatchesRowScan();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 取值分布只统计时间范围内的记录，空值计入编码0
+     */
+    private static void testHistogramWithinRange() {
+        System.out.println("\n=== 测试取值分布 ===");
+
+        UserColumns columns = new UserColumns.Builder()
+                .add(record(0, "brown", "sausage", "happy"))
+                .add(record(1, "brown", "soft", "normal"))
+                .add(record(2, "yellow", "soft", null))
+                .add(record(3, "brown", "lumpy", "happy"))
+                .build();
+
+        long[] colors = columns.histogram(RecordAttribute.COLOR, millis(1), millis(3));
+        check(colors[code(RecordAttribute.COLOR, "brown")] == 2, "1-3小时内brown应为2条");
+        check(colors[code(RecordAttribute.COLOR, "yellow")] == 1, "1-3小时内yellow应为1条");
+
+        long[] moods = columns.histogram(RecordAttribute.MOOD, Long.MIN_VALUE, Long.MAX_VALUE);
+        check(moods[RecordAttribute.NULL_CODE] == 1, "心情为空的记录应计入编码0");
+        check(columns.count(millis(1), millis(2)) == 2, "1-2小时内应有2条记录");
+        check(columns.count(millis(5), millis(4)) == 0, "开始晚于结束时应为0条");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 共现表按两个属性的编码计数
+     */
+    private static void testCooccurrence() {
+        System.out.println("\n=== 测试共现表 ===");
+
+        UserColumns columns = new UserColumns.Builder()
+                .add(record(0, "brown", "sausage", "happy"))
+                .add(record(1, "brown", "soft", "happy"))
+                .add(record(2, "yellow", "soft", "normal"))
+                .build();
+
+        long[][] matrix = columns.cooccurrence(RecordAttribute.COLOR, RecordAttribute.MOOD,
+                Long.MIN_VALUE, Long.MAX_VALUE);
+        check(matrix[code(RecordAttribute.COLOR, "brown")][code(RecordAttribute.MOOD, "happy")] == 2,
+                "brown与happy应共现2次");
+        check(matrix[code(RecordAttribute.COLOR, "yellow")][code(RecordAttribute.MOOD, "normal")] == 1,
+                "yellow与normal应共现1次");
+        check(matrix[code(RecordAttribute.COLOR, "yellow")][code(RecordAttribute.MOOD, "happy")] == 0,
+                "yellow与happy不应共现");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 按桶统计：桶区间左闭右开，桶外和范围外的记录不计入
+     */
+    private static void testBucketHistogram() {
+        System.out.println("\n=== 测试按桶统计 ===");
+
+        UserColumns columns = new UserColumns.Builder()
+                .add(record(-1, "brown", "sausage", "happy"))
+                .add(record(0, "brown", "sausage", "happy"))
+                .add(record(23, "brown", "soft", "happy"))
+                .add(record(24, "yellow", "soft", "happy"))
+                .add(record(30, "yellow", "soft", "happy"))
+                .add(record(72, "yellow", "soft", "happy"))
+                .build();
+
+        long[] boundaries = {millis(0), millis(24), millis(48), millis(72)};
+        long[][] shapes = columns.bucketHistogram(RecordAttribute.SHAPE, boundaries, Long.MIN_VALUE, millis(29));
+        check(sum(shapes[0]) == 2, "第1个桶应有2条记录");
+        check(sum(shapes[1]) == 1, "第2个桶受结束时间限制应有1条记录");
+        check(sum(shapes[2]) == 0, "第3个桶应为空");
+        check(shapes[0][code(RecordAttribute.SHAPE, "sausage")] == 1, "第1个桶sausage应为1条");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 列编码直接使用枚举的数据库编码，并可解码回取值
+     */
+    private static void testCodesMatchEnumCodes() {
+        System.out.println("\n=== 测试编码与枚举编码一致 ===");
+
+        PoopRecord record = record(0, "brown", null, "painful");
+        check(RecordAttribute.MOOD.encode(record) == Mood.PAINFUL.getCode(), "编码应与枚举编码一致");
+        check(RecordAttribute.COLOR.encode(record) == Color.BROWN.getCode(), "编码应与枚举编码一致");
+        check(RecordAttribute.SHAPE.encode(record) == RecordAttribute.NULL_CODE, "空值应编码为0");
+        check("painful".equals(RecordAttribute.MOOD.decode(Mood.PAINFUL.getCode())), "编码应能解码为取值");
+        check(RecordAttribute.MOOD.decode(RecordAttribute.NULL_CODE) == null, "空值编码应解码为null");
+        for (RecordAttribute attribute : RecordAttribute.values()) {
+            check(attribute.codeCount() <= 256, attribute.getFieldName() + "的编码应能以单字节存储");
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 随机数据上与逐行扫描的结果一致
+     */
+    private static void testMatchesRowScan() {
+        System.out.println("\n=== 测试与逐行扫描一致 ===");
+
+        Random random = new Random(42);
+        String[] colors = {"brown", "yellow", "green"};
+        String[] shapes = {"sausage", "soft", "lumpy", null};
+        String[] moods = {"happy", "normal"};
+        List<PoopRecord> records = new ArrayList<>();
+        int hour = 0;
+        for (int i = 0; i < 5000; i++) {
+            hour += random.nextInt(3);
+            records.add(record(hour, colors[random.nextInt(colors.length)],
+                    shapes[random.nextInt(shapes.length)], moods[random.nextInt(moods.length)]));
+        }
+        UserColumns.Builder builder = new UserColumns.Builder();
+        records.forEach(builder::add);
+        UserColumns columns = builder.build();
+
+        for (int round = 0; round < 100; round++) {
+            long from = millis(random.nextInt(hour + 1));
+            long to = millis(random.nextInt(hour + 1));
+            long[] histogram = columns.histogram(RecordAttribute.SHAPE, from, to);
+            Map<String, Long> expected = new HashMap<>();
+            for (PoopRecord record : records) {
+                long time = record.getRecordTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+                if (time >= from && time <= to && record.getShape() != null) {
+                    expected.merge(record.getShape().getValue(), 1L, Long::sum);
+                }
+            }
+            for (String shape : shapes) {
+                if (shape != null) {
+                    long actual = histogram[code(RecordAttribute.SHAPE, shape)];
+                    check(actual == expected.getOrDefault(shape, 0L), "第" + round + "轮" + shape + "计数不一致");
+                }
+            }
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static PoopRecord record(int hour, String color, String shape, String mood) {
+        return PoopRecord.builder()
+                .recordTime(BASE.plusHours(hour))
+                .color(Color.of(color))
+                .shape(Shape.of(shape))
+                .mood(Mood.of(mood))
+                .build();
+    }
+
+    private static long millis(int hour) {
+        return BASE.plusHours(hour).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static int code(RecordAttribute attribute, String value) {
+        for (int code = 1; code < attribute.codeCount(); code++) {
+            if (value.equals(attribute.decode(code))) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("未知取值: " + value);
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.xiangrecord.benchmark;
+
+import com.xiangrecord.util.ContinuousSegmentPlanner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 连续片段算法基准测试
+ * 对比 ContinuousSegmentPlanner 与原 O(n²) 实现；原实现在10万规模下耗时过长，只测到1万
+ *
+ * 运行方式：在IDE中直接运行main方法，或 mvn test-compile 后以测试类路径执行本类
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContinuousSegmentBenchmark {
+
+    /**
+     * 规划器输入，包含10万时间戳规模
+     */
+    @State(Scope.Benchmark)
+    public static class PlannerInput {
+
+        @Param({"1000", "10000", "100000"})
+        int size;
+
+        long[] requested;
+        long[] existing;
+
+        @Setup
+        public void setUp() {
+            Dataset dataset = Dataset.generate(size);
+            requested = dataset.requested.stream().mapToLong(Long::longValue).toArray();
+            existing = dataset.existing;
+        }
+    }
+
+    /**
+     * 原算法输入
+     */
+    @State(Scope.Benchmark)
+    public static class LegacyInput {
+
+        @Param({"1000", "10000"})
+        int size;
+
+        List<Long> tsList;
+        Map<String, String> listRes;
+
+        @Setup
+        public void setUp() {
+            Dataset dataset = Dataset.generate(size);
+            tsList = dataset.requested;
+            listRes = new HashMap<>();
+            for (long ts : dataset.existing) {
+                listRes.put(String.valueOf(ts), "value");
+            }
+        }
+    }
+
+    private final ContinuousSegmentPlanner planner = new ContinuousSegmentPlanner();
+
+    @Benchmark
+    public List<ContinuousSegmentPlanner.TimeRange> planner(PlannerInput input) {
+        return planner.plan(input.requested, input.existing);
+    }
+
+    @Benchmark
+    public List<List<Long>> legacy(LegacyInput input) {
+        return legacySegments(input.tsList, input.listRes);
+    }
+
+    /**
+     * 原 O(n²) 连续片段算法（List.contains / indexOf）
+     */
+    private static List<List<Long>> legacySegments(List<Long> tsList, Map<String, String> listRes) {
+        List<Long> existingTsList = listRes.keySet().stream()
+                .map(Long::valueOf)
+                .sorted()
+                .collect(Collectors.toList());
+        List<Long> validTsList = tsList.stream()
+                .filter(existingTsList::contains)
+                .sorted()
+                .collect(Collectors.toList());
+
+        List<List<Long>> continuousSegments = new ArrayList<>();
+        if (!validTsList.isEmpty()) {
+            List<Long> currentSegment = new ArrayList<>();
+            currentSegment.add(validTsList.get(0));
+            for (int i = 1; i < validTsList.size(); i++) {
+                int currentIndex = existingTsList.indexOf(validTsList.get(i));
+                int previousIndex = existingTsList.indexOf(validTsList.get(i - 1));
+                if (currentIndex == previousIndex + 1) {
+                    currentSegment.add(validTsList.get(i));
+                } else {
+                    continuousSegments.add(new ArrayList<>(currentSegment));
+                    currentSegment.clear();
+                    currentSegment.add(validTsList.get(i));
+                }
+            }
+            continuousSegments.add(currentSegment);
+        }
+        return continuousSegments;
+    }
+
+    /**
+     * 测试数据：每分钟一条记录，随机保留约九成作为删除请求，乱序提交
+     */
+    private static final class Dataset {
+
+        final long[] existing;
+        final List<Long> requested;
+
+        private Dataset(long[] existing, List<Long> requested) {
+            this.existing = existing;
+            this.requested = requested;
+        }
+
+        static Dataset generate(int size) {
+            Random random = new Random(20240115L);
+            long[] existing = new long[size];
+            List<Long> requested = new ArrayList<>(size);
+            long ts = 1_700_000_000_000L;
+            for (int i = 0; i < size; i++) {
+                ts += 60_000L;
+                existing[i] = ts;
+                if (random.nextInt(10) != 0) {
+                    requested.add(ts);
+                }
+            }
+            Collections.shuffle(requested, random);
+            return new Dataset(existing, requested);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ContinuousSegmentBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,77 @@
+package com.xiangrecord.benchmark;
+
+import com.xiangrecord.util.JwtUtil;
+import com.xiangrecord.util.ParsedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT解析基准测试
+ * 对比 JwtUtil.parse（密钥与解析器复用，解析一次）与原实现
+ * （每次调用重建密钥与解析器，validateToken、getUserIdFromToken、getUsernameFromToken 各解析一次）。
+ * main 方法启用GC分析器，gc.alloc.rate.norm 为每次操作的分配字节数
+ *
+ * 运行方式：在IDE中直接运行main方法，或 mvn test-compile 后以测试类路径执行本类
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "xiangrecord-jwt-secret-key-2024-very-long-and-secure-key-for-benchmark";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 3600L, 604800L);
+        token = jwtUtil.generateToken(42L, "alice");
+    }
+
+    @Benchmark
+    public ParsedToken parseOnce() {
+        return jwtUtil.parse(token);
+    }
+
+    @Benchmark
+    public void legacyThreeParses(Blackhole blackhole) {
+        blackhole.consume(legacyParse(token));
+        blackhole.consume(legacyParse(token).get("userId"));
+        blackhole.consume(legacyParse(token).get("username", String.class));
+    }
+
+    /**
+     * 原实现：每次调用重建签名密钥与解析器
+     */
+    private static Claims legacyParse(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,146 @@
+package com.xiangrecord.cache;
+
+import com.xiangrecord.dto.PoopRecordDTO;
+import com.xiangrecord.util.RedisUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单条记录缓存的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架；Redis中的回填脚本与失效脚本以内存实现代替
+ */
+public class RecordCacheTest {
+
+    private static final Long RECORD_ID = 42L;
+    private static final String NULL_MARKER = "__NULL__";
+
+    public static void main(String[] args) {
+        System.out.println("开始测试单条记录缓存...");
+
+        testReadThrough();
+        testEvictDuringLoadOnOtherInstance();
+        testEvictBeforeLoad();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 未命中时回源并回填，命中时不再回源
+     */
+    private static void testReadThrough() {
+        System.out.println("\n=== 测试回源与回填 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        RecordCache cache = new RecordCache(redis, new SimpleMeterRegistry());
+        int[] loads = new int[1];
+
+        cache.get(RECORD_ID, () -> { loads[0]++; return Optional.of(record("原备注")); });
+        Optional<PoopRecordDTO> cached = cache.get(RECORD_ID, () -> { loads[0]++; return Optional.empty(); });
+        check(loads[0] == 1, "命中时不应回源");
+        check(cached.map(PoopRecordDTO::getNotes).orElse("").equals("原备注"), "应返回缓存的记录");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 实例B回源读到旧值后，实例A提交更新并失效缓存，实例B不应再把旧值写回Redis
+     */
+    private static void testEvictDuringLoadOnOtherInstance() {
+        System.out.println("\n=== 测试回源期间其他实例失效 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        RecordCache instanceA = new RecordCache(redis, new SimpleMeterRegistry());
+        RecordCache instanceB = new RecordCache(redis, new SimpleMeterRegistry());
+
+        Optional<PoopRecordDTO> loaded = instanceB.get(RECORD_ID, () -> {
+            PoopRecordDTO stale = record("原备注");
+            // 实例B读完数据库后、回填之前，实例A提交了更新并失效缓存
+            instanceA.evict(List.of(RECORD_ID));
+            return Optional.of(stale);
+        });
+        check(loaded.isPresent(), "本次请求仍返回回源结果");
+        check(!redis.values.containsKey("record:" + RECORD_ID), "失效后不应回填旧值");
+
+        Optional<PoopRecordDTO> reloaded = instanceB.get(RECORD_ID, () -> Optional.of(record("新备注")));
+        check(reloaded.map(PoopRecordDTO::getNotes).orElse("").equals("新备注"), "下次读取应回源新值");
+        check(redis.values.get("record:" + RECORD_ID) instanceof PoopRecordDTO, "新值应正常回填");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 回源开始前发生的失效不影响回填
+     */
+    private static void testEvictBeforeLoad() {
+        System.out.println("\n=== 测试回源前失效 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        RecordCache cache = new RecordCache(redis, new SimpleMeterRegistry());
+
+        cache.evict(List.of(RECORD_ID));
+        cache.get(RECORD_ID, Optional::empty);
+        check(NULL_MARKER.equals(redis.values.get("record:" + RECORD_ID)), "不存在的记录应缓存空标记");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static PoopRecordDTO record(String notes) {
+        PoopRecordDTO dto = new PoopRecordDTO();
+        dto.setId(RECORD_ID);
+        dto.setNotes(notes);
+        return dto;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * 以内存Map代替Redis，按脚本内容模拟回填脚本与失效脚本
+     */
+    private static final class FakeRedisUtil extends RedisUtil {
+
+        private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+        private FakeRedisUtil() {
+            super(null);
+        }
+
+        @Override
+        public String get(String key) {
+            Object value = values.get(key);
+            return value != null ? value.toString() : null;
+        }
+
+        @Override
+        public <T> T getObject(String key, Class<T> clazz) {
+            Object value = values.get(key);
+            return clazz.isInstance(value) ? clazz.cast(value) : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            if (script.getScriptAsString().contains("INCR")) {
+                for (int i = 0; i < keys.size(); i += 2) {
+                    values.merge(keys.get(i + 1), 1L, (a, b) -> (Long) a + 1);
+                    values.remove(keys.get(i));
+                }
+                return (T) Long.valueOf(keys.size() / 2);
+            }
+            long version = (Long) values.getOrDefault(keys.get(1), 0L);
+            if (version != ((Number) args[1]).longValue()) {
+                return (T) Long.valueOf(0);
+            }
+            values.put(keys.get(0), args[0]);
+            return (T) Long.valueOf(1);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.xiangrecord.cache;
+
+import com.xiangrecord.util.JwtUtil;
+import com.xiangrecord.util.ParsedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 令牌声明缓存的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架
+ */
+public class TokenClaimsCacheTest {
+
+    public static void main(String[] args) {
+        System.out.println("开始测试令牌声明缓存...");
+
+        testParsesOncePerToken();
+        testInvalidTokenNotCached();
+        testExpiredTokenRejected();
+        testDisabledParsesEveryTime();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 同一令牌只解析一次，不同令牌各自解析
+     */
+    private static void testParsesOncePerToken() {
+        System.out.println("\n=== 测试同一令牌只解析一次 ===");
+
+        CountingJwtUtil jwtUtil = jwtUtil(3600L);
+        TokenClaimsCache cache = new TokenClaimsCache(jwtUtil, new SimpleMeterRegistry(), true, 100);
+        String token = jwtUtil.generateToken(42L, "alice");
+
+        for (int i = 0; i < 5; i++) {
+            ParsedToken verified = cache.get(token);
+            check(verified != null, "有效令牌应验证通过");
+            check(verified.getUserId() == 42L, "用户ID应为42");
+            check("alice".equals(verified.getUsername()), "用户名应为alice");
+            check("access".equals(verified.getType()), "类型应为access");
+        }
+        System.out.println("解析次数: " + jwtUtil.parses);
+        check(jwtUtil.parses == 1, "同一令牌应只解析一次");
+
+        cache.get(jwtUtil.generateToken(43L, "bob"));
+        check(jwtUtil.parses == 2, "不同令牌应各自解析");
+        check(cache.size() == 2, "应缓存两个令牌");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 无效令牌不缓存
+     */
+    private static void testInvalidTokenNotCached() {
+        System.out.println("\n=== 测试无效令牌 ===");
+
+        CountingJwtUtil jwtUtil = jwtUtil(3600L);
+        TokenClaimsCache cache = new TokenClaimsCache(jwtUtil, new SimpleMeterRegistry(), true, 100);
+        String token = jwtUtil.generateToken(42L, "alice");
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        check(cache.get(tampered) == null, "签名错误的令牌应验证失败");
+        check(cache.get("not-a-token") == null, "格式错误的令牌应验证失败");
+        check(cache.size() == 0, "无效令牌不应缓存");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 过期令牌验证失败
+     */
+    private static void testExpiredTokenRejected() {
+        System.out.println("\n=== 测试过期令牌 ===");
+
+        CountingJwtUtil jwtUtil = jwtUtil(-60L);
+        TokenClaimsCache cache = new TokenClaimsCache(jwtUtil, new SimpleMeterRegistry(), true, 100);
+
+        check(cache.get(jwtUtil.generateToken(42L, "alice")) == null, "过期令牌应验证失败");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 关闭缓存时每次都解析
+     */
+    private static void testDisabledParsesEveryTime() {
+        System.out.println("\n=== 测试关闭缓存 ===");
+
+        CountingJwtUtil jwtUtil = jwtUtil(3600L);
+        TokenClaimsCache cache = new TokenClaimsCache(jwtUtil, new SimpleMeterRegistry(), false, 100);
+        String token = jwtUtil.generateToken(42L, "alice");
+
+        for (int i = 0; i < 3; i++) {
+            check(cache.get(token) != null, "有效令牌应验证通过");
+        }
+        check(jwtUtil.parses == 3, "关闭缓存时应每次解析");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static CountingJwtUtil jwtUtil(long expirationSeconds) {
+        return new CountingJwtUtil(expirationSeconds);
+    }
+
+    /**
+     * 记录解析次数的 JwtUtil
+     */
+    private static final class CountingJwtUtil extends JwtUtil {
+
+        private int parses;
+
+        private CountingJwtUtil(long expirationSeconds) {
+            super("xiangrecord-jwt-secret-key-2024-very-long-and-secure-key-for-test", expirationSeconds, 604800L);
+        }
+
+        @Override
+        public ParsedToken parse(String token) {
+            parses++;
+            return super.parse(token);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
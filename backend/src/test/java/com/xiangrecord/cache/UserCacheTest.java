@@ -0,0 +1,230 @@
+package com.xiangrecord.cache;
+
+import com.xiangrecord.dto.UserDTO;
+import com.xiangrecord.entity.User;
+import com.xiangrecord.mapper.UserMapper;
+import com.xiangrecord.util.RedisUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户资料两级缓存的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架；Redis与数据库均由内存中的替身代替
+ */
+public class UserCacheTest {
+
+    public static void main(String[] args) {
+        System.out.println("开始测试用户资料缓存...");
+
+        testTwoLevels();
+        testMissingUser();
+        testNoPasswordHash();
+        testRebindPhone();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 近端命中不访问Redis，Redis命中不访问数据库
+     */
+    private static void testTwoLevels() {
+        System.out.println("\n=== 测试两级缓存 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        FakeUsers users = new FakeUsers();
+        users.add(user(1L, "13800138000"));
+
+        UserCache cache = cache(redis, users);
+        check(cache.getById(1L).map(UserDTO::getUsername).orElse("").equals("用户1"), "应读到用户资料");
+        check(users.queries == 1, "首次读取应回源数据库");
+
+        int redisReads = redis.reads;
+        cache.getById(1L);
+        check(redis.reads == redisReads, "近端缓存命中时不应访问Redis");
+
+        // 另一个实例：近端缓存为空，从Redis读取
+        cache(redis, users).getById(1L);
+        check(users.queries == 1, "Redis命中时不应访问数据库");
+
+        check(cache.getByPhone("13800138000").map(UserDTO::getId).orElse(0L) == 1L, "应能按手机号读取");
+        check(users.queries == 2, "手机号映射只回源一次（资料已缓存）");
+        cache(redis, users).getByPhone("13800138000");
+        check(users.queries == 2, "手机号映射应从Redis读取");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 不存在的用户缓存空标记，不重复回源
+     */
+    private static void testMissingUser() {
+        System.out.println("\n=== 测试空标记 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        FakeUsers users = new FakeUsers();
+
+        check(cache(redis, users).getById(404L).isEmpty(), "不存在的用户应返回空");
+        check(cache(redis, users).getById(404L).isEmpty(), "不存在的用户应返回空");
+        check(cache(redis, users).getByPhone("13900139000").isEmpty(), "未注册的手机号应返回空");
+        check(cache(redis, users).getByPhone("13900139000").isEmpty(), "未注册的手机号应返回空");
+        check(users.queries == 2, "空标记命中时不应访问数据库: " + users.queries);
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * Redis中只保存不含密码哈希的资料
+     */
+    private static void testNoPasswordHash() {
+        System.out.println("\n=== 测试不缓存密码哈希 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        FakeUsers users = new FakeUsers();
+        users.add(user(1L, "13800138000"));
+
+        UserCache cache = cache(redis, users);
+        cache.getById(1L);
+        cache.getByPhone("13800138000");
+        check(!redis.values.isEmpty(), "资料应写入Redis");
+        check(redis.values.values().stream().allMatch(value -> value instanceof UserDTO || value instanceof String),
+                "Redis中只应保存用户资料或用户ID");
+        check(redis.values.values().stream().noneMatch(value -> value.toString().contains("$2a$")),
+                "缓存值不应包含密码哈希");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 改绑手机号后新手机号立即可查，旧手机号的过期映射不会返回该用户
+     */
+    private static void testRebindPhone() {
+        System.out.println("\n=== 测试改绑手机号 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        FakeUsers users = new FakeUsers();
+        users.add(user(1L, "13800138000"));
+
+        UserCache cache = cache(redis, users);
+        check(cache.getByPhone("13800138000").isPresent(), "旧手机号应能查到用户");
+        check(cache.getByPhone("13800138001").isEmpty(), "新手机号尚未绑定");
+
+        User changed = user(1L, "13800138001");
+        users.add(changed);
+        cache.evict(changed);
+
+        check(cache.getByPhone("13800138001").map(UserDTO::getId).orElse(0L) == 1L, "新手机号的空标记应被清除");
+        check(cache.getByPhone("13800138000").isEmpty(), "旧手机号不应再返回该用户");
+        check(redis.published.size() == 1, "失效通知只发布一次");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static UserCache cache(FakeRedisUtil redis, FakeUsers users) {
+        return new UserCache(redis, users.mapper(), null, new SimpleMeterRegistry(), 600, 60, 30, 100);
+    }
+
+    private static User user(Long id, String phone) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("用户" + id);
+        user.setPhone(phone);
+        user.setPasswordHash("$2a$12$abcdefghijklmnopqrstuv");
+        user.setLoginType("phone");
+        user.setIsActive(true);
+        user.setIsDeleted(false);
+        return user;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * 以内存Map代替Redis
+     */
+    private static class FakeRedisUtil extends RedisUtil {
+
+        final Map<String, Object> values = new ConcurrentHashMap<>();
+        final Map<String, Object> published = new ConcurrentHashMap<>();
+        int reads;
+
+        FakeRedisUtil() {
+            super(null);
+        }
+
+        @Override
+        public <T> T getObject(String key, Class<T> clazz) {
+            reads++;
+            return clazz.cast(values.get(key));
+        }
+
+        @Override
+        public void setEx(String key, Object value, long timeout, TimeUnit unit) {
+            values.put(key, value);
+        }
+
+        @Override
+        public boolean delete(String key) {
+            return values.remove(key) != null;
+        }
+
+        @Override
+        public long delete(Collection<String> keys) {
+            return keys.stream().filter(key -> values.remove(key) != null).count();
+        }
+
+        @Override
+        public boolean publish(String channel, Object message) {
+            published.put(channel + ":" + published.size(), message);
+            return true;
+        }
+    }
+
+    /**
+     * 以内存Map代替用户表，统计回源次数
+     */
+    private static class FakeUsers {
+
+        final Map<Long, User> rows = new ConcurrentHashMap<>();
+        int queries;
+
+        void add(User user) {
+            rows.put(user.getId(), user);
+        }
+
+        UserMapper mapper() {
+            return (UserMapper) Proxy.newProxyInstance(UserMapper.class.getClassLoader(),
+                    new Class<?>[]{UserMapper.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "selectProfileById":
+                                queries++;
+                                return Optional.ofNullable(rows.get((Long) args[0]));
+                            case "findIdByPhone":
+                                queries++;
+                                return rows.values().stream()
+                                        .filter(user -> Objects.equals(user.getPhone(), args[0]))
+                                        .map(User::getId)
+                                        .findFirst()
+                                        .orElse(null);
+                            case "toString":
+                                return "FakeUserMapper";
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.xiangrecord.cache;
+
+import com.xiangrecord.exception.BusinessException;
+import com.xiangrecord.exception.RateLimitExceededException;
+import com.xiangrecord.util.RedisUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 验证码存储的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架；Redis脚本的返回值由测试预设
+ */
+public class VerificationCodeStoreTest {
+
+    public static void main(String[] args) {
+        System.out.println("开始测试验证码存储...");
+
+        testGenerate();
+        testIssue();
+        testVerify();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 验证码定长、纯数字，保留前导零
+     */
+    private static void testGenerate() {
+        System.out.println("\n=== 测试生成验证码 ===");
+
+        VerificationCodeStore store = store(new FakeRedisUtil());
+        int[] firstDigits = new int[10];
+        for (int i = 0; i < 20_000; i++) {
+            String code = store.generate();
+            check(code.length() == 6 && code.chars().allMatch(Character::isDigit), "验证码应为6位数字: " + code);
+            firstDigits[code.charAt(0) - '0']++;
+        }
+        System.out.println("首位数字分布: " + Arrays.toString(firstDigits));
+        for (int count : firstDigits) {
+            check(count > 1500 && count < 2500, "首位数字应近似均匀分布（含0）");
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 签发只访问Redis一次，冷却期内返回429与重试秒数，Redis不可用时返回503
+     */
+    private static void testIssue() {
+        System.out.println("\n=== 测试签发 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        VerificationCodeStore store = store(redis);
+
+        redis.reply = 0L;
+        String code = store.issue("register", "13800138000");
+        check(redis.calls == 1, "签发应只访问Redis一次");
+        check(redis.lastKey.equals("verification:code:register:13800138000"), "键应包含用途与手机号");
+        check(code.equals(redis.lastArgs[0]), "应写入生成的验证码");
+        check(Long.valueOf(300_000L).equals(redis.lastArgs[1]) && Long.valueOf(60_000L).equals(redis.lastArgs[2]),
+                "应传入毫秒单位的有效期与冷却期");
+
+        redis.reply = 42_001L;
+        try {
+            store.issue("register", "13800138000");
+            throw new AssertionError("冷却期内应拒绝签发");
+        } catch (RateLimitExceededException e) {
+            System.out.println("冷却期重试秒数: " + e.getRetryAfterSeconds());
+            check(e.getCode() == 429 && e.getRetryAfterSeconds() == 43, "应返回429与向上取整的重试秒数");
+        }
+
+        redis.reply = null;
+        try {
+            store.issue("register", "13800138000");
+            throw new AssertionError("Redis不可用时应拒绝签发");
+        } catch (RateLimitExceededException e) {
+            throw new AssertionError("Redis不可用时不应返回429");
+        } catch (BusinessException e) {
+            check(e.getCode() == 503, "Redis不可用时应返回503");
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 校验只访问Redis一次，格式不符的输入不访问Redis
+     */
+    private static void testVerify() {
+        System.out.println("\n=== 测试校验 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        VerificationCodeStore store = store(redis);
+
+        Object[][] cases = {
+                {1L, VerificationCodeStore.Result.VERIFIED},
+                {0L, VerificationCodeStore.Result.MISMATCH},
+                {-1L, VerificationCodeStore.Result.MISSING},
+                {-2L, VerificationCodeStore.Result.EXHAUSTED},
+                {null, VerificationCodeStore.Result.ERROR},
+        };
+        for (Object[] c : cases) {
+            redis.reply = (Long) c[0];
+            int calls = redis.calls;
+            check(store.verify("login", "13800138000", "012345") == c[1], "脚本返回 " + c[0] + " 应对应 " + c[1]);
+            check(redis.calls == calls + 1, "校验应只访问Redis一次");
+        }
+        check(Integer.valueOf(5).equals(redis.lastArgs[1]), "应传入最大失败次数");
+
+        int calls = redis.calls;
+        check(store.verify("login", "13800138000", null) == VerificationCodeStore.Result.MISMATCH, "空验证码应不匹配");
+        check(store.verify("login", "13800138000", "123") == VerificationCodeStore.Result.MISMATCH, "长度不符应不匹配");
+        check(redis.calls == calls, "格式不符的输入不应访问Redis");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static VerificationCodeStore store(FakeRedisUtil redis) {
+        return new VerificationCodeStore(redis, new SimpleMeterRegistry(), 300, 6, 60, 5);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * 记录脚本调用并返回预设值
+     */
+    private static final class FakeRedisUtil extends RedisUtil {
+
+        private Long reply;
+        private int calls;
+        private String lastKey;
+        private Object[] lastArgs;
+
+        private FakeRedisUtil() {
+            super(null);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            calls++;
+            lastKey = keys.get(0);
+            lastArgs = args;
+            return (T) reply;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.xiangrecord.datasource;
+
+import com.xiangrecord.util.RedisUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读写分离路由数据源的单元测试
+ * 使用桩数据源记录连接来自哪个库，通过 TransactionSynchronizationManager 模拟只读事务与写事务
+ * 使用main方法进行测试，不依赖外部测试框架
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("开始测试读写分离路由数据源...");
+
+        testWritesUsePrimary();
+        testReadOnlyRoundRobin();
+        testReplicasWaitForHealthCheck();
+        testReadYourWrites();
+        testReadYourWritesAcrossInstances();
+        testRolledBackWriteOpensNoWindow();
+        testFailedReplicaFallsBack();
+        testLaggingReplicaRemoved();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 非事务操作与写事务使用主库
+     */
+    private static void testWritesUsePrimary() throws SQLException {
+        System.out.println("\n=== 测试写操作使用主库 ===");
+
+        Fixture fixture = new Fixture(Duration.ofSeconds(5), "replica-0");
+        check("primary".equals(fixture.connect()), "非事务操作应使用主库");
+
+        inTransaction(false, () -> check("primary".equals(fixture.connect()), "写事务应使用主库"));
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 只读事务在可用从库间轮询
+     */
+    private static void testReadOnlyRoundRobin() throws SQLException {
+        System.out.println("\n=== 测试只读事务轮询从库 ===");
+
+        Fixture fixture = new Fixture(Duration.ofSeconds(5), "replica-0", "replica-1");
+        fixture.routing.checkReplicas();
+
+        List<String> targets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            inTransaction(true, () -> targets.add(fixture.connect()));
+        }
+        System.out.println("路由结果: " + targets);
+
+        check(targets.equals(List.of("replica-0", "replica-1", "replica-0", "replica-1")), "应依次使用两个从库");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 健康检查通过前从库不接收读请求
+     */
+    private static void testReplicasWaitForHealthCheck() throws SQLException {
+        System.out.println("\n=== 测试从库健康检查前不可用 ===");
+
+        Fixture fixture = new Fixture(Duration.ofSeconds(5), "replica-0");
+        check(fixture.routing.availableReplicas() == 0, "健康检查前不应有可用从库");
+        inTransaction(true, () -> check("primary".equals(fixture.connect()), "没有可用从库时应使用主库"));
+
+        fixture.routing.checkReplicas();
+        check(fixture.routing.availableReplicas() == 1, "健康检查后应有1个可用从库");
+        inTransaction(true, () -> check("replica-0".equals(fixture.connect()), "健康检查后应使用从库"));
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 写事务提交后，同一用户的只读事务在窗口内使用主库，其他用户不受影响，窗口过期后恢复使用从库
+     */
+    private static void testReadYourWrites() throws Exception {
+        System.out.println("\n=== 测试读己之写窗口 ===");
+
+        Fixture fixture = new Fixture(Duration.ofMillis(200), "replica-0");
+        fixture.routing.checkReplicas();
+
+        asUser("7", () -> inTransaction(false, () -> check("primary".equals(fixture.connect()), "写事务应使用主库")));
+        asUser("7", () -> inTransaction(true, () -> check("primary".equals(fixture.connect()), "写入后的读取应使用主库")));
+        asUser("8", () -> inTransaction(true, () -> check("replica-0".equals(fixture.connect()), "其他用户的读取应使用从库")));
+
+        Thread.sleep(300);
+        asUser("7", () -> inTransaction(true, () -> check("replica-0".equals(fixture.connect()), "窗口过期后应使用从库")));
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 写入通知在其他实例开启窗口，判断是否读主库时不访问Redis
+     */
+    private static void testReadYourWritesAcrossInstances() {
+        System.out.println("\n=== 测试跨实例读己之写窗口 ===");
+
+        BroadcastRedisUtil redis = new BroadcastRedisUtil();
+        ReadYourWritesTracker writer = new ReadYourWritesTracker(redis, Duration.ofSeconds(5));
+        ReadYourWritesTracker reader = new ReadYourWritesTracker(redis, Duration.ofSeconds(5));
+        redis.listeners.add(writer);
+        redis.listeners.add(reader);
+
+        writer.markWritten("7");
+        check(redis.published == 1, "写入应发布一次通知");
+        check(reader.requiresPrimary("7"), "其他实例收到通知后应读主库");
+        check(!reader.requiresPrimary("8"), "未写入的用户应读从库");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 回滚的写事务不开启窗口
+     */
+    private static void testRolledBackWriteOpensNoWindow() throws SQLException {
+        System.out.println("\n=== 测试回滚的写事务 ===");
+
+        Fixture fixture = new Fixture(Duration.ofSeconds(5), "replica-0");
+        fixture.routing.checkReplicas();
+
+        asUser("7", () -> {
+            TransactionSynchronizationManager.initSynchronization();
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            try {
+                fixture.connect();
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            } finally {
+                TransactionSynchronizationManager.clear();
+            }
+        });
+        asUser("7", () -> inTransaction(true, () -> check("replica-0".equals(fixture.connect()), "回滚后的读取应使用从库")));
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 从库获取连接失败时回退到主库并摘除该从库，恢复后重新加入
+     */
+    private static void testFailedReplicaFallsBack() throws SQLException {
+        System.out.println("\n=== 测试从库故障回退 ===");
+
+        Fixture fixture = new Fixture(Duration.ofSeconds(5), "replica-0", "replica-1");
+        fixture.routing.checkReplicas();
+        fixture.replicas.get("replica-0").failing = true;
+
+        inTransaction(true, () -> check("primary".equals(fixture.connect()), "从库获取连接失败时应回退主库"));
+        check(fixture.routing.availableReplicas() == 1, "故障从库应被摘除");
+        for (int i = 0; i < 3; i++) {
+            inTransaction(true, () -> check("replica-1".equals(fixture.connect()), "应只使用可用从库"));
+        }
+
+        fixture.replicas.get("replica-0").failing = false;
+        fixture.routing.checkReplicas();
+        check(fixture.routing.availableReplicas() == 2, "从库恢复后应重新加入");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 健康检查发现从库不可用时摘除，全部摘除后读取使用主库
+     */
+    private static void testLaggingReplicaRemoved() throws SQLException {
+        System.out.println("\n=== 测试健康检查摘除从库 ===");
+
+        Fixture fixture = new Fixture(Duration.ofSeconds(5), "replica-0");
+        fixture.routing.checkReplicas();
+        fixture.replicas.get("replica-0").valid = false;
+        fixture.routing.checkReplicas();
+
+        check(fixture.routing.availableReplicas() == 0, "检查失败的从库应被摘除");
+        inTransaction(true, () -> check("primary".equals(fixture.connect()), "没有可用从库时应使用主库"));
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 模拟事务：提交时触发 afterCommit 回调
+     */
+    private static void inTransaction(boolean readOnly, SqlAction action) throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        try {
+            action.run();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    private static void asUser(String userId, SqlAction action) throws SQLException {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, new ArrayList<>()));
+        try {
+            action.run();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+
+    /**
+     * 发布时直接投递给所有订阅的实例；任何读操作都视为失败
+     */
+    private static final class BroadcastRedisUtil extends RedisUtil {
+
+        private final List<ReadYourWritesTracker> listeners = new ArrayList<>();
+        private int published;
+
+        private BroadcastRedisUtil() {
+            super(null);
+        }
+
+        @Override
+        public boolean publish(String channel, Object message) {
+            published++;
+            byte[] body = message.toString().getBytes(StandardCharsets.UTF_8);
+            listeners.forEach(listener ->
+                    listener.onMessage(new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), body), null));
+            return true;
+        }
+
+        @Override
+        public <T> T deserialize(byte[] body, Class<T> clazz) {
+            return clazz.cast(new String(body, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public boolean hasKey(String key) {
+            throw new AssertionError("判断是否读主库时不应访问Redis");
+        }
+    }
+
+    /**
+     * 主库与从库桩数据源
+     */
+    private static final class Fixture {
+
+        private final StubDataSource primary = new StubDataSource("primary");
+        private final Map<String, StubDataSource> replicas = new LinkedHashMap<>();
+        private final ReplicaRoutingDataSource routing;
+
+        private Fixture(Duration window, String... replicaNames) {
+            for (String name : replicaNames) {
+                replicas.put(name, new StubDataSource(name));
+            }
+            routing = new ReplicaRoutingDataSource(primary, new LinkedHashMap<>(replicas),
+                    new ReadYourWritesTracker(null, window), 3, new SimpleMeterRegistry());
+        }
+
+        /**
+         * 获取一个连接，返回连接所属的库名
+         */
+        private String connect() throws SQLException {
+            try (Connection connection = routing.getConnection()) {
+                return connection.toString();
+            }
+        }
+    }
+
+    /**
+     * 桩数据源：连接的 toString 为库名，可模拟获取连接失败与连接失效
+     */
+    private static final class StubDataSource extends AbstractDataSource {
+
+        private final String name;
+        private volatile boolean failing;
+        private volatile boolean valid = true;
+
+        private StubDataSource(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                throw new SQLTransientConnectionException(name + " 连接超时");
+            }
+            DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[]{DatabaseMetaData.class},
+                    (proxy, method, args) -> "getDatabaseProductName".equals(method.getName()) ? "H2" : null);
+            return (Connection) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "toString" -> name;
+                        case "getMetaData" -> metaData;
+                        case "isValid" -> valid;
+                        default -> null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
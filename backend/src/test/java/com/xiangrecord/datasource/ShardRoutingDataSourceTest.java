@@ -0,0 +1,222 @@
+package com.xiangrecord.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 分片路由数据源与再平衡规划的单元测试
+ * 使用桩数据源记录连接来自哪个分片，通过 TransactionSynchronizationManager 模拟事务
+ * 使用main方法进行测试，不依赖外部测试框架
+ */
+public class ShardRoutingDataSourceTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("开始测试分片路由数据源...");
+
+        testDefaultShard();
+        testUsingRestoresContext();
+        testTransactionPinnedToShard();
+        testShardOutOfRange();
+        testPlanFromSingleShard();
+        testPlanKeepsBalancedShards();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 未设置分片上下文时使用默认分片
+     */
+    private static void testDefaultShard() throws SQLException {
+        System.out.println("\n=== 测试默认分片 ===");
+
+        ShardRoutingDataSource routing = routing(3);
+        check("shard-0".equals(connect(routing)), "未设置分片时应使用分片0");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * using 范围内使用指定分片，结束后恢复之前的分片（支持嵌套）
+     */
+    private static void testUsingRestoresContext() {
+        System.out.println("\n=== 测试分片上下文 ===");
+
+        ShardRoutingDataSource routing = routing(3);
+        String nested = ShardRoutingDataSource.using(1, () -> {
+            String inner = ShardRoutingDataSource.using(2, () -> connectUnchecked(routing));
+            check("shard-1".equals(connectUnchecked(routing)), "嵌套结束后应恢复分片1");
+            return inner;
+        });
+        check("shard-2".equals(nested), "嵌套范围内应使用分片2");
+        check(ShardRoutingDataSource.currentShard() == ShardRoutingDataSource.DEFAULT_SHARD, "结束后应恢复默认分片");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 事务内访问第一个分片后不能切换到其他分片，事务结束后解除
+     */
+    private static void testTransactionPinnedToShard() throws SQLException {
+        System.out.println("\n=== 测试事务固定在一个分片 ===");
+
+        ShardRoutingDataSource routing = routing(2);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            check("shard-1".equals(ShardRoutingDataSource.using(1, () -> connectUnchecked(routing))), "应使用分片1");
+            check("shard-1".equals(ShardRoutingDataSource.using(1, () -> connectUnchecked(routing))), "同一分片可重复访问");
+            boolean rejected = false;
+            try {
+                ShardRoutingDataSource.using(0, () -> connectUnchecked(routing));
+            } catch (IllegalStateException e) {
+                System.out.println("切换分片被拒绝: " + e.getMessage());
+                rejected = true;
+            }
+            check(rejected, "同一事务内切换分片应抛出异常");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            check("shard-0".equals(connect(routing)), "新事务可使用其他分片");
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 分片序号超出范围时抛出异常
+     */
+    private static void testShardOutOfRange() {
+        System.out.println("\n=== 测试分片序号超出范围 ===");
+
+        ShardRoutingDataSource routing = routing(2);
+        boolean rejected = false;
+        try {
+            ShardRoutingDataSource.using(2, () -> connectUnchecked(routing));
+        } catch (IllegalStateException e) {
+            rejected = true;
+        }
+        check(rejected, "超出范围的分片应抛出异常");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 全部桶位于分片0时，新增两个分片后迁移到各分片的桶数相差不超过1
+     */
+    private static void testPlanFromSingleShard() {
+        System.out.println("\n=== 测试从单分片规划再平衡 ===");
+
+        int[] assignment = new int[1024];
+        List<ShardRebalancer.BucketMove> moves = ShardRebalancer.plan(assignment, 3);
+        int[] counts = apply(assignment, moves);
+        System.out.println("迁移桶数: " + moves.size() + ", 迁移后各分片桶数: " + Arrays.toString(counts));
+
+        check(moves.size() == 1024 - 342, "分片0应保留342个桶");
+        check(Arrays.equals(counts, new int[]{342, 341, 341}), "迁移后各分片桶数应为342/341/341");
+        check(moves.stream().allMatch(move -> move.getFrom() == 0 && move.getTo() != 0), "只应从分片0迁出");
+        check(ShardRebalancer.plan(assignment, 3).isEmpty(), "已均衡时不应再迁移");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 已均衡的分片不因余数分配而迁移，只迁出超出目标的桶
+     */
+    private static void testPlanKeepsBalancedShards() {
+        System.out.println("\n=== 测试只迁出超出目标的桶 ===");
+
+        // 10个桶、3个分片：分片1多出的1个桶可以保留
+        int[] assignment = {0, 0, 0, 1, 1, 1, 1, 2, 2, 2};
+        check(ShardRebalancer.plan(assignment, 3).isEmpty(), "桶数相差不超过1时不应迁移");
+
+        int[] uneven = {0, 0, 0, 0, 0, 0, 1, 1, 1, 1};
+        List<ShardRebalancer.BucketMove> moves = ShardRebalancer.plan(uneven, 3);
+        int[] counts = apply(uneven, moves);
+        System.out.println("迁移: " + moves + ", 迁移后各分片桶数: " + Arrays.toString(counts));
+        check(moves.size() == 3, "应迁移3个桶");
+        check(Arrays.stream(counts).max().getAsInt() - Arrays.stream(counts).min().getAsInt() <= 1, "迁移后应均衡");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static int[] apply(int[] assignment, List<ShardRebalancer.BucketMove> moves) {
+        for (ShardRebalancer.BucketMove move : moves) {
+            check(assignment[move.getBucket()] == move.getFrom(), "迁移的源分片应与目录一致");
+            assignment[move.getBucket()] = move.getTo();
+        }
+        int[] counts = new int[Arrays.stream(assignment).max().getAsInt() + 1];
+        for (int shard : assignment) {
+            counts[shard]++;
+        }
+        return counts;
+    }
+
+    private static ShardRoutingDataSource routing(int shardCount) {
+        DataSource[] shards = new DataSource[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new StubDataSource("shard-" + i);
+        }
+        return new ShardRoutingDataSource(Arrays.asList(shards));
+    }
+
+    /**
+     * 获取一个连接，返回连接所属的分片名
+     */
+    private static String connect(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.toString();
+        }
+    }
+
+    private static String connectUnchecked(DataSource dataSource) {
+        try {
+            return connect(dataSource);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * 桩数据源：连接的 toString 为分片名
+     */
+    private static final class StubDataSource extends AbstractDataSource {
+
+        private final String name;
+
+        private StubDataSource(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Connection getConnection() {
+            return (Connection) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> "toString".equals(method.getName()) ? name : null);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+    }
+}
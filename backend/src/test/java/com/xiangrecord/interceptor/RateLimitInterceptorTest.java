@@ -0,0 +1,71 @@
+package com.xiangrecord.interceptor;
+
+import com.xiangrecord.service.RateLimitService;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * 限流拦截器的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架；通过 MockMvc 完整走一遍异步处理器的两次分派
+ */
+public class RateLimitInterceptorTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("开始测试限流拦截器...");
+
+        testAsyncHandlerAcquiresOnce();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 返回 CompletableFuture 的处理器在异步二次分派时不再取令牌
+     */
+    private static void testAsyncHandlerAcquiresOnce() throws Exception {
+        System.out.println("\n=== 测试异步处理器只取一次令牌 ===");
+
+        List<String> acquired = new ArrayList<>();
+        RateLimitService service = (rule, keyType, key) -> acquired.add(rule + ":" + keyType + ":" + key);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AsyncController())
+                .addInterceptors(new RateLimitInterceptor(service, RateLimitService.RULE_LOGIN))
+                .build();
+
+        MvcResult started = mockMvc.perform(post("/login").param("phone", "13800138000")).andReturn();
+        check(started.getRequest().isAsyncStarted(), "处理器应以异步方式执行");
+        int afterFirstDispatch = acquired.size();
+
+        MvcResult completed = mockMvc.perform(asyncDispatch(started)).andReturn();
+        System.out.println("取令牌: " + acquired);
+        check(completed.getResponse().getStatus() == 200, "异步结果应正常返回");
+        check(completed.getResponse().getContentAsString().equals("ok"), "应返回处理器的结果");
+        check(afterFirstDispatch == 3, "首次分派应按IP、用户、手机号各取一次令牌");
+        check(acquired.size() == afterFirstDispatch, "异步二次分派不应再取令牌");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    @RestController
+    static class AsyncController {
+
+        @PostMapping("/login")
+        public CompletableFuture<String> login() {
+            return CompletableFuture.supplyAsync(() -> "ok");
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.xiangrecord.mapper;
+
+import org.flywaydb.core.Flyway;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 查询执行计划检查
+ * 对记录服务发出的每种查询形态执行 EXPLAIN，出现全表扫描（type = ALL）或 filesort 时失败；
+ * 带记录时间条件的查询还须只访问部分分区。全量视图的物化结果（derived）本身不检查，只检查视图各分支，
+ * 视图条件下推到各分支需要 MySQL 8.0.29 及以上版本。
+ * 使用main方法进行测试，不依赖外部测试框架。
+ *
+ * 需要一个专用的MySQL库（库名须包含 plancheck，检查开始时会清空并按 Flyway 迁移重建），通过系统属性指定：
+ *   -Dplancheck.url=jdbc:mysql://localhost:3306/xiangrecord_plancheck -Dplancheck.username=root -Dplancheck.password=...
+ * 未指定 plancheck.url 时跳过检查。
+ */
+public class QueryPlanTest {
+
+    private static final String COLUMNS =
+            "id,record_time,color,smell,moisture,shape,size,texture,mood,notes,user_id,created_at,updated_at";
+
+    private static final int USERS = 200;
+    private static final int RECORDS_PER_USER = 60;
+
+    private static final long USER_ID = 42L;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 10, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 1, 20, 0, 0);
+    private static final int COLOR = 1;
+    private static final int MOOD = 3;
+
+    /**
+     * 平时为空的归档中转表，不检查其执行计划
+     */
+    private static final String STAGE_TABLE = "poop_records_archive_stage";
+
+    public static void main(String[] args) throws SQLException {
+        String url = System.getProperty("plancheck.url");
+        if (url == null || url.isEmpty()) {
+            System.out.println("未指定 plancheck.url，跳过执行计划检查");
+            return;
+        }
+        String username = System.getProperty("plancheck.username", "root");
+        String password = System.getProperty("plancheck.password", "");
+
+        System.out.println("开始检查查询执行计划...");
+
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            String catalog = connection.getCatalog();
+            check(catalog != null && catalog.contains("plancheck"), "库名须包含 plancheck，当前: " + catalog);
+
+            Flyway flyway = Flyway.configure()
+                    .dataSource(url, username, password)
+                    .locations("classpath:db/migration")
+                    .cleanDisabled(false)
+                    .load();
+            flyway.clean();
+            flyway.migrate();
+
+            seed(connection);
+
+            int partitions = countPartitions(connection);
+            List<String> violations = new ArrayList<>();
+            for (QueryShape shape : shapes()) {
+                violations.addAll(explain(connection, shape, partitions));
+            }
+
+            if (!violations.isEmpty()) {
+                violations.forEach(violation -> System.out.println("✗ " + violation));
+                throw new AssertionError("执行计划检查失败，共 " + violations.size() + " 处");
+            }
+        }
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 记录服务、变更日志服务发出的查询形态（与 MyBatis-Plus 生成的SQL一致）
+     */
+    private static List<QueryShape> shapes() {
+        List<QueryShape> shapes = new ArrayList<>();
+
+        // 单条记录（更新、删除带上原记录时间，只访问记录所在分区）
+        shapes.add(new QueryShape("按ID查询",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE id = ?", 1L));
+        shapes.add(new QueryShape("按ID和时间更新",
+                "UPDATE poop_records SET notes = ? WHERE (id = ? AND record_time = ?)", "", 1L, START).pruned());
+        shapes.add(new QueryShape("按ID和时间删除",
+                "DELETE FROM poop_records WHERE (id = ? AND record_time = ?)", 1L, START).pruned());
+        shapes.add(new QueryShape("归档表按ID查询",
+                "SELECT " + COLUMNS + " FROM poop_records_archive WHERE id = ?", 1L));
+
+        // 列表与计数
+        shapes.add(new QueryShape("用户分页列表",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (user_id = ?) ORDER BY record_time DESC LIMIT ?,?",
+                USER_ID, 20, 20));
+        shapes.add(new QueryShape("用户分页计数",
+                "SELECT COUNT(*) AS total FROM poop_records WHERE (user_id = ?)", USER_ID));
+        shapes.add(new QueryShape("全部记录分页列表",
+                "SELECT " + COLUMNS + " FROM poop_records ORDER BY record_time DESC LIMIT ?", 20));
+        shapes.add(new QueryShape("时间范围分页列表",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (record_time BETWEEN ? AND ?) ORDER BY record_time DESC LIMIT ?",
+                START, END, 20).pruned());
+        shapes.add(new QueryShape("按颜色分页列表",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (color = ?) ORDER BY record_time DESC LIMIT ?",
+                COLOR, 20));
+        shapes.add(new QueryShape("按心情分页列表",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (mood = ?) ORDER BY record_time DESC LIMIT ?",
+                MOOD, 20));
+
+        // 最近记录、今日记录
+        shapes.add(new QueryShape("最近记录",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (user_id = ?) ORDER BY record_time DESC, id DESC LIMIT ?",
+                USER_ID, 50));
+        shapes.add(new QueryShape("最近记录（最近分区）",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (user_id = ? AND record_time >= ?) ORDER BY record_time DESC, id DESC LIMIT ?",
+                USER_ID, END, 50).pruned());
+        shapes.add(new QueryShape("今日记录",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (user_id = ? AND record_time BETWEEN ? AND ?) ORDER BY record_time DESC",
+                USER_ID, START, START.plusDays(1)).pruned());
+
+        // 条件查询、游标分页、页码滚动
+        shapes.add(new QueryShape("条件查询（颜色+心情+时间）",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (user_id = ? AND color = ? AND mood = ? AND record_time >= ? AND record_time <= ?) ORDER BY record_time DESC LIMIT ?",
+                USER_ID, COLOR, MOOD, START, END, 20).pruned());
+        shapes.add(new QueryShape("条件查询（颜色）",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (user_id = ? AND color = ?) ORDER BY record_time DESC, id DESC LIMIT ?",
+                USER_ID, COLOR, 21));
+        shapes.add(new QueryShape("条件查询（心情）",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (user_id = ? AND mood = ?) ORDER BY record_time DESC, id DESC LIMIT ?",
+                USER_ID, MOOD, 21));
+        shapes.add(new QueryShape("条件计数",
+                "SELECT COUNT(*) AS total FROM poop_records WHERE (user_id = ? AND color = ? AND record_time >= ? AND record_time <= ?)",
+                USER_ID, COLOR, START, END).pruned());
+        shapes.add(new QueryShape("游标分页",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (user_id = ? AND (record_time < ? OR (record_time = ? AND id < ?))) ORDER BY record_time DESC, id DESC LIMIT ?",
+                USER_ID, END, END, 1000L, 21));
+        shapes.add(new QueryShape("游标分页（最近分区）",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (user_id = ? AND record_time >= ? AND (record_time < ? OR (record_time = ? AND id < ?))) ORDER BY record_time DESC, id DESC LIMIT ?",
+                USER_ID, START, END, END, 1000L, 21).pruned());
+        shapes.add(new QueryShape("页码滚动",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE (user_id = ?) ORDER BY record_time DESC, id DESC LIMIT ?,?",
+                USER_ID, 20, 21));
+
+        // 统计
+        shapes.add(new QueryShape("时间范围计数",
+                "SELECT COUNT(*) AS total FROM poop_records WHERE (user_id = ? AND record_time BETWEEN ? AND ?)",
+                USER_ID, START, END).pruned());
+        shapes.add(new QueryShape("颜色计数",
+                "SELECT COUNT(*) AS total FROM poop_records WHERE (user_id = ? AND color = ?)", USER_ID, COLOR));
+        shapes.add(new QueryShape("心情计数",
+                "SELECT COUNT(*) AS total FROM poop_records WHERE (user_id = ? AND mood = ?)", USER_ID, MOOD));
+        shapes.add(new QueryShape("属性组合统计",
+                "SELECT color, smell, moisture, shape, size, texture, mood, COUNT(*) AS total FROM poop_records "
+                        + "WHERE user_id = ? AND record_time >= ? AND record_time <= ? "
+                        + "GROUP BY color, smell, moisture, shape, size, texture, mood",
+                USER_ID, START, END).pruned());
+        shapes.add(new QueryShape("时间序列统计",
+                "SELECT record_time, shape, color FROM poop_records WHERE user_id = ? AND record_time >= ? AND record_time <= ?",
+                USER_ID, START, END).pruned());
+        shapes.add(new QueryShape("列式分析加载",
+                "SELECT record_time, color, smell, moisture, shape, size, texture, mood FROM poop_records "
+                        + "WHERE user_id = ? ORDER BY record_time",
+                USER_ID));
+
+        // 导出
+        shapes.add(new QueryShape("流式导出",
+                "SELECT " + COLUMNS + " FROM poop_records WHERE user_id = ? AND record_time >= ? AND record_time <= ? ORDER BY record_time, id",
+                USER_ID, START, END).pruned());
+
+        // 批量删除
+        shapes.add(new QueryShape("批量删除加锁",
+                "SELECT id,record_time FROM poop_records WHERE (user_id = ? AND record_time BETWEEN ? AND ?) ORDER BY record_time ASC FOR UPDATE",
+                USER_ID, START, END).pruned());
+        shapes.add(new QueryShape("批量删除片段",
+                "DELETE FROM poop_records WHERE (user_id = ? AND record_time BETWEEN ? AND ?)",
+                USER_ID, START, START.plusHours(6)).pruned());
+
+        // 跨越归档边界的查询（全量视图）
+        shapes.add(new QueryShape("全量视图用户分页列表",
+                "SELECT " + COLUMNS + " FROM poop_records_all WHERE (user_id = ?) ORDER BY record_time DESC LIMIT ?,?",
+                USER_ID, 20, 20));
+        shapes.add(new QueryShape("全量视图用户计数",
+                "SELECT COUNT(*) AS total FROM poop_records_all WHERE (user_id = ?)", USER_ID));
+        shapes.add(new QueryShape("全量视图游标分页",
+                "SELECT " + COLUMNS + " FROM poop_records_all WHERE (user_id = ? AND (record_time < ? OR (record_time = ? AND id < ?))) ORDER BY record_time DESC, id DESC LIMIT ?",
+                USER_ID, END, END, 1000L, 21));
+        shapes.add(new QueryShape("全量视图属性组合统计",
+                "SELECT color, smell, moisture, shape, size, texture, mood, COUNT(*) AS total FROM poop_records_all "
+                        + "WHERE user_id = ? GROUP BY color, smell, moisture, shape, size, texture, mood",
+                USER_ID));
+        shapes.add(new QueryShape("全量视图流式导出",
+                "SELECT " + COLUMNS + " FROM poop_records_all WHERE user_id = ? ORDER BY record_time, id",
+                USER_ID));
+        shapes.add(new QueryShape("归档表批量删除加锁",
+                "SELECT id,record_time FROM poop_records_archive WHERE (user_id = ? AND record_time BETWEEN ? AND ?) ORDER BY record_time ASC FOR UPDATE",
+                USER_ID, START, END));
+
+        // 增量同步变更日志
+        shapes.add(new QueryShape("变更日志读取",
+                "SELECT seq,user_id,record_id,op,changed_at FROM poop_record_changes WHERE (user_id = ? AND seq > ?) ORDER BY seq ASC LIMIT ?",
+                USER_ID, 100L, 201));
+        shapes.add(new QueryShape("变更日志水位",
+                "SELECT MAX(seq) FROM poop_record_changes WHERE user_id = ? AND changed_at < ?",
+                USER_ID, END));
+        shapes.add(new QueryShape("变更日志清理",
+                "DELETE FROM poop_record_changes WHERE changed_at < ? LIMIT ?", START, 5000));
+
+        return shapes;
+    }
+
+    /**
+     * 执行 EXPLAIN 并返回违规项
+     */
+    private static List<String> explain(Connection connection, QueryShape shape, int partitions) throws SQLException {
+        List<String> violations = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + shape.sql)) {
+            for (int i = 0; i < shape.params.length; i++) {
+                statement.setObject(i + 1, shape.params[i]);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString("table");
+                    String type = rs.getString("type");
+                    String key = rs.getString("key");
+                    String extra = rs.getString("Extra");
+                    String usedPartitions = rs.getString("partitions");
+                    System.out.printf("[%s] table=%s partitions=%s type=%s key=%s extra=%s%n",
+                            shape.name, table, usedPartitions, type, key, extra);
+                    if (table == null || table.startsWith("<") || STAGE_TABLE.equals(table)) {
+                        continue;
+                    }
+                    if (shape.pruned && "poop_records".equals(table)
+                            && (usedPartitions == null || usedPartitions.split(",").length >= partitions)) {
+                        violations.add(shape.name + "：" + table + " 未裁剪分区");
+                    }
+                    if ("ALL".equals(type)) {
+                        violations.add(shape.name + "：" + table + " 全表扫描");
+                    }
+                    if (extra != null && extra.contains("Using filesort")) {
+                        violations.add(shape.name + "：" + table + " 使用 filesort");
+                    }
+                }
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * 记录表的分区数
+     */
+    private static int countPartitions(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM information_schema.PARTITIONS "
+                     + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'poop_records' AND PARTITION_NAME IS NOT NULL")) {
+            rs.next();
+            int partitions = rs.getInt(1);
+            check(partitions > 1, "记录表未分区");
+            return partitions;
+        }
+    }
+
+    /**
+     * 写入测试数据并更新统计信息，使优化器按真实数据分布选择索引
+     */
+    private static void seed(Connection connection) throws SQLException {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        connection.setAutoCommit(false);
+        try (PreparedStatement records = connection.prepareStatement(
+                "INSERT INTO poop_records (record_time, color, smell, moisture, shape, size, texture, mood, user_id) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement changes = connection.prepareStatement(
+                     "INSERT INTO poop_record_changes (user_id, record_id, op, changed_at) VALUES (?, ?, 'U', ?)")) {
+            long recordId = 0;
+            for (long user = 1; user <= USERS; user++) {
+                for (int i = 0; i < RECORDS_PER_USER; i++) {
+                    LocalDateTime time = base.plusMinutes(random.nextInt(60 * 24 * 60));
+                    records.setObject(1, time);
+                    records.setInt(2, 1 + random.nextInt(6));
+                    records.setInt(3, 1 + random.nextInt(5));
+                    records.setInt(4, 1 + random.nextInt(4));
+                    records.setInt(5, 1 + random.nextInt(6));
+                    records.setInt(6, 1 + random.nextInt(4));
+                    records.setInt(7, 1 + random.nextInt(4));
+                    records.setInt(8, 1 + random.nextInt(5));
+                    records.setLong(9, user);
+                    records.addBatch();
+
+                    changes.setLong(1, user);
+                    changes.setLong(2, ++recordId);
+                    changes.setObject(3, time);
+                    changes.addBatch();
+                }
+                records.executeBatch();
+                changes.executeBatch();
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        try (Statement statement = connection.createStatement()) {
+            // 第一个月的记录同时写入归档表，用于检查归档表和全量视图的执行计划
+            statement.execute("INSERT INTO poop_records_archive (" + COLUMNS + ") SELECT " + COLUMNS
+                    + " FROM poop_records WHERE record_time < '2024-02-01'");
+            statement.execute("ANALYZE TABLE poop_records, poop_records_archive, poop_record_changes");
+        }
+        System.out.println("已写入测试数据: " + USERS * RECORDS_PER_USER + " 条记录");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * 查询形态
+     */
+    private static class QueryShape {
+
+        private final String name;
+        private final String sql;
+        private final Object[] params;
+        private boolean pruned;
+
+        QueryShape(String name, String sql, Object... params) {
+            this.name = name;
+            this.sql = sql;
+            this.params = params;
+        }
+
+        /**
+         * 要求只访问部分分区
+         */
+        QueryShape pruned() {
+            this.pruned = true;
+            return this;
+        }
+    }
+}
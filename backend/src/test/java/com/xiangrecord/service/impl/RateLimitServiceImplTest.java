@@ -0,0 +1,205 @@
+package com.xiangrecord.service.impl;
+
+import com.xiangrecord.config.RateLimitProperties;
+import com.xiangrecord.exception.RateLimitExceededException;
+import com.xiangrecord.service.RateLimitService;
+import com.xiangrecord.util.RedisUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 限流服务的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架；Redis中的令牌桶脚本以内存实现代替（不补充令牌）
+ */
+public class RateLimitServiceImplTest {
+
+    public static void main(String[] args) {
+        System.out.println("开始测试限流服务...");
+
+        testLocalLease();
+        testDenyWithRetryAfter();
+        testDefaultCapacityAndUnknownRule();
+        testFailOpen();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 令牌充足时大部分请求在本地扣减，总放行数不超过桶容量
+     */
+    private static void testLocalLease() {
+        System.out.println("\n=== 测试本地预取 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RateLimitService service = new RateLimitServiceImpl(properties(1000, 1000), redis, registry);
+
+        int allowed = 0;
+        for (int i = 0; i < 1200; i++) {
+            try {
+                service.acquire("api", RateLimitService.KEY_USER, "42");
+                allowed++;
+            } catch (RateLimitExceededException e) {
+                // 超出容量
+            }
+        }
+        double local = registry.get("ratelimit.requests").tag("result", "local").counter().count();
+        System.out.println("放行: " + allowed + ", 本地放行: " + local + ", Redis调用: " + redis.calls);
+        check(allowed <= 1000, "放行数不应超过桶容量");
+        check(allowed >= 900, "预取的令牌在有效期内应基本用完");
+        check(redis.calls < 200, "令牌充足时大部分请求不应访问Redis");
+        check(local > 0, "应记录本地放行次数");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 令牌用完后拒绝并给出重试秒数，拒绝期内不再访问Redis
+     */
+    private static void testDenyWithRetryAfter() {
+        System.out.println("\n=== 测试拒绝与重试时间 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        RateLimitService service = new RateLimitServiceImpl(properties(2, 1), redis, new SimpleMeterRegistry());
+
+        service.acquire("api", RateLimitService.KEY_USER, "42");
+        service.acquire("api", RateLimitService.KEY_USER, "42");
+        check(redis.calls == 2, "容量较小时每个请求都应以Redis为准");
+        long retryAfter = expectDenied(service, "42");
+        System.out.println("重试秒数: " + retryAfter);
+        check(retryAfter == 60, "每分钟补充1个令牌时应在60秒后重试");
+
+        int calls = redis.calls;
+        expectDenied(service, "42");
+        check(redis.calls == calls, "拒绝期内应在本地直接拒绝");
+
+        service.acquire("api", RateLimitService.KEY_USER, "43");
+        check(redis.calls == calls + 1, "不同用户应使用各自的令牌桶");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 未配置容量时使用 requests-per-minute；未配置的规则与维度直接放行
+     */
+    private static void testDefaultCapacityAndUnknownRule() {
+        System.out.println("\n=== 测试默认容量与未配置规则 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        RateLimitProperties properties = properties(0, 0);
+        properties.setRequestsPerMinute(3);
+        properties.setLeaseFraction(0.01);
+        RateLimitService service = new RateLimitServiceImpl(properties, redis, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 3; i++) {
+            service.acquire("api", RateLimitService.KEY_USER, "42");
+        }
+        expectDenied(service, "42");
+        check(redis.lastCapacity == 3 && redis.lastRefill == 3, "应使用 requests-per-minute 作为容量与补充数");
+
+        int calls = redis.calls;
+        service.acquire("unknown", RateLimitService.KEY_USER, "42");
+        service.acquire("api", RateLimitService.KEY_IP, "127.0.0.1");
+        service.acquire("api", RateLimitService.KEY_USER, null);
+        check(redis.calls == calls, "未配置的规则、维度或空标识不应限流");
+
+        properties.setEnabled(false);
+        RateLimitService disabled = new RateLimitServiceImpl(properties, redis, new SimpleMeterRegistry());
+        for (int i = 0; i < 10; i++) {
+            disabled.acquire("api", RateLimitService.KEY_USER, "42");
+        }
+        check(redis.calls == calls, "未启用时不应限流");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * Redis不可用时放行
+     */
+    private static void testFailOpen() {
+        System.out.println("\n=== 测试Redis不可用时放行 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        redis.available = false;
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RateLimitService service = new RateLimitServiceImpl(properties(1, 1), redis, registry);
+
+        for (int i = 0; i < 5; i++) {
+            service.acquire("api", RateLimitService.KEY_USER, "42");
+        }
+        check(registry.get("ratelimit.requests").tag("result", "error").counter().count() == 5,
+                "应记录Redis不可用次数");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static long expectDenied(RateLimitService service, String userId) {
+        try {
+            service.acquire("api", RateLimitService.KEY_USER, userId);
+        } catch (RateLimitExceededException e) {
+            check(e.getCode() == 429, "超限时应返回429");
+            return e.getRetryAfterSeconds();
+        }
+        throw new AssertionError("令牌用完后应拒绝");
+    }
+
+    private static RateLimitProperties properties(int capacity, int refillPerMinute) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setKey(RateLimitService.KEY_USER);
+        limit.setCapacity(capacity);
+        limit.setRefillPerMinute(refillPerMinute);
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setName("api");
+        rule.setLimits(List.of(limit));
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setLeaseTtlMs(60_000);
+        properties.setRules(List.of(rule));
+        return properties;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * 按令牌桶脚本的语义在内存中计数，时间静止因此不补充令牌
+     */
+    private static final class FakeRedisUtil extends RedisUtil {
+
+        private final Map<String, Double> buckets = new HashMap<>();
+        private boolean available = true;
+        private int calls;
+        private int lastCapacity;
+        private int lastRefill;
+
+        private FakeRedisUtil() {
+            super(null);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            calls++;
+            if (!available) {
+                return null;
+            }
+            lastCapacity = (Integer) args[0];
+            lastRefill = (Integer) args[1];
+            double fraction = (Double) args[2];
+            double tokens = buckets.getOrDefault(keys.get(0), (double) lastCapacity);
+            if (tokens >= 1) {
+                long granted = Math.max(1, (long) Math.floor(tokens * fraction));
+                buckets.put(keys.get(0), tokens - granted);
+                return (T) List.of(granted, 0L);
+            }
+            long retryMs = (long) Math.ceil((1 - tokens) / (lastRefill / 60000.0));
+            return (T) List.of(0L, retryMs);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.xiangrecord.service.impl;
+
+import com.xiangrecord.util.RedisUtil;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 记录数量服务的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架；Redis中的计数脚本以内存实现代替
+ */
+public class RecordCountServiceImplTest {
+
+    private static final long USER_ID = 7L;
+
+    public static void main(String[] args) {
+        System.out.println("开始测试记录数量服务...");
+
+        testInitializeAndAdjust();
+        testAdjustDuringCount();
+        testConcurrentAdjustsNeverStored();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 首次访问统计并初始化，之后的增减直接作用于计数器
+     */
+    private static void testInitializeAndAdjust() {
+        System.out.println("\n=== 测试初始化与增减 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        RecordCountServiceImpl service = service(redis);
+        int[] counts = new int[1];
+
+        check(service.getUserTotal(USER_ID, () -> { counts[0]++; return 10; }) == 10, "首次访问应返回统计结果");
+        service.adjustTotal(USER_ID, 2);
+        check(service.getUserTotal(USER_ID, () -> { counts[0]++; return 0; }) == 12, "增减应作用于计数器");
+        check(counts[0] == 1, "计数器存在时不应重新统计");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 统计期间提交的增减未能计入时重新统计，不把旧结果写入计数器
+     */
+    private static void testAdjustDuringCount() {
+        System.out.println("\n=== 测试统计期间的增减 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        RecordCountServiceImpl service = service(redis);
+        long[] rows = {10};
+        int[] counts = new int[1];
+
+        long total = service.getUserTotal(USER_ID, () -> {
+            long counted = rows[0];
+            if (counts[0]++ == 0) {
+                // 统计快照之后另一个请求提交了一条新记录，计数器尚不存在，增量被丢弃
+                rows[0]++;
+                service.adjustTotal(USER_ID, 1);
+            }
+            return counted;
+        });
+        System.out.println("统计次数: " + counts[0] + ", 结果: " + total);
+        check(counts[0] == 2, "丢弃过增减时应重新统计");
+        check(total == 11, "应返回重新统计的结果");
+        check("11".equals(redis.values.get("record_count:user:" + USER_ID)), "计数器应包含统计期间的新记录");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 每次统计期间都有增减时不写入计数器，下次访问再初始化
+     */
+    private static void testConcurrentAdjustsNeverStored() {
+        System.out.println("\n=== 测试持续并发增减 ===");
+
+        FakeRedisUtil redis = new FakeRedisUtil();
+        RecordCountServiceImpl service = service(redis);
+
+        service.getUserTotal(USER_ID, () -> {
+            service.adjustTotal(USER_ID, -1);
+            return 5;
+        });
+        check(!redis.values.containsKey("record_count:user:" + USER_ID), "结果可能有误时不应写入计数器");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static RecordCountServiceImpl service(FakeRedisUtil redis) {
+        return new RecordCountServiceImpl(null, redis, null, null);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * 以内存Map代替Redis，按脚本内容模拟增减脚本与初始化脚本
+     */
+    private static final class FakeRedisUtil extends RedisUtil {
+
+        private final Map<String, String> values = new HashMap<>();
+
+        private FakeRedisUtil() {
+            super(null);
+        }
+
+        @Override
+        public String get(String key) {
+            return values.get(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            String counter = keys.get(0);
+            String dropped = keys.get(1);
+            if (script.getScriptAsString().contains("INCRBY")) {
+                if (values.containsKey(counter)) {
+                    long current = Long.parseLong(values.get(counter)) + ((Number) args[0]).longValue();
+                    values.put(counter, String.valueOf(current));
+                    return (T) Long.valueOf(current);
+                }
+                values.merge(dropped, "1", (a, b) -> String.valueOf(Long.parseLong(a) + 1));
+                return null;
+            }
+            if (values.containsKey(counter)) {
+                return (T) Long.valueOf(1);
+            }
+            long droppedNow = Long.parseLong(values.getOrDefault(dropped, "0"));
+            if (droppedNow != ((Number) args[1]).longValue()) {
+                return (T) Long.valueOf(0);
+            }
+            values.put(counter, String.valueOf(args[0]));
+            return (T) Long.valueOf(1);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.xiangrecord.sms;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xiangrecord.entity.SmsOutbox;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HTTP短信网关的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架；网关由本地替身 SmsGatewayStandIn 提供
+ */
+public class HttpSmsProviderTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("开始测试HTTP短信网关...");
+
+        testBatchAccepted();
+        testThrottled();
+        testGatewayUnavailable();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 一批短信一次调用，逐条返回服务商消息ID
+     */
+    private static void testBatchAccepted() throws Exception {
+        System.out.println("\n=== 测试批量发送 ===");
+
+        SmsGatewayStandIn standIn = standIn(0, 0);
+        try {
+            HttpSmsProvider provider = provider(standIn);
+            List<SmsDelivery> results = provider.send(messages(50));
+            check(results.size() == 50, "应返回每条短信的结果");
+            check(results.stream().allMatch(SmsDelivery::isAccepted), "全部短信应被受理");
+            check(results.stream().map(SmsDelivery::getMessageId).distinct().count() == 50, "消息ID应各不相同");
+            check(standIn.getReceived() == 50, "网关应收到50条短信");
+        } finally {
+            standIn.stop();
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 网关限流的单条短信标记为可重试
+     */
+    private static void testThrottled() throws Exception {
+        System.out.println("\n=== 测试单条限流 ===");
+
+        SmsGatewayStandIn standIn = standIn(1, 0);
+        try {
+            List<SmsDelivery> results = provider(standIn).send(messages(3));
+            check(results.stream().noneMatch(SmsDelivery::isAccepted), "限流的短信不应被受理");
+            check(results.stream().allMatch(SmsDelivery::isRetryable), "限流的短信应可重试");
+        } finally {
+            standIn.stop();
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 网关整体不可用时抛出异常（整批重试）
+     */
+    private static void testGatewayUnavailable() throws Exception {
+        System.out.println("\n=== 测试网关不可用 ===");
+
+        SmsGatewayStandIn standIn = standIn(0, 1);
+        try {
+            provider(standIn).send(messages(3));
+            throw new AssertionError("网关返回503时应抛出异常");
+        } catch (IOException e) {
+            System.out.println("异常: " + e.getMessage());
+            check(e.getMessage().contains("503"), "异常应包含状态码");
+        } finally {
+            standIn.stop();
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static SmsGatewayStandIn standIn(double failureRate, double unavailableRate) throws IOException {
+        SmsGatewayStandIn standIn = new SmsGatewayStandIn(new ObjectMapper(), 0, 1, 1, failureRate, unavailableRate, 2);
+        standIn.start();
+        return standIn;
+    }
+
+    private static HttpSmsProvider provider(SmsGatewayStandIn standIn) {
+        return new HttpSmsProvider(new ObjectMapper(),
+                "http://127.0.0.1:" + standIn.getPort() + SmsGatewayStandIn.PATH, 3000);
+    }
+
+    private static List<SmsOutbox> messages(int count) {
+        List<SmsOutbox> messages = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            messages.add(SmsOutbox.builder()
+                    .id(id)
+                    .phone("1380013" + String.format("%04d", id))
+                    .category(id % 2 == 0 ? "login" : SmsOutbox.CATEGORY_NOTIFICATION)
+                    .content("123456")
+                    .build());
+        }
+        return messages;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
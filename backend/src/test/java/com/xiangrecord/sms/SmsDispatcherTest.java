@@ -0,0 +1,83 @@
+package com.xiangrecord.sms;
+
+import com.xiangrecord.entity.SmsOutbox;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 短信派发器的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架
+ */
+public class SmsDispatcherTest {
+
+    public static void main(String[] args) {
+        System.out.println("开始测试短信派发器...");
+
+        testPlanDedupAndExpiry();
+        testBackoff();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 同一批中去重键相同的只发送最新一条，过期的不发送
+     */
+    private static void testPlanDedupAndExpiry() {
+        System.out.println("\n=== 测试去重与过期 ===");
+
+        LocalDateTime now = LocalDateTime.now();
+        List<SmsOutbox> claimed = List.of(
+                message(1L, "code:login:13800138000", now.plusMinutes(5)),
+                message(2L, "code:login:13800138001", now.plusMinutes(5)),
+                message(3L, "code:login:13800138000", now.plusMinutes(5)),
+                message(4L, "code:register:13800138000", now.minusSeconds(1)),
+                message(5L, "notice:13800138000:1a2b", null));
+
+        SmsDispatcher.Plan plan = SmsDispatcher.plan(claimed, now);
+        List<Long> toSend = plan.toSend.stream().map(SmsOutbox::getId).sorted().toList();
+        System.out.println("发送: " + toSend + ", 取代: " + plan.superseded + ", 过期: " + plan.expired);
+        check(toSend.equals(List.of(2L, 3L, 5L)), "应发送每个去重键最新的一条");
+        check(plan.superseded.equals(List.of(1L)), "同一手机号同一用途的旧验证码应被取代");
+        check(plan.expired.equals(List.of(4L)), "已过期的验证码不应发送");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 退避时间按2的幂增长、带抖动且不超过上限
+     */
+    private static void testBackoff() {
+        System.out.println("\n=== 测试退避时间 ===");
+
+        for (int i = 0; i < 1000; i++) {
+            long first = SmsDispatcher.backoffMillis(1, 1000, 60_000);
+            long third = SmsDispatcher.backoffMillis(3, 1000, 60_000);
+            long capped = SmsDispatcher.backoffMillis(40, 1000, 60_000);
+            check(first >= 500 && first <= 1000, "第1次失败应等待0.5到1秒: " + first);
+            check(third >= 2000 && third <= 4000, "第3次失败应等待2到4秒: " + third);
+            check(capped >= 30_000 && capped <= 60_000, "退避时间不应超过上限: " + capped);
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static SmsOutbox message(Long id, String dedupKey, LocalDateTime expiresAt) {
+        return SmsOutbox.builder()
+                .id(id)
+                .phone("13800138000")
+                .category("login")
+                .content("123456")
+                .dedupKey(dedupKey)
+                .attempts(0)
+                .expiresAt(expiresAt)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
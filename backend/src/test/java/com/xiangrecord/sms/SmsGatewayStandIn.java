@@ -0,0 +1,158 @@
+package com.xiangrecord.sms;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地短信网关替身（压测用）
+ * 在独立端口上实现 HttpSmsProvider 的批量协议，不经过应用的安全过滤器与请求线程池。
+ * 每次调用耗时为 latency-ms 加上均值为 jitter-ms 的指数分布随机值（模拟长尾）；
+ * 按 unavailable-rate 整批返回503，按 failure-rate 单条返回 THROTTLED，其余受理。
+ * 供 HttpSmsProviderTest 使用；压测时运行本类的main方法启动，应用配置 verification.sms.enabled=true
+ * 与指向本端口的 gateway-url，即可在没有真实网关时压测派发吞吐量与延迟。
+ *
+ * 运行方式：mvn test-compile 后以测试类路径执行本类，参数依次为端口、延迟、抖动、失败率、不可用率（均可省略）
+ *
+ * @author xiangrecord
+ * @version 1.0.0
+ */
+@Slf4j
+public class SmsGatewayStandIn {
+
+    public static final String PATH = "/sms/batch";
+
+    private final ObjectMapper objectMapper;
+    private final int port;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double failureRate;
+    private final double unavailableRate;
+    private final int threads;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public SmsGatewayStandIn(ObjectMapper objectMapper, int port, long latencyMs, long jitterMs,
+                             double failureRate, double unavailableRate, int threads) {
+        this.objectMapper = objectMapper;
+        this.port = port;
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.failureRate = failureRate;
+        this.unavailableRate = unavailableRate;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws IOException {
+        SmsGatewayStandIn standIn = new SmsGatewayStandIn(new ObjectMapper(),
+                args.length > 0 ? Integer.parseInt(args[0]) : 18090,
+                args.length > 1 ? Long.parseLong(args[1]) : 50,
+                args.length > 2 ? Long.parseLong(args[2]) : 20,
+                args.length > 3 ? Double.parseDouble(args[3]) : 0.01,
+                args.length > 4 ? Double.parseDouble(args[4]) : 0,
+                16);
+        standIn.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(standIn::stop));
+    }
+
+    public void start() throws IOException {
+        executor = Executors.newFixedThreadPool(Math.max(1, threads), new CustomizableThreadFactory("sms-stand-in-"));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+        log.info("短信网关替身已启动: http://127.0.0.1:{}{}，延迟 {}ms + 指数({}ms)，失败率 {}",
+                getPort(), PATH, latencyMs, jitterMs, failureRate);
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 实际监听的端口（配置为0时由系统分配）
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * 已收到的短信条数
+     */
+    public long getReceived() {
+        return received.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            JsonNode messages;
+            try (InputStream body = exchange.getRequestBody()) {
+                messages = objectMapper.readTree(body).path("messages");
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            sleep(latencyMs + (long) (-jitterMs * Math.log(1 - random.nextDouble())));
+            if (random.nextDouble() < unavailableRate) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            List<Map<String, Object>> results = new ArrayList<>(messages.size());
+            for (JsonNode message : messages) {
+                received.incrementAndGet();
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("id", message.path("id").asText());
+                if (random.nextDouble() < failureRate) {
+                    result.put("status", "THROTTLED");
+                    result.put("error", "模拟限流");
+                } else {
+                    result.put("status", "ACCEPTED");
+                    result.put("messageId", "stand-in-" + messageIds.incrementAndGet());
+                }
+                results.add(result);
+            }
+            byte[] response = objectMapper.writeValueAsBytes(Map.of("results", results));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.xiangrecord.util;
+
+import java.util.UUID;
+
+/**
+ * 布隆过滤器的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架
+ */
+public class BloomFilterTest {
+
+    public static void main(String[] args) {
+        System.out.println("开始测试布隆过滤器...");
+
+        testNoFalseNegatives();
+        testFalsePositiveRate();
+        testInvalidArguments();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 已加入的元素一定命中
+     */
+    private static void testNoFalseNegatives() {
+        System.out.println("\n=== 测试无漏判 ===");
+
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        String[] ids = new String[10_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID().toString();
+            filter.put(ids[i]);
+        }
+        for (String id : ids) {
+            check(filter.mightContain(id), "已加入的元素应命中: " + id);
+        }
+        System.out.println("位数: " + filter.getBitCount() + ", 哈希函数个数: " + filter.getHashCount());
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 达到预期元素数时误判率接近配置值
+     */
+    private static void testFalsePositiveRate() {
+        System.out.println("\n=== 测试误判率 ===");
+
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+        int probes = 100_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        System.out.println("误判率: " + rate);
+        check(rate < 0.02, "误判率应接近0.01");
+
+        BloomFilter empty = new BloomFilter(10_000, 0.01);
+        check(!empty.mightContain("any"), "空过滤器不应命中");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 误判率超出范围时抛出异常
+     */
+    private static void testInvalidArguments() {
+        System.out.println("\n=== 测试参数校验 ===");
+
+        for (double rate : new double[]{0, 1, -0.5}) {
+            try {
+                new BloomFilter(100, rate);
+                throw new AssertionError("误判率 " + rate + " 应抛出异常");
+            } catch (IllegalArgumentException expected) {
+                // 预期异常
+            }
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
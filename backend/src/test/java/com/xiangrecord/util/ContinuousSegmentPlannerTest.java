@@ -0,0 +1,196 @@
+package com.xiangrecord.util;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 连续片段规划器的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架
+ */
+public class ContinuousSegmentPlannerTest {
+
+    private static final ContinuousSegmentPlanner PLANNER = new ContinuousSegmentPlanner();
+
+    public static void main(String[] args) {
+        System.out.println("开始测试连续片段规划器...");
+
+        // 与原连续片段算法相同的场景
+        testFullyContinuous();
+        testPartiallyContinuous();
+        testMissingTimestamps();
+
+        // 规划器新增的输入处理
+        testUnsortedAndDuplicated();
+        testEmptyInput();
+
+        // 与原算法在随机数据上结果一致
+        testMatchesLegacyAlgorithm();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 完全连续：1个片段 [1000-5000]
+     */
+    private static void testFullyContinuous() {
+        System.out.println("\n=== 测试完全连续的数据 ===");
+
+        List<ContinuousSegmentPlanner.TimeRange> ranges = PLANNER.plan(
+                new long[]{1000, 2000, 3000, 4000, 5000},
+                new long[]{1000, 2000, 3000, 4000, 5000});
+        System.out.println("规划结果: " + ranges);
+
+        check(ranges.size() == 1, "应该有1个连续片段");
+        checkRange(ranges.get(0), 1000, 5000, 5);
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 部分连续：[1000-3000], [5000-6000], [8000]
+     */
+    private static void testPartiallyContinuous() {
+        System.out.println("\n=== 测试部分连续的数据 ===");
+
+        List<ContinuousSegmentPlanner.TimeRange> ranges = PLANNER.plan(
+                new long[]{1000, 2000, 3000, 5000, 6000, 8000},
+                new long[]{1000, 2000, 3000, 4000, 5000, 6000, 7000, 8000});
+        System.out.println("规划结果: " + ranges);
+
+        check(ranges.size() == 3, "应该有3个连续片段");
+        checkRange(ranges.get(0), 1000, 3000, 3);
+        checkRange(ranges.get(1), 5000, 6000, 2);
+        checkRange(ranges.get(2), 8000, 8000, 1);
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 请求中包含库中不存在的时间戳：忽略缺失值，且缺失值不打断片段
+     */
+    private static void testMissingTimestamps() {
+        System.out.println("\n=== 测试库中不存在的时间戳 ===");
+
+        List<ContinuousSegmentPlanner.TimeRange> ranges = PLANNER.plan(
+                new long[]{1000, 1500, 2000, 9000},
+                new long[]{1000, 2000, 3000});
+        System.out.println("规划结果: " + ranges);
+
+        check(ranges.size() == 1, "应该有1个连续片段");
+        checkRange(ranges.get(0), 1000, 2000, 2);
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 乱序和重复输入
+     */
+    private static void testUnsortedAndDuplicated() {
+        System.out.println("\n=== 测试乱序和重复输入 ===");
+
+        List<ContinuousSegmentPlanner.TimeRange> ranges = PLANNER.plan(
+                new long[]{6000, 1000, 5000, 2000, 1000, 6000},
+                new long[]{3000, 1000, 6000, 2000, 5000, 4000, 2000});
+        System.out.println("规划结果: " + ranges);
+
+        check(ranges.size() == 2, "应该有2个连续片段");
+        checkRange(ranges.get(0), 1000, 2000, 2);
+        checkRange(ranges.get(1), 5000, 6000, 2);
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 空输入
+     */
+    private static void testEmptyInput() {
+        System.out.println("\n=== 测试空输入 ===");
+
+        check(PLANNER.plan(new long[]{1000, 2000}, new long[0]).isEmpty(), "库中无数据时应该没有片段");
+        check(PLANNER.plan(new long[0], new long[]{1000}).isEmpty(), "请求为空时应该没有片段");
+        check(PLANNER.plan(null, null).isEmpty(), "null输入应该没有片段");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 随机数据上与原算法（ContinuousSegmentTest中的实现）结果一致
+     */
+    private static void testMatchesLegacyAlgorithm() {
+        System.out.println("\n=== 测试与原算法结果一致 ===");
+
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int size = 1 + random.nextInt(200);
+            long[] existing = new long[size];
+            Map<String, String> listRes = new HashMap<>();
+            List<Long> tsList = new ArrayList<>();
+            long ts = 0;
+            for (int i = 0; i < size; i++) {
+                ts += 1 + random.nextInt(5) * 1000L;
+                existing[i] = ts;
+                listRes.put(String.valueOf(ts), "value" + i);
+                if (random.nextInt(3) != 0) {
+                    tsList.add(ts);
+                }
+            }
+            Collections.shuffle(tsList, random);
+            long[] requested = tsList.stream().mapToLong(Long::longValue).toArray();
+
+            List<List<Long>> expected = legacySegments(tsList, listRes);
+            List<ContinuousSegmentPlanner.TimeRange> actual = PLANNER.plan(requested, existing);
+
+            check(expected.size() == actual.size(), "第" + round + "轮片段数不一致");
+            for (int i = 0; i < expected.size(); i++) {
+                List<Long> segment = expected.get(i);
+                checkRange(actual.get(i), segment.get(0), segment.get(segment.size() - 1), segment.size());
+            }
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 原 O(n²) 连续片段算法，仅作为对照
+     */
+    private static List<List<Long>> legacySegments(List<Long> tsList, Map<String, String> listRes) {
+        List<Long> existingTsList = listRes.keySet().stream()
+                .map(Long::valueOf)
+                .sorted()
+                .collect(Collectors.toList());
+        List<Long> validTsList = tsList.stream()
+                .filter(existingTsList::contains)
+                .sorted()
+                .collect(Collectors.toList());
+
+        List<List<Long>> continuousSegments = new ArrayList<>();
+        if (!validTsList.isEmpty()) {
+            List<Long> currentSegment = new ArrayList<>();
+            currentSegment.add(validTsList.get(0));
+            for (int i = 1; i < validTsList.size(); i++) {
+                int currentIndex = existingTsList.indexOf(validTsList.get(i));
+                int previousIndex = existingTsList.indexOf(validTsList.get(i - 1));
+                if (currentIndex == previousIndex + 1) {
+                    currentSegment.add(validTsList.get(i));
+                } else {
+                    continuousSegments.add(new ArrayList<>(currentSegment));
+                    currentSegment.clear();
+                    currentSegment.add(validTsList.get(i));
+                }
+            }
+            continuousSegments.add(currentSegment);
+        }
+        return continuousSegments;
+    }
+
+    private static void checkRange(ContinuousSegmentPlanner.TimeRange range, long start, long end, int count) {
+        check(range.getStart() == start && range.getEnd() == end && range.getCount() == count,
+                "片段不正确，期望 [" + start + "-" + end + "]x" + count + "，实际 " + range);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
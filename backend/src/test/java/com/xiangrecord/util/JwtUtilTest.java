@@ -0,0 +1,100 @@
+package com.xiangrecord.util;
+
+/**
+ * JWT工具类的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架
+ */
+public class JwtUtilTest {
+
+    private static final String SECRET = "xiangrecord-jwt-secret-key-2024-very-long-and-secure-key-for-test";
+
+    public static void main(String[] args) {
+        System.out.println("开始测试JWT工具类...");
+
+        testParseAccessToken();
+        testParseRefreshToken();
+        testUniqueTokenIds();
+        testRejectInvalidTokens();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 访问令牌解析一次得到全部字段
+     */
+    private static void testParseAccessToken() {
+        System.out.println("\n=== 测试解析访问令牌 ===");
+
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 3600L, 604800L);
+        long before = System.currentTimeMillis();
+        ParsedToken parsed = jwtUtil.parse(jwtUtil.generateToken(42L, "alice"));
+
+        check(parsed != null, "有效令牌应解析成功");
+        check(parsed.getUserId() == 42L, "用户ID应为42");
+        check("alice".equals(parsed.getUsername()), "用户名应为alice");
+        check(parsed.isAccessToken() && !parsed.isRefreshToken(), "类型应为access");
+        check(parsed.getId() != null && !parsed.getId().isEmpty(), "应包含jti");
+        long remaining = parsed.remainingMillis(before);
+        System.out.println("剩余有效期(毫秒): " + remaining);
+        check(remaining > 3_590_000L && remaining <= 3_601_000L, "有效期应约为1小时");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 刷新令牌不包含用户名
+     */
+    private static void testParseRefreshToken() {
+        System.out.println("\n=== 测试解析刷新令牌 ===");
+
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 3600L, 604800L);
+        ParsedToken parsed = jwtUtil.parse(jwtUtil.generateRefreshToken(7L));
+
+        check(parsed != null, "有效令牌应解析成功");
+        check(parsed.getUserId() == 7L, "用户ID应为7");
+        check(parsed.getUsername() == null, "刷新令牌不应包含用户名");
+        check(parsed.isRefreshToken(), "类型应为refresh");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 每个令牌的jti不同
+     */
+    private static void testUniqueTokenIds() {
+        System.out.println("\n=== 测试jti唯一 ===");
+
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 3600L, 604800L);
+        String first = jwtUtil.parse(jwtUtil.generateToken(42L, "alice")).getId();
+        String second = jwtUtil.parse(jwtUtil.generateToken(42L, "alice")).getId();
+
+        check(!first.equals(second), "同一用户的两个令牌jti应不同");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 签名错误、过期、格式错误的令牌解析失败
+     */
+    private static void testRejectInvalidTokens() {
+        System.out.println("\n=== 测试无效令牌 ===");
+
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 3600L, 604800L);
+        JwtUtil otherKey = new JwtUtil(SECRET + "-other", 3600L, 604800L);
+        JwtUtil expired = new JwtUtil(SECRET, -60L, 604800L);
+
+        check(jwtUtil.parse(otherKey.generateToken(42L, "alice")) == null, "其他密钥签发的令牌应解析失败");
+        check(jwtUtil.parse(expired.generateToken(42L, "alice")) == null, "过期令牌应解析失败");
+        check(jwtUtil.parse("not-a-token") == null, "格式错误的令牌应解析失败");
+        check(jwtUtil.parse("") == null, "空令牌应解析失败");
+        check(!jwtUtil.validateToken("not-a-token"), "validateToken 应返回false");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
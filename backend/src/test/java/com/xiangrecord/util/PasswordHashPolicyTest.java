@@ -0,0 +1,127 @@
+package com.xiangrecord.util;
+
+/**
+ * 密码哈希策略的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架
+ */
+public class PasswordHashPolicyTest {
+
+    public static void main(String[] args) {
+        System.out.println("开始测试密码哈希策略...");
+
+        testNeedsRehashOnCostChange();
+        testRehashHysteresis();
+        testCrossAlgorithmMatches();
+        testCalibration();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 代价变化超过一档（升高或降低）时需要重新哈希
+     */
+    private static void testNeedsRehashOnCostChange() {
+        System.out.println("\n=== 测试代价变化时重新哈希 ===");
+
+        PasswordHashPolicy strength10 = bcrypt(10);
+        PasswordHashPolicy strength12 = bcrypt(12);
+        String hash10 = strength10.encode("secret123");
+        String hash12 = strength12.encode("secret123");
+
+        check(!strength10.needsRehash(hash10), "代价相同不应重新哈希");
+        check(strength10.needsRehash(hash12), "代价降低超过一档时应重新哈希");
+        check(strength12.needsRehash(hash10), "代价升高超过一档时应重新哈希");
+        check(!strength10.needsRehash("not-a-hash"), "无法识别的哈希不应重新哈希");
+        check(!strength10.needsRehash(null), "空哈希不应重新哈希");
+
+        PasswordHashPolicy argon2 = argon2(2);
+        String argonHash = argon2.encode("secret123");
+        System.out.println("Argon2id 哈希: " + argonHash);
+        check(argonHash.startsWith("$argon2id$"), "应生成 Argon2id 哈希");
+        check(!argon2.needsRehash(argonHash), "参数相同不应重新哈希");
+        check(argon2(4).needsRehash(argonHash), "迭代次数变化超过一档时应重新哈希");
+        check(argon2.needsRehash(hash10), "算法变化时应重新哈希");
+        check(strength10.needsRehash(argonHash), "算法变化时应重新哈希");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 各实例校准结果相差一档时不来回重新哈希，低于下限时总是重新哈希
+     */
+    private static void testRehashHysteresis() {
+        System.out.println("\n=== 测试重新哈希的滞后区间 ===");
+
+        String hash11 = bcrypt(11).encode("secret123");
+        String hash12 = bcrypt(12).encode("secret123");
+        check(!bcrypt(12).needsRehash(hash11), "低一档的哈希不应重新哈希");
+        check(!bcrypt(11).needsRehash(hash12), "高一档的哈希不应重新哈希");
+
+        PasswordHashPolicy floor12 = new PasswordHashPolicy(PasswordHashPolicy.BCRYPT, false, 250, 12, 19456, 2, 1, 12, 2);
+        check(floor12.needsRehash(hash11), "低于强度下限的哈希应重新哈希");
+        check(!floor12.needsRehash(hash12), "不低于下限且代价相同不应重新哈希");
+
+        String argonHash = argon2(2).encode("secret123");
+        check(!argon2(3).needsRehash(argonHash), "迭代次数相差一档不应重新哈希");
+        PasswordHashPolicy argonFloor3 = new PasswordHashPolicy(PasswordHashPolicy.ARGON2ID, false, 250, 12, 19456, 3, 1, 10, 3);
+        check(argonFloor3.needsRehash(argonHash), "低于迭代次数下限的哈希应重新哈希");
+
+        PasswordHashPolicy calibrated = new PasswordHashPolicy(PasswordHashPolicy.BCRYPT, true, 1, 12, 19456, 2, 1, 11, 2);
+        check(calibrated.getCost() == 11, "校准结果不应低于下限");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 任意策略都能校验其他算法与代价的哈希
+     */
+    private static void testCrossAlgorithmMatches() {
+        System.out.println("\n=== 测试跨算法校验 ===");
+
+        PasswordHashPolicy bcrypt = bcrypt(10);
+        PasswordHashPolicy argon2 = argon2(2);
+        String bcryptHash = bcrypt.encode("secret123");
+        String argonHash = argon2.encode("secret123");
+
+        check(argon2.matches("secret123", bcryptHash), "Argon2id 策略应能校验 BCrypt 哈希");
+        check(bcrypt.matches("secret123", argonHash), "BCrypt 策略应能校验 Argon2id 哈希");
+        check(bcrypt(11).matches("secret123", bcryptHash), "不同强度应能校验");
+        check(!bcrypt.matches("wrong", argonHash), "错误密码不应匹配");
+        check(!argon2.matches("wrong", bcryptHash), "错误密码不应匹配");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 校准结果在允许范围内，目标耗时越长代价越高
+     */
+    private static void testCalibration() {
+        System.out.println("\n=== 测试校准 ===");
+
+        PasswordHashPolicy fast = new PasswordHashPolicy(PasswordHashPolicy.BCRYPT, true, 1, 12, 19456, 2, 1, 10, 2);
+        PasswordHashPolicy slow = new PasswordHashPolicy(PasswordHashPolicy.BCRYPT, true, 1000, 12, 19456, 2, 1, 10, 2);
+        System.out.println("目标1ms强度: " + fast.getCost() + ", 目标1000ms强度: " + slow.getCost());
+        check(fast.getCost() == 10, "目标耗时低于最低强度耗时时应使用最低强度");
+        check(slow.getCost() > fast.getCost() && slow.getCost() <= 16, "目标耗时更长应选用更高强度");
+
+        PasswordHashPolicy argon2 = new PasswordHashPolicy(PasswordHashPolicy.ARGON2ID, true, 200, 12, 19456, 2, 1, 10, 2);
+        System.out.println("Argon2id 目标200ms迭代次数: " + argon2.getCost());
+        check(argon2.getCost() >= 1 && argon2.getCost() <= 10, "迭代次数应在 1 到 10 之间");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static PasswordHashPolicy bcrypt(int strength) {
+        return new PasswordHashPolicy(PasswordHashPolicy.BCRYPT, false, 250, strength, 19456, 2, 1, 10, 2);
+    }
+
+    private static PasswordHashPolicy argon2(int iterations) {
+        return new PasswordHashPolicy(PasswordHashPolicy.ARGON2ID, false, 250, 12, 19456, iterations, 1, 10, 2);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.xiangrecord.util;
+
+import com.xiangrecord.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 密码工具类的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架
+ */
+public class PasswordUtilTest {
+
+    public static void main(String[] args) {
+        System.out.println("开始测试密码工具类...");
+
+        testEncodeAndMatches();
+        testRejectWhenQueueFull();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 线程池中加密与校验结果正确
+     */
+    private static void testEncodeAndMatches() {
+        System.out.println("\n=== 测试加密与校验 ===");
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordUtil passwordUtil = new PasswordUtil(bcrypt(), registry, 2, 8);
+        try {
+            String hash = passwordUtil.encodeAsync("secret123").join();
+            check(passwordUtil.matchesAsync("secret123", hash).join(), "正确密码应匹配");
+            check(!passwordUtil.matchesAsync("wrong", hash).join(), "错误密码不应匹配");
+            check(passwordUtil.matches("secret123", hash), "同步校验应匹配");
+            check(!passwordUtil.matchesAsync(null, hash).join(), "空密码不应匹配");
+
+            long encodes = registry.get("password.hash").tag("operation", "encode").timer().count();
+            long matches = registry.get("password.hash").tag("operation", "matches").timer().count();
+            System.out.println("加密次数: " + encodes + ", 校验次数: " + matches);
+            check(encodes == 1 && matches == 3, "应记录哈希耗时");
+        } finally {
+            passwordUtil.shutdown();
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 线程与队列均已占满时立即以503拒绝
+     */
+    private static void testRejectWhenQueueFull() {
+        System.out.println("\n=== 测试队列已满时拒绝 ===");
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordUtil passwordUtil = new PasswordUtil(bcrypt(), registry, 1, 1);
+        try {
+            List<CompletableFuture<String>> accepted = new ArrayList<>();
+            int rejected = 0;
+            for (int i = 0; i < 5; i++) {
+                try {
+                    accepted.add(passwordUtil.encodeAsync("secret" + i));
+                } catch (BusinessException e) {
+                    check(e.getCode() == 503, "拒绝时应返回503");
+                    rejected++;
+                }
+            }
+            System.out.println("接受: " + accepted.size() + ", 拒绝: " + rejected);
+            check(rejected >= 3, "1个线程加1个队列位置时至少应拒绝3个请求");
+            check(registry.get("password.hash.rejected").counter().count() == rejected, "应记录拒绝次数");
+            accepted.forEach(CompletableFuture::join);
+        } finally {
+            passwordUtil.shutdown();
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static PasswordHashPolicy bcrypt() {
+        return new PasswordHashPolicy(PasswordHashPolicy.BCRYPT, false, 250, 10, 19456, 2, 1, 10, 2);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.xiangrecord.util;
+
+import com.xiangrecord.entity.PoopRecord;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * 分片结果归并的单元测试
+ * 使用main方法进行测试，不依赖外部测试框架
+ */
+public class ShardResultMergerTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        System.out.println("开始测试分片结果归并...");
+
+        testMergeOrder();
+        testSkipAndLimit();
+        testDuplicateIds();
+        testEmptyShards();
+        testMatchesSortedUnion();
+
+        System.out.println("所有测试用例执行完成！");
+    }
+
+    /**
+     * 按记录时间倒序归并，时间相同按ID倒序
+     */
+    private static void testMergeOrder() {
+        System.out.println("\n=== 测试归并顺序 ===");
+
+        List<PoopRecord> merged = ShardResultMerger.mergeNewestFirst(List.of(
+                List.of(record(1, 50), record(17, 30), record(33, 10)),
+                List.of(record(2, 40), record(18, 30), record(34, 20))), 0, 10);
+        System.out.println("归并结果: " + ids(merged));
+
+        check(ids(merged).equals(List.of(1L, 2L, 18L, 17L, 34L, 33L)), "应按时间、ID倒序排列");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 跳过前 skip 条后取 limit 条
+     */
+    private static void testSkipAndLimit() {
+        System.out.println("\n=== 测试跳过与数量限制 ===");
+
+        List<List<PoopRecord>> shards = List.of(
+                List.of(record(1, 6), record(3, 4), record(5, 2)),
+                List.of(record(2, 5), record(4, 3), record(6, 1)));
+
+        check(ids(ShardResultMerger.mergeNewestFirst(shards, 2, 2)).equals(List.of(3L, 4L)), "第二页应为3、4");
+        check(ids(ShardResultMerger.mergeNewestFirst(shards, 5, 2)).equals(List.of(6L)), "最后一页只剩1条");
+        check(ShardResultMerger.mergeNewestFirst(shards, 6, 2).isEmpty(), "超出范围应返回空列表");
+        check(ShardResultMerger.mergeNewestFirst(shards, 0, 0).isEmpty(), "数量为0应返回空列表");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 迁移期间同一记录出现在两个分片时只保留一条，且不占用跳过的名额
+     */
+    private static void testDuplicateIds() {
+        System.out.println("\n=== 测试重复记录去重 ===");
+
+        List<List<PoopRecord>> shards = List.of(
+                List.of(record(7, 9), record(5, 5)),
+                List.of(record(7, 9), record(6, 7), record(5, 5)));
+
+        check(ids(ShardResultMerger.mergeNewestFirst(shards, 0, 10)).equals(List.of(7L, 6L, 5L)), "重复记录应只保留一条");
+        check(ids(ShardResultMerger.mergeNewestFirst(shards, 1, 10)).equals(List.of(6L, 5L)), "去重后再跳过");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 空分片与空结果
+     */
+    private static void testEmptyShards() {
+        System.out.println("\n=== 测试空分片 ===");
+
+        List<List<PoopRecord>> shards = new ArrayList<>();
+        shards.add(List.of());
+        shards.add(null);
+        shards.add(List.of(record(1, 1)));
+
+        check(ids(ShardResultMerger.mergeNewestFirst(shards, 0, 5)).equals(List.of(1L)), "应忽略空分片");
+        check(ShardResultMerger.mergeNewestFirst(List.of(), 0, 5).isEmpty(), "没有分片应返回空列表");
+
+        System.out.println("✓ 测试通过");
+    }
+
+    /**
+     * 随机数据上与整体排序后截取的结果一致
+     */
+    private static void testMatchesSortedUnion() {
+        System.out.println("\n=== 测试与整体排序结果一致 ===");
+
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int shardCount = 1 + random.nextInt(5);
+            List<List<PoopRecord>> shards = new ArrayList<>();
+            List<PoopRecord> all = new ArrayList<>();
+            long nextId = 1;
+            for (int shard = 0; shard < shardCount; shard++) {
+                List<PoopRecord> rows = new ArrayList<>();
+                int size = random.nextInt(30);
+                for (int i = 0; i < size; i++) {
+                    rows.add(record(nextId++, random.nextInt(20)));
+                }
+                rows.sort(ShardResultMerger.NEWEST_FIRST);
+                shards.add(rows);
+                all.addAll(rows);
+            }
+            all.sort(ShardResultMerger.NEWEST_FIRST);
+
+            int skip = random.nextInt(40);
+            int limit = 1 + random.nextInt(20);
+            List<PoopRecord> expected = all.subList(Math.min(skip, all.size()), Math.min(skip + limit, all.size()));
+            check(ids(ShardResultMerger.mergeNewestFirst(shards, skip, limit)).equals(ids(expected)),
+                    "第" + round + "轮结果不一致");
+        }
+
+        System.out.println("✓ 测试通过");
+    }
+
+    private static PoopRecord record(long id, int minutes) {
+        PoopRecord record = new PoopRecord();
+        record.setId(id);
+        record.setRecordTime(BASE.plusMinutes(minutes));
+        return record;
+    }
+
+    private static List<Long> ids(List<PoopRecord> records) {
+        return records.stream().map(PoopRecord::getId).collect(Collectors.toList());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}